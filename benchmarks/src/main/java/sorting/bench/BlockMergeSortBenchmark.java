@@ -0,0 +1,115 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and memory of blockMergeSort against the merge sorts that use a
+ * full-length buffer.
+ *
+ * Sorting's ScratchPool is disabled for the trial, so every auxiliary
+ * array is allocated afresh. Run with "-prof gc": gc.alloc.rate.norm, the
+ * bytes allocated per operation, is then the auxiliary memory each sort
+ * needs on top of the input, which for these algorithms is also their
+ * peak, as the buffers are never freed before the sort returns. With
+ * compressed references expect about 4n bytes for mergeSort and about
+ * 8 sqrt(n) for blockMergeSort, while timSort grows its merge buffer on
+ * demand toward half the array. bufferedMergeSort gets its buffer from
+ * the benchmark and allocates nothing; it is the time baseline.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BlockMergeSortBenchmark {
+
+    private static final long SEED = 2424L;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"RANDOM", "FEW_UNIQUE", "NEARLY_SORTED"})
+    private Distribution distribution;
+
+    private Integer[] source;
+    private Integer[] work;
+    private Integer[] buffer;
+    private final Comparator<Integer> comparator = Integer::compare;
+
+    /**
+     * Generates the input once per trial and turns scratch pooling off.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SortingHandles.disableScratchPool();
+        source = distribution.generateBoxed(size, SEED);
+        work = new Integer[size];
+        buffer = new Integer[size];
+    }
+
+    /**
+     * Sorts with Sorting.blockMergeSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] blockMergeSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.blockMergeSort(work, comparator);
+        return work;
+    }
+
+    /**
+     * Sorts with Sorting.mergeSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] mergeSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.mergeSort(work, comparator);
+        return work;
+    }
+
+    /**
+     * Sorts with Sorting.bufferedMergeSort and a preallocated buffer.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] bufferedMergeSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.bufferedMergeSort(work, comparator, buffer);
+        return work;
+    }
+
+    /**
+     * Sorts with Sorting.timSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] timSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.timSort(work, comparator);
+        return work;
+    }
+}
@@ -0,0 +1,136 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the branchless blockQuickSort against the existing int[]
+ * and long[] quick sorts.
+ *
+ * At 24 and 32 elements the ranges never get partitioned, so those sizes
+ * compare the small-range kernels: the sorting networks against insertion
+ * sort. Each invocation sorts the next of a rotating set of inputs, about
+ * 2^20 elements in all, so that the branch predictor cannot learn one
+ * small input by heart and hide the mispredictions this benchmark is
+ * about. long[] inputs are the int[] ones widened.
+ *
+ * The partition's classification step uses the Vector API when the
+ * benchmarks are built with "mvn package -Pvector" and run with
+ * "-jvmArgsAppend --add-modules=jdk.incubator.vector"; otherwise it is
+ * the scalar kernel.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BlockQuicksortBenchmark {
+
+    private static final long SEED = 2525L;
+    private static final int ELEMENTS = 1 << 20;
+
+    @Param({"24", "32", "1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"RANDOM", "FEW_UNIQUE", "ORGAN_PIPE", "NEARLY_SORTED"})
+    private Distribution distribution;
+
+    private int[][] sources;
+    private long[][] longSources;
+    private int[] work;
+    private long[] longWork;
+    private int next;
+
+    /**
+     * Generates the inputs once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int copies = Math.max(1, ELEMENTS / size);
+        sources = new int[copies][];
+        longSources = new long[copies][size];
+        for (int k = 0; k < copies; k++) {
+            sources[k] = distribution.generate(size, SEED + k);
+            for (int i = 0; i < size; i++) {
+                longSources[k][i] = sources[k][i];
+            }
+        }
+        work = new int[size];
+        longWork = new long[size];
+    }
+
+    /**
+     * Returns the index of the next input to sort.
+     *
+     * @return the input index
+     */
+    private int nextSource() {
+        int k = next;
+        next = k + 1 == sources.length ? 0 : k + 1;
+        return k;
+    }
+
+    /**
+     * Sorts an int[] with Sorting.blockQuickSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public int[] blockQuickSortInts() {
+        System.arraycopy(sources[nextSource()], 0, work, 0, size);
+        SortingHandles.blockQuickSort(work);
+        return work;
+    }
+
+    /**
+     * Sorts an int[] with the dual-pivot Sorting.quickSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public int[] dualPivotQuickSortInts() {
+        System.arraycopy(sources[nextSource()], 0, work, 0, size);
+        SortingHandles.dualPivotQuickSort(work);
+        return work;
+    }
+
+    /**
+     * Sorts a long[] with Sorting.blockQuickSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public long[] blockQuickSortLongs() {
+        System.arraycopy(longSources[nextSource()], 0, longWork, 0, size);
+        SortingHandles.blockQuickSort(longWork);
+        return longWork;
+    }
+
+    /**
+     * Sorts a long[] with the median-of-three Sorting.quickSort.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public long[] quickSortLongs() {
+        System.arraycopy(longSources[nextSource()], 0, longWork, 0, size);
+        SortingHandles.quickSort(longWork);
+        return longWork;
+    }
+}
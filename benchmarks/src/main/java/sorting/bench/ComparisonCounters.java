@@ -0,0 +1,45 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH result holding comparisons per element.
+ *
+ * The counting benchmarks run in single-shot mode, one sort per iteration,
+ * so the value reported for an iteration is exactly the number of
+ * comparator calls of that sort divided by its length.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ComparisonCounters {
+
+    /**
+     * Comparator calls divided by the number of elements sorted.
+     */
+    public double comparisonsPerElement;
+
+    /**
+     * Clears the counter before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        comparisonsPerElement = 0;
+    }
+
+    /**
+     * Records one finished sort.
+     *
+     * @param comparator the comparator the sort used
+     * @param length     the number of elements sorted
+     */
+    void record(CountingComparator comparator, int length) {
+        comparisonsPerElement = (double) comparator.getCount() / length;
+    }
+}
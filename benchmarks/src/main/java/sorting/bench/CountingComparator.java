@@ -0,0 +1,36 @@
+package sorting.bench;
+
+import java.util.Comparator;
+
+/**
+ * Integer comparator that counts how often it is called.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class CountingComparator implements Comparator<Integer> {
+
+    private long count;
+
+    @Override
+    public int compare(Integer a, Integer b) {
+        count++;
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * Returns the number of comparisons since the last reset.
+     *
+     * @return the number of comparisons
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Sets the number of comparisons back to zero.
+     */
+    public void reset() {
+        count = 0;
+    }
+}
@@ -0,0 +1,144 @@
+package sorting.bench;
+
+import java.util.Random;
+
+/**
+ * Input shapes the benchmarks sort.
+ *
+ * Every generator is deterministic for a given length and seed, so each
+ * algorithm sees exactly the same data.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public enum Distribution {
+
+    /**
+     * Uniformly random ints.
+     */
+    RANDOM {
+        @Override
+        void fill(int[] data, Random rand) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = rand.nextInt();
+            }
+        }
+    },
+
+    /**
+     * Strictly ascending.
+     */
+    SORTED {
+        @Override
+        void fill(int[] data, Random rand) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = i;
+            }
+        }
+    },
+
+    /**
+     * Strictly descending.
+     */
+    REVERSED {
+        @Override
+        void fill(int[] data, Random rand) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = data.length - i;
+            }
+        }
+    },
+
+    /**
+     * Ascending teeth of about sqrt(n) elements each.
+     */
+    SAWTOOTH {
+        @Override
+        void fill(int[] data, Random rand) {
+            int tooth = Math.max(2, (int) Math.sqrt(data.length));
+            for (int i = 0; i < data.length; i++) {
+                data[i] = i % tooth;
+            }
+        }
+    },
+
+    /**
+     * Random picks from only eight distinct values.
+     */
+    FEW_UNIQUE {
+        @Override
+        void fill(int[] data, Random rand) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = rand.nextInt(8) * 1000;
+            }
+        }
+    },
+
+    /**
+     * Ascending to the middle, then descending.
+     */
+    ORGAN_PIPE {
+        @Override
+        void fill(int[] data, Random rand) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = Math.min(i, data.length - 1 - i);
+            }
+        }
+    },
+
+    /**
+     * Ascending with about 1% of the elements moved to random positions,
+     * like an appended log with a few late arrivals.
+     */
+    NEARLY_SORTED {
+        @Override
+        void fill(int[] data, Random rand) {
+            SORTED.fill(data, rand);
+            int swaps = Math.max(1, data.length / 100);
+            for (int s = 0; s < swaps; s++) {
+                int i = rand.nextInt(data.length);
+                int j = rand.nextInt(data.length);
+                int temp = data[i];
+                data[i] = data[j];
+                data[j] = temp;
+            }
+        }
+    };
+
+    /**
+     * Writes the distribution into data.
+     *
+     * @param data the array to fill
+     * @param rand the source of randomness
+     */
+    abstract void fill(int[] data, Random rand);
+
+    /**
+     * Generates an array of the given length.
+     *
+     * @param length the number of elements
+     * @param seed   the seed for the random parts
+     * @return the generated array
+     */
+    public int[] generate(int length, long seed) {
+        int[] data = new int[length];
+        fill(data, new Random(seed));
+        return data;
+    }
+
+    /**
+     * Generates a boxed array of the given length.
+     *
+     * @param length the number of elements
+     * @param seed   the seed for the random parts
+     * @return the generated array
+     */
+    public Integer[] generateBoxed(int length, long seed) {
+        int[] data = generate(length, seed);
+        Integer[] boxed = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            boxed[i] = data[i];
+        }
+        return boxed;
+    }
+}
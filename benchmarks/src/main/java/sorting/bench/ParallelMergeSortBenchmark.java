@@ -0,0 +1,102 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of Sorting.parallelMergeSort with the number of threads.
+ *
+ * Each trial sorts in its own ForkJoinPool of the given parallelism, so
+ * the speedup of a thread count is its score divided by the score of
+ * mergeSort, the sequential baseline. mergeSort does not use the pool and
+ * scores the same for every thread count; narrow it with "-p threads=1".
+ * Thread counts above the number of processors only measure the overhead
+ * of the extra tasks.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelMergeSortBenchmark {
+
+    private static final long SEED = 4242L;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"2000000"})
+    private int size;
+
+    @Param({"8192"})
+    private int cutoff;
+
+    @Param({"RANDOM"})
+    private Distribution distribution;
+
+    private Integer[] source;
+    private Integer[] work;
+    private ForkJoinPool pool;
+    private final Comparator<Integer> comparator = Integer::compare;
+
+    /**
+     * Generates the input and starts the pool once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = distribution.generateBoxed(size, SEED);
+        work = new Integer[size];
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Shuts the pool down at the end of the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Sorts with Sorting.parallelMergeSort in the trial's pool.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] parallelMergeSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.parallelMergeSort(work, comparator, pool, cutoff);
+        return work;
+    }
+
+    /**
+     * Sorts with Sorting.mergeSort, the sequential baseline.
+     *
+     * @return the sorted array
+     */
+    @Benchmark
+    public Integer[] mergeSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.mergeSort(work, comparator);
+        return work;
+    }
+}
@@ -0,0 +1,107 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the O(n^2) sorts in Sorting.
+ *
+ * Kept apart from SortingBenchmark because insertion and cocktail sort
+ * cannot finish a 10^7 element random input in reasonable time; sizes stop
+ * at 10^4 here. Measurement conventions are the same as SortingBenchmark.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadraticSortingBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param
+    private Distribution distribution;
+
+    private Integer[] boxedSource;
+    private Integer[] boxedWork;
+    private final Comparator<Integer> comparator = Integer::compare;
+    private final CountingComparator counting = new CountingComparator();
+
+    /**
+     * Generates the input once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxedSource = distribution.generateBoxed(size, SEED);
+        boxedWork = new Integer[size];
+    }
+
+    /**
+     * Clears the comparison count before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void resetCounting() {
+        counting.reset();
+    }
+
+    private Integer[] freshBoxed() {
+        System.arraycopy(boxedSource, 0, boxedWork, 0, size);
+        return boxedWork;
+    }
+
+    @Benchmark
+    public Object insertionSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.insertionSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object cocktailSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.cocktailSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object insertionSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.insertionSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object cocktailSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.cocktailSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+}
@@ -0,0 +1,98 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the randomized quick sort, Sorting.quickSort(T[],
+ * Comparator, Random).
+ *
+ * Kept apart from SortingBenchmark because its two-way partition has no
+ * depth limit: on few-unique input every element equal to the pivot lands
+ * on one side, so the recursion goes about n / 8 levels deep and overflows
+ * the stack from 10^5 elements, and 10^7 sawtooth elements take quadratic
+ * time. Sizes stop at 10^4 here, as in QuadraticSortingBenchmark. The
+ * Random is reseeded before every sort, so each invocation picks the same
+ * pivots. Measurement conventions are the same as SortingBenchmark.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizedQuickSortBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param
+    private Distribution distribution;
+
+    private Integer[] boxedSource;
+    private Integer[] boxedWork;
+    private final Random rand = new Random();
+    private final Comparator<Integer> comparator = Integer::compare;
+    private final CountingComparator counting = new CountingComparator();
+
+    /**
+     * Generates the input once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxedSource = distribution.generateBoxed(size, SEED);
+        boxedWork = new Integer[size];
+    }
+
+    /**
+     * Clears the comparison count before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void resetCounting() {
+        counting.reset();
+    }
+
+    private Integer[] freshBoxed() {
+        System.arraycopy(boxedSource, 0, boxedWork, 0, size);
+        return boxedWork;
+    }
+
+    @Benchmark
+    public Object quickSort() {
+        Integer[] arr = freshBoxed();
+        rand.setSeed(SEED);
+        SortingHandles.quickSort(arr, comparator, rand);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object quickSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        rand.setSeed(SEED);
+        SortingHandles.quickSort(arr, counting, rand);
+        counters.record(counting, size);
+        return arr;
+    }
+}
@@ -0,0 +1,91 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getting the k smallest elements in order: partial sort against a full
+ * sort of the same array.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SelectionBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"10", "1000"})
+    private int k;
+
+    private int[] source;
+    private int[] work;
+    private Integer[] boxedSource;
+    private Integer[] boxedWork;
+    private final Comparator<Integer> comparator = Comparator.naturalOrder();
+
+    /**
+     * Generates the input once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new int[size];
+        Distribution.RANDOM.fill(source, new Random(SEED));
+        work = new int[size];
+        boxedSource = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxedSource[i] = source[i];
+        }
+        boxedWork = new Integer[size];
+    }
+
+    @Benchmark
+    public Object partialSortInts() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.partialSort(work, k);
+        return work;
+    }
+
+    @Benchmark
+    public Object quickSortInts() {
+        System.arraycopy(source, 0, work, 0, size);
+        SortingHandles.dualPivotQuickSort(work);
+        return work;
+    }
+
+    @Benchmark
+    public Object partialSort() {
+        System.arraycopy(boxedSource, 0, boxedWork, 0, size);
+        SortingHandles.partialSort(boxedWork, k, comparator);
+        return boxedWork;
+    }
+
+    @Benchmark
+    public Object introSort() {
+        System.arraycopy(boxedSource, 0, boxedWork, 0, size);
+        SortingHandles.introSort(boxedWork, comparator);
+        return boxedWork;
+    }
+}
@@ -0,0 +1,242 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Throughput of the O(n log n) and linear sorts in Sorting.
+ *
+ * Every benchmark first copies the pristine input into a preallocated work
+ * array and then sorts it, so the copy (one System.arraycopy) is part of
+ * each measurement for every algorithm alike. Run with "-prof gc" to get
+ * the allocation rate next to ops/s. The *Comparisons benchmarks run one
+ * sort per iteration and report comparisons per element as a secondary
+ * result.
+ *
+ * The randomized quick sort is measured in RandomizedQuickSortBenchmark
+ * instead, at sizes it can finish on every distribution.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SortingBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    @Param
+    private Distribution distribution;
+
+    private int[] source;
+    private int[] work;
+    private Integer[] boxedSource;
+    private Integer[] boxedWork;
+    private Integer[] buffer;
+    private List<Integer> list;
+    private final Comparator<Integer> comparator = Integer::compare;
+    private final ToIntFunction<Integer> key = Integer::intValue;
+    private final CountingComparator counting = new CountingComparator();
+
+    /**
+     * Generates the input once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = distribution.generate(size, SEED);
+        work = new int[size];
+        boxedSource = distribution.generateBoxed(size, SEED);
+        boxedWork = new Integer[size];
+        buffer = new Integer[size];
+        list = new ArrayList<>(size);
+        for (int num : source) {
+            list.add(num);
+        }
+    }
+
+    /**
+     * Clears the comparison count before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void resetCounting() {
+        counting.reset();
+    }
+
+    private Integer[] freshBoxed() {
+        System.arraycopy(boxedSource, 0, boxedWork, 0, size);
+        return boxedWork;
+    }
+
+    private int[] freshInts() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public Object mergeSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.mergeSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object bufferedMergeSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.bufferedMergeSort(arr, comparator, buffer);
+        return arr;
+    }
+
+    @Benchmark
+    public Object timSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.timSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object introSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.introSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object radixSortBy() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.radixSortBy(arr, key);
+        return arr;
+    }
+
+    @Benchmark
+    public Object heapSort() {
+        return SortingHandles.heapSort(list);
+    }
+
+    @Benchmark
+    public Object arrayHeapSort() {
+        Integer[] arr = freshBoxed();
+        SortingHandles.heapSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object intHeapSort() {
+        int[] arr = freshInts();
+        SortingHandles.heapSort(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public Object lsdRadixSort() {
+        int[] arr = freshInts();
+        SortingHandles.lsdRadixSort(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public Object parallelRadixSort() {
+        int[] arr = freshInts();
+        SortingHandles.parallelRadixSort(arr, ForkJoinPool.commonPool());
+        return arr;
+    }
+
+    @Benchmark
+    public Object parallelMsdRadixSort() {
+        int[] arr = freshInts();
+        SortingHandles.parallelMsdRadixSort(arr, ForkJoinPool.commonPool());
+        return arr;
+    }
+
+    @Benchmark
+    public Object dualPivotQuickSort() {
+        int[] arr = freshInts();
+        SortingHandles.dualPivotQuickSort(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public Object sortInts() {
+        int[] arr = freshInts();
+        SortingHandles.sort(arr);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object mergeSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.mergeSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object bufferedMergeSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.bufferedMergeSort(arr, counting, buffer);
+        counters.record(counting, size);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object timSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.timSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object introSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.introSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public Object arrayHeapSortComparisons(ComparisonCounters counters) {
+        Integer[] arr = freshBoxed();
+        SortingHandles.heapSort(arr, counting);
+        counters.record(counting, size);
+        return arr;
+    }
+}
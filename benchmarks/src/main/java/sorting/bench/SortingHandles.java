@@ -0,0 +1,512 @@
+package sorting.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Typed entry points into Sorting for the benchmark classes.
+ *
+ * Sorting lives in the unnamed package, which named packages cannot import,
+ * while JMH refuses benchmarks in the unnamed package. Each method here is
+ * bound once to a static final MethodHandle; the JIT treats those handles
+ * as constants and inlines straight through them, so the indirection does
+ * not show up in the measurements.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class SortingHandles {
+
+    private static final Class<?> SORTING = sortingClass();
+
+    private static final MethodHandle INSERTION_SORT = find("insertionSort",
+        void.class, Object[].class, Comparator.class);
+    private static final MethodHandle COCKTAIL_SORT = find("cocktailSort",
+        void.class, Object[].class, Comparator.class);
+    private static final MethodHandle MERGE_SORT = find("mergeSort",
+        void.class, Object[].class, Comparator.class);
+    private static final MethodHandle BUFFERED_MERGE_SORT = find(
+        "bufferedMergeSort", void.class, Object[].class, Comparator.class,
+        Object[].class);
+    private static final MethodHandle TIM_SORT = find("timSort", void.class,
+        Object[].class, Comparator.class);
+    private static final MethodHandle BLOCK_MERGE_SORT = find(
+        "blockMergeSort", void.class, Object[].class, Comparator.class);
+    private static final MethodHandle PARALLEL_MERGE_SORT = find(
+        "parallelMergeSort", void.class, Object[].class, Comparator.class,
+        ForkJoinPool.class, int.class);
+    private static final MethodHandle QUICK_SORT = find("quickSort",
+        void.class, Object[].class, Comparator.class, Random.class);
+    private static final MethodHandle INTRO_SORT = find("quickSort",
+        void.class, Object[].class, Comparator.class);
+    private static final MethodHandle LSD_RADIX_SORT = find("lsdRadixSort",
+        void.class, int[].class);
+    private static final MethodHandle DUAL_PIVOT_QUICK_SORT = find(
+        "quickSort", void.class, int[].class);
+    private static final MethodHandle SORT_INTS = find("sort", void.class,
+        int[].class);
+    private static final MethodHandle BLOCK_QUICK_SORT_INTS = find(
+        "blockQuickSort", void.class, int[].class);
+    private static final MethodHandle QUICK_SORT_LONGS = find("quickSort",
+        void.class, long[].class);
+    private static final MethodHandle BLOCK_QUICK_SORT_LONGS = find(
+        "blockQuickSort", void.class, long[].class);
+    private static final MethodHandle HEAP_SORT = find("heapSort",
+        int[].class, List.class);
+    private static final MethodHandle HEAP_SORT_INTS = find("heapSort",
+        void.class, int[].class);
+    private static final MethodHandle PARALLEL_RADIX_SORT = find(
+        "parallelRadixSort", void.class, int[].class, ForkJoinPool.class);
+    private static final MethodHandle PARALLEL_MSD_RADIX_SORT = find(
+        "parallelMsdRadixSort", void.class, int[].class, ForkJoinPool.class);
+    private static final MethodHandle RADIX_SORT_BY = find("radixSortBy",
+        void.class, Object[].class, ToIntFunction.class);
+    private static final MethodHandle STRING_SORT = find("stringSort",
+        void.class, String[].class);
+    private static final MethodHandle HEAP_SORT_ARRAY = find("heapSort",
+        void.class, Object[].class, Comparator.class);
+    private static final MethodHandle PARTIAL_SORT = find("partialSort",
+        void.class, Object[].class, int.class, Comparator.class);
+    private static final MethodHandle PARTIAL_SORT_INTS = find("partialSort",
+        void.class, int[].class, int.class);
+    private static final MethodHandle TO_SORTED_ARRAY = find("toSortedArray",
+        Collector.class, Comparator.class, IntFunction.class);
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private SortingHandles() {
+    }
+
+    /**
+     * Calls Sorting.insertionSort.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void insertionSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            INSERTION_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.cocktailSort.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void cocktailSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            COCKTAIL_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.mergeSort.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void mergeSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            MERGE_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.bufferedMergeSort with a caller buffer.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     * @param buffer     the auxiliary array
+     */
+    static void bufferedMergeSort(Object[] arr, Comparator<?> comparator,
+                                  Object[] buffer) {
+        try {
+            BUFFERED_MERGE_SORT.invokeExact(arr, (Comparator) comparator,
+                buffer);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.blockMergeSort.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void blockMergeSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            BLOCK_MERGE_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.timSort.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void timSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            TIM_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.quickSort with seeded pivots.
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     * @param rand       the pivot source
+     */
+    static void quickSort(Object[] arr, Comparator<?> comparator,
+                          Random rand) {
+        try {
+            QUICK_SORT.invokeExact(arr, (Comparator) comparator, rand);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls the introsort Sorting.quickSort(T[], Comparator).
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void introSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            INTRO_SORT.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.lsdRadixSort(int[]).
+     *
+     * @param arr the array to sort
+     */
+    static void lsdRadixSort(int[] arr) {
+        try {
+            LSD_RADIX_SORT.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls the dual-pivot Sorting.quickSort(int[]).
+     *
+     * @param arr the array to sort
+     */
+    static void dualPivotQuickSort(int[] arr) {
+        try {
+            DUAL_PIVOT_QUICK_SORT.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.blockQuickSort(int[]).
+     *
+     * @param arr the array to sort
+     */
+    static void blockQuickSort(int[] arr) {
+        try {
+            BLOCK_QUICK_SORT_INTS.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.quickSort(long[]).
+     *
+     * @param arr the array to sort
+     */
+    static void quickSort(long[] arr) {
+        try {
+            QUICK_SORT_LONGS.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.blockQuickSort(long[]).
+     *
+     * @param arr the array to sort
+     */
+    static void blockQuickSort(long[] arr) {
+        try {
+            BLOCK_QUICK_SORT_LONGS.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.sort(int[]).
+     *
+     * @param arr the array to sort
+     */
+    static void sort(int[] arr) {
+        try {
+            SORT_INTS.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.heapSort(List).
+     *
+     * @param data the data to sort
+     * @return the sorted array
+     */
+    static int[] heapSort(List<Integer> data) {
+        try {
+            return (int[]) HEAP_SORT.invokeExact((List) data);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.heapSort(int[]).
+     *
+     * @param arr the array to sort
+     */
+    static void heapSort(int[] arr) {
+        try {
+            HEAP_SORT_INTS.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.heapSort(T[], Comparator).
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     */
+    static void heapSort(Object[] arr, Comparator<?> comparator) {
+        try {
+            HEAP_SORT_ARRAY.invokeExact(arr, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.parallelMergeSort(T[], Comparator, ForkJoinPool, int).
+     *
+     * @param arr        the array to sort
+     * @param comparator the comparator
+     * @param pool       the pool to sort in
+     * @param cutoff     ranges at most this long are sorted sequentially
+     */
+    static void parallelMergeSort(Object[] arr, Comparator<?> comparator,
+                                  ForkJoinPool pool, int cutoff) {
+        try {
+            PARALLEL_MERGE_SORT.invokeExact(arr, (Comparator) comparator,
+                pool, cutoff);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.parallelRadixSort(int[], ForkJoinPool).
+     *
+     * @param arr  the array to sort
+     * @param pool the pool to sort in
+     */
+    static void parallelRadixSort(int[] arr, ForkJoinPool pool) {
+        try {
+            PARALLEL_RADIX_SORT.invokeExact(arr, pool);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.parallelMsdRadixSort(int[], ForkJoinPool).
+     *
+     * @param arr  the array to sort
+     * @param pool the pool to sort in
+     */
+    static void parallelMsdRadixSort(int[] arr, ForkJoinPool pool) {
+        try {
+            PARALLEL_MSD_RADIX_SORT.invokeExact(arr, pool);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.radixSortBy(T[], ToIntFunction).
+     *
+     * @param arr the array to sort
+     * @param key the key function
+     */
+    static void radixSortBy(Object[] arr, ToIntFunction<?> key) {
+        try {
+            RADIX_SORT_BY.invokeExact(arr, (ToIntFunction) key);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.stringSort(String[]).
+     *
+     * @param arr the array to sort
+     */
+    static void stringSort(String[] arr) {
+        try {
+            STRING_SORT.invokeExact(arr);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.partialSort(T[], int, Comparator).
+     *
+     * @param arr        the array to partially sort
+     * @param k          the number of elements to sort
+     * @param comparator the comparator
+     */
+    static void partialSort(Object[] arr, int k, Comparator<?> comparator) {
+        try {
+            PARTIAL_SORT.invokeExact(arr, k, (Comparator) comparator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.partialSort(int[], int).
+     *
+     * @param arr the array to partially sort
+     * @param k   the number of values to sort
+     */
+    static void partialSort(int[] arr, int k) {
+        try {
+            PARTIAL_SORT_INTS.invokeExact(arr, k);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Calls Sorting.toSortedArray(Comparator, IntFunction).
+     *
+     * @param <T>        the element type
+     * @param comparator the comparator
+     * @param generator  makes the result array
+     * @return the collector
+     */
+    static <T> Collector<T, ?, T[]> toSortedArray(Comparator<T> comparator,
+                                                 IntFunction<T[]> generator) {
+        try {
+            // Sorting.toSortedArray returns exactly this parameterization;
+            // the handle only erases it.
+            @SuppressWarnings("unchecked")
+            Collector<T, ?, T[]> collector = (Collector<T, ?, T[]>)
+                TO_SORTED_ARRAY.invokeExact((Comparator) comparator,
+                    (IntFunction) generator);
+            return collector;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Installs a disabled ScratchPool in Sorting, so that every auxiliary
+     * array a sort needs is allocated and shows up under "-prof gc".
+     */
+    static void disableScratchPool() {
+        try {
+            Class<?> pool = Class.forName("ScratchPool");
+            Object disabled = MethodHandles.publicLookup().findStatic(pool,
+                "disabled", MethodType.methodType(pool)).invoke();
+            MethodHandles.publicLookup().findStatic(SORTING, "setScratchPool",
+                MethodType.methodType(void.class, pool)).invoke(disabled);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Loads Sorting from the unnamed package.
+     *
+     * @return the Sorting class
+     */
+    private static Class<?> sortingClass() {
+        try {
+            return Class.forName("Sorting");
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Looks up a public static method of Sorting.
+     *
+     * @param name       the method name
+     * @param returnType the return type
+     * @param paramTypes the parameter types
+     * @return the method handle
+     */
+    private static MethodHandle find(String name, Class<?> returnType,
+                                     Class<?>... paramTypes) {
+        try {
+            return MethodHandles.publicLookup().findStatic(SORTING, name,
+                MethodType.methodType(returnType, paramTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Passes unchecked exceptions from a handle through unchanged.
+     *
+     * @param t the exception thrown by the handle
+     * @return never returns normally
+     */
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,73 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting a stream into an array: Stream.sorted().toArray() against the
+ * Sorting.toSortedArray collector, sequential and parallel.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StreamSortingBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private Integer[] source;
+    private final Comparator<Integer> comparator = Comparator.naturalOrder();
+
+    /**
+     * Generates the input once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] data = new int[size];
+        Distribution.RANDOM.fill(data, new Random(SEED));
+        source = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = data[i];
+        }
+    }
+
+    @Benchmark
+    public Object streamSorted() {
+        return (parallel ? Arrays.stream(source).parallel()
+            : Arrays.stream(source)).sorted(comparator)
+            .toArray(Integer[]::new);
+    }
+
+    @Benchmark
+    public Object toSortedArray() {
+        return (parallel ? Arrays.stream(source).parallel()
+            : Arrays.stream(source)).collect(
+            SortingHandles.toSortedArray(comparator, Integer[]::new));
+    }
+}
@@ -0,0 +1,102 @@
+package sorting.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three-way string quick sort against the comparator sorts on keys with
+ * long shared prefixes.
+ *
+ * Keys look like URLs: one of a few hosts and paths followed by a random
+ * suffix, so most of every comparison is spent on the shared prefix. The
+ * prefix length is a parameter; 0 gives plain random strings.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StringSortingBenchmark {
+
+    private static final long SEED = 1332L;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"0", "40"})
+    private int prefixLength;
+
+    private String[] source;
+    private String[] work;
+    private final Comparator<String> comparator = Comparator.naturalOrder();
+
+    /**
+     * Generates the keys once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rand = new Random(SEED);
+        String[] prefixes = new String[4];
+        for (int p = 0; p < prefixes.length; p++) {
+            StringBuilder prefix = new StringBuilder("https://");
+            while (prefix.length() < prefixLength) {
+                prefix.append((char) ('a' + p)).append('/');
+            }
+            prefixes[p] = prefixLength == 0 ? "" : prefix.toString();
+        }
+        source = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder key = new StringBuilder(
+                prefixes[rand.nextInt(prefixes.length)]);
+            for (int k = 0; k < 12; k++) {
+                key.append((char) ('a' + rand.nextInt(26)));
+            }
+            source[i] = key.toString();
+        }
+        work = new String[size];
+    }
+
+    private String[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public Object stringSort() {
+        String[] arr = fresh();
+        SortingHandles.stringSort(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public Object mergeSort() {
+        String[] arr = fresh();
+        SortingHandles.mergeSort(arr, comparator);
+        return arr;
+    }
+
+    @Benchmark
+    public Object introSort() {
+        String[] arr = fresh();
+        SortingHandles.introSort(arr, comparator);
+        return arr;
+    }
+}
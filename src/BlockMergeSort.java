@@ -0,0 +1,295 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Stable merge sort engine behind Sorting.blockMergeSort that needs only
+ * O(sqrt(n)) auxiliary memory.
+ *
+ * Runs of INSERTION_THRESHOLD elements are insertion sorted and then
+ * merged bottom-up, like a merge sort, but every merge goes through one
+ * buffer of b = ceil(sqrt(n)) elements instead of a copy of the input. A
+ * merge where one run fits in the buffer is an ordinary buffered merge.
+ * Otherwise both runs are cut into blocks of b elements, keeping the
+ * uneven rest of the first run at its front and the uneven rest of the
+ * second run at its back, and the merge takes three linear steps:
+ * 1.) the full blocks are put in order of their first elements, blocks of
+ *     the first run going first on ties; the order is a merge of the two
+ *     lists of first elements, and it is applied by following the cycles
+ *     of the permutation, moving each block once through the buffer
+ * 2.) one pass over the blocks keeps a pending stretch of at most b
+ *     elements. A block from the same run as the pending stretch simply
+ *     follows it; a block from the other run is merged with it through
+ *     the buffer, and what is left of either becomes the new pending
+ *     stretch. Because blocks are ordered by their first elements, nothing
+ *     behind the pending stretch ever has to move again
+ * 3.) the uneven rest of the second run, shorter than b, is merged in
+ *     from the back through the buffer
+ * Every step is linear in the length of the merge, so the sort makes
+ * O(n log n) comparisons and moves, while memory beyond the input is the
+ * buffer plus an int per block, about 3 sqrt(n) slots.
+ *
+ * Ties between runs always go to the first run, so the sort is stable.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class BlockMergeSort {
+
+    /**
+     * Runs of this length are insertion sorted before the merges.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private BlockMergeSort() {
+    }
+
+    /**
+     * Returns the buffer length used for an array, ceil(sqrt(n)).
+     *
+     * @param n the length of the array
+     * @return the buffer length
+     */
+    static int bufferLength(int n) {
+        int root = (int) Math.sqrt(n);
+        return root * root < n ? root + 1 : root;
+    }
+
+    /**
+     * Sorts arr stably.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    static <T> void sort(T[] arr, Comparator<T> comparator, SortProbe probe) {
+        int n = arr.length;
+        for (int lo = 0; lo < n; lo += INSERTION_THRESHOLD) {
+            MergeSort.insertionSort(arr, lo,
+                Math.min(lo + INSERTION_THRESHOLD, n), comparator, probe);
+        }
+        if (n <= INSERTION_THRESHOLD) {
+            return;
+        }
+        // copyOf gives the buffer the runtime type of arr without a cast;
+        // it is not borrowed from the pool because its length is the
+        // block length, which a pooled array could exceed
+        T[] buffer = Arrays.copyOf(arr, bufferLength(n));
+        int[] order = new int[n / buffer.length + 1];
+        for (int width = INSERTION_THRESHOLD; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                merge(arr, lo, lo + width, Math.min(lo + 2 * width, n),
+                    buffer, order, comparator, probe);
+            }
+        }
+    }
+
+    /**
+     * Stably merges the sorted runs arr[lo, mid) and arr[mid, hi).
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding both runs
+     * @param lo         the start of the first run, inclusive
+     * @param mid        the start of the second run
+     * @param hi         the end of the second run, exclusive
+     * @param buffer     the buffer, whose length is the block length
+     * @param order      room for the block order, one int per block
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    static <T> void merge(T[] arr, int lo, int mid, int hi, T[] buffer,
+                          int[] order, Comparator<T> comparator,
+                          SortProbe probe) {
+        if (lo >= mid || mid >= hi
+            || comparator.compare(arr[mid - 1], arr[mid]) <= 0) {
+            return;
+        }
+        int b = buffer.length;
+        if (mid - lo <= b) {
+            mergeLow(arr, lo, mid, hi, buffer, comparator, probe);
+            return;
+        }
+        if (hi - mid <= b) {
+            mergeHigh(arr, lo, mid, hi, buffer, comparator, probe);
+            return;
+        }
+        int start = lo + (mid - lo) % b;
+        int aBlocks = (mid - start) / b;
+        int bBlocks = (hi - mid) / b;
+        int end = mid + bBlocks * b;
+        orderBlocks(arr, start, aBlocks, bBlocks, buffer, order, comparator,
+            probe);
+
+        long writes = 0;
+        int pendingStart = lo;
+        boolean pendingFirst = true;
+        for (int pos = 0; pos < aBlocks + bBlocks; pos++) {
+            int id = order[pos] < 0 ? ~order[pos] : order[pos];
+            boolean blockFirst = id < aBlocks;
+            int blockStart = start + pos * b;
+            int blockEnd = blockStart + b;
+            if (pendingStart == blockStart || blockFirst == pendingFirst) {
+                pendingStart = blockStart;
+                pendingFirst = blockFirst;
+                continue;
+            }
+            int length = blockStart - pendingStart;
+            System.arraycopy(arr, pendingStart, buffer, 0, length);
+            writes += length;
+            int i = 0;
+            int j = blockStart;
+            int out = pendingStart;
+            while (i < length && j < blockEnd) {
+                int cmp = comparator.compare(arr[j], buffer[i]);
+                if (cmp < 0 || cmp == 0 && !pendingFirst) {
+                    arr[out++] = arr[j++];
+                } else {
+                    arr[out++] = buffer[i++];
+                }
+            }
+            writes += out - pendingStart;
+            if (i == length) {
+                pendingStart = j;
+                pendingFirst = blockFirst;
+            } else {
+                System.arraycopy(buffer, i, arr, out, length - i);
+                writes += length - i;
+                pendingStart = out;
+            }
+        }
+        SortProbe.writes(probe, writes);
+        if (end < hi) {
+            mergeHigh(arr, lo, end, hi, buffer, comparator, probe);
+        }
+    }
+
+    /**
+     * Puts the full blocks of arr[start, start + (aBlocks + bBlocks) * b)
+     * in order of their first elements. On return order[pos] holds the
+     * original number of the block now at pos, complemented, where blocks
+     * 0 to aBlocks - 1 came from the first run.
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding the blocks
+     * @param start      the start of the first block
+     * @param aBlocks    the number of blocks from the first run
+     * @param bBlocks    the number of blocks from the second run
+     * @param buffer     the buffer, whose length is the block length
+     * @param order      room for the block order
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    private static <T> void orderBlocks(T[] arr, int start, int aBlocks,
+                                        int bBlocks, T[] buffer, int[] order,
+                                        Comparator<T> comparator,
+                                        SortProbe probe) {
+        int b = buffer.length;
+        int a = 0;
+        int c = aBlocks;
+        int pos = 0;
+        while (a < aBlocks && c < aBlocks + bBlocks) {
+            if (comparator.compare(arr[start + c * b], arr[start + a * b]) < 0) {
+                order[pos++] = c++;
+            } else {
+                order[pos++] = a++;
+            }
+        }
+        while (a < aBlocks) {
+            order[pos++] = a++;
+        }
+        while (c < aBlocks + bBlocks) {
+            order[pos++] = c++;
+        }
+        long moved = 0;
+        for (int first = 0; first < pos; first++) {
+            if (order[first] < 0) {
+                continue;
+            }
+            if (order[first] == first) {
+                order[first] = ~first;
+                continue;
+            }
+            System.arraycopy(arr, start + first * b, buffer, 0, b);
+            int to = first;
+            while (order[to] != first) {
+                int from = order[to];
+                System.arraycopy(arr, start + from * b, arr, start + to * b, b);
+                order[to] = ~from;
+                to = from;
+                moved++;
+            }
+            System.arraycopy(buffer, 0, arr, start + to * b, b);
+            order[to] = ~first;
+            // The block in the buffer is written twice.
+            moved += 2;
+        }
+        SortProbe.writes(probe, moved * b);
+    }
+
+    /**
+     * Merges arr[lo, mid) and arr[mid, hi) front to back, with the first
+     * run, at most buffer.length long, copied into the buffer.
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding both runs
+     * @param lo         the start of the first run, inclusive
+     * @param mid        the start of the second run
+     * @param hi         the end of the second run, exclusive
+     * @param buffer     the buffer
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    private static <T> void mergeLow(T[] arr, int lo, int mid, int hi,
+                                     T[] buffer, Comparator<T> comparator,
+                                     SortProbe probe) {
+        int length = mid - lo;
+        System.arraycopy(arr, lo, buffer, 0, length);
+        int i = 0;
+        int j = mid;
+        int out = lo;
+        while (i < length && j < hi) {
+            if (comparator.compare(arr[j], buffer[i]) < 0) {
+                arr[out++] = arr[j++];
+            } else {
+                arr[out++] = buffer[i++];
+            }
+        }
+        System.arraycopy(buffer, i, arr, out, length - i);
+        SortProbe.writes(probe, 2L * length + (j - mid));
+    }
+
+    /**
+     * Merges arr[lo, mid) and arr[mid, hi) back to front, with the second
+     * run, at most buffer.length long, copied into the buffer.
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding both runs
+     * @param lo         the start of the first run, inclusive
+     * @param mid        the start of the second run
+     * @param hi         the end of the second run, exclusive
+     * @param buffer     the buffer
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    private static <T> void mergeHigh(T[] arr, int lo, int mid, int hi,
+                                      T[] buffer, Comparator<T> comparator,
+                                      SortProbe probe) {
+        int length = hi - mid;
+        System.arraycopy(arr, mid, buffer, 0, length);
+        int i = mid - 1;
+        int j = length - 1;
+        int out = hi - 1;
+        while (i >= lo && j >= 0) {
+            if (comparator.compare(buffer[j], arr[i]) < 0) {
+                arr[out--] = arr[i--];
+            } else {
+                arr[out--] = buffer[j--];
+            }
+        }
+        System.arraycopy(buffer, 0, arr, out - j, j + 1);
+        SortProbe.writes(probe, 2L * length + (mid - 1 - i));
+    }
+}
@@ -0,0 +1,147 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for Sorting.blockMergeSort.
+ *
+ * Elements are {key, position} pairs compared by key only, so comparing
+ * against a stable sort of the same pairs also checks that ties keep their
+ * order.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class BlockMergeSortTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final Comparator<int[]> BY_KEY =
+        Comparator.comparingInt(pair -> pair[0]);
+    private Random rand = new Random(2424);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testRandomized() {
+        for (int i = 0; i < 400; ++i) {
+            int length = rand.nextInt(i < 300 ? 600 : 5000);
+            int bound = 1 + rand.nextInt(i % 2 == 0 ? 8 : 100000);
+            int[][] arr = new int[length][];
+            for (int j = 0; j < length; j++) {
+                arr[j] = new int[] {rand.nextInt(bound), j};
+            }
+            assertSorted(arr);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testEveryLengthAroundBlockBoundaries() {
+        for (int length = 0; length < 700; length++) {
+            int[][] arr = new int[length][];
+            for (int j = 0; j < length; j++) {
+                arr[j] = new int[] {rand.nextInt(1 + length / 4), j};
+            }
+            assertSorted(arr);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testPatterns() {
+        int length = 10007;
+        int[][] sorted = new int[length][];
+        int[][] reversed = new int[length][];
+        int[][] sawtooth = new int[length][];
+        int[][] constant = new int[length][];
+        int[][] organPipe = new int[length][];
+        for (int j = 0; j < length; j++) {
+            sorted[j] = new int[] {j, j};
+            reversed[j] = new int[] {length - j, j};
+            sawtooth[j] = new int[] {j % 997, j};
+            constant[j] = new int[] {7, j};
+            organPipe[j] = new int[] {Math.min(j, length - j), j};
+        }
+        assertSorted(sorted);
+        assertSorted(reversed);
+        assertSorted(sawtooth);
+        assertSorted(constant);
+        assertSorted(organPipe);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testLargeRandom() {
+        Integer[] arr = new Integer[200000];
+        for (int j = 0; j < arr.length; j++) {
+            arr[j] = rand.nextInt();
+        }
+        Integer[] expected = arr.clone();
+        Arrays.sort(expected);
+        Sorting.blockMergeSort(arr, Comparator.<Integer>naturalOrder());
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testSortedInputIsLinear() {
+        Integer[] arr = new Integer[4096];
+        for (int j = 0; j < arr.length; j++) {
+            arr[j] = j;
+        }
+        int[] comparisons = new int[1];
+        Sorting.blockMergeSort(arr, (a, b) -> {
+            comparisons[0]++;
+            return a.compareTo(b);
+        });
+        assertTrue("comparisons: " + comparisons[0],
+            comparisons[0] < 2 * arr.length);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testComparisonBound() {
+        Integer[] arr = new Integer[1 << 14];
+        for (int j = 0; j < arr.length; j++) {
+            arr[j] = rand.nextInt();
+        }
+        int[] comparisons = new int[1];
+        Sorting.blockMergeSort(arr, (a, b) -> {
+            comparisons[0]++;
+            return a.compareTo(b);
+        });
+        assertTrue("comparisons: " + comparisons[0],
+            comparisons[0] < 3 * arr.length * 14);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testBufferLength() {
+        assertEquals(0, BlockMergeSort.bufferLength(0));
+        assertEquals(1, BlockMergeSort.bufferLength(1));
+        assertEquals(2, BlockMergeSort.bufferLength(2));
+        assertEquals(100, BlockMergeSort.bufferLength(10000));
+        assertEquals(101, BlockMergeSort.bufferLength(10001));
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNullArray() {
+        Sorting.blockMergeSort(null, Comparator.<Integer>naturalOrder());
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNullComparator() {
+        Sorting.blockMergeSort(new Integer[] {2, 1}, null);
+    }
+
+    /**
+     * Block merge sorts arr and checks it against a stable sort.
+     *
+     * @param arr the {key, position} pairs to sort
+     */
+    private void assertSorted(int[][] arr) {
+        int[][] expected = arr.clone();
+        Arrays.sort(expected, BY_KEY);
+        Sorting.blockMergeSort(arr, BY_KEY);
+        assertArrayEquals(expected, arr);
+    }
+}
@@ -0,0 +1,500 @@
+/**
+ * Branchless quick sort engine for int[] and long[], after Edelkamp and
+ * Weiss, "BlockQuicksort: Avoiding Branch Mispredictions in Quicksort"
+ * (ESA 2016).
+ *
+ * A classic partition loop branches on every comparison with the pivot,
+ * and on random data half of those branches are mispredicted. Here the
+ * partition works on blocks of up to BLOCK elements from each end instead:
+ * 1.) the PartitionKernel writes the offsets of the elements on the wrong
+ *     side of the pivot into an offset buffer per end, without branching
+ *     on the data
+ * 2.) pairs of offsets, one from each buffer, are swapped, which branches
+ *     only on the loop counter
+ * 3.) whichever buffer runs empty is refilled from the next block; near
+ *     the middle the blocks shrink to what is left unclassified
+ * The misplaced elements still listed in one buffer at the end are moved
+ * to the boundary between the two sides.
+ *
+ * The pivot is the median of three, or Tukey's ninther for ranges longer
+ * than NINTHER_THRESHOLD, and waits at the end of the range while the
+ * rest is partitioned. Elements equal to the pivot go right. A partition
+ * whose left side is shorter than an eighth of the range hints at many
+ * copies of the pivot, so the right side is then scanned for them and
+ * they are gathered next to the pivot and left out of the recursion; the
+ * scan gives up once fewer than a quarter of the elements it has seen
+ * were copies. Ranges of at most SortingNetworks.MAX_LENGTH elements are
+ * finished by a sorting network, and a range still being partitioned
+ * after 2 * log2(n) levels is heap sorted, so the worst case is
+ * O(n log n).
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class BlockQuicksort {
+
+    /**
+     * Elements classified per block, and the length of each offset buffer.
+     */
+    static final int BLOCK = 128;
+
+    /**
+     * Ranges longer than this take the pivot from nine samples.
+     */
+    static final int NINTHER_THRESHOLD = 128;
+
+    /**
+     * Elements the scan for copies of the pivot looks at before it starts
+     * to require that a quarter of them are copies.
+     */
+    static final int EQUAL_SCAN_MIN = 16;
+
+    /**
+     * The classification kernel, vectorized when the Vector API is present.
+     */
+    static final PartitionKernel KERNEL = PartitionKernel.load();
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private BlockQuicksort() {
+    }
+
+    /**
+     * Sorts the whole array.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void sort(int[] arr, SortProbe probe) {
+        if (arr.length <= SortingNetworks.MAX_LENGTH) {
+            SortingNetworks.sort(arr, 0, arr.length);
+            SortProbe.writes(probe, 2L * SortingNetworks.size(arr.length));
+            return;
+        }
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        sort(arr, 0, arr.length, depthLimit, new int[BLOCK], new int[BLOCK],
+            probe);
+    }
+
+    /**
+     * Sorts the whole array.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void sort(long[] arr, SortProbe probe) {
+        if (arr.length <= SortingNetworks.MAX_LENGTH) {
+            SortingNetworks.sort(arr, 0, arr.length);
+            SortProbe.writes(probe, 2L * SortingNetworks.size(arr.length));
+            return;
+        }
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        sort(arr, 0, arr.length, depthLimit, new int[BLOCK], new int[BLOCK],
+            probe);
+    }
+
+    /**
+     * Sorts arr[lo, hi), recursing into the smaller side of each partition.
+     *
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param depthLimit the remaining recursion budget
+     * @param left       the offset buffer for the left end
+     * @param right      the offset buffer for the right end
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void sort(int[] arr, int lo, int hi, int depthLimit,
+                             int[] left, int[] right, SortProbe probe) {
+        while (hi - lo > SortingNetworks.MAX_LENGTH) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi, probe);
+                return;
+            }
+            depthLimit--;
+            swap(arr, choosePivot(arr, lo, hi), hi - 1);
+            int p = partition(arr, lo, hi, left, right, probe);
+            int from = p + 1;
+            if (p - lo < (hi - lo) / 8) {
+                from = gatherEqual(arr, from, hi, arr[p]);
+                SortProbe.swaps(probe, from - (p + 1));
+            }
+            if (p - lo < hi - from) {
+                sort(arr, lo, p, depthLimit, left, right, probe);
+                lo = from;
+            } else {
+                sort(arr, from, hi, depthLimit, left, right, probe);
+                hi = p;
+            }
+        }
+        SortingNetworks.sort(arr, lo, hi);
+        SortProbe.writes(probe, 2L * SortingNetworks.size(hi - lo));
+    }
+
+    /**
+     * Picks the index of the pivot for arr[lo, hi).
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the index of the pivot
+     */
+    private static int choosePivot(int[] arr, int lo, int hi) {
+        int last = hi - 1;
+        int mid = (lo + last) >>> 1;
+        if (hi - lo <= NINTHER_THRESHOLD) {
+            return medianOfThree(arr, lo, mid, last);
+        }
+        int eighth = (hi - lo) / 8;
+        return medianOfThree(arr,
+            medianOfThree(arr, lo, lo + eighth, lo + 2 * eighth),
+            medianOfThree(arr, mid - eighth, mid, mid + eighth),
+            medianOfThree(arr, last - 2 * eighth, last - eighth, last));
+    }
+
+    /**
+     * Partitions arr[lo, hi - 1) around the pivot at arr[hi - 1] into the
+     * elements less than it and the rest, using the offset buffers, and
+     * moves the pivot between the two.
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param left  the offset buffer for the left end
+     * @param right the offset buffer for the right end
+     * @param probe the probe that counts swaps, or null
+     * @return the final index of the pivot
+     */
+    private static int partition(int[] arr, int lo, int hi, int[] left,
+                                 int[] right, SortProbe probe) {
+        PartitionKernel kernel = KERNEL;
+        int pivot = arr[hi - 1];
+        // [lo, l) < pivot apart from the pending offsets in left, which
+        // count from baseL; [r, hi - 1) >= pivot apart from the pending
+        // offsets in right, which count down from baseR; [l, r) unseen.
+        int l = lo;
+        int r = hi - 1;
+        int baseL = l;
+        int baseR = r;
+        int numL = 0;
+        int numR = 0;
+        int startL = 0;
+        int startR = 0;
+        // One swap put the pivot at hi - 1 and another takes it back.
+        long swaps = 2;
+        while (l < r) {
+            int unseen = r - l;
+            int countL = 0;
+            int countR = 0;
+            if (numL == 0 && numR == 0) {
+                countL = Math.min(BLOCK, unseen / 2);
+                countR = Math.min(BLOCK, unseen - countL);
+            } else if (numL == 0) {
+                countL = Math.min(BLOCK, unseen);
+            } else {
+                countR = Math.min(BLOCK, unseen);
+            }
+            if (countL > 0) {
+                numL = kernel.collectLeft(arr, l, countL, pivot, left);
+                startL = 0;
+                baseL = l;
+                l += countL;
+            }
+            if (countR > 0) {
+                numR = kernel.collectRight(arr, r, countR, pivot, right);
+                startR = 0;
+                baseR = r;
+                r -= countR;
+            }
+            int pairs = Math.min(numL, numR);
+            for (int i = 0; i < pairs; i++) {
+                swap(arr, baseL + left[startL + i],
+                    baseR - right[startR + i]);
+            }
+            swaps += pairs;
+            numL -= pairs;
+            numR -= pairs;
+            startL += pairs;
+            startR += pairs;
+        }
+        // At most one buffer still lists misplaced elements. They are
+        // moved to the boundary nearest-first, so none of them is swapped
+        // onto a slot that another one still has to leave.
+        int split = l;
+        for (int i = startL + numL - 1; i >= startL; i--) {
+            swap(arr, baseL + left[i], --split);
+        }
+        for (int i = startR + numR - 1; i >= startR; i--) {
+            swap(arr, baseR - right[i], split++);
+        }
+        swap(arr, split, hi - 1);
+        SortProbe.swaps(probe, swaps + numL + numR);
+        return split;
+    }
+
+    /**
+     * Moves the elements of arr[from, hi) that equal the pivot to the front
+     * of that range. None of its elements may be less than the pivot. The
+     * scan stops early once more than EQUAL_SCAN_MIN elements have been
+     * looked at and fewer than a quarter of them were equal.
+     *
+     * @param arr   the array holding the range
+     * @param from  the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param pivot the pivot
+     * @return the end of the elements gathered, exclusive
+     */
+    private static int gatherEqual(int[] arr, int from, int hi, int pivot) {
+        int equal = from;
+        for (int i = from; i < hi
+            && i - from < 4 * (equal - from) + EQUAL_SCAN_MIN; i++) {
+            if (arr[i] == pivot) {
+                swap(arr, i, equal++);
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * Sorts arr[lo, hi), recursing into the smaller side of each partition.
+     *
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param depthLimit the remaining recursion budget
+     * @param left       the offset buffer for the left end
+     * @param right      the offset buffer for the right end
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void sort(long[] arr, int lo, int hi, int depthLimit,
+                             int[] left, int[] right, SortProbe probe) {
+        while (hi - lo > SortingNetworks.MAX_LENGTH) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi, probe);
+                return;
+            }
+            depthLimit--;
+            swap(arr, choosePivot(arr, lo, hi), hi - 1);
+            int p = partition(arr, lo, hi, left, right, probe);
+            int from = p + 1;
+            if (p - lo < (hi - lo) / 8) {
+                from = gatherEqual(arr, from, hi, arr[p]);
+                SortProbe.swaps(probe, from - (p + 1));
+            }
+            if (p - lo < hi - from) {
+                sort(arr, lo, p, depthLimit, left, right, probe);
+                lo = from;
+            } else {
+                sort(arr, from, hi, depthLimit, left, right, probe);
+                hi = p;
+            }
+        }
+        SortingNetworks.sort(arr, lo, hi);
+        SortProbe.writes(probe, 2L * SortingNetworks.size(hi - lo));
+    }
+
+    /**
+     * Picks the index of the pivot for arr[lo, hi).
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the index of the pivot
+     */
+    private static int choosePivot(long[] arr, int lo, int hi) {
+        int last = hi - 1;
+        int mid = (lo + last) >>> 1;
+        if (hi - lo <= NINTHER_THRESHOLD) {
+            return medianOfThree(arr, lo, mid, last);
+        }
+        int eighth = (hi - lo) / 8;
+        return medianOfThree(arr,
+            medianOfThree(arr, lo, lo + eighth, lo + 2 * eighth),
+            medianOfThree(arr, mid - eighth, mid, mid + eighth),
+            medianOfThree(arr, last - 2 * eighth, last - eighth, last));
+    }
+
+    /**
+     * Partitions arr[lo, hi - 1) around the pivot at arr[hi - 1] into the
+     * elements less than it and the rest, using the offset buffers, and
+     * moves the pivot between the two.
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param left  the offset buffer for the left end
+     * @param right the offset buffer for the right end
+     * @param probe the probe that counts swaps, or null
+     * @return the final index of the pivot
+     */
+    private static int partition(long[] arr, int lo, int hi, int[] left,
+                                 int[] right, SortProbe probe) {
+        PartitionKernel kernel = KERNEL;
+        long pivot = arr[hi - 1];
+        // [lo, l) < pivot apart from the pending offsets in left, which
+        // count from baseL; [r, hi - 1) >= pivot apart from the pending
+        // offsets in right, which count down from baseR; [l, r) unseen.
+        int l = lo;
+        int r = hi - 1;
+        int baseL = l;
+        int baseR = r;
+        int numL = 0;
+        int numR = 0;
+        int startL = 0;
+        int startR = 0;
+        // One swap put the pivot at hi - 1 and another takes it back.
+        long swaps = 2;
+        while (l < r) {
+            int unseen = r - l;
+            int countL = 0;
+            int countR = 0;
+            if (numL == 0 && numR == 0) {
+                countL = Math.min(BLOCK, unseen / 2);
+                countR = Math.min(BLOCK, unseen - countL);
+            } else if (numL == 0) {
+                countL = Math.min(BLOCK, unseen);
+            } else {
+                countR = Math.min(BLOCK, unseen);
+            }
+            if (countL > 0) {
+                numL = kernel.collectLeft(arr, l, countL, pivot, left);
+                startL = 0;
+                baseL = l;
+                l += countL;
+            }
+            if (countR > 0) {
+                numR = kernel.collectRight(arr, r, countR, pivot, right);
+                startR = 0;
+                baseR = r;
+                r -= countR;
+            }
+            int pairs = Math.min(numL, numR);
+            for (int i = 0; i < pairs; i++) {
+                swap(arr, baseL + left[startL + i],
+                    baseR - right[startR + i]);
+            }
+            swaps += pairs;
+            numL -= pairs;
+            numR -= pairs;
+            startL += pairs;
+            startR += pairs;
+        }
+        // At most one buffer still lists misplaced elements. They are
+        // moved to the boundary nearest-first, so none of them is swapped
+        // onto a slot that another one still has to leave.
+        int split = l;
+        for (int i = startL + numL - 1; i >= startL; i--) {
+            swap(arr, baseL + left[i], --split);
+        }
+        for (int i = startR + numR - 1; i >= startR; i--) {
+            swap(arr, baseR - right[i], split++);
+        }
+        swap(arr, split, hi - 1);
+        SortProbe.swaps(probe, swaps + numL + numR);
+        return split;
+    }
+
+    /**
+     * Moves the elements of arr[from, hi) that equal the pivot to the front
+     * of that range. None of its elements may be less than the pivot. The
+     * scan stops early once more than EQUAL_SCAN_MIN elements have been
+     * looked at and fewer than a quarter of them were equal.
+     *
+     * @param arr   the array holding the range
+     * @param from  the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param pivot the pivot
+     * @return the end of the elements gathered, exclusive
+     */
+    private static int gatherEqual(long[] arr, int from, int hi, long pivot) {
+        int equal = from;
+        for (int i = from; i < hi
+            && i - from < 4 * (equal - from) + EQUAL_SCAN_MIN; i++) {
+            if (arr[i] == pivot) {
+                swap(arr, i, equal++);
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * Returns whichever of the indices a, b and c holds the median value.
+     *
+     * @param arr the array
+     * @param a   the first index
+     * @param b   the second index
+     * @param c   the third index
+     * @return the index of the median
+     */
+    private static int medianOfThree(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) {
+                return b;
+            }
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) {
+            return a;
+        }
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    /**
+     * Returns whichever of the indices a, b and c holds the median value.
+     *
+     * @param arr the array
+     * @param a   the first index
+     * @param b   the second index
+     * @param c   the third index
+     * @return the index of the median
+     */
+    private static int medianOfThree(long[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) {
+                return b;
+            }
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) {
+            return a;
+        }
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
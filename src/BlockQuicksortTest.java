@@ -0,0 +1,224 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for Sorting.blockQuickSort and its kernels, the sorting networks
+ * and the partition classification.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class BlockQuicksortTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(2525);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntRandomized() {
+        for (int i = 0; i < 500; ++i) {
+            int[] data = new int[rand.nextInt(i < 400 ? 600 : 20000)];
+            int bound = i % 3 == 0 ? 1 + rand.nextInt(10) : Integer.MAX_VALUE;
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = bound == Integer.MAX_VALUE ? rand.nextInt()
+                    : rand.nextInt(bound) - bound / 2;
+            }
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            Sorting.blockQuickSort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testLongRandomized() {
+        for (int i = 0; i < 500; ++i) {
+            long[] data = new long[rand.nextInt(i < 400 ? 600 : 20000)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = i % 3 == 0 ? rand.nextInt(10) - 5 : rand.nextLong();
+            }
+            long[] expected = data.clone();
+            Arrays.sort(expected);
+            Sorting.blockQuickSort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testPatterns() {
+        int n = 100003;
+        int[][] inputs = new int[6][n];
+        for (int j = 0; j < n; j++) {
+            inputs[0][j] = j;
+            inputs[1][j] = n - j;
+            inputs[2][j] = j % 1000;
+            inputs[3][j] = 42;
+            inputs[4][j] = Math.min(j, n - j);
+            inputs[5][j] = j % 2 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+        for (int[] data : inputs) {
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            Sorting.blockQuickSort(data);
+            assertArrayEquals(expected, data);
+
+            long[] longs = Arrays.stream(expected).asLongStream().toArray();
+            long[] reversed = new long[n];
+            for (int j = 0; j < n; j++) {
+                reversed[j] = longs[n - 1 - j];
+            }
+            Sorting.blockQuickSort(reversed);
+            assertArrayEquals(longs, reversed);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testManyEqualKeysStayLinear() {
+        int[] data = new int[1 << 20];
+        for (int j = 0; j < data.length; j++) {
+            data[j] = rand.nextInt(4);
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        try {
+            Sorting.blockQuickSort(data);
+        } finally {
+            Sorting.setMetrics(null);
+        }
+        for (int j = 1; j < data.length; j++) {
+            assertTrue(data[j - 1] <= data[j]);
+        }
+        assertEquals(0, metrics.getDepthLimitHits());
+        assertTrue("depth: " + metrics.getMaxRecursionDepth(),
+            metrics.getMaxRecursionDepth() < 12);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testNetworksSortEveryZeroOneInput() {
+        // A network sorts everything if it sorts every input of 0s and 1s.
+        for (int n = 0; n <= 16; n++) {
+            for (int bits = 0; bits < 1 << n; bits++) {
+                int[] data = new int[n + 2];
+                for (int j = 0; j < n; j++) {
+                    data[j + 1] = bits >>> j & 1;
+                }
+                data[n + 1] = -1;
+                SortingNetworks.sort(data, 1, n + 1);
+                for (int j = 2; j <= n; j++) {
+                    assertTrue(data[j - 1] <= data[j]);
+                }
+                assertEquals(0, data[0]);
+                assertEquals(-1, data[n + 1]);
+                assertEquals(Integer.bitCount(bits),
+                    Arrays.stream(data, 1, n + 1).sum());
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testNetworksRandomized() {
+        for (int n = 0; n <= SortingNetworks.MAX_LENGTH; n++) {
+            for (int i = 0; i < 2000; ++i) {
+                int[] data = new int[n];
+                long[] longs = new long[n];
+                for (int j = 0; j < n; j++) {
+                    data[j] = rand.nextInt(i % 2 == 0 ? 4 : Integer.MAX_VALUE);
+                    longs[j] = rand.nextLong();
+                }
+                int[] expected = data.clone();
+                Arrays.sort(expected);
+                SortingNetworks.sort(data, 0, n);
+                assertArrayEquals(expected, data);
+                long[] expectedLongs = longs.clone();
+                Arrays.sort(expectedLongs);
+                SortingNetworks.sort(longs, 0, n);
+                assertArrayEquals(expectedLongs, longs);
+            }
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testNetworkSizes() {
+        assertEquals(0, SortingNetworks.size(1));
+        assertEquals(1, SortingNetworks.size(2));
+        assertEquals(19, SortingNetworks.size(8));
+        assertEquals(63, SortingNetworks.size(16));
+        assertEquals(191, SortingNetworks.size(32));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testKernelOffsets() {
+        PartitionKernel[] kernels = {new PartitionKernel(),
+            BlockQuicksort.KERNEL};
+        for (PartitionKernel kernel : kernels) {
+            for (int i = 0; i < 50; ++i) {
+                int count = 1 + rand.nextInt(BlockQuicksort.BLOCK);
+                int[] data = new int[count + 10];
+                long[] longs = new long[count + 10];
+                for (int j = 0; j < data.length; j++) {
+                    data[j] = rand.nextInt(20);
+                    longs[j] = data[j];
+                }
+                int pivot = 10;
+                int[] left = expectedLeft(data, 5, count, pivot);
+                int[] right = expectedRight(data, 5 + count, count, pivot);
+                int[] offsets = new int[BlockQuicksort.BLOCK];
+                int num = kernel.collectLeft(data, 5, count, pivot, offsets);
+                assertArrayEquals(left, Arrays.copyOf(offsets, num));
+                num = kernel.collectLeft(longs, 5, count, pivot, offsets);
+                assertArrayEquals(left, Arrays.copyOf(offsets, num));
+                num = kernel.collectRight(data, 5 + count, count, pivot, offsets);
+                assertArrayEquals(right, Arrays.copyOf(offsets, num));
+                num = kernel.collectRight(longs, 5 + count, count, pivot,
+                    offsets);
+                assertArrayEquals(right, Arrays.copyOf(offsets, num));
+            }
+        }
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNullIntArray() {
+        Sorting.blockQuickSort((int[]) null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNullLongArray() {
+        Sorting.blockQuickSort((long[]) null);
+    }
+
+    /**
+     * Returns the offsets i in [0, count) with data[from + i] &gt;= pivot.
+     *
+     * @param data  the array
+     * @param from  the first index of the block
+     * @param count the length of the block
+     * @param pivot the pivot
+     * @return the offsets, ascending
+     */
+    private static int[] expectedLeft(int[] data, int from, int count,
+                                      int pivot) {
+        return java.util.stream.IntStream.range(0, count)
+            .filter(i -> data[from + i] >= pivot).toArray();
+    }
+
+    /**
+     * Returns the offsets i in [1, count] with data[to - i] &lt; pivot.
+     *
+     * @param data  the array
+     * @param to    the index just past the block
+     * @param count the length of the block
+     * @param pivot the pivot
+     * @return the offsets, ascending
+     */
+    private static int[] expectedRight(int[] data, int to, int count,
+                                       int pivot) {
+        return java.util.stream.IntStream.rangeClosed(1, count)
+            .filter(i -> data[to - i] < pivot).toArray();
+    }
+}
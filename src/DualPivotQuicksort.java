@@ -0,0 +1,236 @@
+/**
+ * Dual-pivot quick sort engine for int[], after Vladimir Yaroslavskiy's
+ * algorithm.
+ *
+ * Two pivots p &lt;= q are the second and fourth of five samples spread
+ * over the range, and one left-to-right scan splits the range into three
+ * parts: less than p, between p and q, and greater than q. Elements
+ * greater than q are exchanged with the right end of the unscanned part,
+ * so every element is moved at most twice. When the middle part takes
+ * most of the range it probably holds many copies of the pivots, which
+ * are swept to its ends before it is sorted. When the two pivots are equal
+ * the range is split three ways around that single value instead, which
+ * handles runs of equal keys.
+ *
+ * Small ranges are insertion sorted, and a range that is still being
+ * partitioned after 2 * log2(n) levels is heap sorted, so the worst case is
+ * O(n log n).
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class DualPivotQuicksort {
+
+    /**
+     * Ranges shorter than this are insertion sorted.
+     */
+    static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private DualPivotQuicksort() {
+    }
+
+    /**
+     * Sorts the whole array.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void sort(int[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        sort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Sorts arr[left..right], both ends inclusive.
+     *
+     * @param arr        the array holding the range
+     * @param left       the first index of the range
+     * @param right      the last index of the range
+     * @param depthLimit the number of partitioning levels left before the
+     *                   range is heap sorted
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    static void sort(int[] arr, int left, int right, int depthLimit,
+                     SortProbe probe) {
+        int length = right - left + 1;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            insertionSort(arr, left, right, probe);
+            return;
+        }
+        SortProbe.remaining(probe, depthLimit);
+        if (depthLimit == 0) {
+            SortProbe.depthLimitHit(probe);
+            HeapSort.sort(arr, left, right + 1, probe);
+            return;
+        }
+        depthLimit--;
+        long swaps = 0;
+
+        // Samples at 1/6, 2/6, ..., 5/6 of the range, insertion sorted
+        // among their own positions.
+        int step = length / 6;
+        for (int k = 2; k <= 5; k++) {
+            for (int j = left + k * step; j > left + step
+                && arr[j] < arr[j - step]; j -= step) {
+                swap(arr, j, j - step);
+                swaps++;
+            }
+        }
+        int second = left + 2 * step;
+        int fourth = left + 4 * step;
+        int p = arr[second];
+        int q = arr[fourth];
+
+        if (p == q) {
+            // Three parts around the single value p: [left, lt) < p,
+            // [lt, gt] == p, (gt, right] > p.
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                int value = arr[i];
+                if (value < p) {
+                    arr[i++] = arr[lt];
+                    arr[lt++] = value;
+                    swaps++;
+                } else if (value > p) {
+                    // Skip what already belongs on the right, so each
+                    // exchange moves an element that is not.
+                    while (arr[gt] > p && gt > i) {
+                        gt--;
+                    }
+                    arr[i] = arr[gt];
+                    arr[gt--] = value;
+                    swaps++;
+                } else {
+                    i++;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            sort(arr, left, lt - 1, depthLimit, probe);
+            sort(arr, gt + 1, right, depthLimit, probe);
+            return;
+        }
+
+        // The pivots wait at the two ends while the rest is scanned:
+        // [left + 1, lt) < p, [lt, i) in [p, q], [i, gt] unscanned and
+        // (gt, right - 1] > q.
+        swap(arr, left, second);
+        swap(arr, right, fourth);
+        swaps += 2;
+        // A value greater than q that meets one less than p at gt takes
+        // three writes rather than a swap's two.
+        long rotations = 0;
+        int lt = left + 1;
+        int gt = right - 1;
+        // Elements already on the correct side stay where they are. The
+        // pivots at the ends stop both scans.
+        while (arr[lt] < p) {
+            lt++;
+        }
+        while (arr[gt] > q) {
+            gt--;
+        }
+        for (int i = lt; i <= gt; i++) {
+            int value = arr[i];
+            if (value < p) {
+                arr[i] = arr[lt];
+                arr[lt++] = value;
+                swaps++;
+            } else if (value > q) {
+                while (arr[gt] > q) {
+                    if (gt-- == i) {
+                        break;
+                    }
+                }
+                if (gt < i) {
+                    // Everything from i on is greater than q.
+                    break;
+                }
+                // arr[gt] goes to the left part or stays in the middle.
+                int other = arr[gt];
+                if (other < p) {
+                    arr[i] = arr[lt];
+                    arr[lt++] = other;
+                    rotations++;
+                } else {
+                    arr[i] = other;
+                }
+                arr[gt--] = value;
+                swaps++;
+            }
+        }
+        swap(arr, left, --lt);
+        swap(arr, right, ++gt);
+        swaps += 2;
+
+        sort(arr, left, lt - 1, depthLimit, probe);
+        sort(arr, gt + 1, right, depthLimit, probe);
+
+        // The middle part is (lt, gt). If it holds more than two thirds of
+        // the range, gather the copies of p and q at its ends first.
+        int from = lt + 1;
+        int to = gt - 1;
+        if (3 * (to - from + 1) > 2 * length) {
+            int i2 = from;
+            while (i2 <= to) {
+                int value = arr[i2];
+                if (value == p) {
+                    swap(arr, from++, i2++);
+                    swaps++;
+                } else if (value == q) {
+                    swap(arr, i2, to--);
+                    swaps++;
+                } else {
+                    i2++;
+                }
+            }
+        }
+        SortProbe.swaps(probe, swaps);
+        SortProbe.writes(probe, rotations);
+        sort(arr, from, to, depthLimit, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Insertion sorts arr[left..right], both ends inclusive.
+     *
+     * @param arr   the array holding the range
+     * @param left  the first index of the range
+     * @param right the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(int[] arr, int left, int right,
+                              SortProbe probe) {
+        long writes = 0;
+        for (int i = left + 1; i <= right; i++) {
+            int value = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+}
@@ -0,0 +1,396 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * External merge sort for files of fixed-width int or long records that do
+ * not fit in memory.
+ *
+ * A file is a plain sequence of big-endian records, the layout written by
+ * java.io.DataOutputStream. Sorting runs in two phases:
+ *
+ * 1.) Run generation: the input is memory-mapped one chunk at a time, the
+ *     chunk is copied into a primitive array, radix sorted, and spilled to a
+ *     temporary run file.
+ * 2.) Merging: up to fan-in runs are merged at once through a
+ *     LongLoserTree, so picking each output record costs one comparison
+ *     per tree level.
+ *     While more runs remain than the fan-in allows, groups are merged into
+ *     longer intermediate runs first.
+ *
+ * Runs are read and written through direct buffers, so records move
+ * between the file system and the merge without passing through a heap
+ * byte[]. Memory use is about two chunks of keys during run generation and
+ * fan-in + 1 I/O buffers during merging. Temporary files are deleted when
+ * the sort finishes, whether or not it succeeds.
+ *
+ * An instance holds only its configuration, so it can be reused and shared
+ * between threads.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class ExternalSort {
+
+    /**
+     * Size in bytes of each direct buffer used to read or write a run.
+     */
+    static final int BUFFER_BYTES = 1 << 16;
+
+    private final int chunkSize;
+    private final int fanIn;
+    private final Path tempDir;
+
+    /**
+     * Creates an external sort.
+     *
+     * @param chunkSize the number of records sorted in memory at once
+     * @param fanIn     the maximum number of runs merged at once
+     * @param tempDir   the directory that receives the run files
+     * @throws java.lang.IllegalArgumentException if chunkSize is less than
+     *                                            1, fanIn is less than 2 or
+     *                                            tempDir is null
+     */
+    public ExternalSort(int chunkSize, int fanIn, Path tempDir) {
+        if (chunkSize < 1) {
+            throw new java.lang.IllegalArgumentException("chunk size must be positive");
+        } else if (fanIn < 2) {
+            throw new java.lang.IllegalArgumentException("fan-in must be at least 2");
+        } else if (tempDir == null) {
+            throw new java.lang.IllegalArgumentException("temp directory is null");
+        } else {
+            this.chunkSize = chunkSize;
+            this.fanIn = fanIn;
+            this.tempDir = tempDir;
+        }
+    }
+
+    /**
+     * Sorts a file of 4-byte int records in ascending signed order.
+     *
+     * @param input  the file to sort, which is not modified
+     * @param output the file that receives the sorted records; it is
+     *               created or replaced
+     * @throws IOException if a file cannot be read or written
+     * @throws java.lang.IllegalArgumentException if either path is null, the
+     *                                            input length is not a
+     *                                            multiple of 4, or a chunk
+     *                                            exceeds 2 GB
+     */
+    public void sortInts(Path input, Path output) throws IOException {
+        sort(input, output, Integer.BYTES);
+    }
+
+    /**
+     * Sorts a file of 8-byte long records in ascending signed order.
+     *
+     * @param input  the file to sort, which is not modified
+     * @param output the file that receives the sorted records; it is
+     *               created or replaced
+     * @throws IOException if a file cannot be read or written
+     * @throws java.lang.IllegalArgumentException if either path is null, the
+     *                                            input length is not a
+     *                                            multiple of 8, or a chunk
+     *                                            exceeds 2 GB
+     */
+    public void sortLongs(Path input, Path output) throws IOException {
+        sort(input, output, Long.BYTES);
+    }
+
+    /**
+     * Runs both phases for records of the given width.
+     *
+     * @param input  the file to sort
+     * @param output the file that receives the sorted records
+     * @param width  the record width in bytes, 4 or 8
+     * @throws IOException if a file cannot be read or written
+     */
+    private void sort(Path input, Path output, int width) throws IOException {
+        if (input == null || output == null) {
+            throw new java.lang.IllegalArgumentException("input or output is null");
+        } else if ((long) chunkSize * width > Integer.MAX_VALUE) {
+            throw new java.lang.IllegalArgumentException("a chunk must fit in one 2 GB mapping");
+        }
+        List<Path> temps = new ArrayList<>();
+        try {
+            List<Path> runs = createRuns(input, width, temps);
+            while (runs.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i,
+                        Math.min(i + fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                    } else {
+                        Path merged = createTempFile(temps);
+                        merge(group, merged, width);
+                        for (Path run : group) {
+                            Files.delete(run);
+                        }
+                        next.add(merged);
+                    }
+                }
+                runs = next;
+            }
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output, width);
+            }
+        } finally {
+            for (Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Splits the input into sorted run files.
+     *
+     * @param input the file to sort
+     * @param width the record width in bytes
+     * @param temps the list every created file is added to
+     * @return the run files in input order
+     * @throws IOException if a file cannot be read or written
+     */
+    private List<Path> createRuns(Path input, int width, List<Path> temps)
+        throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(input,
+            StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % width != 0) {
+                throw new java.lang.IllegalArgumentException("input length is not a multiple of the record width");
+            }
+            long records = size / width;
+            int capacity = (int) Math.min(chunkSize, records);
+            int[] ints = null;
+            int[] intScratch = null;
+            long[] longs = null;
+            long[] longScratch = null;
+            if (width == Integer.BYTES) {
+                ints = new int[capacity];
+                intScratch = new int[capacity];
+            } else {
+                longs = new long[capacity];
+                longScratch = new long[capacity];
+            }
+            ByteBuffer io = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            for (long start = 0; start < records; start += chunkSize) {
+                int count = (int) Math.min(chunkSize, records - start);
+                MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY,
+                    start * width, (long) count * width);
+                Path run = createTempFile(temps);
+                runs.add(run);
+                try (FileChannel out = FileChannel.open(run,
+                    StandardOpenOption.WRITE)) {
+                    if (width == Integer.BYTES) {
+                        int[] keys = count == capacity ? ints : new int[count];
+                        chunk.asIntBuffer().get(keys);
+                        RadixSort.sort(keys, intScratch, null);
+                        writeInts(out, keys, io);
+                    } else {
+                        long[] keys = count == capacity ? longs
+                            : new long[count];
+                        chunk.asLongBuffer().get(keys);
+                        RadixSort.sort(keys, longScratch, null);
+                        writeLongs(out, keys, io);
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Creates an empty file in the temp directory and records it.
+     *
+     * @param temps the list the new file is added to
+     * @return the new file
+     * @throws IOException if the file cannot be created
+     */
+    private Path createTempFile(List<Path> temps) throws IOException {
+        Path file = Files.createTempFile(tempDir, "run", ".tmp");
+        temps.add(file);
+        return file;
+    }
+
+    /**
+     * Writes keys to the channel through the direct buffer io.
+     *
+     * @param out  the channel to write to
+     * @param keys the keys to write
+     * @param io   the buffer the keys are staged in
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeInts(FileChannel out, int[] keys, ByteBuffer io)
+        throws IOException {
+        int perBuffer = io.capacity() / Integer.BYTES;
+        for (int i = 0; i < keys.length; i += perBuffer) {
+            int n = Math.min(perBuffer, keys.length - i);
+            io.clear();
+            IntBuffer view = io.asIntBuffer();
+            view.put(keys, i, n);
+            io.limit(n * Integer.BYTES);
+            while (io.hasRemaining()) {
+                out.write(io);
+            }
+        }
+    }
+
+    /**
+     * Writes keys to the channel through the direct buffer io.
+     *
+     * @param out  the channel to write to
+     * @param keys the keys to write
+     * @param io   the buffer the keys are staged in
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeLongs(FileChannel out, long[] keys,
+                                   ByteBuffer io) throws IOException {
+        int perBuffer = io.capacity() / Long.BYTES;
+        for (int i = 0; i < keys.length; i += perBuffer) {
+            int n = Math.min(perBuffer, keys.length - i);
+            io.clear();
+            LongBuffer view = io.asLongBuffer();
+            view.put(keys, i, n);
+            io.limit(n * Long.BYTES);
+            while (io.hasRemaining()) {
+                out.write(io);
+            }
+        }
+    }
+
+    /**
+     * Merges sorted run files into target, which is created or replaced.
+     *
+     * @param runs   the runs to merge
+     * @param target the file that receives the merged records
+     * @param width  the record width in bytes
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void merge(List<Path> runs, Path target, int width)
+        throws IOException {
+        RunReader[] readers = new RunReader[runs.size()];
+        try (FileChannel out = FileChannel.open(target,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i), width);
+            }
+            if (readers.length == 0) {
+                return;
+            }
+            ByteBuffer io = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            long[] heads = new long[readers.length];
+            boolean[] exhausted = new boolean[readers.length];
+            for (int i = 0; i < readers.length; i++) {
+                heads[i] = readers[i].head;
+                exhausted[i] = readers[i].exhausted;
+            }
+            LongLoserTree tree = new LongLoserTree(heads, exhausted);
+            while (tree.hasNext()) {
+                if (io.remaining() < width) {
+                    flush(out, io);
+                }
+                if (width == Integer.BYTES) {
+                    io.putInt((int) tree.winnerKey());
+                } else {
+                    io.putLong(tree.winnerKey());
+                }
+                RunReader winner = readers[tree.winner()];
+                winner.advance();
+                if (winner.exhausted) {
+                    tree.exhaust();
+                } else {
+                    tree.advance(winner.head);
+                }
+            }
+            flush(out, io);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the filled part of io to the channel and clears it.
+     *
+     * @param out the channel to write to
+     * @param io  the buffer holding the records
+     * @throws IOException if the channel cannot be written
+     */
+    private static void flush(FileChannel out, ByteBuffer io)
+        throws IOException {
+        io.flip();
+        while (io.hasRemaining()) {
+            out.write(io);
+        }
+        io.clear();
+    }
+
+    /**
+     * Sequential reader over one run file that exposes its current record.
+     */
+    private static final class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int width;
+        private long head;
+        private boolean exhausted;
+
+        /**
+         * Opens the run and reads its first record.
+         *
+         * @param run   the run file
+         * @param width the record width in bytes
+         * @throws IOException if the run cannot be read
+         */
+        RunReader(Path run, int width) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            this.width = width;
+            buffer.flip();
+            advance();
+        }
+
+        /**
+         * Moves to the next record, refilling the buffer when it runs dry.
+         *
+         * @throws IOException if the run cannot be read
+         */
+        void advance() throws IOException {
+            if (buffer.remaining() < width) {
+                buffer.compact();
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    continue;
+                }
+                buffer.flip();
+                if (buffer.remaining() < width) {
+                    exhausted = true;
+                    return;
+                }
+            }
+            head = width == Integer.BYTES ? buffer.getInt() : buffer.getLong();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for ExternalSort against files generated in a temporary folder.
+ *
+ * Chunk sizes and fan-ins are kept tiny so that every test spills many runs
+ * and most of them need more than one merge pass.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class ExternalSortTest {
+
+    private static final int TIMEOUT = 2000;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(1332);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testSortIntsRandomized() throws IOException {
+        Path temp = folder.newFolder("runs").toPath();
+        for (int i = 0; i < 20; ++i) {
+            int[] data = new int[rand.nextInt(20000)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = i % 2 == 0 ? rand.nextInt() : rand.nextInt(50);
+            }
+            Path input = writeInts(data);
+            Path output = folder.getRoot().toPath().resolve("out" + i);
+
+            new ExternalSort(1 + rand.nextInt(3000), 2 + rand.nextInt(5), temp)
+                .sortInts(input, output);
+
+            Arrays.sort(data);
+            assertArrayEquals(data, readInts(output));
+            assertArrayEquals(new String[0], temp.toFile().list());
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testSortLongsRandomized() throws IOException {
+        Path temp = folder.newFolder("runs").toPath();
+        for (int i = 0; i < 20; ++i) {
+            long[] data = new long[rand.nextInt(20000)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = rand.nextLong();
+            }
+            Path input = writeLongs(data);
+            Path output = folder.getRoot().toPath().resolve("out" + i);
+
+            new ExternalSort(1 + rand.nextInt(3000), 2 + rand.nextInt(5), temp)
+                .sortLongs(input, output);
+
+            Arrays.sort(data);
+            assertArrayEquals(data, readLongs(output));
+            assertArrayEquals(new String[0], temp.toFile().list());
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testSingleChunkAndEmptyInput() throws IOException {
+        Path temp = folder.newFolder("runs").toPath();
+        ExternalSort sorter = new ExternalSort(100, 2, temp);
+        Path output = folder.getRoot().toPath().resolve("out");
+
+        sorter.sortInts(writeInts(new int[] {3, -1, 2}), output);
+        assertArrayEquals(new int[] {-1, 2, 3}, readInts(output));
+
+        sorter.sortInts(writeInts(new int[0]), output);
+        assertEquals(0, Files.size(output));
+        assertArrayEquals(new String[0], temp.toFile().list());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testInputIsNotModified() throws IOException {
+        int[] data = {5, 4, 3, 2, 1};
+        Path input = writeInts(data);
+        new ExternalSort(2, 2, folder.getRoot().toPath())
+            .sortInts(input, folder.getRoot().toPath().resolve("out"));
+        assertArrayEquals(data, readInts(input));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartialRecord() throws IOException {
+        Path input = folder.newFile().toPath();
+        Files.write(input, new byte[6]);
+        new ExternalSort(10, 2, folder.getRoot().toPath())
+            .sortInts(input, folder.getRoot().toPath().resolve("out"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFanInTooSmall() {
+        new ExternalSort(10, 1, folder.getRoot().toPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTempDir() {
+        new ExternalSort(10, 2, null);
+    }
+
+    private Path writeInts(int[] data) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int num : data) {
+                out.writeInt(num);
+            }
+        }
+        return file;
+    }
+
+    private Path writeLongs(long[] data) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long num : data) {
+                out.writeLong(num);
+            }
+        }
+        return file;
+    }
+
+    private int[] readInts(Path file) throws IOException {
+        int[] data = new int[(int) (Files.size(file) / Integer.BYTES)];
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = in.readInt();
+            }
+        }
+        return data;
+    }
+
+    private long[] readLongs(Path file) throws IOException {
+        long[] data = new long[(int) (Files.size(file) / Long.BYTES)];
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = in.readLong();
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,575 @@
+import java.util.Comparator;
+
+/**
+ * In-place binary heap sort engine.
+ *
+ * Backs Sorting.heapSort over arrays and is the guaranteed O(n log n)
+ * fallback of the introspective, dual-pivot and block quick sorts. The heap is
+ * built in place over the range with the maximum at its root, and the root
+ * is repeatedly swapped to the end of the shrinking heap.
+ *
+ * The double and float versions order values the way Double.compare and
+ * Float.compare do.
+ *
+ * Sifting uses Floyd's bottom-up variant: the hole left at the root is
+ * first walked down to a leaf along the larger children, costing one
+ * comparison per level, and the displaced element is then sifted back up
+ * from that leaf. Since the displaced element came from the bottom of the
+ * heap it rarely climbs more than a level or two, so a sort needs about
+ * n log2 n comparisons instead of the 2 n log2 n of the classic sift-down.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class HeapSort {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private HeapSort() {
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts swaps and writes, or null
+     */
+    static <T> void sort(T[] arr, int lo, int hi, Comparator<T> comparator,
+                         SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi, comparator);
+        for (int end = n - 1; end > 0; end--) {
+            T value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value, comparator);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @return the number of elements written
+     */
+    static <T> long heapify(T[] arr, int lo, int hi,
+                            Comparator<T> comparator) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i], comparator) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the heap
+     * @param base       the array index of heap index 0
+     * @param i          the heap index of the hole
+     * @param size       the number of elements in the heap
+     * @param value      the element that goes into the subtree
+     * @param comparator the Comparator used to compare the data
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static <T> int siftDown(T[] arr, int base, int i, int size, T value,
+                            Comparator<T> comparator) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size && comparator.compare(arr[base + child],
+                arr[base + child + 1]) < 0) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (comparator.compare(arr[base + parent], value) >= 0) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(int[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            int value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(int[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(int[] arr, int base, int i, int size, int value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size && arr[base + child] < arr[base + child + 1]) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (arr[base + parent] >= value) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(long[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            long value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(long[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(long[] arr, int base, int i, int size, long value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size && arr[base + child] < arr[base + child + 1]) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (arr[base + parent] >= value) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(double[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            double value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(double[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(double[] arr, int base, int i, int size, double value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size
+                && Double.compare(arr[base + child], arr[base + child + 1]) < 0) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (Double.compare(arr[base + parent], value) >= 0) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(float[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            float value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(float[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(float[] arr, int base, int i, int size, float value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size
+                && Float.compare(arr[base + child], arr[base + child + 1]) < 0) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (Float.compare(arr[base + parent], value) >= 0) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(short[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            short value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(short[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(short[] arr, int base, int i, int size, short value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size && arr[base + child] < arr[base + child + 1]) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (arr[base + parent] >= value) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+
+    /**
+     * Heap sorts arr[lo, hi).
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void sort(char[] arr, int lo, int hi, SortProbe probe) {
+        int n = hi - lo;
+        long writes = heapify(arr, lo, hi);
+        for (int end = n - 1; end > 0; end--) {
+            char value = arr[lo + end];
+            arr[lo + end] = arr[lo];
+            writes += siftDown(arr, lo, 0, end, value);
+        }
+        // Each root moved behind the heap is a swap with the last leaf.
+        SortProbe.swaps(probe, Math.max(n - 1, 0));
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Arranges arr[lo, hi) into a heap with its maximum at arr[lo].
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the number of elements written
+     */
+    static long heapify(char[] arr, int lo, int hi) {
+        int n = hi - lo;
+        long writes = 0;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            writes += siftDown(arr, lo, i, n, arr[lo + i]) + 1;
+        }
+        return writes;
+    }
+
+    /**
+     * Fills the hole at heap index i with value, restoring the heap order of
+     * the subtree rooted at i, whose children must already be heaps.
+     *
+     * @param arr   the array holding the heap
+     * @param base  the array index of heap index 0
+     * @param i     the heap index of the hole
+     * @param size  the number of elements in the heap
+     * @param value the element that goes into the subtree
+     * @return the number of elements moved to make room,
+     *         not counting value itself
+     */
+    static int siftDown(char[] arr, int base, int i, int size, char value) {
+        int hole = i;
+        int moved = 0;
+        int child = 2 * hole + 1;
+        while (child < size) {
+            if (child + 1 < size && arr[base + child] < arr[base + child + 1]) {
+                child++;
+            }
+            arr[base + hole] = arr[base + child];
+            moved++;
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            if (arr[base + parent] >= value) {
+                break;
+            }
+            arr[base + hole] = arr[base + parent];
+            moved++;
+            hole = parent;
+        }
+        arr[base + hole] = value;
+        return moved;
+    }
+}
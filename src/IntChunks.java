@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable int buffer behind the Sorting.toSortedIntArray collector.
+ *
+ * Values are appended to fixed-size chunks so that growing never copies
+ * what is already stored, and combining two buffers only joins their chunk
+ * lists. Unlike SortedChunks the chunks are not sorted one by one: the
+ * finished array is handed to Sorting.sort(int[]) as a whole, which can
+ * then pick radix sort.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class IntChunks {
+
+    private final List<int[]> chunks = new ArrayList<>();
+    private int[] current = new int[SortedChunks.CHUNK_LENGTH];
+    private int length;
+    private long size;
+
+    /**
+     * Appends a value.
+     *
+     * @param value the value
+     */
+    void add(int value) {
+        if (length == current.length) {
+            chunks.add(current);
+            current = new int[SortedChunks.CHUNK_LENGTH];
+            length = 0;
+        }
+        current[length++] = value;
+        size++;
+    }
+
+    /**
+     * Appends the values of another buffer.
+     *
+     * @param other the buffer to append
+     * @return this buffer
+     */
+    IntChunks combine(IntChunks other) {
+        if (length > 0) {
+            chunks.add(Arrays.copyOf(current, length));
+        }
+        chunks.addAll(other.chunks);
+        current = other.current;
+        length = other.length;
+        size += other.size;
+        return this;
+    }
+
+    /**
+     * Copies every value, in encounter order, into one array.
+     *
+     * @return a new array of all values
+     * @throws java.lang.IllegalArgumentException if there are more values
+     *                                            than an array can hold
+     */
+    int[] toArray() {
+        if (size > SortedChunks.MAX_LENGTH) {
+            throw new java.lang.IllegalArgumentException("too many elements for an array");
+        } else {
+            int[] arr = new int[(int) size];
+            int at = 0;
+            for (int[] chunk : chunks) {
+                System.arraycopy(chunk, 0, arr, at, chunk.length);
+                at += chunk.length;
+            }
+            System.arraycopy(current, 0, arr, at, length);
+            return arr;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+
+/**
+ * Keeps the k smallest values of a stream of ints in a bounded heap.
+ *
+ * The int counterpart of TopK, without boxing: the first k values fill
+ * the heap, and every later value is compared with the largest one kept
+ * and either dropped or sifted in in its place. Like TopK the heap array
+ * starts small and doubles up to k. To keep the k largest
+ * offer the values negated with ~value, which unlike -value cannot
+ * overflow, and undo it on the result.
+ *
+ * Not thread-safe.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class IntTopK {
+
+    /**
+     * Length of the heap array once the first value arrives.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private int[] heap = new int[0];
+    private int size;
+
+    /**
+     * Creates an empty top-k.
+     *
+     * @param k the number of values to keep
+     * @throws java.lang.IllegalArgumentException if k is negative
+     */
+    public IntTopK(int k) {
+        if (k < 0) {
+            throw new java.lang.IllegalArgumentException("k is negative");
+        } else {
+            this.k = k;
+        }
+    }
+
+    /**
+     * Offers a value.
+     *
+     * @param value the value
+     * @return true if the value is among the k smallest so far
+     */
+    public boolean offer(int value) {
+        if (size < k) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(k,
+                    Math.max(INITIAL_CAPACITY, 2L * size)));
+            }
+            heap[size++] = value;
+            if (size == k) {
+                HeapSort.heapify(heap, 0, size);
+            }
+            return true;
+        } else if (size == 0 || value >= heap[0]) {
+            return false;
+        } else {
+            HeapSort.siftDown(heap, 0, 0, size, value);
+            return true;
+        }
+    }
+
+    /**
+     * Offers every value of data.
+     *
+     * @param data the values
+     */
+    public void offerAll(int[] data) {
+        for (int value : data) {
+            offer(value);
+        }
+    }
+
+    /**
+     * Returns the number of values kept, which is k once k values have
+     * been offered.
+     *
+     * @return the number of values kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values kept, smallest first.
+     *
+     * @return a new array of at most k values
+     */
+    public int[] toSortedArray() {
+        int[] sorted = Arrays.copyOf(heap, size);
+        DualPivotQuicksort.sort(sorted, null);
+        return sorted;
+    }
+
+    /**
+     * Drops every value kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Comparator;
+
+/**
+ * Introspective quick sort engine behind Sorting.quickSort(T[], Comparator).
+ *
+ * Pivots are the median of three elements, or Tukey's ninther (the median
+ * of three medians of three) for larger ranges. Each range is partitioned
+ * three ways, Dutch national flag style, into elements less than, equal to
+ * and greater than the pivot, so runs of equal keys are finished in a
+ * single pass. Only the smaller side is recursed into and the loop
+ * continues on the larger one, which bounds the stack depth by O(log n).
+ * A range whose recursion budget of 2 * floor(log2(n)) partitions runs out
+ * is heap sorted, and small ranges are insertion sorted.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class IntroSort {
+
+    /**
+     * Ranges at most this long are insertion sorted.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Ranges longer than this use the ninther instead of median of three.
+     */
+    static final int NINTHER_THRESHOLD = 128;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private IntroSort() {
+    }
+
+    /**
+     * Sorts the whole array.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that records the depth reached and counts
+     *                   swaps and writes, or null
+     */
+    static <T> void sort(T[] arr, Comparator<T> comparator, SortProbe probe) {
+        int depthLimit = depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        sort(arr, 0, arr.length, depthLimit, comparator, probe);
+    }
+
+    /**
+     * Returns the number of partitioning levels allowed before a range of
+     * length n falls back to heap sort.
+     *
+     * @param n the length of the range
+     * @return 2 * floor(log2(n)), or 0 for an empty range
+     */
+    static int depthLimit(int n) {
+        return n == 0 ? 0 : 2 * (31 - Integer.numberOfLeadingZeros(n));
+    }
+
+    /**
+     * Sorts arr[lo, hi), heap sorting whatever is left once depthLimit
+     * partitions have been made along one path.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param depthLimit the remaining recursion budget
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that records the depth reached and counts
+     *                   swaps and writes, or null
+     */
+    static <T> void sort(T[] arr, int lo, int hi, int depthLimit,
+                         Comparator<T> comparator, SortProbe probe) {
+        while (hi - lo > INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi, comparator, probe);
+                return;
+            }
+            depthLimit--;
+            T pivot = arr[choosePivot(arr, lo, hi, comparator)];
+            int lt = lo;
+            int i = lo;
+            int gt = hi - 1;
+            while (i <= gt) {
+                int cmp = comparator.compare(arr[i], pivot);
+                if (cmp < 0) {
+                    swap(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi) > pivot
+            // Every element found less or greater than the pivot was
+            // swapped once.
+            SortProbe.swaps(probe, (lt - lo) + (hi - 1 - gt));
+            if (lt - lo < hi - gt - 1) {
+                sort(arr, lo, lt, depthLimit, comparator, probe);
+                lo = gt + 1;
+            } else {
+                sort(arr, gt + 1, hi, depthLimit, comparator, probe);
+                hi = lt;
+            }
+        }
+        MergeSort.insertionSort(arr, lo, hi, comparator, probe);
+    }
+
+    /**
+     * Picks the index of the pivot for arr[lo, hi).
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @return the index of the pivot
+     */
+    static <T> int choosePivot(T[] arr, int lo, int hi,
+                               Comparator<T> comparator) {
+        int last = hi - 1;
+        int mid = (lo + last) >>> 1;
+        if (hi - lo <= NINTHER_THRESHOLD) {
+            return medianOfThree(arr, lo, mid, last, comparator);
+        }
+        int eighth = (hi - lo) / 8;
+        int first = medianOfThree(arr, lo, lo + eighth, lo + 2 * eighth,
+            comparator);
+        int middle = medianOfThree(arr, mid - eighth, mid, mid + eighth,
+            comparator);
+        int end = medianOfThree(arr, last - 2 * eighth, last - eighth, last,
+            comparator);
+        return medianOfThree(arr, first, middle, end, comparator);
+    }
+
+    /**
+     * Returns whichever of the indices a, b and c holds the median value.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array
+     * @param a          the first index
+     * @param b          the second index
+     * @param c          the third index
+     * @param comparator the Comparator used to compare the data
+     * @return the index of the median
+     */
+    static <T> int medianOfThree(T[] arr, int a, int b, int c,
+                                 Comparator<T> comparator) {
+        if (comparator.compare(arr[a], arr[b]) < 0) {
+            if (comparator.compare(arr[b], arr[c]) < 0) {
+                return b;
+            }
+            return comparator.compare(arr[a], arr[c]) < 0 ? c : a;
+        }
+        if (comparator.compare(arr[a], arr[c]) < 0) {
+            return a;
+        }
+        return comparator.compare(arr[b], arr[c]) < 0 ? c : b;
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(Object[] arr, int i, int j) {
+        Object temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Tournament (loser) tree over the head keys of primitive runs.
+ *
+ * This is the primitive counterpart of LoserTree, shared by the int and
+ * long k-way merges in Merging and by the run merge of ExternalSort. The
+ * tree does not read the runs itself: it keeps the current head key of
+ * every run, and the caller reports a new head with advance() or the end
+ * of a run with exhaust() after taking the winner. int keys are widened to
+ * long, which keeps their order.
+ *
+ * As in LoserTree, each internal node remembers the loser of the match
+ * played there and tree[0] holds the overall winner, so moving the winner
+ * replays only the ceil(log2(k)) matches on its own path. An exhausted run
+ * loses every match, and ties go to the run with the lower index, so the
+ * merge is stable when runs are passed in input order.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class LongLoserTree {
+
+    private final long[] keys;
+    private final boolean[] exhausted;
+    private final int[] tree;
+
+    /**
+     * Plays the initial tournament. The tree takes over both arrays and
+     * updates them as the runs advance.
+     *
+     * @param keys      the head key of each run, ignored for exhausted runs
+     * @param exhausted whether each run is empty, as long as keys
+     */
+    LongLoserTree(long[] keys, boolean[] exhausted) {
+        int k = keys.length;
+        this.keys = keys;
+        this.exhausted = exhausted;
+        this.tree = new int[Math.max(k, 1)];
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int node = k - 1; node > 0; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (beats(left, right)) {
+                winners[node] = left;
+                tree[node] = right;
+            } else {
+                winners[node] = right;
+                tree[node] = left;
+            }
+        }
+        if (k > 0) {
+            tree[0] = winners[1];
+        }
+    }
+
+    /**
+     * Returns whether any run still has a head.
+     *
+     * @return true if winner() names a run that is not exhausted
+     */
+    boolean hasNext() {
+        return keys.length > 0 && !exhausted[tree[0]];
+    }
+
+    /**
+     * Returns the run whose head is the smallest.
+     *
+     * @return the winning run
+     */
+    int winner() {
+        return tree[0];
+    }
+
+    /**
+     * Returns the head key of the winning run.
+     *
+     * @return the smallest head key
+     */
+    long winnerKey() {
+        return keys[tree[0]];
+    }
+
+    /**
+     * Returns the head key of a run.
+     *
+     * @param run the run, not exhausted
+     * @return its head key
+     */
+    long key(int run) {
+        return keys[run];
+    }
+
+    /**
+     * Returns whether a run has no elements left.
+     *
+     * @param run the run
+     * @return true if the run is used up
+     */
+    boolean isExhausted(int run) {
+        return exhausted[run];
+    }
+
+    /**
+     * Gives the winning run a new head and replays its path.
+     *
+     * @param key the new head key of the winner
+     */
+    void advance(long key) {
+        int winner = tree[0];
+        keys[winner] = key;
+        replay(winner);
+    }
+
+    /**
+     * Marks the winning run as used up and replays its path.
+     */
+    void exhaust() {
+        int winner = tree[0];
+        exhausted[winner] = true;
+        replay(winner);
+    }
+
+    /**
+     * Finds the best run other than the winner: the best of the losers on
+     * the winner's path. Merges use it to bound a gallop through the
+     * winning run.
+     *
+     * @return the runner-up, or -1 if there is only one run
+     */
+    int runnerUp() {
+        int runner = -1;
+        for (int node = (tree[0] + keys.length) >>> 1; node > 0;
+             node >>>= 1) {
+            if (runner < 0 || beats(tree[node], runner)) {
+                runner = tree[node];
+            }
+        }
+        return runner;
+    }
+
+    /**
+     * Replays the matches on the path from a run to the root after its
+     * head moved.
+     *
+     * @param run the run whose head moved
+     */
+    private void replay(int run) {
+        int winner = run;
+        for (int node = (run + keys.length) >>> 1; node > 0; node >>>= 1) {
+            if (beats(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * Decides a match between two runs.
+     *
+     * @param a the first run
+     * @param b the second run
+     * @return true if run a wins against run b
+     */
+    private boolean beats(int a, int b) {
+        if (exhausted[a]) {
+            return false;
+        } else if (exhausted[b]) {
+            return true;
+        } else {
+            return keys[a] < keys[b] || keys[a] == keys[b] && a < b;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Tournament (loser) tree that merges sorted arrays.
+ *
+ * Each internal node remembers the loser of the match played there and the
+ * overall winner sits above the root, so after the winner is taken only
+ * the matches on the path from its run to the root are replayed: one
+ * comparison per level, ceil(log2(k)) per element for k runs. Ties go to
+ * the run with the lower index, so the merge is stable when runs are
+ * passed in input order.
+ *
+ * merge() also gallops: once one run has won TimSort.MIN_GALLOP times in a
+ * row, the runner-up is found among the losers on the winner's path, and
+ * every element of the winning run that goes before it is found by an
+ * exponential search and copied as one block. Skewed inputs, such as one
+ * large shard and many small ones, then cost far fewer comparisons than
+ * one tree replay per element.
+ *
+ * The runs are read, never written, and must not change while the tree is
+ * in use.
+ *
+ * @param <T> the type of elements merged
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class LoserTree<T> implements Iterator<T> {
+
+    private final T[][] runs;
+    private final int[] heads;
+    private final int[] tree;
+    private final Comparator<T> comparator;
+
+    /**
+     * Plays the initial tournament.
+     *
+     * @param runs       the sorted runs to merge
+     * @param comparator the Comparator the runs are sorted by
+     */
+    LoserTree(T[][] runs, Comparator<T> comparator) {
+        int k = runs.length;
+        this.runs = runs;
+        this.heads = new int[k];
+        this.tree = new int[Math.max(k, 1)];
+        this.comparator = comparator;
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int node = k - 1; node > 0; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (beats(left, right)) {
+                winners[node] = left;
+                tree[node] = right;
+            } else {
+                winners[node] = right;
+                tree[node] = left;
+            }
+        }
+        if (k > 0) {
+            tree[0] = winners[1];
+        }
+    }
+
+    /**
+     * Merges sorted runs into the front of an array at least as long as
+     * all of them together.
+     *
+     * @param <T>        the type of elements merged
+     * @param runs       the sorted runs to merge
+     * @param merged     the array that receives the merge
+     * @param comparator the Comparator the runs are sorted by
+     * @return merged
+     */
+    static <T> T[] merge(T[][] runs, T[] merged, Comparator<T> comparator) {
+        LoserTree<T> tree = new LoserTree<>(runs, comparator);
+        int total = 0;
+        for (T[] run : runs) {
+            total += run.length;
+        }
+        int k = 0;
+        int last = -1;
+        int wins = 0;
+        while (k < total) {
+            int winner = tree.tree[0];
+            wins = winner == last ? wins + 1 : 1;
+            last = winner;
+            if (wins < TimSort.MIN_GALLOP) {
+                merged[k++] = tree.next();
+                continue;
+            }
+            T[] run = runs[winner];
+            int head = tree.heads[winner];
+            int runner = tree.runnerUp(winner);
+            int count;
+            if (runner < 0 || tree.exhausted(runner)) {
+                count = run.length - head;
+            } else if (winner < runner) {
+                count = TimSort.gallopRight(runs[runner][tree.heads[runner]],
+                    run, head, run.length - head, 0, comparator);
+            } else {
+                count = TimSort.gallopLeft(runs[runner][tree.heads[runner]],
+                    run, head, run.length - head, 0, comparator);
+            }
+            System.arraycopy(run, head, merged, k, count);
+            k += count;
+            tree.heads[winner] += count;
+            tree.replay(winner);
+            wins = 0;
+        }
+        return merged;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return runs.length > 0 && !exhausted(tree[0]);
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int winner = tree[0];
+        T value = runs[winner][heads[winner]++];
+        replay(winner);
+        return value;
+    }
+
+    /**
+     * Replays the matches on the path from a run to the root after its
+     * head moved.
+     *
+     * @param run the run whose head moved
+     */
+    private void replay(int run) {
+        int winner = run;
+        for (int node = (run + runs.length) >>> 1; node > 0; node >>>= 1) {
+            if (beats(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * Finds the best run other than the winner: the best of the losers on
+     * the winner's path.
+     *
+     * @param winner the current winner
+     * @return the runner-up, or -1 if there is only one run
+     */
+    private int runnerUp(int winner) {
+        int runner = -1;
+        for (int node = (winner + runs.length) >>> 1; node > 0;
+             node >>>= 1) {
+            if (runner < 0 || beats(tree[node], runner)) {
+                runner = tree[node];
+            }
+        }
+        return runner;
+    }
+
+    /**
+     * Returns whether a run has no elements left.
+     *
+     * @param run the run
+     * @return true if the run is used up
+     */
+    private boolean exhausted(int run) {
+        return heads[run] == runs[run].length;
+    }
+
+    /**
+     * Decides a match between two runs.
+     *
+     * @param a the first run
+     * @param b the second run
+     * @return true if run a wins against run b
+     */
+    private boolean beats(int a, int b) {
+        if (exhausted(a)) {
+            return false;
+        } else if (exhausted(b)) {
+            return true;
+        } else {
+            int cmp = comparator.compare(runs[a][heads[a]], runs[b][heads[b]]);
+            return cmp < 0 || cmp == 0 && a < b;
+        }
+    }
+}
@@ -343,6 +343,134 @@ public class ManuSortingTest {
         Sorting.mergeSort(dataStructures, null);
     }
 
+    @Test(timeout = TIMEOUT)
+    public void testBufferedMergeSortStability() {
+        DataStructure firstTrie = dataStructures[16];
+        DataStructure secondTrie = dataStructures[20];
+        Sorting.bufferedMergeSort(dataStructures, comp);
+        assertArrayEquals(dataStructuresByName, dataStructures);
+
+        assertSame(dataStructuresByName[20], secondTrie);
+        assertSame(dataStructuresByName[19], firstTrie);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testBufferedMergeSortAdaptivity() {
+        //presorted input never merges, so it takes n - 1 comparisons
+        Sorting.bufferedMergeSort(dataStructuresByName, comp,
+                new DataStructure[21]);
+        assertTrue("Number of comparisons: " + comp.getCount(),
+                comp.getCount() <= 20 && comp.getCount() != 0);
+    }
+
+    @Test(timeout=LONG_TIMEOUT)
+    public void testBufferedMergeSortMatchesMergeSort() {
+        int numTests = 100;
+        int size = 1000;
+
+        DataStructure[] temp;
+        DataStructure[] other;
+        DataStructure[] buffer = new DataStructure[size];
+        for (int i = 0; i < numTests; ++i) {
+            temp = new DataStructure[size];
+            other = new DataStructure[size];
+
+            for (int j = 0; j < size; ++j) {
+                temp[j] = new DataStructure(generateRandomString().substring(0, 1));
+                other[j] = temp[j];
+            }
+
+            Sorting.mergeSort(other, comp);
+            Sorting.bufferedMergeSort(temp, comp, buffer);
+            for (int j = 0; j < size; ++j) {
+                assertSame(other[j], temp[j]);
+            }
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testTimSortStability() {
+        DataStructure firstTrie = dataStructures[16];
+        DataStructure secondTrie = dataStructures[20];
+        Sorting.timSort(dataStructures, comp);
+        assertArrayEquals(dataStructuresByName, dataStructures);
+
+        assertSame(dataStructuresByName[20], secondTrie);
+        assertSame(dataStructuresByName[19], firstTrie);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testTimSortAdaptivity() {
+        //a sorted or strictly reversed array is a single run: n - 1 comparisons
+        Sorting.timSort(dataStructuresByName, comp);
+        assertTrue("Number of comparisons: " + comp.getCount(),
+                comp.getCount() <= 20 && comp.getCount() != 0);
+    }
+
+    @Test(timeout=LONG_TIMEOUT)
+    public void testTimSortNearlySorted() {
+        int numTests = 100;
+        int size = 1000;
+
+        DataStructure[] temp;
+        DataStructure[] other;
+        for (int i = 0; i < numTests; ++i) {
+            comp.setCount(0);
+            temp = new DataStructure[size];
+            other = new DataStructure[size];
+
+            for (int j = 0; j < size; ++j) {
+                String name = String.format("%06d", j < size - 10 ? j
+                        : rand.nextInt(size));
+                temp[j] = new DataStructure(name);
+                other[j] = temp[j];
+            }
+
+            Arrays.sort(other, comp);
+            comp.setCount(0);
+            Sorting.timSort(temp, comp);
+            for (int j = 0; j < size; ++j) {
+                assertSame(other[j], temp[j]);
+            }
+            assertTrue("Number of comparisons: " + comp.getCount(),
+                    comp.getCount() <= 2 * size);
+        }
+    }
+
+    @Test(timeout=LONG_TIMEOUT)
+    public void testTimSortRandomized() {
+        int numTests = 100;
+        int size = 1000;
+
+        DataStructure[] temp;
+        DataStructure[] other;
+        for (int i = 0; i < numTests; ++i) {
+            temp = new DataStructure[size];
+            other = new DataStructure[size];
+
+            for (int j = 0; j < size; ++j) {
+                temp[j] = new DataStructure(generateRandomString().substring(0, 1));
+                other[j] = temp[j];
+            }
+
+            Sorting.mergeSort(other, comp);
+            Sorting.timSort(temp, comp);
+            for (int j = 0; j < size; ++j) {
+                assertSame(other[j], temp[j]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimSortNullComparator() {
+        Sorting.timSort(dataStructures, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferedMergeSortShortBuffer() {
+        Sorting.bufferedMergeSort(dataStructures, comp, new DataStructure[3]);
+    }
+
     @Test(timeout = TIMEOUT)
     public void testQuickSortWorks() {
         Sorting.quickSort(dataStructures, comp, rand);
@@ -426,6 +554,116 @@ public class ManuSortingTest {
         Sorting.quickSort(dataStructures, comp, null);
     }
 
+    @Test(timeout = TIMEOUT)
+    public void testIntroSortWorks() {
+        Sorting.quickSort(dataStructures, comp);
+        assertArrayEquals(dataStructuresByName, dataStructures);
+    }
+
+    @Test(timeout=LONG_TIMEOUT)
+    public void testIntroSortRandomized() {
+        int numTests = 100;
+        int size = 1000;
+
+        DataStructure[] temp;
+        DataStructure[] other;
+        for (int i = 0; i < numTests; ++i) {
+            temp = new DataStructure[size];
+            other = new DataStructure[size];
+
+            for (int j = 0; j < size; ++j) {
+                temp[j] = new DataStructure(generateRandomString());
+                other[j] = temp[j];
+            }
+
+            Arrays.sort(other, comp);
+            Sorting.quickSort(temp, comp);
+            assertArrayEquals(other, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntroSortManyDuplicates() {
+        //equal keys are gathered by one partition and never revisited
+        int size = 200000;
+        DataStructure[] temp = new DataStructure[size];
+        DataStructure[] other = new DataStructure[size];
+        for (int j = 0; j < size; ++j) {
+            temp[j] = new DataStructure(j % 3 == 0 ? "Heap" : "Trie");
+            other[j] = temp[j];
+        }
+
+        Sorting.quickSort(temp, comp);
+        Arrays.sort(other, comp);
+        assertArrayEquals(other, temp);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntroSortEfficiencyOnSortedInput() {
+        int size = 100000;
+        DataStructure[] temp = new DataStructure[size];
+        for (int j = 0; j < size; ++j) {
+            temp[j] = new DataStructure(String.format("%06d", j));
+        }
+        DataStructure[] other = temp.clone();
+
+        comp.setCount(0);
+        Sorting.quickSort(temp, comp);
+        assertArrayEquals(other, temp);
+        assertTrue("Number of comparisons: " + comp.getCount(),
+                comp.getCount() <= 3 * size * Math.log(size) / Math.log(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntroSortNullComparator() {
+        Sorting.quickSort(dataStructures, null);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testRadixSortByRandomized() {
+        Comparator<DataStructure> byLength =
+            Comparator.comparingInt(ds -> ds.getName().length());
+        for (int i = 0; i < 100; ++i) {
+            DataStructure[] temp = new DataStructure[rand.nextInt(1000)];
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = new DataStructure(generateRandomString());
+            }
+            DataStructure[] other = temp.clone();
+            Arrays.sort(other, byLength);
+
+            DataStructure[] byLong = temp.clone();
+            Sorting.radixSortBy(temp, ds -> ds.getName().length());
+            //the multiplier pushes the key into the upper bytes of the long
+            Sorting.radixSortByLong(byLong,
+                ds -> ds.getName().length() * 0x10000000000L - 1);
+            for (int j = 0; j < temp.length; ++j) {
+                assertSame(other[j], temp[j]);
+                assertSame(other[j], byLong[j]);
+            }
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testRadixSortByIsStable() {
+        Sorting.radixSortBy(dataStructures, ds -> ds.getName().charAt(0));
+        for (int i = 1; i < dataStructures.length; ++i) {
+            assertTrue(dataStructures[i - 1].getName().charAt(0)
+                <= dataStructures[i].getName().charAt(0));
+        }
+        DataStructure[] heaps = {new DataStructure("Heap"),
+            new DataStructure("Heap"), new DataStructure("Array")};
+        DataStructure[] copy = heaps.clone();
+        Sorting.radixSortBy(heaps, ds -> ds.getName().length());
+        assertSame(copy[0], heaps[0]);
+        assertSame(copy[1], heaps[1]);
+        assertSame(copy[2], heaps[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadixSortByNullKey() {
+        Sorting.radixSortBy(dataStructures, null);
+    }
+
     @Test(timeout=LONG_TIMEOUT)
     public void testLSDRadixSortRandomized() {
         int numTests = 100;
@@ -451,7 +689,33 @@ public class ManuSortingTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testLSDRadixSortNullArray() {
-        Sorting.lsdRadixSort(null);
+        Sorting.lsdRadixSort((int[]) null);
+    }
+
+    @Test(timeout=LONG_TIMEOUT)
+    public void testLSDRadixSortNegativesAndExtremes() {
+        int numTests = 100;
+        int size = 100;
+
+        int[] temp;
+        int[] other;
+        for (int i = 0; i < numTests; ++i) {
+            temp = new int[size];
+            other = new int[size];
+
+            for (int j = 0; j < size; ++j) {
+                temp[j] = rand.nextInt();
+                other[j] = temp[j];
+            }
+            temp[0] = Integer.MIN_VALUE;
+            other[0] = Integer.MIN_VALUE;
+            temp[size - 1] = Integer.MAX_VALUE;
+            other[size - 1] = Integer.MAX_VALUE;
+
+            Arrays.sort(other);
+            Sorting.lsdRadixSort(temp);
+            assertArrayEquals(other, temp);
+        }
     }
 
     @Test(timeout = TIMEOUT)
@@ -496,7 +760,59 @@ public class ManuSortingTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testHeapSortNullList() {
-        Sorting.heapSort(null);
+        Sorting.heapSort((List<Integer>) null);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testArrayHeapSortWorks() {
+        Sorting.heapSort(dataStructures, comp);
+        assertArrayEquals(dataStructuresByName, dataStructures);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testArrayHeapSortRandomized() {
+        int numTests = 100;
+        int size = 1000;
+
+        DataStructure[] temp;
+        DataStructure[] other;
+        for (int i = 0; i < numTests; ++i) {
+            temp = new DataStructure[rand.nextInt(size)];
+            other = new DataStructure[temp.length];
+
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = new DataStructure(generateRandomString());
+                other[j] = temp[j];
+            }
+
+            Arrays.sort(other, comp);
+            Sorting.heapSort(temp, comp);
+            assertArrayEquals(other, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testArrayHeapSortEfficiency() {
+        //bottom-up sifting stays close to n log2 n comparisons
+        int size = 100000;
+        DataStructure[] temp = new DataStructure[size];
+        for (int j = 0; j < size; ++j) {
+            temp[j] = new DataStructure(String.format("%06d",
+                rand.nextInt(size)));
+        }
+        DataStructure[] other = temp.clone();
+        Arrays.sort(other, comp);
+
+        comp.setCount(0);
+        Sorting.heapSort(temp, comp);
+        assertArrayEquals(other, temp);
+        assertTrue("Number of comparisons: " + comp.getCount(),
+                comp.getCount() <= 1.25 * size * Math.log(size) / Math.log(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrayHeapSortNullComparator() {
+        Sorting.heapSort(dataStructures, null);
     }
 
 
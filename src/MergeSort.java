@@ -0,0 +1,193 @@
+import java.util.Comparator;
+
+/**
+ * Ping-pong merge sort engine shared by the merge based sorts in Sorting.
+ *
+ * A range is sorted from a source array into a destination array that both
+ * hold the same elements; the halves are sorted the other way round, from
+ * the destination into the source, so every level merges straight into its
+ * target without copying. Only one auxiliary array is needed per sort.
+ *
+ * When the last element of the left half is not greater than the first
+ * element of the right half the merge is replaced by a block copy, which
+ * makes presorted input linear. Ranges of at most INSERTION_THRESHOLD
+ * elements are insertion sorted. Ties always come from the left half, so
+ * the sort is stable.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class MergeSort {
+
+    /**
+     * Ranges at most this long are insertion sorted.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private MergeSort() {
+    }
+
+    /**
+     * Sorts arr using buffer, which must be at least as long as arr, as the
+     * auxiliary array. The contents of buffer are undefined afterwards.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param buffer     the auxiliary array
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts the writes, or null
+     */
+    static <T> void sort(T[] arr, T[] buffer, Comparator<T> comparator,
+                         SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        System.arraycopy(arr, 0, buffer, 0, n);
+        SortProbe.writes(probe, n);
+        sortInto(buffer, arr, 0, n, comparator, probe);
+    }
+
+    /**
+     * Sorts the range [lo, hi) into dst. On entry src and dst must hold the
+     * same elements in the range; on exit dst holds them in sorted order and
+     * the range of src is scrambled.
+     *
+     * @param <T>        data type to sort
+     * @param src        the array used as scratch
+     * @param dst        the array that receives the sorted range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts the writes, or null
+     */
+    static <T> void sortInto(T[] src, T[] dst, int lo, int hi,
+                             Comparator<T> comparator, SortProbe probe) {
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            insertionSort(dst, lo, hi, comparator, probe);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sortInto(dst, src, lo, mid, comparator, probe);
+        sortInto(dst, src, mid, hi, comparator, probe);
+        if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            SortProbe.writes(probe, hi - lo);
+            return;
+        }
+        merge(src, lo, mid, src, mid, hi, dst, lo, comparator, probe);
+    }
+
+    /**
+     * Insertion sorts arr[lo, hi).
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts the writes, or null
+     */
+    static <T> void insertionSort(T[] arr, int lo, int hi,
+                                  Comparator<T> comparator, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i < hi; i++) {
+            T value = arr[i];
+            int j = i - 1;
+            while (j >= lo && comparator.compare(arr[j], value) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Stably merges the sorted runs a[aLo, aHi) and b[bLo, bHi) into dst
+     * starting at dstLo. Ties are taken from the first run.
+     *
+     * @param <T>        data type to sort
+     * @param a          the array holding the first run
+     * @param aLo        the start of the first run, inclusive
+     * @param aHi        the end of the first run, exclusive
+     * @param b          the array holding the second run
+     * @param bLo        the start of the second run, inclusive
+     * @param bHi        the end of the second run, exclusive
+     * @param dst        the destination array
+     * @param dstLo      the first index written in dst
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts the writes, or null
+     */
+    static <T> void merge(T[] a, int aLo, int aHi, T[] b, int bLo, int bHi,
+                          T[] dst, int dstLo, Comparator<T> comparator,
+                          SortProbe probe) {
+        SortProbe.writes(probe, (aHi - aLo) + (bHi - bLo));
+        int i = aLo;
+        int j = bLo;
+        int k = dstLo;
+        while (i < aHi && j < bHi) {
+            if (comparator.compare(a[i], b[j]) <= 0) {
+                dst[k++] = a[i++];
+            } else {
+                dst[k++] = b[j++];
+            }
+        }
+        System.arraycopy(a, i, dst, k, aHi - i);
+        System.arraycopy(b, j, dst, k + aHi - i, bHi - j);
+    }
+
+    /**
+     * Finds the first index in arr[lo, hi) whose element is not less than
+     * key.
+     *
+     * @param <T>        data type to search
+     * @param arr        the sorted array
+     * @param lo         the start of the range, inclusive
+     * @param hi         the end of the range, exclusive
+     * @param key        the key to search for
+     * @param comparator the Comparator used to compare the data
+     * @return the lower bound of key
+     */
+    static <T> int lowerBound(T[] arr, int lo, int hi, T key,
+                              Comparator<T> comparator) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(arr[mid], key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in arr[lo, hi) whose element is greater than
+     * key.
+     *
+     * @param <T>        data type to search
+     * @param arr        the sorted array
+     * @param lo         the start of the range, inclusive
+     * @param hi         the end of the range, exclusive
+     * @param key        the key to search for
+     * @param comparator the Comparator used to compare the data
+     * @return the upper bound of key
+     */
+    static <T> int upperBound(T[] arr, int lo, int hi, T key,
+                              Comparator<T> comparator) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(arr[mid], key) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
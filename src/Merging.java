@@ -0,0 +1,803 @@
+import java.util.Comparator;
+
+/**
+ * Merge engine behind Sorting.merge and Sorting.mergeInPlace.
+ *
+ * Two-way merges start out comparing head against head like
+ * MergeSort.merge, but once one side has won TimSort.MIN_GALLOP times in a
+ * row they gallop: an exponential search finds how many more elements of
+ * that side go before the other side's head, and those are copied in one
+ * block. Merging a run of m elements into one of n then takes
+ * O(m log(n / m)) comparisons instead of O(n + m), which is what makes a
+ * small shard cheap to merge into a large one.
+ *
+ * k-way merges of int and long runs play a LongLoserTree over the run
+ * heads the way LoserTree does for objects, and gallop the same way: when
+ * one run keeps winning, the runner-up is read off the winner's path and
+ * the winner's elements that go before it are copied as a block.
+ *
+ * In-place merges use the SymMerge algorithm of Kim and Kutzner: the
+ * longer run is split in the middle, the matching split point of the
+ * other run is found by binary search, the two inner blocks are swapped by
+ * a rotation, and both halves are merged recursively. That needs no buffer
+ * and O(log n) stack, and takes O(m log(n / m + 1)) comparisons and
+ * O((m + n) log m) moves for runs of m &lt;= n elements.
+ *
+ * Ties always go to the first run, or to the run with the lower index, so
+ * every merge is stable.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class Merging {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private Merging() {
+    }
+
+    /**
+     * Stably merges the sorted runs a[aLo, aHi) and b[bLo, bHi) into dst
+     * starting at dstLo, galloping through long stretches won by one run.
+     *
+     * @param <T>        data type to merge
+     * @param a          the array holding the first run
+     * @param aLo        the start of the first run, inclusive
+     * @param aHi        the end of the first run, exclusive
+     * @param b          the array holding the second run
+     * @param bLo        the start of the second run, inclusive
+     * @param bHi        the end of the second run, exclusive
+     * @param dst        the destination array, not overlapping either run
+     * @param dstLo      the first index written in dst
+     * @param comparator the Comparator used to compare the data
+     */
+    static <T> void merge(T[] a, int aLo, int aHi, T[] b, int bLo, int bHi,
+                          T[] dst, int dstLo, Comparator<T> comparator) {
+        int i = aLo;
+        int j = bLo;
+        int k = dstLo;
+        int aWins = 0;
+        int bWins = 0;
+        while (i < aHi && j < bHi) {
+            if (aWins >= TimSort.MIN_GALLOP) {
+                int count = TimSort.gallopRight(b[j], a, i, aHi - i, 0,
+                    comparator);
+                System.arraycopy(a, i, dst, k, count);
+                i += count;
+                k += count;
+                dst[k++] = b[j++];
+                aWins = 0;
+                bWins = 1;
+            } else if (bWins >= TimSort.MIN_GALLOP) {
+                int count = TimSort.gallopLeft(a[i], b, j, bHi - j, 0,
+                    comparator);
+                System.arraycopy(b, j, dst, k, count);
+                j += count;
+                k += count;
+                dst[k++] = a[i++];
+                bWins = 0;
+                aWins = 1;
+            } else if (comparator.compare(b[j], a[i]) < 0) {
+                dst[k++] = b[j++];
+                bWins++;
+                aWins = 0;
+            } else {
+                dst[k++] = a[i++];
+                aWins++;
+                bWins = 0;
+            }
+        }
+        System.arraycopy(a, i, dst, k, aHi - i);
+        System.arraycopy(b, j, dst, k + aHi - i, bHi - j);
+    }
+
+    /**
+     * Stably merges the sorted runs a[aLo, aHi) and b[bLo, bHi) into dst
+     * starting at dstLo, galloping through long stretches won by one run.
+     *
+     * @param a     the array holding the first run
+     * @param aLo   the start of the first run, inclusive
+     * @param aHi   the end of the first run, exclusive
+     * @param b     the array holding the second run
+     * @param bLo   the start of the second run, inclusive
+     * @param bHi   the end of the second run, exclusive
+     * @param dst   the destination array, not overlapping either run
+     * @param dstLo the first index written in dst
+     */
+    static void merge(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi,
+                      int[] dst, int dstLo) {
+        int i = aLo;
+        int j = bLo;
+        int k = dstLo;
+        int aWins = 0;
+        int bWins = 0;
+        while (i < aHi && j < bHi) {
+            if (aWins >= TimSort.MIN_GALLOP) {
+                int end = gallopAbove(b[j], a, i, aHi);
+                System.arraycopy(a, i, dst, k, end - i);
+                k += end - i;
+                i = end;
+                dst[k++] = b[j++];
+                aWins = 0;
+                bWins = 1;
+            } else if (bWins >= TimSort.MIN_GALLOP) {
+                int end = gallopNotBelow(a[i], b, j, bHi);
+                System.arraycopy(b, j, dst, k, end - j);
+                k += end - j;
+                j = end;
+                dst[k++] = a[i++];
+                bWins = 0;
+                aWins = 1;
+            } else if (b[j] < a[i]) {
+                dst[k++] = b[j++];
+                bWins++;
+                aWins = 0;
+            } else {
+                dst[k++] = a[i++];
+                aWins++;
+                bWins = 0;
+            }
+        }
+        System.arraycopy(a, i, dst, k, aHi - i);
+        System.arraycopy(b, j, dst, k + aHi - i, bHi - j);
+    }
+
+    /**
+     * Stably merges the sorted runs a[aLo, aHi) and b[bLo, bHi) into dst
+     * starting at dstLo, galloping through long stretches won by one run.
+     *
+     * @param a     the array holding the first run
+     * @param aLo   the start of the first run, inclusive
+     * @param aHi   the end of the first run, exclusive
+     * @param b     the array holding the second run
+     * @param bLo   the start of the second run, inclusive
+     * @param bHi   the end of the second run, exclusive
+     * @param dst   the destination array, not overlapping either run
+     * @param dstLo the first index written in dst
+     */
+    static void merge(long[] a, int aLo, int aHi, long[] b, int bLo, int bHi,
+                      long[] dst, int dstLo) {
+        int i = aLo;
+        int j = bLo;
+        int k = dstLo;
+        int aWins = 0;
+        int bWins = 0;
+        while (i < aHi && j < bHi) {
+            if (aWins >= TimSort.MIN_GALLOP) {
+                int end = gallopAbove(b[j], a, i, aHi);
+                System.arraycopy(a, i, dst, k, end - i);
+                k += end - i;
+                i = end;
+                dst[k++] = b[j++];
+                aWins = 0;
+                bWins = 1;
+            } else if (bWins >= TimSort.MIN_GALLOP) {
+                int end = gallopNotBelow(a[i], b, j, bHi);
+                System.arraycopy(b, j, dst, k, end - j);
+                k += end - j;
+                j = end;
+                dst[k++] = a[i++];
+                bWins = 0;
+                aWins = 1;
+            } else if (b[j] < a[i]) {
+                dst[k++] = b[j++];
+                bWins++;
+                aWins = 0;
+            } else {
+                dst[k++] = a[i++];
+                aWins++;
+                bWins = 0;
+            }
+        }
+        System.arraycopy(a, i, dst, k, aHi - i);
+        System.arraycopy(b, j, dst, k + aHi - i, bHi - j);
+    }
+
+    /**
+     * Stably merges sorted int runs into dst starting at dstLo.
+     *
+     * @param runs  the sorted runs
+     * @param dst   the destination array, not overlapping any run
+     * @param dstLo the first index written in dst
+     */
+    static void merge(int[][] runs, int[] dst, int dstLo) {
+        int k = runs.length;
+        if (k == 1) {
+            System.arraycopy(runs[0], 0, dst, dstLo, runs[0].length);
+        } else if (k == 2) {
+            merge(runs[0], 0, runs[0].length, runs[1], 0, runs[1].length,
+                dst, dstLo);
+        } else if (k > 2) {
+            tournament(runs, dst, dstLo);
+        }
+    }
+
+    /**
+     * Stably merges sorted long runs into dst starting at dstLo.
+     *
+     * @param runs  the sorted runs
+     * @param dst   the destination array, not overlapping any run
+     * @param dstLo the first index written in dst
+     */
+    static void merge(long[][] runs, long[] dst, int dstLo) {
+        int k = runs.length;
+        if (k == 1) {
+            System.arraycopy(runs[0], 0, dst, dstLo, runs[0].length);
+        } else if (k == 2) {
+            merge(runs[0], 0, runs[0].length, runs[1], 0, runs[1].length,
+                dst, dstLo);
+        } else if (k > 2) {
+            tournament(runs, dst, dstLo);
+        }
+    }
+
+    /**
+     * Merges at least three sorted int runs into dst through a
+     * LongLoserTree, galloping through a run once it has won
+     * TimSort.MIN_GALLOP times in a row.
+     *
+     * @param runs  the sorted runs
+     * @param dst   the destination array
+     * @param dstLo the first index written
+     */
+    private static void tournament(int[][] runs, int[] dst, int dstLo) {
+        int n = runs.length;
+        int[] heads = new int[n];
+        long[] keys = new long[n];
+        boolean[] exhausted = new boolean[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            total += runs[i].length;
+            exhausted[i] = runs[i].length == 0;
+            if (!exhausted[i]) {
+                keys[i] = runs[i][0];
+            }
+        }
+        LongLoserTree tree = new LongLoserTree(keys, exhausted);
+        int k = dstLo;
+        int end = dstLo + total;
+        int last = -1;
+        int wins = 0;
+        while (k < end) {
+            int winner = tree.winner();
+            wins = winner == last ? wins + 1 : 1;
+            last = winner;
+            int[] run = runs[winner];
+            int head = heads[winner];
+            int stop = head + 1;
+            if (wins >= TimSort.MIN_GALLOP) {
+                int runner = tree.runnerUp();
+                if (runner < 0 || tree.isExhausted(runner)) {
+                    stop = run.length;
+                } else if (winner < runner) {
+                    stop = gallopAbove((int) tree.key(runner), run, head,
+                        run.length);
+                } else {
+                    stop = gallopNotBelow((int) tree.key(runner), run, head,
+                        run.length);
+                }
+                wins = 0;
+            }
+            System.arraycopy(run, head, dst, k, stop - head);
+            k += stop - head;
+            heads[winner] = stop;
+            if (stop < run.length) {
+                tree.advance(run[stop]);
+            } else {
+                tree.exhaust();
+            }
+        }
+    }
+
+    /**
+     * Merges at least three sorted long runs into dst through a
+     * LongLoserTree, galloping through a run once it has won
+     * TimSort.MIN_GALLOP times in a row.
+     *
+     * @param runs  the sorted runs
+     * @param dst   the destination array
+     * @param dstLo the first index written
+     */
+    private static void tournament(long[][] runs, long[] dst, int dstLo) {
+        int n = runs.length;
+        int[] heads = new int[n];
+        long[] keys = new long[n];
+        boolean[] exhausted = new boolean[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            total += runs[i].length;
+            exhausted[i] = runs[i].length == 0;
+            if (!exhausted[i]) {
+                keys[i] = runs[i][0];
+            }
+        }
+        LongLoserTree tree = new LongLoserTree(keys, exhausted);
+        int k = dstLo;
+        int end = dstLo + total;
+        int last = -1;
+        int wins = 0;
+        while (k < end) {
+            int winner = tree.winner();
+            wins = winner == last ? wins + 1 : 1;
+            last = winner;
+            long[] run = runs[winner];
+            int head = heads[winner];
+            int stop = head + 1;
+            if (wins >= TimSort.MIN_GALLOP) {
+                int runner = tree.runnerUp();
+                if (runner < 0 || tree.isExhausted(runner)) {
+                    stop = run.length;
+                } else if (winner < runner) {
+                    stop = gallopAbove(tree.key(runner), run, head, run.length);
+                } else {
+                    stop = gallopNotBelow(tree.key(runner), run, head,
+                        run.length);
+                }
+                wins = 0;
+            }
+            System.arraycopy(run, head, dst, k, stop - head);
+            k += stop - head;
+            heads[winner] = stop;
+            if (stop < run.length) {
+                tree.advance(run[stop]);
+            } else {
+                tree.exhaust();
+            }
+        }
+    }
+
+    /**
+     * Stably merges the adjacent sorted runs arr[lo, mid) and arr[mid, hi)
+     * without a buffer.
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding both runs
+     * @param lo         the start of the first run, inclusive
+     * @param mid        the start of the second run
+     * @param hi         the end of the second run, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts swaps, or null
+     */
+    static <T> void mergeInPlace(T[] arr, int lo, int mid, int hi,
+                                 Comparator<T> comparator, SortProbe probe) {
+        if (lo >= mid || mid >= hi
+            || comparator.compare(arr[mid - 1], arr[mid]) <= 0) {
+            return;
+        }
+        if (mid - lo == 1) {
+            int end = MergeSort.lowerBound(arr, mid, hi, arr[lo], comparator);
+            rotate(arr, lo, mid, end, probe);
+            return;
+        }
+        if (hi - mid == 1) {
+            int start = MergeSort.upperBound(arr, lo, mid, arr[mid], comparator);
+            rotate(arr, start, mid, hi, probe);
+            return;
+        }
+        int half = (lo + hi) >>> 1;
+        int n = half + mid;
+        int start;
+        int r;
+        if (mid > half) {
+            start = n - hi;
+            r = half;
+        } else {
+            start = lo;
+            r = mid;
+        }
+        int p = n - 1;
+        while (start < r) {
+            int c = (start + r) >>> 1;
+            if (comparator.compare(arr[p - c], arr[c]) >= 0) {
+                start = c + 1;
+            } else {
+                r = c;
+            }
+        }
+        int end = n - start;
+        rotate(arr, start, mid, end, probe);
+        mergeInPlace(arr, lo, start, half, comparator, probe);
+        mergeInPlace(arr, half, end, hi, comparator, probe);
+    }
+
+    /**
+     * Stably merges the adjacent sorted runs arr[lo, mid) and arr[mid, hi)
+     * without a buffer.
+     *
+     * @param arr   the array holding both runs
+     * @param lo    the start of the first run, inclusive
+     * @param mid   the start of the second run
+     * @param hi    the end of the second run, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void mergeInPlace(int[] arr, int lo, int mid, int hi,
+                             SortProbe probe) {
+        if (lo >= mid || mid >= hi || arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        if (mid - lo == 1) {
+            int value = arr[lo];
+            int end = gallopNotBelow(value, arr, mid, hi);
+            System.arraycopy(arr, mid, arr, lo, end - mid);
+            arr[end - 1] = value;
+            SortProbe.writes(probe, end - mid + 1);
+            return;
+        }
+        if (hi - mid == 1) {
+            int value = arr[mid];
+            int start = gallopAboveFromEnd(value, arr, lo, mid);
+            System.arraycopy(arr, start, arr, start + 1, mid - start);
+            arr[start] = value;
+            SortProbe.writes(probe, mid - start + 1);
+            return;
+        }
+        int half = (lo + hi) >>> 1;
+        int n = half + mid;
+        int start;
+        int r;
+        if (mid > half) {
+            start = n - hi;
+            r = half;
+        } else {
+            start = lo;
+            r = mid;
+        }
+        int p = n - 1;
+        while (start < r) {
+            int c = (start + r) >>> 1;
+            if (arr[p - c] >= arr[c]) {
+                start = c + 1;
+            } else {
+                r = c;
+            }
+        }
+        int end = n - start;
+        rotate(arr, start, mid, end, probe);
+        mergeInPlace(arr, lo, start, half, probe);
+        mergeInPlace(arr, half, end, hi, probe);
+    }
+
+    /**
+     * Stably merges the adjacent sorted runs arr[lo, mid) and arr[mid, hi)
+     * without a buffer.
+     *
+     * @param arr   the array holding both runs
+     * @param lo    the start of the first run, inclusive
+     * @param mid   the start of the second run
+     * @param hi    the end of the second run, exclusive
+     * @param probe the probe that counts swaps and writes, or null
+     */
+    static void mergeInPlace(long[] arr, int lo, int mid, int hi,
+                             SortProbe probe) {
+        if (lo >= mid || mid >= hi || arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        if (mid - lo == 1) {
+            long value = arr[lo];
+            int end = gallopNotBelow(value, arr, mid, hi);
+            System.arraycopy(arr, mid, arr, lo, end - mid);
+            arr[end - 1] = value;
+            SortProbe.writes(probe, end - mid + 1);
+            return;
+        }
+        if (hi - mid == 1) {
+            long value = arr[mid];
+            int start = gallopAboveFromEnd(value, arr, lo, mid);
+            System.arraycopy(arr, start, arr, start + 1, mid - start);
+            arr[start] = value;
+            SortProbe.writes(probe, mid - start + 1);
+            return;
+        }
+        int half = (lo + hi) >>> 1;
+        int n = half + mid;
+        int start;
+        int r;
+        if (mid > half) {
+            start = n - hi;
+            r = half;
+        } else {
+            start = lo;
+            r = mid;
+        }
+        int p = n - 1;
+        while (start < r) {
+            int c = (start + r) >>> 1;
+            if (arr[p - c] >= arr[c]) {
+                start = c + 1;
+            } else {
+                r = c;
+            }
+        }
+        int end = n - start;
+        rotate(arr, start, mid, end, probe);
+        mergeInPlace(arr, lo, start, half, probe);
+        mergeInPlace(arr, half, end, hi, probe);
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * greater than key, searching outwards from lo.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopAbove(int key, int[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && arr[probe] <= key) {
+            lo = probe + 1;
+            probe = hi - probe <= step ? hi : probe + step;
+            step <<= 1;
+        }
+        hi = probe;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * not less than key, searching outwards from lo.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopNotBelow(int key, int[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && arr[probe] < key) {
+            lo = probe + 1;
+            probe = hi - probe <= step ? hi : probe + step;
+            step <<= 1;
+        }
+        hi = probe;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * greater than key, searching outwards from hi.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopAboveFromEnd(int key, int[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = hi - 1;
+        while (probe >= lo && arr[probe] > key) {
+            hi = probe;
+            probe = probe - lo < step ? lo - 1 : probe - step;
+            step <<= 1;
+        }
+        lo = probe + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * greater than key, searching outwards from lo.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopAbove(long key, long[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && arr[probe] <= key) {
+            lo = probe + 1;
+            probe = hi - probe <= step ? hi : probe + step;
+            step <<= 1;
+        }
+        hi = probe;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * not less than key, searching outwards from lo.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopNotBelow(long key, long[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && arr[probe] < key) {
+            lo = probe + 1;
+            probe = hi - probe <= step ? hi : probe + step;
+            step <<= 1;
+        }
+        hi = probe;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in the sorted range arr[lo, hi) whose value is
+     * greater than key, searching outwards from hi.
+     *
+     * @param key the key
+     * @param arr the array holding the range
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     * @return the index, in [lo, hi]
+     */
+    private static int gallopAboveFromEnd(long key, long[] arr, int lo, int hi) {
+        int step = 1;
+        int probe = hi - 1;
+        while (probe >= lo && arr[probe] > key) {
+            hi = probe;
+            probe = probe - lo < step ? lo - 1 : probe - step;
+            step <<= 1;
+        }
+        lo = probe + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Swaps the adjacent blocks arr[lo, mid) and arr[mid, hi) by three
+     * reversals.
+     *
+     * @param arr   the array
+     * @param lo    the start of the first block
+     * @param mid   the start of the second block
+     * @param hi    the end of the second block
+     * @param probe the probe that counts swaps, or null
+     */
+    static void rotate(Object[] arr, int lo, int mid, int hi,
+                       SortProbe probe) {
+        if (lo < mid && mid < hi) {
+            reverse(arr, lo, mid);
+            reverse(arr, mid, hi);
+            reverse(arr, lo, hi);
+            SortProbe.swaps(probe, (mid - lo) / 2 + (hi - mid) / 2
+                + (hi - lo) / 2);
+        }
+    }
+
+    /**
+     * Swaps the adjacent blocks arr[lo, mid) and arr[mid, hi) by three
+     * reversals.
+     *
+     * @param arr   the array
+     * @param lo    the start of the first block
+     * @param mid   the start of the second block
+     * @param hi    the end of the second block
+     * @param probe the probe that counts swaps, or null
+     */
+    static void rotate(int[] arr, int lo, int mid, int hi, SortProbe probe) {
+        if (lo < mid && mid < hi) {
+            reverse(arr, lo, mid);
+            reverse(arr, mid, hi);
+            reverse(arr, lo, hi);
+            SortProbe.swaps(probe, (mid - lo) / 2 + (hi - mid) / 2
+                + (hi - lo) / 2);
+        }
+    }
+
+    /**
+     * Swaps the adjacent blocks arr[lo, mid) and arr[mid, hi) by three
+     * reversals.
+     *
+     * @param arr   the array
+     * @param lo    the start of the first block
+     * @param mid   the start of the second block
+     * @param hi    the end of the second block
+     * @param probe the probe that counts swaps, or null
+     */
+    static void rotate(long[] arr, int lo, int mid, int hi, SortProbe probe) {
+        if (lo < mid && mid < hi) {
+            reverse(arr, lo, mid);
+            reverse(arr, mid, hi);
+            reverse(arr, lo, hi);
+            SortProbe.swaps(probe, (mid - lo) / 2 + (hi - mid) / 2
+                + (hi - lo) / 2);
+        }
+    }
+
+    /**
+     * Reverses arr[lo, hi).
+     *
+     * @param arr the array
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     */
+    private static void reverse(Object[] arr, int lo, int hi) {
+        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+            Object temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses arr[lo, hi).
+     *
+     * @param arr the array
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     */
+    private static void reverse(int[] arr, int lo, int hi) {
+        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses arr[lo, hi).
+     *
+     * @param arr the array
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, exclusive
+     */
+    private static void reverse(long[] arr, int lo, int hi) {
+        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+            long temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the public merge operations of Sorting.
+ *
+ * Object runs hold {key, run, position} triples compared by key only, so
+ * the expected result, a stable sort of the concatenated runs, also checks
+ * that ties keep their order.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class MergingTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final Comparator<int[]> BY_KEY =
+        Comparator.comparingInt(triple -> triple[0]);
+    private Random rand = new Random(2323);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testTwoWayMergeRandomized() {
+        for (int i = 0; i < 500; ++i) {
+            int bound = 1 + rand.nextInt(1000);
+            int[][] a = run(0, skewedLength(), bound);
+            int[][] b = run(1, skewedLength(), bound);
+            int[][] dst = new int[a.length + b.length + rand.nextInt(3)][];
+            Sorting.merge(a, b, dst, BY_KEY);
+            assertArrayEquals(expected(a, b), Arrays.copyOf(dst, a.length + b.length));
+
+            int[] x = keys(a);
+            int[] y = keys(b);
+            int[] merged = new int[x.length + y.length];
+            Sorting.merge(x, y, merged);
+            assertArrayEquals(sortedConcat(x, y), merged);
+
+            long[] lx = Arrays.stream(x).asLongStream().toArray();
+            long[] ly = Arrays.stream(y).asLongStream().toArray();
+            long[] lmerged = new long[x.length + y.length];
+            Sorting.merge(lx, ly, lmerged);
+            assertArrayEquals(Arrays.stream(merged).asLongStream().toArray(),
+                lmerged);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testKWayMergeRandomized() {
+        for (int i = 0; i < 300; ++i) {
+            int k = rand.nextInt(20);
+            int bound = 1 + rand.nextInt(500);
+            int[][][] runs = new int[k][][];
+            int[][] intRuns = new int[k][];
+            long[][] longRuns = new long[k][];
+            for (int r = 0; r < k; r++) {
+                runs[r] = run(r, skewedLength(), bound);
+                intRuns[r] = keys(runs[r]);
+                longRuns[r] = Arrays.stream(intRuns[r]).asLongStream().toArray();
+            }
+            int[][] expected = expected(runs);
+            int[][] dst = new int[expected.length][];
+            Sorting.merge(runs, dst, BY_KEY);
+            assertArrayEquals(expected, dst);
+
+            int[] expectedKeys = keys(expected);
+            int[] merged = new int[expected.length];
+            Sorting.merge(intRuns, merged);
+            assertArrayEquals(expectedKeys, merged);
+            long[] lmerged = new long[expected.length];
+            Sorting.merge(longRuns, lmerged);
+            assertArrayEquals(Arrays.stream(expectedKeys).asLongStream().toArray(),
+                lmerged);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testMergeInPlaceRandomized() {
+        for (int i = 0; i < 500; ++i) {
+            int bound = 1 + rand.nextInt(1000);
+            int[][] a = run(0, skewedLength(), bound);
+            int[][] b = run(1, skewedLength(), bound);
+            int pad = rand.nextInt(3);
+            int[][] arr = new int[pad + a.length + b.length + pad][];
+            Arrays.fill(arr, new int[] {-1, -1, -1});
+            System.arraycopy(a, 0, arr, pad, a.length);
+            System.arraycopy(b, 0, arr, pad + a.length, b.length);
+            int[] ints = keys(arr);
+            long[] longs = Arrays.stream(ints).asLongStream().toArray();
+            int hi = pad + a.length + b.length;
+
+            Sorting.mergeInPlace(arr, pad, pad + a.length, hi, BY_KEY);
+            assertArrayEquals(expected(a, b), Arrays.copyOfRange(arr, pad, hi));
+            Sorting.mergeInPlace(ints, pad, pad + a.length, hi);
+            assertArrayEquals(keys(arr), ints);
+            Sorting.mergeInPlace(longs, pad, pad + a.length, hi);
+            assertArrayEquals(Arrays.stream(ints).asLongStream().toArray(), longs);
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testGallopingSkewedMerge() {
+        int[][] large = run(0, 100000, 1000000);
+        int[][] small = run(1, 10, 1000000);
+        long[] comparisons = new long[1];
+        Comparator<int[]> counting = (x, y) -> {
+            comparisons[0]++;
+            return Integer.compare(x[0], y[0]);
+        };
+        int[][] dst = new int[large.length + small.length][];
+        Sorting.merge(large, small, dst, counting);
+        assertArrayEquals(expected(large, small), dst);
+        assertTrue(comparisons[0] < 2000);
+
+        comparisons[0] = 0;
+        int[][][] shards = new int[9][][];
+        shards[0] = large;
+        for (int r = 1; r < shards.length; r++) {
+            shards[r] = run(r, 10, 1000000);
+        }
+        dst = new int[large.length + 80][];
+        Sorting.merge(shards, dst, counting);
+        assertArrayEquals(expected(shards), dst);
+        assertTrue(comparisons[0] < 20000);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testEmptyInputs() {
+        Sorting.merge(new Integer[0][], new Integer[0], Comparator.naturalOrder());
+        Sorting.merge(new int[0][], new int[0]);
+        int[] arr = {3, 1};
+        Sorting.mergeInPlace(arr, 0, 0, 2);
+        Sorting.mergeInPlace(arr, 0, 2, 2);
+        assertArrayEquals(new int[] {3, 1}, arr);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testKWayMergeExtremeKeys() {
+        //the int runs go through the same tree as long keys, so the
+        //extremes of both types must still merge in order
+        int[] ints = new int[7];
+        Sorting.merge(new int[][] {{Integer.MIN_VALUE, Integer.MAX_VALUE},
+            {}, {-1, 0, Integer.MAX_VALUE}, {Integer.MIN_VALUE, 5}}, ints);
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, Integer.MIN_VALUE, -1,
+            0, 5, Integer.MAX_VALUE, Integer.MAX_VALUE}, ints);
+        long[] longs = new long[5];
+        Sorting.merge(new long[][] {{Long.MAX_VALUE}, {Long.MIN_VALUE, 0},
+            {}, {Long.MIN_VALUE, Long.MAX_VALUE}}, longs);
+        assertArrayEquals(new long[] {Long.MIN_VALUE, Long.MIN_VALUE, 0,
+            Long.MAX_VALUE, Long.MAX_VALUE}, longs);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testMergeDstTooShort() {
+        Sorting.merge(new int[] {1, 2}, new int[] {3}, new int[2]);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testMergeIntoInput() {
+        int[] a = new int[4];
+        Sorting.merge(a, new int[0], a);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testKWayNullRun() {
+        Sorting.merge(new long[][] {{1}, null}, new long[2]);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testMergeInPlaceBadBounds() {
+        Sorting.mergeInPlace(new Integer[4], 0, 3, 2, Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns a length that is usually short and sometimes long, so that
+     * pairs of runs are often skewed.
+     */
+    private int skewedLength() {
+        return rand.nextInt(4) == 0 ? rand.nextInt(3000) : rand.nextInt(40);
+    }
+
+    /**
+     * Generates a sorted run of {key, run, position} triples.
+     */
+    private int[][] run(int id, int length, int bound) {
+        int[] keys = rand.ints(length, 0, bound).toArray();
+        Arrays.sort(keys);
+        int[][] run = new int[length][];
+        for (int i = 0; i < length; i++) {
+            run[i] = new int[] {keys[i], id, i};
+        }
+        return run;
+    }
+
+    private static int[][] expected(int[][]... runs) {
+        int[][] all = Arrays.stream(runs).flatMap(Arrays::stream)
+            .toArray(int[][]::new);
+        Arrays.sort(all, BY_KEY);
+        return all;
+    }
+
+    private static int[] keys(int[][] triples) {
+        return Arrays.stream(triples).mapToInt(triple -> triple[0]).toArray();
+    }
+
+    private static int[] sortedConcat(int[] a, int[] b) {
+        int[] all = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        Arrays.sort(all);
+        return all;
+    }
+}
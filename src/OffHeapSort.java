@@ -0,0 +1,455 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Sort for fixed-width records held in a ByteBuffer, usually a direct or
+ * memory-mapped one, so that neither the records nor their keys become
+ * heap objects.
+ *
+ * A record is stride bytes long and its key is the keyWidth bytes starting
+ * keyOffset bytes into the record. Keys compare as unsigned bytes, first
+ * byte most significant, the way memcmp does: big-endian unsigned integers
+ * and ASCII strings sort naturally, and a signed big-endian key sorts
+ * correctly once the caller flips its sign bit. The records of a buffer are
+ * those between its position and its limit; neither is changed.
+ *
+ * There are two engines, each in two forms:
+ * 1.) radix - an LSD radix sort with one pass per key byte, skipping bytes
+ *     that are the same in every record. O(keyWidth * n), best for short
+ *     keys.
+ * 2.) merge - a bottom-up merge sort over runs first insertion sorted in
+ *     place. O(n log n) comparisons of at most keyWidth bytes, the better
+ *     choice for long keys that differ early.
+ * The record forms move whole records and need a scratch buffer as large
+ * as the records, which is allocated off-heap when not given. The index
+ * forms leave the buffer untouched, which also makes read-only and shared
+ * buffers sortable, and return the record numbers in sorted order; record
+ * i starts at byte i * stride from the position. They keep two int arrays
+ * of n entries on the heap, which is still a fraction of what n objects
+ * would cost.
+ *
+ * All four are stable. A single ByteBuffer holds at most 2 GB; larger data
+ * sets are sorted a mapped region at a time and merged, or with
+ * ExternalSort. An instance holds only the record layout, so it can be
+ * reused and shared between threads.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class OffHeapSort {
+
+    /**
+     * Number of records per run that the merge sorts insertion sort before
+     * the first merge pass.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    private final int stride;
+    private final int keyOffset;
+    private final int keyWidth;
+
+    /**
+     * Creates a sort for one record layout.
+     *
+     * @param stride    the length of a record in bytes
+     * @param keyOffset the offset of the key within a record
+     * @param keyWidth  the length of the key in bytes
+     * @throws java.lang.IllegalArgumentException if stride or keyWidth is
+     *                                            less than 1, keyOffset is
+     *                                            negative, or the key does
+     *                                            not fit in the record
+     */
+    public OffHeapSort(int stride, int keyOffset, int keyWidth) {
+        if (stride < 1) {
+            throw new java.lang.IllegalArgumentException("stride must be positive");
+        } else if (keyOffset < 0) {
+            throw new java.lang.IllegalArgumentException("key offset is negative");
+        } else if (keyWidth < 1) {
+            throw new java.lang.IllegalArgumentException("key width must be positive");
+        } else if (keyOffset > stride - keyWidth) {
+            throw new java.lang.IllegalArgumentException("key does not fit in the record");
+        } else {
+            this.stride = stride;
+            this.keyOffset = keyOffset;
+            this.keyWidth = keyWidth;
+        }
+    }
+
+    /**
+     * Radix sorts the records of a buffer in place, with an off-heap
+     * scratch buffer allocated for the call.
+     *
+     * @param records the buffer holding the records
+     * @throws java.lang.IllegalArgumentException if records is null or
+     *                                            read-only, or does not hold
+     *                                            a whole number of records
+     */
+    public void radixSort(ByteBuffer records) {
+        radixSort(records, scratchFor(records));
+    }
+
+    /**
+     * Radix sorts the records of a buffer in place.
+     *
+     * It should be:
+     * stable
+     * not in-place, the scratch buffer receives every other pass
+     *
+     * Have a worst case running time of:
+     * O(keyWidth * n)
+     *
+     * @param records the buffer holding the records
+     * @param scratch a buffer with at least as many bytes remaining as
+     *                records, overwritten by the sort
+     * @throws java.lang.IllegalArgumentException if either buffer is null or
+     *                                            read-only, records does not
+     *                                            hold a whole number of
+     *                                            records, or scratch is too
+     *                                            short
+     */
+    public void radixSort(ByteBuffer records, ByteBuffer scratch) {
+        int n = checkWritable(records, scratch);
+        int bytes = n * stride;
+        ByteBuffer data = records.slice();
+        ByteBuffer src = data;
+        ByteBuffer dst = scratch.slice().limit(bytes);
+        int[] count = new int[257];
+        for (int b = keyOffset + keyWidth - 1; b >= keyOffset; b--) {
+            if (!countBytes(src, n, b, count)) {
+                continue;
+            }
+            for (int i = 0, at = b; i < n; i++, at += stride) {
+                int bucket = src.get(at) & 0xFF;
+                dst.put(count[bucket]++ * stride, src, at - b, stride);
+            }
+            ByteBuffer temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != data) {
+            data.put(0, src, 0, bytes);
+        }
+    }
+
+    /**
+     * Merge sorts the records of a buffer in place, with an off-heap
+     * scratch buffer allocated for the call.
+     *
+     * @param records the buffer holding the records
+     * @throws java.lang.IllegalArgumentException if records is null or
+     *                                            read-only, or does not hold
+     *                                            a whole number of records
+     */
+    public void mergeSort(ByteBuffer records) {
+        mergeSort(records, scratchFor(records));
+    }
+
+    /**
+     * Merge sorts the records of a buffer in place.
+     *
+     * It should be:
+     * stable
+     * not in-place, the scratch buffer receives every other pass
+     *
+     * Have a worst case running time of:
+     * O(keyWidth * n log n)
+     *
+     * @param records the buffer holding the records
+     * @param scratch a buffer with at least as many bytes remaining as
+     *                records, overwritten by the sort
+     * @throws java.lang.IllegalArgumentException if either buffer is null or
+     *                                            read-only, records does not
+     *                                            hold a whole number of
+     *                                            records, or scratch is too
+     *                                            short
+     */
+    public void mergeSort(ByteBuffer records, ByteBuffer scratch) {
+        int n = checkWritable(records, scratch);
+        int bytes = n * stride;
+        ByteBuffer data = records.slice();
+        ByteBuffer hold = ByteBuffer.allocate(stride);
+        for (int lo = 0; lo < n; lo += INSERTION_THRESHOLD) {
+            int hi = Math.min(lo + INSERTION_THRESHOLD, n);
+            for (int i = lo + 1; i < hi; i++) {
+                int j = i;
+                if (compare(data, (j - 1) * stride, data, j * stride) <= 0) {
+                    continue;
+                }
+                hold.put(0, data, j * stride, stride);
+                do {
+                    data.put(j * stride, data, (j - 1) * stride, stride);
+                    j--;
+                } while (j > lo && compare(data, (j - 1) * stride, hold, 0) > 0);
+                data.put(j * stride, hold, 0, stride);
+            }
+        }
+        ByteBuffer src = data;
+        ByteBuffer dst = scratch.slice().limit(bytes);
+        for (int width = INSERTION_THRESHOLD; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                mergeRecords(src, dst, lo, mid, hi);
+            }
+            ByteBuffer temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != data) {
+            data.put(0, src, 0, bytes);
+        }
+    }
+
+    /**
+     * Radix sorts the record numbers of a buffer by key, leaving the buffer
+     * as it is.
+     *
+     * It should be:
+     * stable
+     * not in-place, two int arrays of n entries
+     *
+     * Have a worst case running time of:
+     * O(keyWidth * n)
+     *
+     * @param records the buffer holding the records, which may be read-only
+     * @return the record numbers in sorted order
+     * @throws java.lang.IllegalArgumentException if records is null or does
+     *                                            not hold a whole number of
+     *                                            records
+     */
+    public int[] radixSortIndex(ByteBuffer records) {
+        int n = checkRecords(records);
+        ByteBuffer data = records.slice();
+        int[] index = identity(n);
+        int[] temp = new int[n];
+        int[] count = new int[257];
+        for (int b = keyOffset + keyWidth - 1; b >= keyOffset; b--) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) {
+                count[(data.get(index[i] * stride + b) & 0xFF) + 1]++;
+            }
+            if (n == 0 || count[(data.get(index[0] * stride + b) & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int i = 0; i < 256; i++) {
+                count[i + 1] += count[i];
+            }
+            for (int i = 0; i < n; i++) {
+                temp[count[data.get(index[i] * stride + b) & 0xFF]++] = index[i];
+            }
+            int[] swap = index;
+            index = temp;
+            temp = swap;
+        }
+        return index;
+    }
+
+    /**
+     * Merge sorts the record numbers of a buffer by key, leaving the buffer
+     * as it is.
+     *
+     * It should be:
+     * stable
+     * not in-place, two int arrays of n entries
+     *
+     * Have a worst case running time of:
+     * O(keyWidth * n log n)
+     *
+     * @param records the buffer holding the records, which may be read-only
+     * @return the record numbers in sorted order
+     * @throws java.lang.IllegalArgumentException if records is null or does
+     *                                            not hold a whole number of
+     *                                            records
+     */
+    public int[] mergeSortIndex(ByteBuffer records) {
+        int n = checkRecords(records);
+        ByteBuffer data = records.slice();
+        int[] index = identity(n);
+        for (int lo = 0; lo < n; lo += INSERTION_THRESHOLD) {
+            int hi = Math.min(lo + INSERTION_THRESHOLD, n);
+            for (int i = lo + 1; i < hi; i++) {
+                int value = index[i];
+                int j = i;
+                while (j > lo && compare(data, index[j - 1] * stride,
+                    data, value * stride) > 0) {
+                    index[j] = index[j - 1];
+                    j--;
+                }
+                index[j] = value;
+            }
+        }
+        int[] src = index;
+        int[] dst = new int[n];
+        for (int width = INSERTION_THRESHOLD; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (compare(data, src[j] * stride, data, src[i] * stride) < 0) {
+                        dst[k++] = src[j++];
+                    } else {
+                        dst[k++] = src[i++];
+                    }
+                }
+                System.arraycopy(src, i, dst, k, mid - i);
+                System.arraycopy(src, j, dst, k + mid - i, hi - j);
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        return src;
+    }
+
+    /**
+     * Compares the keys of two records.
+     *
+     * @param a      the buffer holding the first record
+     * @param aStart the absolute index of the first record
+     * @param b      the buffer holding the second record
+     * @param bStart the absolute index of the second record
+     * @return a negative number, zero or a positive number as the first key
+     *         is less than, equal to or greater than the second
+     */
+    int compare(ByteBuffer a, int aStart, ByteBuffer b, int bStart) {
+        int i = aStart + keyOffset;
+        int j = bStart + keyOffset;
+        int end = i + keyWidth;
+        for (; i + Long.BYTES <= end; i += Long.BYTES, j += Long.BYTES) {
+            int cmp = Long.compareUnsigned(a.getLong(i), b.getLong(j));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        for (; i < end; i++, j++) {
+            int cmp = (a.get(i) & 0xFF) - (b.get(j) & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Merges the sorted records [lo, mid) and [mid, hi) of src into the
+     * same positions of dst.
+     *
+     * @param src the buffer holding both runs
+     * @param dst the buffer that receives the merge
+     * @param lo  the first record of the left run
+     * @param mid the first record of the right run
+     * @param hi  the record after the right run
+     */
+    private void mergeRecords(ByteBuffer src, ByteBuffer dst, int lo, int mid,
+                              int hi) {
+        int i = lo * stride;
+        int j = mid * stride;
+        int k = i;
+        int midByte = j;
+        int hiByte = hi * stride;
+        while (i < midByte && j < hiByte) {
+            if (compare(src, j, src, i) < 0) {
+                dst.put(k, src, j, stride);
+                j += stride;
+            } else {
+                dst.put(k, src, i, stride);
+                i += stride;
+            }
+            k += stride;
+        }
+        dst.put(k, src, i, midByte - i);
+        dst.put(k + midByte - i, src, j, hiByte - j);
+    }
+
+    /**
+     * Counts the values of one key byte over all records and turns the
+     * counts into bucket starts.
+     *
+     * @param data  the records
+     * @param n     the number of records
+     * @param b     the offset of the byte within a record
+     * @param count the 257 counters to fill
+     * @return false if every record has the same value there, so the pass
+     *         can be skipped
+     */
+    private boolean countBytes(ByteBuffer data, int n, int b, int[] count) {
+        Arrays.fill(count, 0);
+        for (int i = 0, at = b; i < n; i++, at += stride) {
+            count[(data.get(at) & 0xFF) + 1]++;
+        }
+        if (n == 0 || count[(data.get(b) & 0xFF) + 1] == n) {
+            return false;
+        }
+        for (int i = 0; i < 256; i++) {
+            count[i + 1] += count[i];
+        }
+        return true;
+    }
+
+    /**
+     * Validates a buffer to be read and returns its number of records.
+     *
+     * @param records the buffer holding the records
+     * @return the number of records
+     */
+    private int checkRecords(ByteBuffer records) {
+        if (records == null) {
+            throw new java.lang.IllegalArgumentException("records is null");
+        } else if (records.remaining() % stride != 0) {
+            throw new java.lang.IllegalArgumentException("buffer does not hold a whole number of records");
+        } else {
+            return records.remaining() / stride;
+        }
+    }
+
+    /**
+     * Validates a buffer to be sorted in place and its scratch buffer, and
+     * returns the number of records.
+     *
+     * @param records the buffer holding the records
+     * @param scratch the scratch buffer
+     * @return the number of records
+     */
+    private int checkWritable(ByteBuffer records, ByteBuffer scratch) {
+        int n = checkRecords(records);
+        if (records.isReadOnly()) {
+            throw new java.lang.IllegalArgumentException("records is read-only");
+        } else if (scratch == null) {
+            throw new java.lang.IllegalArgumentException("scratch is null");
+        } else if (scratch.isReadOnly()) {
+            throw new java.lang.IllegalArgumentException("scratch is read-only");
+        } else if (scratch.remaining() < records.remaining()) {
+            throw new java.lang.IllegalArgumentException("scratch is shorter than records");
+        } else {
+            return n;
+        }
+    }
+
+    /**
+     * Allocates an off-heap scratch buffer for a buffer of records.
+     *
+     * @param records the buffer holding the records
+     * @return a direct buffer as long as the records
+     */
+    private ByteBuffer scratchFor(ByteBuffer records) {
+        checkRecords(records);
+        return ByteBuffer.allocateDirect(records.remaining());
+    }
+
+    /**
+     * Returns the record numbers 0 to n - 1 in order.
+     *
+     * @param n the number of records
+     * @return the identity permutation
+     */
+    private static int[] identity(int n) {
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,153 @@
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for OffHeapSort against Arrays.sort of the same records as byte
+ * arrays.
+ *
+ * Every record carries its original position after the key, so comparing
+ * whole records also checks stability.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class OffHeapSortTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(2020);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testRecordSortsRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int keyOffset = rand.nextInt(4);
+            int keyWidth = 1 + rand.nextInt(12);
+            int stride = keyOffset + keyWidth + Integer.BYTES + rand.nextInt(4);
+            int n = rand.nextInt(2000);
+            byte[][] records = records(n, stride, keyOffset, keyWidth,
+                1 + rand.nextInt(256));
+            byte[][] expected = sorted(records, keyOffset, keyWidth);
+            OffHeapSort sort = new OffHeapSort(stride, keyOffset, keyWidth);
+
+            ByteBuffer buffer = direct(records, stride, 3);
+            sort.radixSort(buffer);
+            assertEquals(3, buffer.position());
+            assertArrayEquals(expected, read(buffer, stride));
+
+            buffer = direct(records, stride, 0);
+            sort.mergeSort(buffer, ByteBuffer.allocate(buffer.remaining() + 5));
+            assertArrayEquals(expected, read(buffer, stride));
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIndexSortsRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int keyOffset = rand.nextInt(4);
+            int keyWidth = 1 + rand.nextInt(12);
+            int stride = keyOffset + keyWidth + Integer.BYTES;
+            int n = rand.nextInt(2000);
+            byte[][] records = records(n, stride, keyOffset, keyWidth,
+                1 + rand.nextInt(256));
+            byte[][] expected = sorted(records, keyOffset, keyWidth);
+            OffHeapSort sort = new OffHeapSort(stride, keyOffset, keyWidth);
+            ByteBuffer buffer = direct(records, stride, 0).asReadOnlyBuffer();
+
+            for (int[] index : new int[][] {sort.radixSortIndex(buffer),
+                sort.mergeSortIndex(buffer)}) {
+                byte[][] actual = new byte[n][];
+                for (int j = 0; j < n; j++) {
+                    actual[j] = records[index[j]];
+                }
+                assertArrayEquals(expected, actual);
+            }
+            assertArrayEquals(records, read(buffer, stride));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testUnsignedKeyOrder() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * Integer.BYTES);
+        buffer.putInt(0, -1).putInt(4, 7).putInt(8, Integer.MIN_VALUE)
+            .putInt(12, 0);
+        new OffHeapSort(Integer.BYTES, 0, Integer.BYTES).radixSort(buffer);
+        int[] actual = new int[4];
+        buffer.asIntBuffer().get(actual);
+        assertArrayEquals(new int[] {0, 7, Integer.MIN_VALUE, -1}, actual);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testKeyOutsideRecord() {
+        new OffHeapSort(8, 4, 5);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testPartialRecord() {
+        new OffHeapSort(8, 0, 4).mergeSortIndex(ByteBuffer.allocate(12));
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testReadOnlyRecords() {
+        new OffHeapSort(8, 0, 4).radixSort(
+            ByteBuffer.allocate(16).asReadOnlyBuffer());
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testShortScratch() {
+        new OffHeapSort(8, 0, 4).mergeSort(ByteBuffer.allocate(16),
+            ByteBuffer.allocate(8));
+    }
+
+    /**
+     * Generates records with random keys below bound in every byte and the
+     * record's position in the four bytes after the key.
+     */
+    private byte[][] records(int n, int stride, int keyOffset, int keyWidth,
+                             int bound) {
+        byte[][] records = new byte[n][stride];
+        for (int j = 0; j < n; j++) {
+            rand.nextBytes(records[j]);
+            for (int b = 0; b < keyWidth; b++) {
+                records[j][keyOffset + b] = (byte) rand.nextInt(bound);
+            }
+            ByteBuffer.wrap(records[j]).putInt(keyOffset + keyWidth, j);
+        }
+        return records;
+    }
+
+    private static byte[][] sorted(byte[][] records, int keyOffset,
+                                   int keyWidth) {
+        byte[][] expected = records.clone();
+        Arrays.sort(expected, (Comparator<byte[]>) (a, b) ->
+            Arrays.compareUnsigned(a, keyOffset, keyOffset + keyWidth,
+                b, keyOffset, keyOffset + keyWidth));
+        return expected;
+    }
+
+    private static ByteBuffer direct(byte[][] records, int stride, int skip) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(skip
+            + records.length * stride);
+        buffer.position(skip);
+        for (byte[] record : records) {
+            buffer.put(record);
+        }
+        buffer.position(skip);
+        return buffer;
+    }
+
+    private static byte[][] read(ByteBuffer buffer, int stride) {
+        ByteBuffer copy = buffer.duplicate();
+        byte[][] records = new byte[copy.remaining() / stride][stride];
+        for (byte[] record : records) {
+            copy.get(record);
+        }
+        return records;
+    }
+}
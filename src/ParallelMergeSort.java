@@ -0,0 +1,195 @@
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join merge sort engine behind Sorting.parallelMergeSort.
+ *
+ * The array and one auxiliary copy of it are allocated once per call. Each
+ * level of the recursion sorts its halves into the opposite array and then
+ * merges them back, so no per-level copies are made. Large merges are split
+ * in parallel by binary searching the median of the longer run in the
+ * shorter run. Ranges at or below the cutoff are sorted sequentially by
+ * MergeSort.
+ *
+ * Equal elements always take the left run first, so the sort is stable.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class ParallelMergeSort {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private ParallelMergeSort() {
+    }
+
+    /**
+     * Sorts the array in the given pool.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data in arr
+     * @param pool       the pool that runs the tasks
+     * @param cutoff     ranges at most this long are sorted sequentially;
+     *                   values below 2 are treated as 2
+     * @param probe      the probe that counts writes, or null; it is
+     *                   shared by the tasks
+     */
+    static <T> void sort(T[] arr, Comparator<T> comparator, ForkJoinPool pool,
+                         int cutoff, SortProbe probe) {
+        if (arr.length < 2) {
+            return;
+        }
+        T[] aux = arr.clone();
+        SortProbe.writes(probe, arr.length);
+        int grain = Math.max(cutoff, 2);
+        pool.invoke(new SortTask<>(arr, aux, 0, arr.length, false, comparator,
+            grain, probe));
+    }
+
+    /**
+     * Sorts arr[lo, hi), leaving the result in aux when intoAux is set and
+     * in arr otherwise. Both arrays must hold the same elements in the range
+     * when the task starts.
+     *
+     * @param <T> data type to sort
+     */
+    private static final class SortTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] arr;
+        private final T[] aux;
+        private final int lo;
+        private final int hi;
+        private final boolean intoAux;
+        private final Comparator<T> comparator;
+        private final int cutoff;
+        private final SortProbe probe;
+
+        /**
+         * Creates a sort task.
+         *
+         * @param arr        the array being sorted
+         * @param aux        the auxiliary copy of arr
+         * @param lo         the start of the range, inclusive
+         * @param hi         the end of the range, exclusive
+         * @param intoAux    whether the result belongs in aux
+         * @param comparator the Comparator used to compare the data
+         * @param cutoff     ranges at most this long are sorted sequentially
+         * @param probe      the probe that counts writes, or null
+         */
+        SortTask(T[] arr, T[] aux, int lo, int hi, boolean intoAux,
+                 Comparator<T> comparator, int cutoff, SortProbe probe) {
+            this.arr = arr;
+            this.aux = aux;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoAux = intoAux;
+            this.comparator = comparator;
+            this.cutoff = cutoff;
+            this.probe = probe;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= cutoff) {
+                if (intoAux) {
+                    MergeSort.sortInto(arr, aux, lo, hi, comparator, probe);
+                } else {
+                    MergeSort.sortInto(aux, arr, lo, hi, comparator, probe);
+                }
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            invokeAll(
+                new SortTask<>(arr, aux, lo, mid, !intoAux, comparator, cutoff,
+                    probe),
+                new SortTask<>(arr, aux, mid, hi, !intoAux, comparator, cutoff,
+                    probe));
+            T[] src = intoAux ? arr : aux;
+            T[] dst = intoAux ? aux : arr;
+            new MergeTask<>(src, lo, mid, mid, hi, dst, lo, comparator, cutoff,
+                probe).compute();
+        }
+    }
+
+    /**
+     * Stably merges src[aLo, aHi) and src[bLo, bHi) into dst at dstLo,
+     * splitting the work in two whenever the merge is longer than the cutoff.
+     *
+     * @param <T> data type to merge
+     */
+    private static final class MergeTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] src;
+        private final int aLo;
+        private final int aHi;
+        private final int bLo;
+        private final int bHi;
+        private final T[] dst;
+        private final int dstLo;
+        private final Comparator<T> comparator;
+        private final int cutoff;
+        private final SortProbe probe;
+
+        /**
+         * Creates a merge task.
+         *
+         * @param src        the array holding both runs
+         * @param aLo        the start of the left run, inclusive
+         * @param aHi        the end of the left run, exclusive
+         * @param bLo        the start of the right run, inclusive
+         * @param bHi        the end of the right run, exclusive
+         * @param dst        the destination array
+         * @param dstLo      the first index written in dst
+         * @param comparator the Comparator used to compare the data
+         * @param cutoff     merges at most this long run sequentially
+         * @param probe      the probe that counts writes, or null
+         */
+        MergeTask(T[] src, int aLo, int aHi, int bLo, int bHi, T[] dst,
+                  int dstLo, Comparator<T> comparator, int cutoff,
+                  SortProbe probe) {
+            this.src = src;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.bLo = bLo;
+            this.bHi = bHi;
+            this.dst = dst;
+            this.dstLo = dstLo;
+            this.comparator = comparator;
+            this.cutoff = cutoff;
+            this.probe = probe;
+        }
+
+        @Override
+        protected void compute() {
+            int aLength = aHi - aLo;
+            int bLength = bHi - bLo;
+            if (aLength + bLength <= cutoff || aLength == 0 || bLength == 0) {
+                MergeSort.merge(src, aLo, aHi, src, bLo, bHi, dst, dstLo,
+                    comparator, probe);
+                return;
+            }
+            int aSplit;
+            int bSplit;
+            if (aLength >= bLength) {
+                aSplit = aLo + aLength / 2;
+                bSplit = MergeSort.lowerBound(src, bLo, bHi, src[aSplit],
+                    comparator);
+            } else {
+                bSplit = bLo + bLength / 2;
+                aSplit = MergeSort.upperBound(src, aLo, aHi, src[bSplit],
+                    comparator);
+            }
+            int dstSplit = dstLo + (aSplit - aLo) + (bSplit - bLo);
+            invokeAll(
+                new MergeTask<>(src, aLo, aSplit, bLo, bSplit, dst, dstLo,
+                    comparator, cutoff, probe),
+                new MergeTask<>(src, aSplit, aHi, bSplit, bHi, dst, dstSplit,
+                    comparator, cutoff, probe));
+        }
+    }
+}
@@ -0,0 +1,604 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Fork-join radix sort engine behind Sorting.parallelRadixSort and
+ * Sorting.parallelMsdRadixSort.
+ *
+ * Both modes use base-256 digits with the sign bit flipped, like RadixSort,
+ * and one scratch array of the input's length per call.
+ *
+ * The LSD mode splits the array into one contiguous block per worker.
+ * Every pass counts the digit of each block into a local histogram, turns
+ * the histograms into scatter offsets with one prefix sum ordered by digit
+ * and then by block, and scatters every block in parallel into the shared
+ * scratch array. Each block owns a disjoint set of target slots per digit,
+ * so the scatter needs no synchronization and stays stable. The first
+ * counting pass builds every digit's histogram at once, which is used to
+ * skip passes whose digit is the same for every key.
+ *
+ * The MSD mode partitions the whole array on its top digit in the same
+ * block-parallel way, then sorts the 256 buckets as independent fork-join
+ * tasks, each partitioning on the next digit. A bucket keeps its share of
+ * the blocks, so when most keys share their top digits the one large
+ * bucket is still partitioned block-parallel. Buckets below
+ * FORK_THRESHOLD are finished by the task that found them, and buckets of
+ * at most INSERTION_THRESHOLD keys are insertion sorted.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class ParallelRadixSort {
+
+    /**
+     * Arrays are only split into blocks of at least this many keys; smaller
+     * arrays are sorted sequentially.
+     */
+    static final int MIN_BLOCK = 1 << 14;
+
+    /**
+     * MSD buckets at least this long are sorted as separate tasks.
+     */
+    static final int FORK_THRESHOLD = 1 << 14;
+
+    /**
+     * MSD buckets at most this long are insertion sorted.
+     */
+    static final int INSERTION_THRESHOLD = 32;
+
+    private static final int DIGIT_BITS = RadixSort.DIGIT_BITS;
+    private static final int RADIX = RadixSort.RADIX;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private ParallelRadixSort() {
+    }
+
+    /**
+     * LSD sorts the array in the given pool.
+     *
+     * @param arr   the array to be sorted
+     * @param pool  the pool that runs the tasks
+     * @param probe the probe that counts writes, or null; it is shared by
+     *              the tasks
+     */
+    static void sort(int[] arr, ForkJoinPool pool, SortProbe probe) {
+        int blocks = blockCount(arr.length, pool);
+        if (blocks < 2) {
+            RadixSort.sort(arr, probe);
+            return;
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> lsd(arr, new int[arr.length],
+            blocks, probe)));
+    }
+
+    /**
+     * LSD sorts the array in the given pool.
+     *
+     * @param arr   the array to be sorted
+     * @param pool  the pool that runs the tasks
+     * @param probe the probe that counts writes, or null; it is shared by
+     *              the tasks
+     */
+    static void sort(long[] arr, ForkJoinPool pool, SortProbe probe) {
+        int blocks = blockCount(arr.length, pool);
+        if (blocks < 2) {
+            RadixSort.sort(arr, probe);
+            return;
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> lsd(arr, new long[arr.length],
+            blocks, probe)));
+    }
+
+    /**
+     * MSD sorts the array in the given pool.
+     *
+     * @param arr   the array to be sorted
+     * @param pool  the pool that runs the tasks
+     * @param probe the probe that counts writes, or null; it is shared by
+     *              the tasks
+     */
+    static void msdSort(int[] arr, ForkJoinPool pool, SortProbe probe) {
+        if (arr.length < 2) {
+            return;
+        }
+        pool.invoke(new IntMsdTask(arr, new int[arr.length], 0, arr.length,
+            Integer.SIZE - DIGIT_BITS, blockCount(arr.length, pool), probe));
+    }
+
+    /**
+     * MSD sorts the array in the given pool.
+     *
+     * @param arr   the array to be sorted
+     * @param pool  the pool that runs the tasks
+     * @param probe the probe that counts writes, or null; it is shared by
+     *              the tasks
+     */
+    static void msdSort(long[] arr, ForkJoinPool pool, SortProbe probe) {
+        if (arr.length < 2) {
+            return;
+        }
+        pool.invoke(new LongMsdTask(arr, new long[arr.length], 0, arr.length,
+            Long.SIZE - DIGIT_BITS, blockCount(arr.length, pool), probe));
+    }
+
+    /**
+     * Chooses the number of blocks: one per worker, but none shorter than
+     * MIN_BLOCK.
+     *
+     * @param n    the array length
+     * @param pool the pool that runs the tasks
+     * @return the number of blocks, 1 if the array should not be split
+     */
+    private static int blockCount(int n, ForkJoinPool pool) {
+        return Math.max(1, Math.min(pool.getParallelism(), n / MIN_BLOCK));
+    }
+
+    /**
+     * Returns the number of blocks a bucket is partitioned with: its share
+     * of the blocks of the range it came from, but no more than its length
+     * allows. A bucket holding nearly the whole range keeps nearly all the
+     * blocks, while the buckets of a range that split evenly get one each
+     * and rely on running as separate tasks instead.
+     *
+     * @param parallel the number of blocks of the parent range
+     * @param size     the length of the bucket
+     * @param n        the length of the parent range
+     * @return the number of blocks, at least 1
+     */
+    private static int bucketBlocks(int parallel, int size, int n) {
+        int share = (int) ((long) parallel * size / n);
+        return Math.max(1, Math.min(share, size / MIN_BLOCK));
+    }
+
+    /**
+     * Returns the first index of a block.
+     *
+     * @param block  the block number, blocks for the end of the range
+     * @param lo     the start of the range being split
+     * @param n      the length of the range being split
+     * @param blocks the number of blocks
+     * @return the first index of the block
+     */
+    private static int blockStart(int block, int lo, int n, int blocks) {
+        return lo + (int) ((long) n * block / blocks);
+    }
+
+    /**
+     * Runs body once per block and waits for all of them. More than one
+     * block runs as parallel tasks, which must be started from inside the
+     * pool.
+     *
+     * @param blocks the number of blocks
+     * @param body   the work for one block
+     */
+    private static void forEachBlock(int blocks, IntConsumer body) {
+        if (blocks == 1) {
+            body.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            int block = b;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(block)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Turns per-block digit counts into scatter offsets. Offsets are
+     * assigned digit by digit and, within a digit, block by block, which
+     * keeps the scatter stable.
+     *
+     * @param counts the counts of each block, replaced by its offsets
+     * @param base   the offset of the first slot
+     */
+    private static void toBlockOffsets(int[][] counts, int base) {
+        int running = base;
+        for (int d = 0; d < RADIX; d++) {
+            for (int[] count : counts) {
+                int c = count[d];
+                count[d] = running;
+                running += c;
+            }
+        }
+    }
+
+    /**
+     * Returns whether every key has the same digit, given the per-block
+     * counts of that digit.
+     *
+     * @param counts the counts of each block
+     * @param n      the number of keys
+     * @return true if the pass would not move anything
+     */
+    private static boolean isTrivialPass(int[][] counts, int n) {
+        for (int d = 0; d < RADIX; d++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[d];
+            }
+            if (total == n) {
+                return true;
+            } else if (total != 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * LSD passes over arr through scratch.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array
+     * @param blocks  the number of blocks
+     * @param probe   the probe that counts writes, or null
+     */
+    private static void lsd(int[] arr, int[] scratch, int blocks,
+                            SortProbe probe) {
+        int n = arr.length;
+        int passes = Integer.SIZE / DIGIT_BITS;
+        int[][][] counts = new int[passes][blocks][RADIX];
+        forEachBlock(blocks, b -> {
+            int end = blockStart(b + 1, 0, n, blocks);
+            for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                int key = arr[i] ^ Integer.MIN_VALUE;
+                for (int p = 0; p < passes; p++) {
+                    counts[p][b][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        int[] src = arr;
+        int[] dst = scratch;
+        boolean moved = false;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            if (isTrivialPass(counts[p], n)) {
+                continue;
+            }
+            int[][] count = counts[p];
+            int shift = p * DIGIT_BITS;
+            int[] from = src;
+            int[] to = dst;
+            if (moved) {
+                forEachBlock(blocks, b -> {
+                    int[] local = count[b];
+                    Arrays.fill(local, 0);
+                    int end = blockStart(b + 1, 0, n, blocks);
+                    for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                        local[((from[i] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            toBlockOffsets(count, 0);
+            forEachBlock(blocks, b -> {
+                int[] offset = count[b];
+                int end = blockStart(b + 1, 0, n, blocks);
+                for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                    int num = from[i];
+                    to[offset[((num ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = num;
+                }
+            });
+            src = to;
+            dst = from;
+            moved = true;
+            writes += n;
+        }
+        if (src != arr) {
+            int[] sorted = src;
+            forEachBlock(blocks, b -> {
+                int start = blockStart(b, 0, n, blocks);
+                System.arraycopy(sorted, start, arr, start,
+                    blockStart(b + 1, 0, n, blocks) - start);
+            });
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * LSD passes over arr through scratch.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array
+     * @param blocks  the number of blocks
+     * @param probe   the probe that counts writes, or null
+     */
+    private static void lsd(long[] arr, long[] scratch, int blocks,
+                            SortProbe probe) {
+        int n = arr.length;
+        int passes = Long.SIZE / DIGIT_BITS;
+        int[][][] counts = new int[passes][blocks][RADIX];
+        forEachBlock(blocks, b -> {
+            int end = blockStart(b + 1, 0, n, blocks);
+            for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                long key = arr[i] ^ Long.MIN_VALUE;
+                for (int p = 0; p < passes; p++) {
+                    counts[p][b][(int) (key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        long[] src = arr;
+        long[] dst = scratch;
+        boolean moved = false;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            if (isTrivialPass(counts[p], n)) {
+                continue;
+            }
+            int[][] count = counts[p];
+            int shift = p * DIGIT_BITS;
+            long[] from = src;
+            long[] to = dst;
+            if (moved) {
+                forEachBlock(blocks, b -> {
+                    int[] local = count[b];
+                    Arrays.fill(local, 0);
+                    int end = blockStart(b + 1, 0, n, blocks);
+                    for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                        local[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            toBlockOffsets(count, 0);
+            forEachBlock(blocks, b -> {
+                int[] offset = count[b];
+                int end = blockStart(b + 1, 0, n, blocks);
+                for (int i = blockStart(b, 0, n, blocks); i < end; i++) {
+                    long v = from[i];
+                    to[offset[(int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+                }
+            });
+            src = to;
+            dst = from;
+            moved = true;
+            writes += n;
+        }
+        if (src != arr) {
+            long[] sorted = src;
+            forEachBlock(blocks, b -> {
+                int start = blockStart(b, 0, n, blocks);
+                System.arraycopy(sorted, start, arr, start,
+                    blockStart(b + 1, 0, n, blocks) - start);
+            });
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts arr[lo, hi) on the digit at shift and all lower digits. The
+     * same range of scratch is used as the partition buffer.
+     */
+    private static final class IntMsdTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int[] scratch;
+        private final int lo;
+        private final int hi;
+        private final int shift;
+        private final int blocks;
+        private final SortProbe probe;
+
+        /**
+         * Creates an MSD task.
+         *
+         * @param arr     the array being sorted
+         * @param scratch the auxiliary array
+         * @param lo      the start of the range, inclusive
+         * @param hi      the end of the range, exclusive
+         * @param shift   the bit offset of the digit to partition on
+         * @param blocks  the number of blocks to partition with, 1 for a
+         *                sequential partition
+         * @param probe   the probe that counts writes, or null
+         */
+        IntMsdTask(int[] arr, int[] scratch, int lo, int hi, int shift,
+                   int blocks, SortProbe probe) {
+            this.arr = arr;
+            this.scratch = scratch;
+            this.lo = lo;
+            this.hi = hi;
+            this.shift = shift;
+            this.blocks = blocks;
+            this.probe = probe;
+        }
+
+        @Override
+        protected void compute() {
+            List<IntMsdTask> forks = new ArrayList<>();
+            sortRange(lo, hi, shift, blocks, forks);
+            invokeAll(forks);
+        }
+
+        /**
+         * Partitions arr[from, to) on the digit at shift and sorts the
+         * buckets, collecting the large ones into forks.
+         *
+         * @param from      the start of the range, inclusive
+         * @param to        the end of the range, exclusive
+         * @param digit     the bit offset of the digit to partition on
+         * @param parallel  the number of blocks to partition with
+         * @param forks     the list large buckets are added to
+         */
+        private void sortRange(int from, int to, int digit, int parallel,
+                               List<IntMsdTask> forks) {
+            int n = to - from;
+            if (n <= INSERTION_THRESHOLD) {
+                DualPivotQuicksort.insertionSort(arr, from, to - 1, probe);
+                return;
+            }
+            int[][] counts = new int[parallel][RADIX];
+            forEachBlock(parallel, b -> {
+                int[] local = counts[b];
+                int end = blockStart(b + 1, from, n, parallel);
+                for (int i = blockStart(b, from, n, parallel); i < end; i++) {
+                    local[((arr[i] ^ Integer.MIN_VALUE) >>> digit) & DIGIT_MASK]++;
+                }
+            });
+            int[] bounds = new int[RADIX + 1];
+            int running = from;
+            for (int d = 0; d < RADIX; d++) {
+                bounds[d] = running;
+                for (int[] count : counts) {
+                    running += count[d];
+                }
+            }
+            bounds[RADIX] = to;
+            if (!isTrivialPass(counts, n)) {
+                toBlockOffsets(counts, from);
+                forEachBlock(parallel, b -> {
+                    int[] offset = counts[b];
+                    int end = blockStart(b + 1, from, n, parallel);
+                    for (int i = blockStart(b, from, n, parallel); i < end;
+                         i++) {
+                        int num = arr[i];
+                        scratch[offset[((num ^ Integer.MIN_VALUE) >>> digit) & DIGIT_MASK]++] = num;
+                    }
+                });
+                forEachBlock(parallel, b -> {
+                    int start = blockStart(b, from, n, parallel);
+                    System.arraycopy(scratch, start, arr, start,
+                        blockStart(b + 1, from, n, parallel) - start);
+                });
+                SortProbe.writes(probe, 2L * n);
+            }
+            if (digit == 0) {
+                return;
+            }
+            for (int d = 0; d < RADIX; d++) {
+                int start = bounds[d];
+                int end = bounds[d + 1];
+                if (end - start >= FORK_THRESHOLD) {
+                    forks.add(new IntMsdTask(arr, scratch, start, end,
+                        digit - DIGIT_BITS,
+                        bucketBlocks(parallel, end - start, n), probe));
+                } else if (end - start > 1) {
+                    sortRange(start, end, digit - DIGIT_BITS, 1, forks);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts arr[lo, hi) on the digit at shift and all lower digits. The
+     * same range of scratch is used as the partition buffer.
+     */
+    private static final class LongMsdTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] arr;
+        private final long[] scratch;
+        private final int lo;
+        private final int hi;
+        private final int shift;
+        private final int blocks;
+        private final SortProbe probe;
+
+        /**
+         * Creates an MSD task.
+         *
+         * @param arr     the array being sorted
+         * @param scratch the auxiliary array
+         * @param lo      the start of the range, inclusive
+         * @param hi      the end of the range, exclusive
+         * @param shift   the bit offset of the digit to partition on
+         * @param blocks  the number of blocks to partition with, 1 for a
+         *                sequential partition
+         * @param probe   the probe that counts writes, or null
+         */
+        LongMsdTask(long[] arr, long[] scratch, int lo, int hi, int shift,
+                    int blocks, SortProbe probe) {
+            this.arr = arr;
+            this.scratch = scratch;
+            this.lo = lo;
+            this.hi = hi;
+            this.shift = shift;
+            this.blocks = blocks;
+            this.probe = probe;
+        }
+
+        @Override
+        protected void compute() {
+            List<LongMsdTask> forks = new ArrayList<>();
+            sortRange(lo, hi, shift, blocks, forks);
+            invokeAll(forks);
+        }
+
+        /**
+         * Partitions arr[from, to) on the digit at shift and sorts the
+         * buckets, collecting the large ones into forks.
+         *
+         * @param from      the start of the range, inclusive
+         * @param to        the end of the range, exclusive
+         * @param digit     the bit offset of the digit to partition on
+         * @param parallel  the number of blocks to partition with
+         * @param forks     the list large buckets are added to
+         */
+        private void sortRange(int from, int to, int digit, int parallel,
+                               List<LongMsdTask> forks) {
+            int n = to - from;
+            if (n <= INSERTION_THRESHOLD) {
+                PrimitiveSorts.insertionSort(arr, from, to - 1, probe);
+                return;
+            }
+            int[][] counts = new int[parallel][RADIX];
+            forEachBlock(parallel, b -> {
+                int[] local = counts[b];
+                int end = blockStart(b + 1, from, n, parallel);
+                for (int i = blockStart(b, from, n, parallel); i < end; i++) {
+                    local[(int) ((arr[i] ^ Long.MIN_VALUE) >>> digit) & DIGIT_MASK]++;
+                }
+            });
+            int[] bounds = new int[RADIX + 1];
+            int running = from;
+            for (int d = 0; d < RADIX; d++) {
+                bounds[d] = running;
+                for (int[] count : counts) {
+                    running += count[d];
+                }
+            }
+            bounds[RADIX] = to;
+            if (!isTrivialPass(counts, n)) {
+                toBlockOffsets(counts, from);
+                forEachBlock(parallel, b -> {
+                    int[] offset = counts[b];
+                    int end = blockStart(b + 1, from, n, parallel);
+                    for (int i = blockStart(b, from, n, parallel); i < end;
+                         i++) {
+                        long v = arr[i];
+                        scratch[offset[(int) ((v ^ Long.MIN_VALUE) >>> digit) & DIGIT_MASK]++] = v;
+                    }
+                });
+                forEachBlock(parallel, b -> {
+                    int start = blockStart(b, from, n, parallel);
+                    System.arraycopy(scratch, start, arr, start,
+                        blockStart(b + 1, from, n, parallel) - start);
+                });
+                SortProbe.writes(probe, 2L * n);
+            }
+            if (digit == 0) {
+                return;
+            }
+            for (int d = 0; d < RADIX; d++) {
+                int start = bounds[d];
+                int end = bounds[d + 1];
+                if (end - start >= FORK_THRESHOLD) {
+                    forks.add(new LongMsdTask(arr, scratch, start, end,
+                        digit - DIGIT_BITS,
+                        bucketBlocks(parallel, end - start, n), probe));
+                } else if (end - start > 1) {
+                    sortRange(start, end, digit - DIGIT_BITS, 1, forks);
+                }
+            }
+        }
+    }
+}
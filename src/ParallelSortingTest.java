@@ -0,0 +1,182 @@
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the fork-join based sorts in Sorting.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class ParallelSortingTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static ForkJoinPool pool;
+    private Random rand = new Random(1332);
+
+    @BeforeClass
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelMergeSortRandomized() {
+        Comparator<Integer> comp = Integer::compare;
+        for (int cutoff : new int[] {1, 7, 64, 100000}) {
+            for (int i = 0; i < 20; ++i) {
+                Integer[] temp = new Integer[rand.nextInt(5000)];
+                for (int j = 0; j < temp.length; ++j) {
+                    temp[j] = rand.nextInt(1000);
+                }
+                Integer[] other = temp.clone();
+                Arrays.sort(other, comp);
+                Sorting.parallelMergeSort(temp, comp, pool, cutoff);
+                assertArrayEquals(other, temp);
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelMergeSortStability() {
+        Item[] temp = new Item[20000];
+        for (int i = 0; i < temp.length; ++i) {
+            temp[i] = new Item(rand.nextInt(50));
+        }
+        Item[] other = temp.clone();
+        Arrays.sort(other, Item.COMPARATOR);
+        Sorting.parallelMergeSort(temp, Item.COMPARATOR, pool, 32);
+        for (int i = 0; i < temp.length; ++i) {
+            assertSame(other[i], temp[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelMergeSortNullPool() {
+        Sorting.parallelMergeSort(new Integer[] {2, 1}, Integer::compare, null,
+            16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelMergeSortBadCutoff() {
+        Sorting.parallelMergeSort(new Integer[] {2, 1}, Integer::compare, pool,
+            0);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelRadixSortIntsRandomized() {
+        for (int i = 0; i < 30; ++i) {
+            int[] temp = new int[rand.nextInt(200000)];
+            int bound = 1 << rand.nextInt(32);
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = i % 3 == 0 ? rand.nextInt() : rand.nextInt(bound);
+            }
+            int[] other = temp.clone();
+            Arrays.sort(other);
+
+            int[] lsd = temp.clone();
+            Sorting.parallelRadixSort(lsd, pool);
+            assertArrayEquals(other, lsd);
+            Sorting.parallelMsdRadixSort(temp, pool);
+            assertArrayEquals(other, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelRadixSortLongsRandomized() {
+        for (int i = 0; i < 30; ++i) {
+            long[] temp = new long[rand.nextInt(200000)];
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = i % 3 == 0 ? rand.nextLong()
+                    : rand.nextInt(1 + i * 1000) - 500L;
+            }
+            long[] other = temp.clone();
+            Arrays.sort(other);
+
+            long[] lsd = temp.clone();
+            Sorting.parallelRadixSort(lsd, pool);
+            assertArrayEquals(other, lsd);
+            Sorting.parallelMsdRadixSort(temp, pool);
+            assertArrayEquals(other, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelMsdRadixSortSharedTopDigits() {
+        //every key shares its top two bytes, so one bucket holds the whole
+        //array for two levels
+        int[] temp = new int[300000];
+        long[] longs = new long[temp.length];
+        for (int j = 0; j < temp.length; ++j) {
+            temp[j] = 0x7f7f0000 | rand.nextInt(1 << 16);
+            longs[j] = -(1L << 40) + rand.nextInt();
+        }
+        int[] other = temp.clone();
+        Arrays.sort(other);
+        long[] otherLongs = longs.clone();
+        Arrays.sort(otherLongs);
+
+        Sorting.parallelMsdRadixSort(temp, pool);
+        assertArrayEquals(other, temp);
+        Sorting.parallelMsdRadixSort(longs, pool);
+        assertArrayEquals(otherLongs, longs);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testParallelRadixSortExtremes() {
+        int[] temp = new int[100000];
+        for (int j = 0; j < temp.length; ++j) {
+            temp[j] = j % 3 == 0 ? Integer.MIN_VALUE
+                : j % 3 == 1 ? Integer.MAX_VALUE : 0;
+        }
+        int[] other = temp.clone();
+        Arrays.sort(other);
+
+        int[] lsd = temp.clone();
+        Sorting.parallelRadixSort(lsd, pool);
+        assertArrayEquals(other, lsd);
+        Sorting.parallelMsdRadixSort(temp, pool);
+        assertArrayEquals(other, temp);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelRadixSortNullPool() {
+        Sorting.parallelRadixSort(new int[] {2, 1}, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelMsdRadixSortNullArray() {
+        Sorting.parallelMsdRadixSort((long[]) null, pool);
+    }
+
+    /**
+     * Element with a key and an identity, used to check stability.
+     */
+    private static class Item {
+        static final Comparator<Item> COMPARATOR =
+            (item1, item2) -> Integer.compare(item1.key, item2.key);
+        private final int key;
+
+        /**
+         * Create an item.
+         *
+         * @param key the sort key
+         */
+        Item(int key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * The classification step of BlockQuicksort's partition: finding the
+ * elements of a block that are on the wrong side of the pivot.
+ *
+ * This class is the scalar kernel. Each element writes its offset into the
+ * buffer unconditionally and then advances the count by 0 or 1, so the loop
+ * has no data-dependent branch to mispredict.
+ *
+ * When the JVM runs with the jdk.incubator.vector module and the class
+ * VectorPartitionKernel (built from vector/ with the benchmarks' "vector"
+ * profile) is on the class path, {@link #load()} returns that subclass
+ * instead, which compares a whole vector of elements against the pivot at
+ * once. Only one of the two classes is ever loaded, so the JIT still
+ * inlines the calls.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+class PartitionKernel {
+
+    /**
+     * Name of the vectorized kernel, loaded by reflection if present.
+     */
+    static final String VECTOR_KERNEL = "VectorPartitionKernel";
+
+    /**
+     * Creates the scalar kernel.
+     */
+    PartitionKernel() {
+    }
+
+    /**
+     * Returns the vectorized kernel if it and the jdk.incubator.vector
+     * module are available, and the scalar kernel otherwise.
+     *
+     * @return the kernel
+     */
+    static PartitionKernel load() {
+        try {
+            return (PartitionKernel) Class.forName(VECTOR_KERNEL)
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError
+            | ClassCastException e) {
+            return new PartitionKernel();
+        }
+    }
+
+    /**
+     * Returns whether this kernel uses the Vector API.
+     *
+     * @return false for the scalar kernel
+     */
+    boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Records, in ascending order, every i in [0, count) for which
+     * arr[from + i] &gt;= pivot. These are the elements of a left block that
+     * belong on the right.
+     *
+     * @param arr     the array
+     * @param from    the first index of the block
+     * @param count   the length of the block
+     * @param pivot   the pivot
+     * @param offsets receives the offsets, at least count long
+     * @return the number of offsets recorded
+     */
+    int collectLeft(int[] arr, int from, int count, int pivot, int[] offsets) {
+        int num = 0;
+        for (int i = 0; i < count; i++) {
+            offsets[num] = i;
+            num += arr[from + i] >= pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    /**
+     * Records, in ascending order, every i in [1, count] for which
+     * arr[to - i] &lt; pivot. These are the elements of a right block that
+     * belong on the left.
+     *
+     * @param arr     the array
+     * @param to      the index just past the block
+     * @param count   the length of the block
+     * @param pivot   the pivot
+     * @param offsets receives the offsets, at least count long
+     * @return the number of offsets recorded
+     */
+    int collectRight(int[] arr, int to, int count, int pivot, int[] offsets) {
+        int num = 0;
+        for (int i = 1; i <= count; i++) {
+            offsets[num] = i;
+            num += arr[to - i] < pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    /**
+     * Records, in ascending order, every i in [0, count) for which
+     * arr[from + i] &gt;= pivot.
+     *
+     * @param arr     the array
+     * @param from    the first index of the block
+     * @param count   the length of the block
+     * @param pivot   the pivot
+     * @param offsets receives the offsets, at least count long
+     * @return the number of offsets recorded
+     */
+    int collectLeft(long[] arr, int from, int count, long pivot,
+                    int[] offsets) {
+        int num = 0;
+        for (int i = 0; i < count; i++) {
+            offsets[num] = i;
+            num += arr[from + i] >= pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    /**
+     * Records, in ascending order, every i in [1, count] for which
+     * arr[to - i] &lt; pivot.
+     *
+     * @param arr     the array
+     * @param to      the index just past the block
+     * @param count   the length of the block
+     * @param pivot   the pivot
+     * @param offsets receives the offsets, at least count long
+     * @return the number of offsets recorded
+     */
+    int collectRight(long[] arr, int to, int count, long pivot,
+                     int[] offsets) {
+        int num = 0;
+        for (int i = 1; i <= count; i++) {
+            offsets[num] = i;
+            num += arr[to - i] < pivot ? 1 : 0;
+        }
+        return num;
+    }
+}
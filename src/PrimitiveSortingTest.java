@@ -0,0 +1,443 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the primitive array overloads in Sorting.
+ *
+ * Every algorithm is checked against java.util.Arrays.sort on random data,
+ * including the floating-point edge cases (NaN, -0.0 and the infinities)
+ * that Arrays.sort orders the same way Double.compare does.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class PrimitiveSortingTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final double[] SPECIAL_DOUBLES = {Double.NaN, -0.0, 0.0,
+        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE,
+        -Double.MAX_VALUE};
+    private Random rand = new Random(1332);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testLongSortsRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            long[] data = new long[rand.nextInt(200)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = rand.nextBoolean() ? rand.nextLong()
+                    : rand.nextInt(20) - 10;
+            }
+            long[] expected = data.clone();
+            Arrays.sort(expected);
+
+            long[] temp = data.clone();
+            Sorting.insertionSort(temp);
+            assertArrayEquals(expected, temp);
+            temp = data.clone();
+            Sorting.mergeSort(temp);
+            assertArrayEquals(expected, temp);
+            temp = data.clone();
+            Sorting.quickSort(temp);
+            assertArrayEquals(expected, temp);
+            temp = data.clone();
+            Sorting.lsdRadixSort(temp);
+            assertArrayEquals(expected, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testDoubleSortsRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            double[] data = new double[rand.nextInt(200)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = rand.nextInt(4) == 0
+                    ? SPECIAL_DOUBLES[rand.nextInt(SPECIAL_DOUBLES.length)]
+                    : rand.nextGaussian() * 1000;
+            }
+            double[] expected = data.clone();
+            Arrays.sort(expected);
+
+            double[] temp = data.clone();
+            Sorting.insertionSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.mergeSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.quickSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.lsdRadixSort(temp);
+            assertArrayEquals(expected, temp, 0);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testFloatSortsRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            float[] data = new float[rand.nextInt(200)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = rand.nextInt(4) == 0
+                    ? (float) SPECIAL_DOUBLES[rand.nextInt(
+                        SPECIAL_DOUBLES.length)]
+                    : (float) rand.nextGaussian() * 1000;
+            }
+            float[] expected = data.clone();
+            Arrays.sort(expected);
+
+            float[] temp = data.clone();
+            Sorting.insertionSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.mergeSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.quickSort(temp);
+            assertArrayEquals(expected, temp, 0);
+            temp = data.clone();
+            Sorting.lsdRadixSort(temp);
+            assertArrayEquals(expected, temp, 0);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testShortAndCharSortsRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            short[] shorts = new short[rand.nextInt(200)];
+            char[] chars = new char[shorts.length];
+            for (int j = 0; j < shorts.length; ++j) {
+                shorts[j] = (short) rand.nextInt();
+                chars[j] = (char) rand.nextInt();
+            }
+            short[] expectedShorts = shorts.clone();
+            Arrays.sort(expectedShorts);
+            char[] expectedChars = chars.clone();
+            Arrays.sort(expectedChars);
+
+            short[] tempShorts = shorts.clone();
+            Sorting.mergeSort(tempShorts);
+            assertArrayEquals(expectedShorts, tempShorts);
+            tempShorts = shorts.clone();
+            Sorting.quickSort(tempShorts);
+            assertArrayEquals(expectedShorts, tempShorts);
+            tempShorts = shorts.clone();
+            Sorting.lsdRadixSort(tempShorts);
+            assertArrayEquals(expectedShorts, tempShorts);
+
+            char[] tempChars = chars.clone();
+            Sorting.insertionSort(tempChars);
+            assertArrayEquals(expectedChars, tempChars);
+            tempChars = chars.clone();
+            Sorting.lsdRadixSort(tempChars);
+            assertArrayEquals(expectedChars, tempChars);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntQuickSortAndSortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int[] data = new int[rand.nextInt(2000)];
+            int bound = 1 + rand.nextInt(3) * 5000;
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = i % 2 == 0 ? rand.nextInt() : rand.nextInt(bound);
+            }
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+
+            int[] temp = data.clone();
+            Sorting.quickSort(temp);
+            assertArrayEquals(expected, temp);
+            temp = data.clone();
+            Sorting.sort(temp);
+            assertArrayEquals(expected, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntQuickSortPatterns() {
+        int size = 100000;
+        int[] sorted = new int[size];
+        int[] reversed = new int[size];
+        int[] organPipe = new int[size];
+        int[] extremes = new int[size];
+        for (int j = 0; j < size; ++j) {
+            sorted[j] = j;
+            reversed[j] = size - j;
+            organPipe[j] = Math.min(j, size - j);
+            extremes[j] = j % 2 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+        for (int[] data : new int[][] {sorted, reversed, organPipe, extremes}) {
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            Sorting.quickSort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntHeapSortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int[] data = new int[rand.nextInt(2000)];
+            for (int j = 0; j < data.length; ++j) {
+                data[j] = i % 2 == 0 ? rand.nextInt() : rand.nextInt(10);
+            }
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            Sorting.heapSort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntKeyValueRadixSortIsStable() {
+        for (int i = 0; i < 100; ++i) {
+            int[] keys = new int[rand.nextInt(2000)];
+            for (int j = 0; j < keys.length; ++j) {
+                keys[j] = i % 2 == 0 ? rand.nextInt() : rand.nextInt(20) - 10;
+            }
+            int[] original = keys.clone();
+            int[] positions = new int[keys.length];
+            long[] wide = new long[keys.length];
+            String[] names = new String[keys.length];
+            for (int j = 0; j < keys.length; ++j) {
+                positions[j] = j;
+                wide[j] = j;
+                names[j] = "row" + j;
+            }
+            int[] order = Sorting.radixSortPermutation(keys);
+            assertArrayEquals(original, keys);
+
+            Sorting.lsdRadixSort(keys, positions);
+            int[] expected = original.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, keys);
+            assertArrayEquals(order, positions);
+            for (int j = 1; j < keys.length; ++j) {
+                if (keys[j - 1] == keys[j]) {
+                    assertTrue(positions[j - 1] < positions[j]);
+                }
+            }
+
+            keys = original.clone();
+            Sorting.lsdRadixSort(keys, wide);
+            for (int j = 0; j < keys.length; ++j) {
+                assertEquals(order[j], wide[j]);
+            }
+            keys = original.clone();
+            Sorting.lsdRadixSort(keys, names);
+            for (int j = 0; j < keys.length; ++j) {
+                assertEquals("row" + order[j], names[j]);
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testLongKeyValueRadixSortIsStable() {
+        for (int i = 0; i < 100; ++i) {
+            long[] keys = new long[rand.nextInt(2000)];
+            for (int j = 0; j < keys.length; ++j) {
+                keys[j] = i % 2 == 0 ? rand.nextLong() : rand.nextInt(20) - 10;
+            }
+            long[] original = keys.clone();
+            Integer[] rows = new Integer[keys.length];
+            for (int j = 0; j < keys.length; ++j) {
+                rows[j] = j;
+            }
+            int[] order = Sorting.radixSortPermutation(keys);
+            assertArrayEquals(original, keys);
+
+            Sorting.lsdRadixSort(keys, rows);
+            long[] expected = original.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, keys);
+            for (int j = 0; j < keys.length; ++j) {
+                assertEquals(order[j], (int) rows[j]);
+                assertEquals(original[rows[j]], keys[j]);
+                if (j > 0 && keys[j - 1] == keys[j]) {
+                    assertTrue(rows[j - 1] < rows[j]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyValueRadixSortLengthMismatch() {
+        Sorting.lsdRadixSort(new int[] {2, 1}, new long[] {1});
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testDoubleRadixSortOrdersZerosAndNaN() {
+        double[] temp = {Double.NaN, 0.0, -0.0, 1.0, Double.NEGATIVE_INFINITY,
+            -1.0, Double.POSITIVE_INFINITY};
+        Sorting.lsdRadixSort(temp);
+        assertArrayEquals(new double[] {Double.NEGATIVE_INFINITY, -1.0, -0.0,
+            0.0, 1.0, Double.POSITIVE_INFINITY, Double.NaN}, temp, 0);
+        assertEquals(Double.doubleToLongBits(-0.0),
+            Double.doubleToLongBits(temp[2]));
+        assertEquals(Double.doubleToLongBits(0.0),
+            Double.doubleToLongBits(temp[3]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongMergeSortNullArray() {
+        Sorting.mergeSort((long[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoubleQuickSortNullArray() {
+        Sorting.quickSort((double[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntHeapSortNullArray() {
+        Sorting.heapSort((int[]) null);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testQuickSortsFallBackOnKillerInput() {
+        int[] killer = medianOfThreeKiller(20000);
+        long[] longs = new long[killer.length];
+        double[] doubles = new double[killer.length];
+        float[] floats = new float[killer.length];
+        short[] shorts = new short[killer.length];
+        char[] chars = new char[killer.length];
+        for (int i = 0; i < killer.length; i++) {
+            longs[i] = killer[i];
+            doubles[i] = killer[i];
+            floats[i] = killer[i];
+            shorts[i] = (short) killer[i];
+            chars[i] = (char) killer[i];
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        try {
+            Sorting.quickSort(longs);
+            assertTrue(metrics.getDepthLimitHits() > 0);
+            metrics.reset();
+            Sorting.quickSort(doubles);
+            assertTrue(metrics.getDepthLimitHits() > 0);
+            metrics.reset();
+            Sorting.quickSort(floats);
+            assertTrue(metrics.getDepthLimitHits() > 0);
+            metrics.reset();
+            Sorting.quickSort(shorts);
+            assertTrue(metrics.getDepthLimitHits() > 0);
+            metrics.reset();
+            Sorting.quickSort(chars);
+            assertTrue(metrics.getDepthLimitHits() > 0);
+        } finally {
+            Sorting.setMetrics(null);
+        }
+        int[] expected = killer.clone();
+        Arrays.sort(expected);
+        for (int i = 0; i < killer.length; i++) {
+            assertEquals(expected[i], longs[i]);
+            assertEquals(expected[i], doubles[i], 0.0);
+            assertEquals(expected[i], floats[i], 0.0f);
+            assertEquals(expected[i], shorts[i]);
+            assertEquals(expected[i], chars[i]);
+        }
+    }
+
+    /**
+     * Builds an input that drives the median-of-three primitive quick sorts
+     * to quadratic depth, with McIlroy's adversary: the sort is replayed on
+     * element ids and each value is fixed only when a comparison forces it,
+     * always so that the pivot candidate is as small as possible.
+     *
+     * @param n the length of the input
+     * @return values from 0 to n - 1 in the adversarial order
+     */
+    private static int[] medianOfThreeKiller(int n) {
+        int gas = n;
+        int[] value = new int[n];
+        Arrays.fill(value, gas);
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        int[] state = new int[2];
+        state[1] = -1;
+        java.util.function.IntBinaryOperator compare = (x, y) -> {
+            if (value[x] == gas && value[y] == gas) {
+                value[x == state[1] ? x : y] = state[0]++;
+            }
+            if (value[x] == gas) {
+                state[1] = x;
+            } else if (value[y] == gas) {
+                state[1] = y;
+            }
+            return Integer.compare(value[x], value[y]);
+        };
+        int lo = 0;
+        int hi = n - 1;
+        java.util.ArrayDeque<int[]> ranges = new java.util.ArrayDeque<>();
+        ranges.push(new int[] {lo, hi});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            lo = range[0];
+            hi = range[1];
+            while (hi - lo >= 16) {
+                int mid = (lo + hi) >>> 1;
+                if (compare.applyAsInt(ids[mid], ids[lo]) < 0) {
+                    swap(ids, mid, lo);
+                }
+                if (compare.applyAsInt(ids[hi], ids[lo]) < 0) {
+                    swap(ids, hi, lo);
+                }
+                if (compare.applyAsInt(ids[hi], ids[mid]) < 0) {
+                    swap(ids, hi, mid);
+                }
+                int pivot = ids[mid];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (compare.applyAsInt(ids[i], pivot) < 0) {
+                        i++;
+                    }
+                    while (compare.applyAsInt(ids[j], pivot) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(ids, i, j);
+                        i++;
+                        j--;
+                    }
+                }
+                if (j - lo < hi - i) {
+                    ranges.push(new int[] {lo, j});
+                    lo = i;
+                } else {
+                    ranges.push(new int[] {i, hi});
+                    hi = j;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (value[i] == gas) {
+                value[i] = state[0]++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Swaps ids[i] and ids[j].
+     *
+     * @param ids the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(int[] ids, int i, int j) {
+        int temp = ids[i];
+        ids[i] = ids[j];
+        ids[j] = temp;
+    }
+}
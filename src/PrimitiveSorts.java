@@ -0,0 +1,769 @@
+/**
+ * Comparison-based sorting engines for the primitive array overloads in
+ * Sorting.
+ *
+ * Every routine works directly on the primitive array, so no values are
+ * boxed. Floating-point values are ordered the way Double.compare and
+ * Float.compare order them: -0.0 before 0.0 and every NaN after positive
+ * infinity.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class PrimitiveSorts {
+
+    /**
+     * Ranges at most this long are finished with insertion sort.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private PrimitiveSorts() {
+    }
+    /**
+     * Insertion sorts arr[lo..hi], both ends inclusive.
+     *
+     * @param arr   the array to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(long[] arr, int lo, int hi, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            long value = arr[i];
+            int j = i - 1;
+            while (j >= lo && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Merge sorts arr[lo..hi], both ends inclusive, through aux, which must
+     * be at least as long as arr. Equal values keep their relative order.
+     *
+     * @param arr   the array to sort
+     * @param aux   the auxiliary array used while merging
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void mergeSort(long[] arr, long[] aux, int lo, int hi,
+                          SortProbe probe) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSort(arr, lo, hi, probe);
+            return;
+        }
+        int mid = lo + (hi - lo + 1) / 2;
+        mergeSort(arr, aux, lo, mid - 1, probe);
+        mergeSort(arr, aux, mid, hi, probe);
+        if (arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+        SortProbe.writes(probe, 2L * (hi - lo + 1));
+        int j = lo;
+        int k = mid;
+        for (int i = lo; i <= hi; i++) {
+            if (k > hi || (j < mid && aux[j] <= aux[k])) {
+                arr[i] = aux[j++];
+            } else {
+                arr[i] = aux[k++];
+            }
+        }
+    }
+
+    /**
+     * Quick sorts the whole array.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void quickSort(long[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        quickSort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Quick sorts arr[lo..hi], both ends inclusive, using a median-of-three
+     * pivot and recursing only into the smaller side. A range still being
+     * partitioned once depthLimit levels are used up is heap sorted.
+     *
+     * @param arr        the array to sort
+     * @param lo         the first index of the range
+     * @param hi         the last index of the range
+     * @param depthLimit the remaining recursion budget
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void quickSort(long[] arr, int lo, int hi, int depthLimit,
+                                  SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi + 1, probe);
+                return;
+            }
+            depthLimit--;
+            long swaps = 0;
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < arr[lo]) {
+                swap(arr, mid, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[lo]) {
+                swap(arr, hi, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[mid]) {
+                swap(arr, hi, mid);
+                swaps++;
+            }
+            long pivot = arr[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (arr[i] < pivot) {
+                    i++;
+                }
+                while (arr[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    swaps++;
+                    i++;
+                    j--;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            if (j - lo < hi - i) {
+                quickSort(arr, lo, j, depthLimit, probe);
+                lo = i;
+            } else {
+                quickSort(arr, i, hi, depthLimit, probe);
+                hi = j;
+            }
+        }
+        insertionSort(arr, lo, hi, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], both ends inclusive.
+     *
+     * @param arr   the array to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(double[] arr, int lo, int hi, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            double value = arr[i];
+            int j = i - 1;
+            while (j >= lo && Double.compare(arr[j], value) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Merge sorts arr[lo..hi], both ends inclusive, through aux, which must
+     * be at least as long as arr. Equal values keep their relative order.
+     *
+     * @param arr   the array to sort
+     * @param aux   the auxiliary array used while merging
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void mergeSort(double[] arr, double[] aux, int lo, int hi,
+                          SortProbe probe) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSort(arr, lo, hi, probe);
+            return;
+        }
+        int mid = lo + (hi - lo + 1) / 2;
+        mergeSort(arr, aux, lo, mid - 1, probe);
+        mergeSort(arr, aux, mid, hi, probe);
+        if (Double.compare(arr[mid - 1], arr[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+        SortProbe.writes(probe, 2L * (hi - lo + 1));
+        int j = lo;
+        int k = mid;
+        for (int i = lo; i <= hi; i++) {
+            if (k > hi || (j < mid && Double.compare(aux[j], aux[k]) <= 0)) {
+                arr[i] = aux[j++];
+            } else {
+                arr[i] = aux[k++];
+            }
+        }
+    }
+
+    /**
+     * Quick sorts the whole array.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void quickSort(double[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        quickSort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Quick sorts arr[lo..hi], both ends inclusive, using a median-of-three
+     * pivot and recursing only into the smaller side. A range still being
+     * partitioned once depthLimit levels are used up is heap sorted.
+     *
+     * @param arr        the array to sort
+     * @param lo         the first index of the range
+     * @param hi         the last index of the range
+     * @param depthLimit the remaining recursion budget
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void quickSort(double[] arr, int lo, int hi, int depthLimit,
+                                  SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi + 1, probe);
+                return;
+            }
+            depthLimit--;
+            long swaps = 0;
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(arr[mid], arr[lo]) < 0) {
+                swap(arr, mid, lo);
+                swaps++;
+            }
+            if (Double.compare(arr[hi], arr[lo]) < 0) {
+                swap(arr, hi, lo);
+                swaps++;
+            }
+            if (Double.compare(arr[hi], arr[mid]) < 0) {
+                swap(arr, hi, mid);
+                swaps++;
+            }
+            double pivot = arr[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (Double.compare(arr[i], pivot) < 0) {
+                    i++;
+                }
+                while (Double.compare(arr[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    swaps++;
+                    i++;
+                    j--;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            if (j - lo < hi - i) {
+                quickSort(arr, lo, j, depthLimit, probe);
+                lo = i;
+            } else {
+                quickSort(arr, i, hi, depthLimit, probe);
+                hi = j;
+            }
+        }
+        insertionSort(arr, lo, hi, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(double[] arr, int i, int j) {
+        double temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], both ends inclusive.
+     *
+     * @param arr   the array to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(float[] arr, int lo, int hi, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            float value = arr[i];
+            int j = i - 1;
+            while (j >= lo && Float.compare(arr[j], value) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Merge sorts arr[lo..hi], both ends inclusive, through aux, which must
+     * be at least as long as arr. Equal values keep their relative order.
+     *
+     * @param arr   the array to sort
+     * @param aux   the auxiliary array used while merging
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void mergeSort(float[] arr, float[] aux, int lo, int hi,
+                          SortProbe probe) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSort(arr, lo, hi, probe);
+            return;
+        }
+        int mid = lo + (hi - lo + 1) / 2;
+        mergeSort(arr, aux, lo, mid - 1, probe);
+        mergeSort(arr, aux, mid, hi, probe);
+        if (Float.compare(arr[mid - 1], arr[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+        SortProbe.writes(probe, 2L * (hi - lo + 1));
+        int j = lo;
+        int k = mid;
+        for (int i = lo; i <= hi; i++) {
+            if (k > hi || (j < mid && Float.compare(aux[j], aux[k]) <= 0)) {
+                arr[i] = aux[j++];
+            } else {
+                arr[i] = aux[k++];
+            }
+        }
+    }
+
+    /**
+     * Quick sorts the whole array.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void quickSort(float[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        quickSort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Quick sorts arr[lo..hi], both ends inclusive, using a median-of-three
+     * pivot and recursing only into the smaller side. A range still being
+     * partitioned once depthLimit levels are used up is heap sorted.
+     *
+     * @param arr        the array to sort
+     * @param lo         the first index of the range
+     * @param hi         the last index of the range
+     * @param depthLimit the remaining recursion budget
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void quickSort(float[] arr, int lo, int hi, int depthLimit,
+                                  SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi + 1, probe);
+                return;
+            }
+            depthLimit--;
+            long swaps = 0;
+            int mid = (lo + hi) >>> 1;
+            if (Float.compare(arr[mid], arr[lo]) < 0) {
+                swap(arr, mid, lo);
+                swaps++;
+            }
+            if (Float.compare(arr[hi], arr[lo]) < 0) {
+                swap(arr, hi, lo);
+                swaps++;
+            }
+            if (Float.compare(arr[hi], arr[mid]) < 0) {
+                swap(arr, hi, mid);
+                swaps++;
+            }
+            float pivot = arr[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (Float.compare(arr[i], pivot) < 0) {
+                    i++;
+                }
+                while (Float.compare(arr[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    swaps++;
+                    i++;
+                    j--;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            if (j - lo < hi - i) {
+                quickSort(arr, lo, j, depthLimit, probe);
+                lo = i;
+            } else {
+                quickSort(arr, i, hi, depthLimit, probe);
+                hi = j;
+            }
+        }
+        insertionSort(arr, lo, hi, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(float[] arr, int i, int j) {
+        float temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], both ends inclusive.
+     *
+     * @param arr   the array to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(short[] arr, int lo, int hi, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            short value = arr[i];
+            int j = i - 1;
+            while (j >= lo && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Merge sorts arr[lo..hi], both ends inclusive, through aux, which must
+     * be at least as long as arr. Equal values keep their relative order.
+     *
+     * @param arr   the array to sort
+     * @param aux   the auxiliary array used while merging
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void mergeSort(short[] arr, short[] aux, int lo, int hi,
+                          SortProbe probe) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSort(arr, lo, hi, probe);
+            return;
+        }
+        int mid = lo + (hi - lo + 1) / 2;
+        mergeSort(arr, aux, lo, mid - 1, probe);
+        mergeSort(arr, aux, mid, hi, probe);
+        if (arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+        SortProbe.writes(probe, 2L * (hi - lo + 1));
+        int j = lo;
+        int k = mid;
+        for (int i = lo; i <= hi; i++) {
+            if (k > hi || (j < mid && aux[j] <= aux[k])) {
+                arr[i] = aux[j++];
+            } else {
+                arr[i] = aux[k++];
+            }
+        }
+    }
+
+    /**
+     * Quick sorts the whole array.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void quickSort(short[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        quickSort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Quick sorts arr[lo..hi], both ends inclusive, using a median-of-three
+     * pivot and recursing only into the smaller side. A range still being
+     * partitioned once depthLimit levels are used up is heap sorted.
+     *
+     * @param arr        the array to sort
+     * @param lo         the first index of the range
+     * @param hi         the last index of the range
+     * @param depthLimit the remaining recursion budget
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void quickSort(short[] arr, int lo, int hi, int depthLimit,
+                                  SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi + 1, probe);
+                return;
+            }
+            depthLimit--;
+            long swaps = 0;
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < arr[lo]) {
+                swap(arr, mid, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[lo]) {
+                swap(arr, hi, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[mid]) {
+                swap(arr, hi, mid);
+                swaps++;
+            }
+            short pivot = arr[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (arr[i] < pivot) {
+                    i++;
+                }
+                while (arr[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    swaps++;
+                    i++;
+                    j--;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            if (j - lo < hi - i) {
+                quickSort(arr, lo, j, depthLimit, probe);
+                lo = i;
+            } else {
+                quickSort(arr, i, hi, depthLimit, probe);
+                hi = j;
+            }
+        }
+        insertionSort(arr, lo, hi, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(short[] arr, int i, int j) {
+        short temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], both ends inclusive.
+     *
+     * @param arr   the array to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void insertionSort(char[] arr, int lo, int hi, SortProbe probe) {
+        long writes = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            char value = arr[i];
+            int j = i - 1;
+            while (j >= lo && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+            writes += i - j;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Merge sorts arr[lo..hi], both ends inclusive, through aux, which must
+     * be at least as long as arr. Equal values keep their relative order.
+     *
+     * @param arr   the array to sort
+     * @param aux   the auxiliary array used while merging
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param probe the probe that counts writes, or null
+     */
+    static void mergeSort(char[] arr, char[] aux, int lo, int hi,
+                          SortProbe probe) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSort(arr, lo, hi, probe);
+            return;
+        }
+        int mid = lo + (hi - lo + 1) / 2;
+        mergeSort(arr, aux, lo, mid - 1, probe);
+        mergeSort(arr, aux, mid, hi, probe);
+        if (arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+        SortProbe.writes(probe, 2L * (hi - lo + 1));
+        int j = lo;
+        int k = mid;
+        for (int i = lo; i <= hi; i++) {
+            if (k > hi || (j < mid && aux[j] <= aux[k])) {
+                arr[i] = aux[j++];
+            } else {
+                arr[i] = aux[k++];
+            }
+        }
+    }
+
+    /**
+     * Quick sorts the whole array.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void quickSort(char[] arr, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(arr.length);
+        SortProbe.depthBudget(probe, depthLimit);
+        quickSort(arr, 0, arr.length - 1, depthLimit, probe);
+    }
+
+    /**
+     * Quick sorts arr[lo..hi], both ends inclusive, using a median-of-three
+     * pivot and recursing only into the smaller side. A range still being
+     * partitioned once depthLimit levels are used up is heap sorted.
+     *
+     * @param arr        the array to sort
+     * @param lo         the first index of the range
+     * @param hi         the last index of the range
+     * @param depthLimit the remaining recursion budget
+     * @param probe      the probe that records the depth reached and
+     *                   counts swaps and writes, or null
+     */
+    private static void quickSort(char[] arr, int lo, int hi, int depthLimit,
+                                  SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi + 1, probe);
+                return;
+            }
+            depthLimit--;
+            long swaps = 0;
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < arr[lo]) {
+                swap(arr, mid, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[lo]) {
+                swap(arr, hi, lo);
+                swaps++;
+            }
+            if (arr[hi] < arr[mid]) {
+                swap(arr, hi, mid);
+                swaps++;
+            }
+            char pivot = arr[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (arr[i] < pivot) {
+                    i++;
+                }
+                while (arr[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    swaps++;
+                    i++;
+                    j--;
+                }
+            }
+            SortProbe.swaps(probe, swaps);
+            if (j - lo < hi - i) {
+                quickSort(arr, lo, j, depthLimit, probe);
+                lo = i;
+            } else {
+                quickSort(arr, i, hi, depthLimit, probe);
+                hi = j;
+            }
+        }
+        insertionSort(arr, lo, hi, probe);
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(char[] arr, int i, int j) {
+        char temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.Comparator;
+
+/**
+ * Introspective selection engine behind Sorting.select and
+ * Sorting.partialSort.
+ *
+ * Works like IntroSort, with the same pivots and the same three-way
+ * partition, except that after each partition only the side holding the
+ * wanted index is kept; if that index landed among the elements equal to
+ * the pivot it is already in place. That takes expected O(n) comparisons.
+ * A range whose budget of 2 * floor(log2(n)) partitions runs out is heap
+ * sorted, which bounds the worst case by O(n log n), and short ranges are
+ * insertion sorted.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class QuickSelect {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private QuickSelect() {
+    }
+
+    /**
+     * Rearranges arr[lo, hi) so that arr[k] holds the element a sort would
+     * put there, with nothing greater before it and nothing smaller after.
+     *
+     * @param <T>        data type to select from
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param k          the index to settle, in [lo, hi)
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that records the depth reached and counts
+     *                   swaps and writes, or null
+     */
+    static <T> void select(T[] arr, int lo, int hi, int k,
+                           Comparator<T> comparator, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(hi - lo);
+        SortProbe.depthBudget(probe, depthLimit);
+        while (hi - lo > IntroSort.INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi, comparator, probe);
+                return;
+            }
+            depthLimit--;
+            T pivot = arr[IntroSort.choosePivot(arr, lo, hi, comparator)];
+            int lt = lo;
+            int i = lo;
+            int gt = hi - 1;
+            while (i <= gt) {
+                int cmp = comparator.compare(arr[i], pivot);
+                if (cmp < 0) {
+                    swap(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi) > pivot
+            // Every element found less or greater than the pivot was
+            // swapped once.
+            SortProbe.swaps(probe, (lt - lo) + (hi - 1 - gt));
+            if (k < lt) {
+                hi = lt;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return;
+            }
+        }
+        MergeSort.insertionSort(arr, lo, hi, comparator, probe);
+    }
+
+    /**
+     * Rearranges arr[lo, hi) so that arr[k] holds the value a sort would
+     * put there, with nothing greater before it and nothing smaller after.
+     *
+     * @param arr   the array holding the range
+     * @param lo    the first index of the range, inclusive
+     * @param hi    the last index of the range, exclusive
+     * @param k     the index to settle, in [lo, hi)
+     * @param probe the probe that records the depth reached and counts
+     *              swaps and writes, or null
+     */
+    static void select(int[] arr, int lo, int hi, int k, SortProbe probe) {
+        int depthLimit = IntroSort.depthLimit(hi - lo);
+        SortProbe.depthBudget(probe, depthLimit);
+        while (hi - lo > IntroSort.INSERTION_THRESHOLD) {
+            SortProbe.remaining(probe, depthLimit);
+            if (depthLimit == 0) {
+                SortProbe.depthLimitHit(probe);
+                HeapSort.sort(arr, lo, hi, probe);
+                return;
+            }
+            depthLimit--;
+            int pivot = choosePivot(arr, lo, hi);
+            int lt = lo;
+            int i = lo;
+            int gt = hi - 1;
+            while (i <= gt) {
+                int value = arr[i];
+                if (value < pivot) {
+                    arr[i++] = arr[lt];
+                    arr[lt++] = value;
+                } else if (value > pivot) {
+                    arr[i] = arr[gt];
+                    arr[gt--] = value;
+                } else {
+                    i++;
+                }
+            }
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi) > pivot
+            // Every element found less or greater than the pivot was
+            // swapped once.
+            SortProbe.swaps(probe, (lt - lo) + (hi - 1 - gt));
+            if (k < lt) {
+                hi = lt;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return;
+            }
+        }
+        DualPivotQuicksort.insertionSort(arr, lo, hi - 1, probe);
+    }
+
+    /**
+     * Picks the pivot value for arr[lo, hi): the median of three, or the
+     * ninther on ranges longer than IntroSort.NINTHER_THRESHOLD.
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     * @return the pivot value
+     */
+    private static int choosePivot(int[] arr, int lo, int hi) {
+        int last = hi - 1;
+        int mid = (lo + last) >>> 1;
+        if (hi - lo <= IntroSort.NINTHER_THRESHOLD) {
+            return median(arr[lo], arr[mid], arr[last]);
+        }
+        int eighth = (hi - lo) / 8;
+        return median(
+            median(arr[lo], arr[lo + eighth], arr[lo + 2 * eighth]),
+            median(arr[mid - eighth], arr[mid], arr[mid + eighth]),
+            median(arr[last - 2 * eighth], arr[last - eighth], arr[last]));
+    }
+
+    /**
+     * Returns the median of three values.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param c the third value
+     * @return the median
+     */
+    private static int median(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Swaps arr[i] and arr[j].
+     *
+     * @param arr the array
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(Object[] arr, int i, int j) {
+        Object temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
@@ -0,0 +1,632 @@
+/**
+ * Counting-array LSD radix sort engine used by the primitive sorts in
+ * Sorting.
+ *
+ * Keys are processed one byte (base 256) at a time. Signed values are folded
+ * into unsigned order by flipping the sign bit, so negative numbers need no
+ * special bucket offset. All digit histograms are built in a single pass up
+ * front, and any pass whose digit is the same for every key is skipped.
+ *
+ * Each call allocates exactly one scratch array of the input's length plus
+ * the histograms; no per-element objects are created.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class RadixSort {
+
+    /**
+     * Number of bits in one digit.
+     */
+    static final int DIGIT_BITS = 8;
+
+    /**
+     * Number of buckets per digit.
+     */
+    static final int RADIX = 1 << DIGIT_BITS;
+
+    /**
+     * Mask selecting one digit.
+     */
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private RadixSort() {
+    }
+
+    /**
+     * Sorts the array in ascending signed order.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(int[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new int[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending signed order using the given scratch
+     * array, which must be at least as long as arr. The contents of scratch
+     * are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(int[] arr, int[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (int num : arr) {
+            int key = num ^ Integer.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        int[] src = arr;
+        int[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                int num = src[i];
+                dst[count[((num ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = num;
+            }
+            writes += n;
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts the array in ascending signed order.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(long[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new long[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending signed order using the given scratch
+     * array, which must be at least as long as arr. The contents of scratch
+     * are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(long[] arr, long[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = 8;
+        int[][] counts = new int[passes][RADIX];
+        for (long v : arr) {
+            long key = v ^ Long.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(int) (key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        long[] src = arr;
+        long[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                long v = src[i];
+                dst[count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+            }
+            writes += n;
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts the array in the order defined by Double.compare.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(double[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new double[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in the order defined by Double.compare using the given
+     * scratch array, which must be at least as long as arr. The contents of
+     * scratch are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(double[] arr, double[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = 8;
+        int[][] counts = new int[passes][RADIX];
+        for (double v : arr) {
+            long key = doubleKey(v);
+            for (int p = 0; p < passes; p++) {
+                counts[p][(int) (key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        double[] src = arr;
+        double[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                double v = src[i];
+                dst[count[(int) (doubleKey(v) >>> shift) & DIGIT_MASK]++] = v;
+            }
+            writes += n;
+            double[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts the array in the order defined by Float.compare.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(float[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new float[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in the order defined by Float.compare using the given
+     * scratch array, which must be at least as long as arr. The contents of
+     * scratch are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(float[] arr, float[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = 4;
+        int[][] counts = new int[passes][RADIX];
+        for (float v : arr) {
+            int key = floatKey(v);
+            for (int p = 0; p < passes; p++) {
+                counts[p][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        float[] src = arr;
+        float[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                float v = src[i];
+                dst[count[(floatKey(v) >>> shift) & DIGIT_MASK]++] = v;
+            }
+            writes += n;
+            float[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts the array in ascending signed order.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(short[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new short[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending signed order using the given scratch
+     * array, which must be at least as long as arr. The contents of scratch
+     * are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(short[] arr, short[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = 2;
+        int[][] counts = new int[passes][RADIX];
+        for (short v : arr) {
+            int key = (v ^ Short.MIN_VALUE) & 0xFFFF;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        short[] src = arr;
+        short[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                short v = src[i];
+                dst[count[(((v ^ Short.MIN_VALUE) & 0xFFFF) >>> shift) & DIGIT_MASK]++] = v;
+            }
+            writes += n;
+            short[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts the array in ascending order.
+     *
+     * @param arr   the array to be sorted
+     * @param probe the probe that counts writes, or null
+     */
+    static void sort(char[] arr, SortProbe probe) {
+        if (arr.length > 1) {
+            sort(arr, new char[arr.length], probe);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending order using the given scratch
+     * array, which must be at least as long as arr. The contents of scratch
+     * are undefined afterwards.
+     *
+     * @param arr     the array to be sorted
+     * @param scratch the auxiliary array the passes ping-pong through
+     * @param probe   the probe that counts writes, or null
+     */
+    static void sort(char[] arr, char[] scratch, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = 2;
+        int[][] counts = new int[passes][RADIX];
+        for (char v : arr) {
+            int key = v;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        char[] src = arr;
+        char[] dst = scratch;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                char v = src[i];
+                dst[count[(v >>> shift) & DIGIT_MASK]++] = v;
+            }
+            writes += n;
+            char[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            writes += n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts keys in ascending signed order and applies the same moves to
+     * index, which must be the same length. Equal keys keep their relative
+     * order, so an identity index becomes the stable sorting permutation.
+     *
+     * @param keys  the keys to be sorted
+     * @param index the array permuted along with keys
+     * @param probe the probe that counts writes, or null
+     */
+    static void sortWithIndex(int[] keys, int[] index, SortProbe probe) {
+        int n = keys.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (int num : keys) {
+            int key = num ^ Integer.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        int[] src = keys;
+        int[] dst = null;
+        int[] srcIndex = index;
+        int[] dstIndex = null;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            if (dst == null) {
+                dst = new int[n];
+                dstIndex = new int[n];
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                int num = src[i];
+                int slot = count[((num ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                dst[slot] = num;
+                dstIndex[slot] = srcIndex[i];
+            }
+            writes += 2L * n;
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+            temp = srcIndex;
+            srcIndex = dstIndex;
+            dstIndex = temp;
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, n);
+            System.arraycopy(srcIndex, 0, index, 0, n);
+            writes += 2L * n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Sorts keys in ascending signed order and applies the same moves to
+     * index, which must be the same length. Equal keys keep their relative
+     * order, so an identity index becomes the stable sorting permutation.
+     *
+     * @param keys  the keys to be sorted
+     * @param index the array permuted along with keys
+     * @param probe the probe that counts writes, or null
+     */
+    static void sortWithIndex(long[] keys, int[] index, SortProbe probe) {
+        int n = keys.length;
+        if (n < 2) {
+            return;
+        }
+        int passes = Long.SIZE / DIGIT_BITS;
+        int[][] counts = new int[passes][RADIX];
+        for (long v : keys) {
+            long key = v ^ Long.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(int) (key >>> (p * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        long[] src = keys;
+        long[] dst = null;
+        int[] srcIndex = index;
+        int[] dstIndex = null;
+        long writes = 0;
+        for (int p = 0; p < passes; p++) {
+            int[] count = counts[p];
+            if (isTrivialPass(count, n)) {
+                continue;
+            }
+            if (dst == null) {
+                dst = new long[n];
+                dstIndex = new int[n];
+            }
+            toOffsets(count);
+            int shift = p * DIGIT_BITS;
+            for (int i = 0; i < n; i++) {
+                long v = src[i];
+                int slot = count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                dst[slot] = v;
+                dstIndex[slot] = srcIndex[i];
+            }
+            writes += 2L * n;
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+            int[] tempIndex = srcIndex;
+            srcIndex = dstIndex;
+            dstIndex = tempIndex;
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, n);
+            System.arraycopy(srcIndex, 0, index, 0, n);
+            writes += 2L * n;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Returns the identity permutation 0, 1, ..., n - 1.
+     *
+     * @param n the length of the permutation
+     * @return the identity permutation
+     */
+    static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Rearranges values so that values[i] becomes the old values[order[i]].
+     *
+     * @param values the array to rearrange
+     * @param order  a permutation of the indices of values
+     * @param probe  the probe that counts writes, or null
+     */
+    static void permute(int[] values, int[] order, SortProbe probe) {
+        int[] old = values.clone();
+        for (int i = 0; i < order.length; i++) {
+            values[i] = old[order[i]];
+        }
+        SortProbe.writes(probe, 2L * order.length);
+    }
+
+    /**
+     * Rearranges values so that values[i] becomes the old values[order[i]].
+     *
+     * @param values the array to rearrange
+     * @param order  a permutation of the indices of values
+     * @param probe  the probe that counts writes, or null
+     */
+    static void permute(long[] values, int[] order, SortProbe probe) {
+        long[] old = values.clone();
+        for (int i = 0; i < order.length; i++) {
+            values[i] = old[order[i]];
+        }
+        SortProbe.writes(probe, 2L * order.length);
+    }
+
+    /**
+     * Rearranges values so that values[i] becomes the old values[order[i]].
+     *
+     * @param <T>    the payload type
+     * @param values the array to rearrange
+     * @param order  a permutation of the indices of values
+     * @param probe  the probe that counts writes, or null
+     */
+    static <T> void permute(T[] values, int[] order, SortProbe probe) {
+        T[] old = values.clone();
+        for (int i = 0; i < order.length; i++) {
+            values[i] = old[order[i]];
+        }
+        SortProbe.writes(probe, 2L * order.length);
+    }
+
+    /**
+     * Maps a double to a long whose unsigned order matches Double.compare.
+     * Positive values get the sign bit set, negative values are inverted,
+     * and every NaN collapses to the canonical NaN above positive infinity.
+     *
+     * @param value the value to map
+     * @return the unsigned sort key
+     */
+    static long doubleKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Maps a float to an int whose unsigned order matches Float.compare.
+     *
+     * @param value the value to map
+     * @return the unsigned sort key
+     */
+    static int floatKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    /**
+     * Checks whether every key falls into the same bucket for a pass.
+     *
+     * @param count the histogram of the pass
+     * @param n     the number of keys
+     * @return true if the pass would not move anything
+     */
+    static boolean isTrivialPass(int[] count, int n) {
+        for (int c : count) {
+            if (c != 0) {
+                return c == n;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Turns a histogram into the starting offset of each bucket.
+     *
+     * @param count the histogram, overwritten with the offsets
+     */
+    static void toOffsets(int[] count) {
+        int sum = 0;
+        for (int i = 0; i < count.length; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
+        }
+    }
+}
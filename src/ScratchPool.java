@@ -0,0 +1,516 @@
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of auxiliary arrays that sorts borrow instead of allocating a fresh
+ * one on every call.
+ *
+ * Arrays come in size classes, one per power of two, for each of Object[],
+ * int[], long[], double[], float[], short[] and char[]. A borrow takes the most recently returned array of the
+ * class that fits, or on a miss allocates an array of the full class
+ * length so that it can be pooled when it comes back. Requests shorter
+ * than MIN_LENGTH are cheaper to allocate than to pool and bypass the pool
+ * entirely, as do requests whose class alone would exceed maxBytes; those
+ * count as misses and get an array of exactly the length asked for.
+ *
+ * The pool is split into stripes picked by thread id, so threads rarely
+ * contend for a lock, and a thread that sorts repeatedly keeps getting its
+ * own arrays back. Two limits keep it from pinning memory:
+ * 1.) maxBytes - a returned array that would push the bytes held past the
+ *     cap is dropped rather than pooled
+ * 2.) maxIdle - an array unused for longer is evicted the next time its
+ *     stripe is touched; there is no background thread, so an idle pool
+ *     keeps its arrays until it is used or cleared
+ * Bytes are estimated from the element width, counting references as 8
+ * bytes.
+ *
+ * Returned Object[]s are cleared so that the pool does not keep the sorted
+ * elements reachable. Hit, miss and eviction counters accumulate across
+ * all threads; they are meant for sizing maxBytes from production data.
+ * All methods are thread-safe.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class ScratchPool {
+
+    /**
+     * Shortest request that is served from the pool.
+     */
+    public static final int MIN_LENGTH = 1 << 8;
+
+    /**
+     * Byte cap of a pool created with the no-argument constructor, before
+     * the heap limit is applied.
+     */
+    static final long DEFAULT_MAX_BYTES = 32L << 20;
+
+    /**
+     * Idle limit of a pool created with the no-argument constructor.
+     */
+    static final Duration DEFAULT_MAX_IDLE = Duration.ofSeconds(10);
+
+    private static final int OBJECTS = 0;
+    private static final int INTS = 1;
+    private static final int LONGS = 2;
+    private static final int DOUBLES = 3;
+    private static final int FLOATS = 4;
+    private static final int SHORTS = 5;
+    private static final int CHARS = 6;
+    private static final int KINDS = 7;
+    private static final int CLASSES = 31;
+    private static final int[] ELEMENT_BYTES = {8, Integer.BYTES, Long.BYTES,
+        Double.BYTES, Float.BYTES, Short.BYTES, Character.BYTES};
+
+    private final long maxBytes;
+    private final long maxIdleNanos;
+    private final Stripe[] stripes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a pool that holds at most 32 MB or 1/32 of the maximum heap,
+     * whichever is less, and evicts arrays idle for 10 seconds.
+     */
+    public ScratchPool() {
+        this(Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 32),
+            DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxBytes the most bytes of arrays held at once; 0 turns
+     *                 pooling off
+     * @param maxIdle  how long an array may stay unused before it is evicted
+     * @throws java.lang.IllegalArgumentException if maxBytes is negative or
+     *                                            maxIdle is null or negative
+     */
+    public ScratchPool(long maxBytes, Duration maxIdle) {
+        if (maxBytes < 0) {
+            throw new java.lang.IllegalArgumentException("max bytes is negative");
+        } else if (maxIdle == null || maxIdle.isNegative()) {
+            throw new java.lang.IllegalArgumentException("max idle is null or negative");
+        } else {
+            this.maxBytes = maxBytes;
+            this.maxIdleNanos = maxIdle.compareTo(Duration.ofNanos(Long.MAX_VALUE)) > 0
+                ? Long.MAX_VALUE : maxIdle.toNanos();
+            int count = Integer.highestOneBit(
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+            this.stripes = new Stripe[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+    }
+
+    /**
+     * Returns a pool that holds nothing, so every borrow allocates.
+     *
+     * @return a disabled pool
+     */
+    public static ScratchPool disabled() {
+        return new ScratchPool(0, Duration.ZERO);
+    }
+
+    /**
+     * Borrows an Object[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public Object[] borrowObjects(int length) {
+        return (Object[]) borrow(OBJECTS, length);
+    }
+
+    /**
+     * Borrows an int[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public int[] borrowInts(int length) {
+        return (int[]) borrow(INTS, length);
+    }
+
+    /**
+     * Borrows a long[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public long[] borrowLongs(int length) {
+        return (long[]) borrow(LONGS, length);
+    }
+
+    /**
+     * Borrows a double[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public double[] borrowDoubles(int length) {
+        return (double[]) borrow(DOUBLES, length);
+    }
+
+    /**
+     * Borrows a float[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public float[] borrowFloats(int length) {
+        return (float[]) borrow(FLOATS, length);
+    }
+
+    /**
+     * Borrows a short[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public short[] borrowShorts(int length) {
+        return (short[]) borrow(SHORTS, length);
+    }
+
+    /**
+     * Borrows a char[] of at least the given length. Its contents are
+     * undefined.
+     *
+     * @param length the length needed
+     * @return an array of at least length slots
+     * @throws java.lang.IllegalArgumentException if length is negative
+     */
+    public char[] borrowChars(int length) {
+        return (char[]) borrow(CHARS, length);
+    }
+
+    /**
+     * Returns an Object[] from borrowObjects. It is cleared, and must not
+     * be used afterwards. Arrays of a narrower runtime type, such as a
+     * String[], are not pooled.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(Object[] array) {
+        if (array != null && array.getClass() == Object[].class
+            && pooled(array.length)) {
+            Arrays.fill(array, null);
+            release(OBJECTS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns an int[] from borrowInts. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(int[] array) {
+        if (array != null && pooled(array.length)) {
+            release(INTS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns a long[] from borrowLongs. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(long[] array) {
+        if (array != null && pooled(array.length)) {
+            release(LONGS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns a double[] from borrowDoubles. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(double[] array) {
+        if (array != null && pooled(array.length)) {
+            release(DOUBLES, array, array.length);
+        }
+    }
+
+    /**
+     * Returns a float[] from borrowFloats. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(float[] array) {
+        if (array != null && pooled(array.length)) {
+            release(FLOATS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns a short[] from borrowShorts. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(short[] array) {
+        if (array != null && pooled(array.length)) {
+            release(SHORTS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns a char[] from borrowChars. It must not be used afterwards.
+     *
+     * @param array the array, or null to do nothing
+     */
+    public void release(char[] array) {
+        if (array != null && pooled(array.length)) {
+            release(CHARS, array, array.length);
+        }
+    }
+
+    /**
+     * Returns the number of borrows served from the pool.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of borrows of at least MIN_LENGTH that had to
+     * allocate.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of arrays evicted for being idle, or dropped on
+     * return because the pool was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the estimated bytes of the arrays held.
+     *
+     * @return the bytes held
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Drops every array held. The counters are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (ArrayDeque<Entry> slot : stripe.slots) {
+                    while (!slot.isEmpty()) {
+                        pooledBytes.addAndGet(-slot.pollLast().bytes);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Borrows an array of one kind.
+     *
+     * @param kind   the array kind
+     * @param length the length needed
+     * @return the array
+     */
+    private Object borrow(int kind, int length) {
+        if (length < 0) {
+            throw new java.lang.IllegalArgumentException("length is negative");
+        } else if (length < MIN_LENGTH) {
+            return allocate(kind, length);
+        }
+        int sizeClass = 32 - Integer.numberOfLeadingZeros(length - 1);
+        if (sizeClass >= CLASSES
+            || bytes(kind, 1 << sizeClass) > maxBytes) {
+            misses.increment();
+            return allocate(kind, length);
+        }
+        Stripe stripe = stripe();
+        Entry entry;
+        synchronized (stripe) {
+            long now = System.nanoTime();
+            evictIdle(stripe, now);
+            entry = stripe.slots.get(kind * CLASSES + sizeClass).pollFirst();
+        }
+        if (entry != null) {
+            pooledBytes.addAndGet(-entry.bytes);
+            hits.increment();
+            return entry.array;
+        }
+        misses.increment();
+        return allocate(kind, 1 << sizeClass);
+    }
+
+    /**
+     * Pools a returned array if the byte cap allows it.
+     *
+     * @param kind   the array kind
+     * @param array  the array
+     * @param length the length of the array, a power of two
+     */
+    private void release(int kind, Object array, int length) {
+        long bytes = bytes(kind, length);
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            long now = System.nanoTime();
+            evictIdle(stripe, now);
+            if (pooledBytes.addAndGet(bytes) > maxBytes) {
+                pooledBytes.addAndGet(-bytes);
+                evictions.increment();
+                return;
+            }
+            int sizeClass = Integer.numberOfTrailingZeros(length);
+            stripe.slots.get(kind * CLASSES + sizeClass).addFirst(
+                new Entry(array, bytes, now));
+        }
+    }
+
+    /**
+     * Evicts the arrays of a stripe that have been idle too long. Sweeps at
+     * most once per quarter of maxIdle. Must hold the stripe's lock.
+     *
+     * @param stripe the stripe
+     * @param now    the current System.nanoTime()
+     */
+    private void evictIdle(Stripe stripe, long now) {
+        if (now - stripe.lastSweep < maxIdleNanos / 4) {
+            return;
+        }
+        stripe.lastSweep = now;
+        for (ArrayDeque<Entry> slot : stripe.slots) {
+            while (!slot.isEmpty() && now - slot.peekLast().released > maxIdleNanos) {
+                pooledBytes.addAndGet(-slot.pollLast().bytes);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe of the current thread.
+     *
+     * @return the stripe
+     */
+    private Stripe stripe() {
+        long id = Thread.currentThread().getId();
+        return stripes[(int) (id ^ (id >>> 32)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns whether an array of a given length can have come from the
+     * pool.
+     *
+     * @param length the length
+     * @return true for a power of two of at least MIN_LENGTH
+     */
+    private static boolean pooled(int length) {
+        return length >= MIN_LENGTH && Integer.bitCount(length) == 1;
+    }
+
+    /**
+     * Estimates the bytes of an array.
+     *
+     * @param kind   the array kind
+     * @param length the length
+     * @return the estimated bytes
+     */
+    private static long bytes(int kind, int length) {
+        return (long) ELEMENT_BYTES[kind] * length;
+    }
+
+    /**
+     * Allocates an array.
+     *
+     * @param kind   the array kind
+     * @param length the length
+     * @return the new array
+     */
+    private static Object allocate(int kind, int length) {
+        if (kind == OBJECTS) {
+            return new Object[length];
+        } else if (kind == INTS) {
+            return new int[length];
+        } else if (kind == LONGS) {
+            return new long[length];
+        } else if (kind == DOUBLES) {
+            return new double[length];
+        } else if (kind == FLOATS) {
+            return new float[length];
+        } else if (kind == SHORTS) {
+            return new short[length];
+        } else {
+            return new char[length];
+        }
+    }
+
+    /**
+     * The pooled arrays of one stripe, a stack per kind and size class with
+     * the most recently returned array first.
+     */
+    private static final class Stripe {
+        private final List<ArrayDeque<Entry>> slots = new ArrayList<>(KINDS * CLASSES);
+        private long lastSweep = System.nanoTime();
+
+        /**
+         * Creates an empty stripe.
+         */
+        Stripe() {
+            for (int i = 0; i < KINDS * CLASSES; i++) {
+                slots.add(new ArrayDeque<>());
+            }
+        }
+    }
+
+    /**
+     * A pooled array and when it was returned.
+     */
+    private static final class Entry {
+        private final Object array;
+        private final long bytes;
+        private final long released;
+
+        /**
+         * Creates an entry.
+         *
+         * @param array    the array
+         * @param bytes    its estimated bytes
+         * @param released the System.nanoTime() it was returned at
+         */
+        Entry(Object array, long bytes, long released) {
+            this.array = array;
+            this.bytes = bytes;
+            this.released = released;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ScratchPool and the sorts that borrow from it.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class ScratchPoolTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(2222);
+
+    @After
+    public void restore() {
+        Sorting.setScratchPool(new ScratchPool());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testBorrowReturnsReleasedArray() {
+        ScratchPool pool = new ScratchPool(1 << 20, Duration.ofMinutes(1));
+        int[] first = pool.borrowInts(1000);
+        assertEquals(1024, first.length);
+        assertEquals(1, pool.getMisses());
+        pool.release(first);
+        assertEquals(4096, pool.getPooledBytes());
+
+        assertSame(first, pool.borrowInts(600));
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getPooledBytes());
+        assertNotSame(first, pool.borrowInts(2000));
+        assertEquals(2, pool.getMisses());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testShortRequestsBypassThePool() {
+        ScratchPool pool = new ScratchPool(1 << 20, Duration.ofMinutes(1));
+        long[] small = pool.borrowLongs(ScratchPool.MIN_LENGTH - 1);
+        assertEquals(ScratchPool.MIN_LENGTH - 1, small.length);
+        pool.release(small);
+        assertEquals(0, pool.getHits() + pool.getMisses());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testObjectsAreClearedAndTypeChecked() {
+        ScratchPool pool = new ScratchPool(1 << 20, Duration.ofMinutes(1));
+        Object[] objects = pool.borrowObjects(300);
+        Arrays.fill(objects, "element");
+        pool.release(objects);
+        Object[] again = pool.borrowObjects(300);
+        assertSame(objects, again);
+        assertNull(again[0]);
+
+        pool.release(new String[512]);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testByteCapDropsReturns() {
+        ScratchPool pool = new ScratchPool(8 * 1024, Duration.ofMinutes(1));
+        long[] first = pool.borrowLongs(1024);
+        long[] second = pool.borrowLongs(1024);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(8 * 1024, pool.getPooledBytes());
+        assertEquals(1, pool.getEvictions());
+
+        long[] huge = pool.borrowLongs(2048);
+        assertEquals(2048, huge.length);
+        pool.clear();
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testIdleArraysAreEvicted() throws InterruptedException {
+        ScratchPool pool = new ScratchPool(1 << 20, Duration.ofMillis(1));
+        pool.release(pool.borrowInts(512));
+        assertEquals(2048, pool.getPooledBytes());
+        Thread.sleep(10);
+        pool.borrowInts(512);
+        assertEquals(1, pool.getEvictions());
+        assertEquals(0, pool.getHits());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testDisabledPoolAllocatesExactly() {
+        ScratchPool pool = ScratchPool.disabled();
+        int[] array = pool.borrowInts(1000);
+        assertEquals(1000, array.length);
+        pool.release(pool.borrowInts(1024));
+        assertEquals(0, pool.getPooledBytes());
+        assertEquals(0, pool.getHits());
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testSortsReuseScratch() {
+        ScratchPool pool = new ScratchPool(1 << 24, Duration.ofMinutes(1));
+        Sorting.setScratchPool(pool);
+        assertSame(pool, Sorting.getScratchPool());
+        for (int i = 0; i < 20; ++i) {
+            int n = 1 + rand.nextInt(5000);
+            Integer[] boxed = new Integer[n];
+            int[] ints = new int[n];
+            long[] longs = new long[n];
+            for (int j = 0; j < n; j++) {
+                ints[j] = rand.nextInt();
+                boxed[j] = ints[j];
+                longs[j] = rand.nextLong();
+            }
+            Integer[] expectedBoxed = boxed.clone();
+            Arrays.sort(expectedBoxed);
+            int[] expectedInts = ints.clone();
+            Arrays.sort(expectedInts);
+            long[] expectedLongs = longs.clone();
+            Arrays.sort(expectedLongs);
+
+            Integer[] temp = boxed.clone();
+            Sorting.mergeSort(temp, Comparator.naturalOrder());
+            assertArrayEquals(expectedBoxed, temp);
+            temp = boxed.clone();
+            Sorting.bufferedMergeSort(temp, Comparator.naturalOrder());
+            assertArrayEquals(expectedBoxed, temp);
+            int[] intTemp = ints.clone();
+            Sorting.lsdRadixSort(intTemp);
+            assertArrayEquals(expectedInts, intTemp);
+            long[] longTemp = longs.clone();
+            Sorting.lsdRadixSort(longTemp);
+            assertArrayEquals(expectedLongs, longTemp);
+            longTemp = longs.clone();
+            Sorting.mergeSort(longTemp);
+            assertArrayEquals(expectedLongs, longTemp);
+        }
+        assertTrue(pool.getHits() > pool.getMisses());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testEachKindHasItsOwnClasses() {
+        ScratchPool pool = new ScratchPool(1 << 20, Duration.ofMinutes(1));
+        double[] doubles = pool.borrowDoubles(1000);
+        float[] floats = pool.borrowFloats(1000);
+        short[] shorts = pool.borrowShorts(1000);
+        char[] chars = pool.borrowChars(1000);
+        pool.release(doubles);
+        pool.release(floats);
+        pool.release(shorts);
+        pool.release(chars);
+        assertEquals(1024 * (8 + 4 + 2 + 2), pool.getPooledBytes());
+
+        //a long[] of the same length does not take the double[]
+        pool.borrowLongs(1000);
+        assertEquals(0, pool.getHits());
+        assertSame(doubles, pool.borrowDoubles(1000));
+        assertSame(floats, pool.borrowFloats(1000));
+        assertSame(shorts, pool.borrowShorts(1000));
+        assertSame(chars, pool.borrowChars(1000));
+        assertEquals(4, pool.getHits());
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testNarrowPrimitiveSortsReuseScratch() {
+        ScratchPool pool = new ScratchPool(1 << 24, Duration.ofMinutes(1));
+        Sorting.setScratchPool(pool);
+        for (int i = 0; i < 10; ++i) {
+            int n = 1000 + rand.nextInt(24);
+            double[] doubles = new double[n];
+            float[] floats = new float[n];
+            short[] shorts = new short[n];
+            char[] chars = new char[n];
+            for (int j = 0; j < n; j++) {
+                doubles[j] = rand.nextGaussian();
+                floats[j] = (float) rand.nextGaussian();
+                shorts[j] = (short) rand.nextInt();
+                chars[j] = (char) rand.nextInt();
+            }
+            double[] expectedDoubles = doubles.clone();
+            Arrays.sort(expectedDoubles);
+            float[] expectedFloats = floats.clone();
+            Arrays.sort(expectedFloats);
+            short[] expectedShorts = shorts.clone();
+            Arrays.sort(expectedShorts);
+            char[] expectedChars = chars.clone();
+            Arrays.sort(expectedChars);
+
+            double[] doubleTemp = doubles.clone();
+            Sorting.mergeSort(doubleTemp);
+            assertArrayEquals(expectedDoubles, doubleTemp, 0.0);
+            doubleTemp = doubles.clone();
+            Sorting.lsdRadixSort(doubleTemp);
+            assertArrayEquals(expectedDoubles, doubleTemp, 0.0);
+            float[] floatTemp = floats.clone();
+            Sorting.mergeSort(floatTemp);
+            assertArrayEquals(expectedFloats, floatTemp, 0.0f);
+            floatTemp = floats.clone();
+            Sorting.lsdRadixSort(floatTemp);
+            assertArrayEquals(expectedFloats, floatTemp, 0.0f);
+            short[] shortTemp = shorts.clone();
+            Sorting.mergeSort(shortTemp);
+            assertArrayEquals(expectedShorts, shortTemp);
+            shortTemp = shorts.clone();
+            Sorting.lsdRadixSort(shortTemp);
+            assertArrayEquals(expectedShorts, shortTemp);
+            char[] charTemp = chars.clone();
+            Sorting.mergeSort(charTemp);
+            assertArrayEquals(expectedChars, charTemp);
+            charTemp = chars.clone();
+            Sorting.lsdRadixSort(charTemp);
+            assertArrayEquals(expectedChars, charTemp);
+        }
+        //one miss per kind, every later borrow is a hit
+        assertEquals(4, pool.getMisses());
+        assertEquals(76, pool.getHits());
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testSetScratchPoolNull() {
+        Sorting.setScratchPool(null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNegativeLength() {
+        new ScratchPool().borrowInts(-1);
+    }
+}
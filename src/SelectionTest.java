@@ -0,0 +1,226 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for Sorting.select, Sorting.partialSort, TopK and IntTopK.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class SelectionTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(1616);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testSelectRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            Integer[] data = randomIntegers(1 + rand.nextInt(500));
+            Integer[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(data.length);
+
+            assertEquals(expected[k], Sorting.select(data, k,
+                Comparator.naturalOrder()));
+            for (int j = 0; j < k; j++) {
+                assertTrue(data[j] <= data[k]);
+            }
+            for (int j = k + 1; j < data.length; j++) {
+                assertTrue(data[j] >= data[k]);
+            }
+            Arrays.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntSelectRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int[] data = randomInts(1 + rand.nextInt(500));
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(data.length);
+
+            assertEquals(expected[k], Sorting.select(data, k));
+            for (int j = 0; j < k; j++) {
+                assertTrue(data[j] <= data[k]);
+            }
+            for (int j = k + 1; j < data.length; j++) {
+                assertTrue(data[j] >= data[k]);
+            }
+            Arrays.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testPartialSortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            Integer[] data = randomIntegers(rand.nextInt(500));
+            Integer[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(data.length + 1);
+
+            Sorting.partialSort(data, k, Comparator.naturalOrder());
+            assertArrayEquals(Arrays.copyOf(expected, k),
+                Arrays.copyOf(data, k));
+            Arrays.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntPartialSortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            int[] data = randomInts(rand.nextInt(500));
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(data.length + 1);
+
+            Sorting.partialSort(data, k);
+            assertArrayEquals(Arrays.copyOf(expected, k),
+                Arrays.copyOf(data, k));
+            Arrays.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testSelectSortedAndEqual() {
+        int[] sorted = new int[10000];
+        int[] equal = new int[10000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+            equal[i] = 7;
+        }
+        assertEquals(1234, Sorting.select(sorted, 1234));
+        assertEquals(7, Sorting.select(equal, 9999));
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testTopKRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            Integer[] data = randomIntegers(rand.nextInt(1000));
+            Integer[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(50);
+
+            TopK<Integer> top = new TopK<>(k, Comparator.<Integer>naturalOrder());
+            top.offerAll(Arrays.asList(data));
+            assertEquals(Math.min(k, data.length), top.size());
+            assertEquals(Arrays.asList(Arrays.copyOf(expected,
+                top.size())), top.toSortedList());
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntTopKRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            int[] data = randomInts(rand.nextInt(1000));
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            int k = rand.nextInt(50);
+
+            IntTopK top = new IntTopK(k);
+            top.offerAll(data);
+            assertEquals(Math.min(k, data.length), top.size());
+            assertArrayEquals(Arrays.copyOf(expected, top.size()),
+                top.toSortedArray());
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testTopKLargest() {
+        TopK<String> top = new TopK<>(2,
+            Comparator.<String>naturalOrder().reversed());
+        List<String> words = new ArrayList<>(Arrays.asList("pear", "apple",
+            "zucchini", "fig", "quince"));
+        top.offerAll(words);
+        assertEquals(Arrays.asList("zucchini", "quince"), top.toSortedList());
+        assertFalse(top.offer("banana"));
+        assertTrue(top.offer("yam"));
+        assertEquals(Arrays.asList("zucchini", "yam"), top.toSortedList());
+        top.clear();
+        assertEquals(0, top.size());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testHugeK() {
+        //the heap grows with the input instead of being allocated for k
+        TopK<Integer> top = new TopK<>(Integer.MAX_VALUE,
+            Comparator.<Integer>naturalOrder());
+        IntTopK ints = new IntTopK(Integer.MAX_VALUE);
+        for (int i = 100; i > 0; --i) {
+            assertTrue(top.offer(i));
+            assertTrue(ints.offer(i));
+        }
+        assertEquals(100, top.size());
+        assertEquals(Integer.valueOf(1), top.toSortedList().get(0));
+        assertEquals(100, ints.toSortedArray()[99]);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testZeroK() {
+        TopK<Integer> top = new TopK<>(0, Comparator.<Integer>naturalOrder());
+        assertFalse(top.offer(1));
+        assertEquals(0, top.toSortedList().size());
+        IntTopK ints = new IntTopK(0);
+        assertFalse(ints.offer(1));
+        assertEquals(0, ints.toSortedArray().length);
+        Sorting.partialSort(new int[0], 0);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testSelectKOutOfRange() {
+        Sorting.select(new int[3], 3);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testSelectNullComparator() {
+        Sorting.select(new Integer[] {1}, 0, null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testPartialSortKOutOfRange() {
+        Sorting.partialSort(new Integer[3], 4, Comparator.naturalOrder());
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testPartialSortNullArray() {
+        Sorting.partialSort((int[]) null, 0);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testTopKNegative() {
+        new TopK<Integer>(-1, Comparator.naturalOrder());
+    }
+
+    private Integer[] randomIntegers(int n) {
+        Integer[] data = new Integer[n];
+        int bound = 1 + rand.nextInt(2 * n + 1);
+        for (int j = 0; j < n; j++) {
+            data[j] = rand.nextInt(bound);
+        }
+        return data;
+    }
+
+    private int[] randomInts(int n) {
+        int[] data = new int[n];
+        boolean small = rand.nextBoolean();
+        for (int j = 0; j < n; j++) {
+            data[j] = small ? rand.nextInt(20) : rand.nextInt();
+        }
+        return data;
+    }
+}
@@ -0,0 +1,354 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cost counters that the methods of Sorting report into.
+ *
+ * Attach an instance with Sorting.setMetrics; from then on every sort
+ * records one call, and the totals below accumulate across all threads
+ * through LongAdder. When a listener is given it also receives a Summary
+ * of each call as the call returns, on the thread that made it. Detach
+ * with Sorting.setMetrics(null); while nothing is attached a sort does not
+ * count anything, wrap its comparator or read the clock.
+ *
+ * What is counted:
+ * 1.) comparisons - calls to the caller's Comparator, so only sorts that
+ *     take one report them
+ * 2.) swaps - exchanges of two elements, made by the exchange based
+ *     sorts: insertion and cocktail sort, every quick sort and selection
+ *     partition, the heap sorts (moving the root behind the heap) and the
+ *     rotations of the in-place merges
+ * 3.) writes - element stores into the input or its scratch arrays, two
+ *     per swap plus every shift, merge, scatter and copy, so merge and
+ *     radix sorts report their data movement too
+ * 4.) passes - sweeps over the array; cocktail sort counts one per
+ *     direction, so a large count relative to the length is an input far
+ *     from sorted
+ * 5.) auxiliary elements - array slots the call allocates or borrows from
+ *     the ScratchPool besides its input, as an upper bound for sorts that
+ *     grow their buffers
+ * 6.) recursion depth - deepest partitioning level of the quick sorts
+ * 7.) depth limit hits - introspective and dual-pivot quick sort ranges
+ *     that went too deep and were heap sorted instead, the sign of an
+ *     input that pushes quick sort toward O(n^2)
+ *
+ * A call that throws is not recorded.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class SortMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private final LongAdder auxiliaryElements = new LongAdder();
+    private final LongAdder depthLimitHits = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maxRecursionDepth =
+        new LongAccumulator(Math::max, 0);
+    private final Consumer<Summary> listener;
+
+    /**
+     * Creates metrics that only keep totals.
+     */
+    public SortMetrics() {
+        this(null);
+    }
+
+    /**
+     * Creates metrics that keep totals and pass every call to a listener.
+     *
+     * @param listener receives the summary of each call, or null
+     */
+    public SortMetrics(Consumer<Summary> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds a finished call to the totals and passes it to the listener.
+     *
+     * @param call the summary of the call
+     */
+    void record(Summary call) {
+        calls.increment();
+        elements.add(call.length);
+        comparisons.add(call.comparisons);
+        swaps.add(call.swaps);
+        writes.add(call.writes);
+        passes.add(call.passes);
+        auxiliaryElements.add(call.auxiliaryElements);
+        depthLimitHits.add(call.depthLimitHits);
+        nanos.add(call.nanos);
+        maxRecursionDepth.accumulate(call.recursionDepth);
+        if (listener != null) {
+            listener.accept(call);
+        }
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return the number of calls
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the total number of elements sorted.
+     *
+     * @return the number of elements
+     */
+    public long getElements() {
+        return elements.sum();
+    }
+
+    /**
+     * Returns the total number of Comparator calls.
+     *
+     * @return the number of comparisons
+     */
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Returns the total number of element swaps.
+     *
+     * @return the number of swaps
+     */
+    public long getSwaps() {
+        return swaps.sum();
+    }
+
+    /**
+     * Returns the total number of element writes.
+     *
+     * @return the number of writes
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /**
+     * Returns the total number of passes over the sorted arrays.
+     *
+     * @return the number of passes
+     */
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    /**
+     * Returns the total number of auxiliary array slots allocated.
+     *
+     * @return the number of auxiliary elements
+     */
+    public long getAuxiliaryElements() {
+        return auxiliaryElements.sum();
+    }
+
+    /**
+     * Returns how many ranges fell back to heap sort at the depth limit.
+     *
+     * @return the number of depth limit hits
+     */
+    public long getDepthLimitHits() {
+        return depthLimitHits.sum();
+    }
+
+    /**
+     * Returns the total wall time spent in recorded calls.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Returns the deepest recursion seen in any recorded call.
+     *
+     * @return the maximum recursion depth
+     */
+    public long getMaxRecursionDepth() {
+        return maxRecursionDepth.get();
+    }
+
+    /**
+     * Clears every total. Calls running concurrently may be split across
+     * the reset.
+     */
+    public void reset() {
+        calls.reset();
+        elements.reset();
+        comparisons.reset();
+        swaps.reset();
+        writes.reset();
+        passes.reset();
+        auxiliaryElements.reset();
+        depthLimitHits.reset();
+        nanos.reset();
+        maxRecursionDepth.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "calls=" + getCalls() + ", elements=" + getElements()
+            + ", comparisons=" + getComparisons() + ", swaps=" + getSwaps()
+            + ", writes=" + getWrites() + ", passes=" + getPasses()
+            + ", auxiliaryElements=" + getAuxiliaryElements()
+            + ", maxRecursionDepth=" + getMaxRecursionDepth()
+            + ", depthLimitHits=" + getDepthLimitHits()
+            + ", nanos=" + getNanos();
+    }
+
+    /**
+     * The cost of a single call, as passed to the listener.
+     */
+    public static final class Summary {
+        private final String algorithm;
+        private final int length;
+        private final long comparisons;
+        private final long swaps;
+        private final long writes;
+        private final long passes;
+        private final long auxiliaryElements;
+        private final int recursionDepth;
+        private final long depthLimitHits;
+        private final long nanos;
+
+        /**
+         * Creates a summary.
+         *
+         * @param algorithm         the method and argument types
+         * @param length            the number of elements sorted
+         * @param comparisons       the number of Comparator calls
+         * @param swaps             the number of element swaps
+         * @param writes            the number of element writes
+         * @param passes            the number of passes over the array
+         * @param auxiliaryElements the auxiliary array slots allocated
+         * @param recursionDepth    the deepest recursion level
+         * @param depthLimitHits    the ranges heap sorted at the depth limit
+         * @param nanos             the wall time of the call
+         */
+        Summary(String algorithm, int length, long comparisons, long swaps,
+                long writes, long passes, long auxiliaryElements,
+                int recursionDepth, long depthLimitHits, long nanos) {
+            this.algorithm = algorithm;
+            this.length = length;
+            this.comparisons = comparisons;
+            this.swaps = swaps;
+            this.writes = writes;
+            this.passes = passes;
+            this.auxiliaryElements = auxiliaryElements;
+            this.recursionDepth = recursionDepth;
+            this.depthLimitHits = depthLimitHits;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the method that was called, such as "quickSort(int[])".
+         *
+         * @return the algorithm
+         */
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * Returns the number of elements sorted.
+         *
+         * @return the length of the input
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns the number of Comparator calls.
+         *
+         * @return the number of comparisons
+         */
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        /**
+         * Returns the number of element swaps.
+         *
+         * @return the number of swaps
+         */
+        public long getSwaps() {
+            return swaps;
+        }
+
+        /**
+         * Returns the number of element writes.
+         *
+         * @return the number of writes
+         */
+        public long getWrites() {
+            return writes;
+        }
+
+        /**
+         * Returns the number of passes over the array.
+         *
+         * @return the number of passes
+         */
+        public long getPasses() {
+            return passes;
+        }
+
+        /**
+         * Returns the auxiliary array slots allocated.
+         *
+         * @return the number of auxiliary elements
+         */
+        public long getAuxiliaryElements() {
+            return auxiliaryElements;
+        }
+
+        /**
+         * Returns the deepest recursion level reached.
+         *
+         * @return the recursion depth
+         */
+        public int getRecursionDepth() {
+            return recursionDepth;
+        }
+
+        /**
+         * Returns how many ranges were heap sorted at the depth limit.
+         *
+         * @return the number of depth limit hits
+         */
+        public long getDepthLimitHits() {
+            return depthLimitHits;
+        }
+
+        /**
+         * Returns the wall time of the call.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + ": length=" + length + ", comparisons="
+                + comparisons + ", swaps=" + swaps + ", writes=" + writes
+                + ", passes=" + passes + ", auxiliaryElements="
+                + auxiliaryElements + ", recursionDepth=" + recursionDepth
+                + ", depthLimitHits=" + depthLimitHits + ", nanos=" + nanos;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the SortMetrics attached through Sorting.setMetrics.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class SortMetricsTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(1515);
+
+    @After
+    public void detach() {
+        Sorting.setMetrics(null);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testDetachedByDefault() {
+        assertNull(Sorting.getMetrics());
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        assertSame(metrics, Sorting.getMetrics());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testInsertionSortCountsInversions() {
+        Integer[] data = new Integer[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = rand.nextInt(50);
+        }
+        long inversions = 0;
+        for (int i = 0; i < data.length; i++) {
+            for (int j = i + 1; j < data.length; j++) {
+                if (data[i] > data[j]) {
+                    inversions++;
+                }
+            }
+        }
+        CountingComparator comparator = new CountingComparator();
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.insertionSort(data, comparator);
+
+        assertEquals(1, metrics.getCalls());
+        assertEquals(data.length, metrics.getElements());
+        assertEquals(inversions, metrics.getSwaps());
+        assertEquals(2 * inversions, metrics.getWrites());
+        assertEquals(comparator.count, metrics.getComparisons());
+        assertEquals(0, metrics.getAuxiliaryElements());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testListenerReceivesEveryCall() {
+        List<SortMetrics.Summary> calls = new ArrayList<>();
+        SortMetrics metrics = new SortMetrics(calls::add);
+        Sorting.setMetrics(metrics);
+        Integer[] data = {5, 3, 9, 1, 7};
+        CountingComparator comparator = new CountingComparator();
+        Sorting.mergeSort(data, comparator);
+        Sorting.quickSort(new int[] {3, 1, 2});
+
+        assertEquals(2, calls.size());
+        SortMetrics.Summary merge = calls.get(0);
+        assertEquals("mergeSort(T[], Comparator)", merge.getAlgorithm());
+        assertEquals(5, merge.getLength());
+        assertEquals(comparator.count, merge.getComparisons());
+        assertEquals(5, merge.getAuxiliaryElements());
+        assertEquals("quickSort(int[])", calls.get(1).getAlgorithm());
+        assertEquals(2, metrics.getCalls());
+        assertEquals(8, metrics.getElements());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testSeededQuickSortDepth() {
+        Integer[] data = new Integer[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = rand.nextInt();
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.quickSort(data, Comparator.naturalOrder(), new Random(1));
+
+        assertTrue(metrics.getMaxRecursionDepth() >= 9);
+        assertTrue(metrics.getMaxRecursionDepth() < data.length);
+        assertTrue(metrics.getSwaps() > 0);
+        assertTrue(metrics.getComparisons() > 0);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testQuickSortAdversaryHitsDepthLimit() {
+        int n = 5000;
+        Adversary adversary = new Adversary(n);
+        Integer[] data = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = i;
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.quickSort(data, adversary);
+
+        assertTrue(metrics.getDepthLimitHits() > 0);
+        assertTrue(metrics.getMaxRecursionDepth() > 0);
+        for (int i = 1; i < n; i++) {
+            assertTrue(adversary.compare(data[i - 1], data[i]) <= 0);
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testIntQuickSortRecordsDepth() {
+        int[] data = new int[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = rand.nextInt();
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.quickSort(data);
+
+        assertTrue(metrics.getMaxRecursionDepth() > 0);
+        assertEquals(0, metrics.getDepthLimitHits());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testCocktailSortCountsPasses() {
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        //sorted input takes one sweep that finds nothing to swap
+        Sorting.cocktailSort(new Integer[] {1, 2, 3, 4}, new CountingComparator());
+        assertEquals(1, metrics.getPasses());
+        assertEquals(0, metrics.getWrites());
+
+        //one forward sweep does the swap, one backward sweep checks it
+        metrics.reset();
+        Sorting.cocktailSort(new Integer[] {2, 1}, new CountingComparator());
+        assertEquals(2, metrics.getPasses());
+        assertEquals(2, metrics.getWrites());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testHeapSortCountsSwaps() {
+        int[] data = new int[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = rand.nextInt();
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.heapSort(data);
+
+        //every root but the last is swapped behind the heap
+        assertEquals(data.length - 1, metrics.getSwaps());
+        assertTrue(metrics.getWrites() > 2 * metrics.getSwaps());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testQuickSortsCountSwaps() {
+        int[] ints = new int[10000];
+        Integer[] boxed = new Integer[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = rand.nextInt();
+            boxed[i] = ints[i];
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.quickSort(ints);
+        assertTrue(metrics.getSwaps() > ints.length / 4);
+        assertTrue(metrics.getWrites() >= 2 * metrics.getSwaps());
+
+        metrics.reset();
+        Sorting.blockQuickSort(ints.clone());
+        assertTrue(metrics.getSwaps() > 0);
+
+        metrics.reset();
+        Sorting.quickSort(boxed, Comparator.naturalOrder());
+        assertTrue(metrics.getSwaps() > boxed.length / 4);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testMergeAndRadixSortsCountWrites() {
+        int[] ints = new int[1024];
+        Integer[] boxed = new Integer[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = rand.nextInt();
+            boxed[i] = ints[i];
+        }
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        //four digit passes, each scattering every element once
+        Sorting.lsdRadixSort(ints.clone());
+        assertEquals(4 * ints.length, metrics.getWrites());
+        assertEquals(0, metrics.getSwaps());
+
+        //a merge sort moves every element at least once per level
+        metrics.reset();
+        Sorting.mergeSort(boxed.clone(), Comparator.naturalOrder());
+        assertTrue(metrics.getWrites() >= 10L * boxed.length);
+
+        metrics.reset();
+        Sorting.timSort(boxed.clone(), Comparator.naturalOrder());
+        assertTrue(metrics.getWrites() >= boxed.length);
+
+        metrics.reset();
+        Sorting.blockMergeSort(boxed.clone(), Comparator.naturalOrder());
+        assertTrue(metrics.getWrites() >= boxed.length);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testDetachStopsRecording() {
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.lsdRadixSort(new int[] {3, 1, 2});
+        Sorting.setMetrics(null);
+        Sorting.lsdRadixSort(new int[] {3, 1, 2});
+
+        assertEquals(1, metrics.getCalls());
+        assertEquals(3, metrics.getAuxiliaryElements());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testFailedCallIsNotRecorded() {
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        try {
+            Sorting.quickSort((int[]) null);
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, metrics.getCalls());
+            return;
+        }
+        throw new AssertionError("expected IllegalArgumentException");
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testReset() {
+        SortMetrics metrics = new SortMetrics();
+        Sorting.setMetrics(metrics);
+        Sorting.cocktailSort(new Integer[] {2, 1}, new CountingComparator());
+        assertEquals(1, metrics.getSwaps());
+        metrics.reset();
+
+        assertEquals(0, metrics.getCalls());
+        assertEquals(0, metrics.getSwaps());
+        assertEquals(0, metrics.getWrites());
+        assertEquals(0, metrics.getPasses());
+        assertEquals(0, metrics.getComparisons());
+        assertEquals(0, metrics.getMaxRecursionDepth());
+    }
+
+    /**
+     * Natural order comparator that counts its calls.
+     */
+    private static class CountingComparator implements Comparator<Integer> {
+        private long count;
+
+        @Override
+        public int compare(Integer x, Integer y) {
+            count++;
+            return x.compareTo(y);
+        }
+    }
+
+    /**
+     * McIlroy's adversary: decides the order of elements lazily so that
+     * every pivot a quick sort picks ends up near the bottom of its range.
+     */
+    private static class Adversary implements Comparator<Integer> {
+        private final int[] value;
+        private final int gas;
+        private int solid;
+        private int candidate;
+
+        /**
+         * Creates an adversary for the integers 0 to n - 1.
+         *
+         * @param n the number of elements
+         */
+        Adversary(int n) {
+            value = new int[n];
+            gas = n;
+            java.util.Arrays.fill(value, gas);
+        }
+
+        @Override
+        public int compare(Integer x, Integer y) {
+            if (value[x] == gas && value[y] == gas) {
+                if (x == candidate) {
+                    value[x] = solid++;
+                } else {
+                    value[y] = solid++;
+                }
+            }
+            if (value[x] == gas) {
+                candidate = x;
+            } else if (value[y] == gas) {
+                candidate = y;
+            }
+            return Integer.compare(value[x], value[y]);
+        }
+    }
+}
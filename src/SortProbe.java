@@ -0,0 +1,199 @@
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one call of a Sorting method, reported to SortMetrics when
+ * the call finishes.
+ *
+ * A probe only exists while metrics are attached; otherwise start returns
+ * null. Every other method is a static helper that accepts a null probe
+ * and then does nothing, so instrumented code needs no checks of its own
+ * and pays nothing while metrics are detached.
+ *
+ * Comparisons and writes go to LongAdders because the parallel sorts make
+ * them from several threads; the other counters are only touched by
+ * sequential engines and are plain fields. Engines add their counts in
+ * bulk, once per partition, merge or pass, rather than once per element.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class SortProbe {
+
+    private final SortMetrics metrics;
+    private final String algorithm;
+    private final int length;
+    private final long start;
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private long auxiliaryElements;
+    private long swaps;
+    private long passes;
+    private int recursionDepth;
+    private int depthBudget;
+    private long depthLimitHits;
+
+    /**
+     * Creates a probe and starts its clock.
+     *
+     * @param metrics           the metrics to report to
+     * @param algorithm         the method being called
+     * @param length            the number of elements to sort
+     * @param auxiliaryElements the auxiliary array slots the call allocates
+     */
+    private SortProbe(SortMetrics metrics, String algorithm, int length,
+                      long auxiliaryElements) {
+        this.metrics = metrics;
+        this.algorithm = algorithm;
+        this.length = length;
+        this.auxiliaryElements = auxiliaryElements;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Starts a probe for a call.
+     *
+     * @param metrics           the attached metrics, or null
+     * @param algorithm         the method being called
+     * @param length            the number of elements to sort
+     * @param auxiliaryElements the auxiliary array slots the call allocates
+     * @return a new probe, or null if metrics is null
+     */
+    static SortProbe start(SortMetrics metrics, String algorithm, int length,
+                           long auxiliaryElements) {
+        return metrics == null ? null
+            : new SortProbe(metrics, algorithm, length, auxiliaryElements);
+    }
+
+    /**
+     * Stops the clock and reports the call.
+     *
+     * @param probe the probe of the call, or null
+     */
+    static void finish(SortProbe probe) {
+        if (probe != null) {
+            probe.metrics.record(new SortMetrics.Summary(probe.algorithm,
+                probe.length, probe.comparisons.sum(), probe.swaps,
+                probe.writes.sum(), probe.passes, probe.auxiliaryElements,
+                probe.recursionDepth, probe.depthLimitHits,
+                System.nanoTime() - probe.start));
+        }
+    }
+
+    /**
+     * Wraps a comparator so that its calls are counted.
+     *
+     * @param <T>        the type compared
+     * @param probe      the probe of the call, or null
+     * @param comparator the comparator to count
+     * @return a counting comparator, or comparator itself if probe is null
+     */
+    static <T> Comparator<T> count(SortProbe probe, Comparator<T> comparator) {
+        if (probe == null) {
+            return comparator;
+        }
+        return (x, y) -> {
+            probe.comparisons.increment();
+            return comparator.compare(x, y);
+        };
+    }
+
+    /**
+     * Adds element swaps. Each swap also counts as two writes.
+     *
+     * @param probe the probe of the call, or null
+     * @param swaps the number of swaps made
+     */
+    static void swaps(SortProbe probe, long swaps) {
+        if (probe != null) {
+            probe.swaps += swaps;
+            probe.writes.add(2 * swaps);
+        }
+    }
+
+    /**
+     * Adds element writes that were not part of a swap: shifts, merge and
+     * scatter stores, and copies between an array and its scratch space.
+     * May be called from several threads.
+     *
+     * @param probe  the probe of the call, or null
+     * @param writes the number of elements written
+     */
+    static void writes(SortProbe probe, long writes) {
+        if (probe != null) {
+            probe.writes.add(writes);
+        }
+    }
+
+    /**
+     * Adds passes over the array, such as the sweeps of cocktail sort.
+     *
+     * @param probe  the probe of the call, or null
+     * @param passes the number of passes made
+     */
+    static void passes(SortProbe probe, long passes) {
+        if (probe != null) {
+            probe.passes += passes;
+        }
+    }
+
+    /**
+     * Adds auxiliary array slots that were allocated.
+     *
+     * @param probe    the probe of the call, or null
+     * @param elements the number of slots allocated
+     */
+    static void allocated(SortProbe probe, long elements) {
+        if (probe != null) {
+            probe.auxiliaryElements += elements;
+        }
+    }
+
+    /**
+     * Records that a recursion level was reached.
+     *
+     * @param probe the probe of the call, or null
+     * @param depth the level, 0 for the whole array
+     */
+    static void depth(SortProbe probe, int depth) {
+        if (probe != null && depth > probe.recursionDepth) {
+            probe.recursionDepth = depth;
+        }
+    }
+
+    /**
+     * Sets the depth limit a depth-limited quick sort starts from, so that
+     * remaining can turn the limit left into a level.
+     *
+     * @param probe the probe of the call, or null
+     * @param limit the depth limit of the whole array
+     */
+    static void depthBudget(SortProbe probe, int limit) {
+        if (probe != null) {
+            probe.depthBudget = limit;
+        }
+    }
+
+    /**
+     * Records the level of a depth-limited quick sort partition.
+     *
+     * @param probe      the probe of the call, or null
+     * @param depthLimit the depth limit left for the partition
+     */
+    static void remaining(SortProbe probe, int depthLimit) {
+        if (probe != null) {
+            depth(probe, probe.depthBudget - depthLimit);
+        }
+    }
+
+    /**
+     * Records a range that was heap sorted because the depth limit ran out.
+     *
+     * @param probe the probe of the call, or null
+     */
+    static void depthLimitHit(SortProbe probe) {
+        if (probe != null) {
+            probe.depthLimitHits++;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Shared front end that runs sort jobs from many callers on two lanes, so
+ * that a few large sorts cannot starve the many small ones.
+ *
+ * A job is an array plus either a Comparator, or nothing for an int[], or
+ * the caller's own algorithm as a Consumer of the array. It is sorted in
+ * place and the returned CompletableFuture completes with the same array.
+ * Jobs are routed by length:
+ * 1.) small jobs, at most smallJobLimit elements, run one per task on
+ *     virtual threads when the JVM has them, and otherwise on a fixed pool
+ *     with a thread per processor; comparator and int jobs go through
+ *     Sorting.sort
+ * 2.) large jobs run on a ForkJoinPool of bounded parallelism, comparator
+ *     jobs through Sorting.parallelMergeSort with smallJobLimit as the
+ *     cutoff and int jobs through Sorting.parallelRadixSort, so they split
+ *     their work across the pool instead of holding one thread each
+ *
+ * Admission control: at most maxPending jobs are queued or running at
+ * once. A submission beyond that waits for a slot for up to maxWait, which
+ * pushes back on callers that submit faster than jobs finish, and is then
+ * rejected: its future completes exceptionally with a
+ * RejectedExecutionException. A zero maxWait rejects at once.
+ *
+ * The latency of every job, from submission to completion and so
+ * including any admission wait, is kept per lane in a histogram that
+ * answers percentile queries to within 6.25%.
+ *
+ * The virtual thread executor is looked up through reflection, so the
+ * class compiles and runs on JVMs without virtual threads. All methods are
+ * thread-safe.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class SortService implements AutoCloseable {
+
+    /**
+     * The two kinds of job, by length.
+     */
+    public enum Lane {
+        /**
+         * Jobs of at most smallJobLimit elements.
+         */
+        SMALL,
+        /**
+         * Jobs longer than smallJobLimit.
+         */
+        LARGE
+    }
+
+    private final int smallJobLimit;
+    private final long maxWaitNanos;
+    private final Semaphore slots;
+    private final int maxPending;
+    private final Executor small;
+    private final ForkJoinPool large;
+    private final boolean owned;
+    private final LatencyHistogram[] latencies = {
+        new LatencyHistogram(), new LatencyHistogram()};
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates a service with its own executors.
+     *
+     * @param smallJobLimit the longest job that runs on the small lane
+     * @param parallelism   the parallelism of the large lane's pool
+     * @param maxPending    the number of jobs admitted at once
+     * @param maxWait       how long a submission waits for admission
+     * @throws java.lang.IllegalArgumentException if smallJobLimit,
+     *                                            parallelism or maxPending is
+     *                                            less than 1, or maxWait is
+     *                                            null or negative
+     */
+    public SortService(int smallJobLimit, int parallelism, int maxPending,
+                       Duration maxWait) {
+        this(checkConfig(smallJobLimit, parallelism, maxPending, maxWait),
+            maxPending, maxWait, smallLaneExecutor(),
+            new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Creates a service on the caller's executors, which close() leaves
+     * running.
+     *
+     * @param smallJobLimit the longest job that runs on the small lane
+     * @param maxPending    the number of jobs admitted at once
+     * @param maxWait       how long a submission waits for admission
+     * @param small         the executor of the small lane
+     * @param large         the pool of the large lane
+     * @throws java.lang.IllegalArgumentException if smallJobLimit or
+     *                                            maxPending is less than 1,
+     *                                            maxWait is null or negative,
+     *                                            or an executor is null
+     */
+    public SortService(int smallJobLimit, int maxPending, Duration maxWait,
+                       Executor small, ForkJoinPool large) {
+        this(smallJobLimit, maxPending, maxWait, small, large, false);
+    }
+
+    /**
+     * Validates the configuration and creates the service.
+     *
+     * @param smallJobLimit the longest job that runs on the small lane
+     * @param maxPending    the number of jobs admitted at once
+     * @param maxWait       how long a submission waits for admission
+     * @param small         the executor of the small lane
+     * @param large         the pool of the large lane
+     * @param owned         whether close() shuts the executors down
+     */
+    private SortService(int smallJobLimit, int maxPending, Duration maxWait,
+                        Executor small, ForkJoinPool large, boolean owned) {
+        if (smallJobLimit < 1) {
+            throw new java.lang.IllegalArgumentException("small job limit must be positive");
+        } else if (maxPending < 1) {
+            throw new java.lang.IllegalArgumentException("max pending must be positive");
+        } else if (maxWait == null || maxWait.isNegative()) {
+            throw new java.lang.IllegalArgumentException("max wait is null or negative");
+        } else if (small == null || large == null) {
+            throw new java.lang.IllegalArgumentException("executor is null");
+        } else {
+            this.smallJobLimit = smallJobLimit;
+            this.maxPending = maxPending;
+            this.maxWaitNanos = saturatedNanos(maxWait);
+            this.slots = new Semaphore(maxPending);
+            this.small = small;
+            this.large = large;
+            this.owned = owned;
+        }
+    }
+
+    /**
+     * Submits a job that sorts an array by a Comparator, stably.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to sort in place
+     * @param comparator the Comparator used to compare the data in arr
+     * @return a future that completes with arr once it is sorted
+     * @throws java.lang.IllegalArgumentException if the array or comparator
+     *                                            is null
+     */
+    public <T> CompletableFuture<T[]> submit(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or comparator is null");
+        } else {
+            return schedule(arr, arr.length,
+                () -> Sorting.sort(arr, comparator),
+                () -> Sorting.parallelMergeSort(arr, comparator, large,
+                    smallJobLimit));
+        }
+    }
+
+    /**
+     * Submits a job that sorts an int array.
+     *
+     * @param arr the array to sort in place
+     * @return a future that completes with arr once it is sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public CompletableFuture<int[]> submit(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("the array is null");
+        } else {
+            return schedule(arr, arr.length, () -> Sorting.sort(arr),
+                () -> Sorting.parallelRadixSort(arr, large));
+        }
+    }
+
+    /**
+     * Submits a job that sorts an array with the caller's algorithm, for
+     * example a -> Sorting.timSort(a, comparator). The algorithm runs on
+     * the lane the array's length selects.
+     *
+     * @param <T>       data type to sort
+     * @param arr       the array to sort in place
+     * @param algorithm the sort to run on arr
+     * @return a future that completes with arr once the algorithm returns
+     * @throws java.lang.IllegalArgumentException if the array or algorithm
+     *                                            is null
+     */
+    public <T> CompletableFuture<T[]> submit(T[] arr, Consumer<T[]> algorithm) {
+        if (arr == null || algorithm == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or algorithm is null");
+        } else {
+            Runnable job = () -> algorithm.accept(arr);
+            return schedule(arr, arr.length, job, job);
+        }
+    }
+
+    /**
+     * Returns an upper bound for a latency percentile of the jobs of a lane
+     * completed so far.
+     *
+     * @param lane       the lane
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency in nanoseconds, or 0 if no job has completed
+     * @throws java.lang.IllegalArgumentException if lane is null or the
+     *                                            percentile is outside
+     *                                            [0, 100]
+     */
+    public long getLatencyNanos(Lane lane, double percentile) {
+        if (lane == null) {
+            throw new java.lang.IllegalArgumentException("lane is null");
+        } else if (!(percentile >= 0 && percentile <= 100)) {
+            throw new java.lang.IllegalArgumentException("percentile must be in [0, 100]");
+        } else {
+            return latencies[lane.ordinal()].percentile(percentile);
+        }
+    }
+
+    /**
+     * Returns the number of jobs of a lane completed so far, successfully
+     * or not.
+     *
+     * @param lane the lane
+     * @return the number of jobs
+     * @throws java.lang.IllegalArgumentException if lane is null
+     */
+    public long getCompleted(Lane lane) {
+        if (lane == null) {
+            throw new java.lang.IllegalArgumentException("lane is null");
+        } else {
+            return latencies[lane.ordinal()].count();
+        }
+    }
+
+    /**
+     * Returns the number of submissions rejected so far.
+     *
+     * @return the number of rejections
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of jobs admitted and not yet completed.
+     *
+     * @return the number of pending jobs
+     */
+    public int getPending() {
+        return maxPending - slots.availablePermits();
+    }
+
+    /**
+     * Stops admitting jobs. Jobs already admitted still complete. Executors
+     * the service created are shut down once their jobs finish; executors
+     * passed in are left running.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (owned) {
+            ((ExecutorService) small).shutdown();
+            large.shutdown();
+        }
+    }
+
+    /**
+     * Admits a job and starts it on its lane.
+     *
+     * @param <A>       the array type
+     * @param arr       the array the job sorts
+     * @param length    the length of the array
+     * @param smallJob  what to run on the small lane
+     * @param largeJob  what to run on the large lane
+     * @return the future of the job
+     */
+    private <A> CompletableFuture<A> schedule(A arr, int length,
+                                              Runnable smallJob,
+                                              Runnable largeJob) {
+        long start = System.nanoTime();
+        Lane lane = length <= smallJobLimit ? Lane.SMALL : Lane.LARGE;
+        CompletableFuture<A> future = new CompletableFuture<>();
+        if (!admit()) {
+            rejected.increment();
+            future.completeExceptionally(
+                new RejectedExecutionException("sort service is full or closed"));
+            return future;
+        }
+        Runnable sort = lane == Lane.SMALL ? smallJob : largeJob;
+        Runnable job = () -> {
+            Throwable failure = null;
+            try {
+                sort.run();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            latencies[lane.ordinal()].record(System.nanoTime() - start);
+            slots.release();
+            if (failure == null) {
+                future.complete(arr);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        };
+        try {
+            if (lane == Lane.SMALL) {
+                small.execute(job);
+            } else {
+                large.execute(job);
+            }
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Takes a slot for a job, waiting up to maxWait.
+     *
+     * @return true if the job was admitted
+     */
+    private boolean admit() {
+        if (closed) {
+            return false;
+        }
+        try {
+            return slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Creates the small lane's executor: a virtual thread per task when
+     * Executors.newVirtualThreadPerTaskExecutor exists and is enabled,
+     * otherwise a fixed pool of daemon threads, one per processor.
+     *
+     * @return the executor
+     */
+    private static ExecutorService smallLaneExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), task -> {
+                    Thread thread = new Thread(task, "sort-service-small");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+    }
+
+    /**
+     * Validates every argument of the constructor that creates its own
+     * executors. It runs before either executor is created, so a bad
+     * argument does not leave threads behind.
+     *
+     * @param smallJobLimit the longest job that runs on the small lane
+     * @param parallelism   the parallelism of the large lane's pool
+     * @param maxPending    the number of jobs admitted at once
+     * @param maxWait       how long a submission waits for admission
+     * @return smallJobLimit
+     */
+    private static int checkConfig(int smallJobLimit, int parallelism,
+                                   int maxPending, Duration maxWait) {
+        if (smallJobLimit < 1) {
+            throw new java.lang.IllegalArgumentException("small job limit must be positive");
+        } else if (parallelism < 1) {
+            throw new java.lang.IllegalArgumentException("parallelism must be positive");
+        } else if (maxPending < 1) {
+            throw new java.lang.IllegalArgumentException("max pending must be positive");
+        } else if (maxWait == null || maxWait.isNegative()) {
+            throw new java.lang.IllegalArgumentException("max wait is null or negative");
+        } else {
+            return smallJobLimit;
+        }
+    }
+
+    /**
+     * Converts a duration to nanoseconds, saturating at Long.MAX_VALUE.
+     *
+     * @param duration the non-negative duration
+     * @return the duration in nanoseconds
+     */
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
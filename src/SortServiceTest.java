@@ -0,0 +1,182 @@
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for SortService and the LatencyHistogram behind its percentiles.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class SortServiceTest {
+
+    private static final int TIMEOUT = 2000;
+    private static final int LONG_TIMEOUT = 20000;
+    private Random rand = new Random(2121);
+    private SortService service;
+
+    @After
+    public void close() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testJobsOnBothLanes() {
+        service = new SortService(1000, 2, 64, Duration.ofSeconds(10));
+        List<CompletableFuture<Integer[]>> boxed = new ArrayList<>();
+        List<Integer[]> boxedExpected = new ArrayList<>();
+        List<CompletableFuture<int[]>> ints = new ArrayList<>();
+        List<int[]> intsExpected = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            int n = i % 4 == 0 ? 1001 + rand.nextInt(30000) : rand.nextInt(1001);
+            int[] data = rand.ints(n, 0, 1 + rand.nextInt(n + 1)).toArray();
+            Integer[] values = Arrays.stream(data).boxed().toArray(Integer[]::new);
+            Integer[] sortedValues = values.clone();
+            Arrays.sort(sortedValues);
+            boxedExpected.add(sortedValues);
+            boxed.add(i % 2 == 0
+                ? service.submit(values, Comparator.naturalOrder())
+                : service.submit(values,
+                    a -> Sorting.timSort(a, Comparator.naturalOrder())));
+            intsExpected.add(data.clone());
+            Arrays.sort(intsExpected.get(i));
+            ints.add(service.submit(data));
+        }
+        for (int i = 0; i < 40; ++i) {
+            assertArrayEquals(boxedExpected.get(i), boxed.get(i).join());
+            assertArrayEquals(intsExpected.get(i), ints.get(i).join());
+        }
+        assertEquals(60, service.getCompleted(SortService.Lane.SMALL));
+        assertEquals(20, service.getCompleted(SortService.Lane.LARGE));
+        assertEquals(0, service.getPending());
+        assertEquals(0, service.getRejected());
+        for (SortService.Lane lane : SortService.Lane.values()) {
+            long median = service.getLatencyNanos(lane, 50);
+            assertTrue(median > 0);
+            assertTrue(median <= service.getLatencyNanos(lane, 99));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testBackpressureRejectsWhenFull() throws Exception {
+        ExecutorService small = Executors.newSingleThreadExecutor();
+        ForkJoinPool large = new ForkJoinPool(1);
+        try {
+            service = new SortService(100, 1, Duration.ZERO, small, large);
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Integer[] blocked = {2, 1};
+            CompletableFuture<Integer[]> first = service.submit(blocked, a -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Arrays.sort(a);
+            });
+            running.await();
+            assertEquals(1, service.getPending());
+
+            CompletableFuture<int[]> second = service.submit(new int[] {3, 1});
+            assertTrue(second.isCompletedExceptionally());
+            try {
+                second.join();
+                fail("expected a rejection");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            assertEquals(1, service.getRejected());
+
+            release.countDown();
+            assertSame(blocked, first.join());
+            assertArrayEquals(new int[] {1, 3},
+                service.submit(new int[] {3, 1}).join());
+        } finally {
+            service.close();
+            small.shutdown();
+            large.shutdown();
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testFailingJobReleasesItsSlot() {
+        service = new SortService(100, 1, 1, Duration.ofSeconds(1));
+        CompletableFuture<Integer[]> failed = service.submit(new Integer[1],
+            a -> {
+                throw new IllegalStateException("broken sort");
+            });
+        try {
+            failed.join();
+            fail("expected the job to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertArrayEquals(new Integer[] {1, 2},
+            service.submit(new Integer[] {2, 1}, Comparator.naturalOrder())
+                .join());
+        assertEquals(2, service.getCompleted(SortService.Lane.SMALL));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testClosedServiceRejects() {
+        service = new SortService(100, 1, 4, Duration.ofSeconds(1));
+        service.close();
+        assertTrue(service.submit(new int[] {2, 1}).isCompletedExceptionally());
+        assertEquals(1, service.getRejected());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.count());
+        long median = histogram.percentile(50);
+        assertTrue(median >= 500000 && median <= 500000 * 17 / 16);
+        long tail = histogram.percentile(99);
+        assertTrue(tail >= 990000 && tail <= 990000 * 17 / 16);
+        assertEquals(1000000, histogram.percentile(100));
+        assertEquals(1000, histogram.percentile(0), 1000 / 16);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNullArray() {
+        service = new SortService(100, 1, 4, Duration.ZERO);
+        service.submit((int[]) null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testPercentileOutOfRange() {
+        service = new SortService(100, 1, 4, Duration.ZERO);
+        service.getLatencyNanos(SortService.Lane.SMALL, 101);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testNegativeWait() {
+        new SortService(100, 1, 4, Duration.ofMillis(-1));
+    }
+}
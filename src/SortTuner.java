@@ -0,0 +1,595 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Thresholds that Sorting.sort uses to pick an engine for each call, and
+ * the input sampling behind that choice.
+ *
+ * For a T[] the signals are, in order:
+ * 1.) size - arrays of at most insertionMaxLength are insertion sorted
+ * 2.) presortedness - a strictly descending array is just reversed, and
+ *     otherwise adjacent pairs are scanned for descents, stopping
+ *     as soon as the average run is known to be shorter than
+ *     presortedRunLength; longer runs go to TimSort, which merges them as
+ *     they are
+ * 3.) stability - a stable sort of random data is a merge sort
+ * 4.) duplicates - when stability is not needed, a small sample is sorted
+ *     and if at most duplicateRatio of it is distinct the three-way
+ *     partition of the introsort is used; for mostly distinct keys the
+ *     engine that was faster at calibration is used, introsort by default
+ *
+ * For an int[] an ascending or descending array is recognised in one
+ * early-exit scan each, and otherwise the key range decides between radix
+ * sort and dual-pivot quick sort as in Sorting.sort(int[]).
+ *
+ * A tuner is immutable. The defaults suit a current JIT-compiling JVM;
+ * calibrate() measures the engines on the running host instead, and the
+ * result can be stored as a properties file and loaded on later runs.
+ * Sorting loads the file named by the system property sorting.tuning.file
+ * when it starts, and if the file is missing and sorting.tuning.calibrate
+ * is true it calibrates and writes the file.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class SortTuner {
+
+    /**
+     * System property naming the properties file to load at startup.
+     */
+    public static final String FILE_PROPERTY = "sorting.tuning.file";
+
+    /**
+     * System property that, set to true, calibrates at startup when no
+     * file could be loaded.
+     */
+    public static final String CALIBRATE_PROPERTY = "sorting.tuning.calibrate";
+
+    /**
+     * Engines that Sorting.sort can dispatch to.
+     */
+    public enum Engine {
+        /**
+         * Nothing to do, the array is already in order.
+         */
+        ALREADY_SORTED,
+        /**
+         * The array is in strictly descending order and only has to be
+         * reversed.
+         */
+        REVERSE,
+        /**
+         * Insertion sort, for short arrays.
+         */
+        INSERTION_SORT,
+        /**
+         * TimSort, for arrays made of long runs.
+         */
+        TIM_SORT,
+        /**
+         * Merge sort with one buffer, stable.
+         */
+        MERGE_SORT,
+        /**
+         * Introsort with three-way partitioning, unstable.
+         */
+        INTRO_SORT,
+        /**
+         * LSD radix sort, for int keys with a small enough range.
+         */
+        RADIX_SORT,
+        /**
+         * Dual-pivot quick sort, for other int keys.
+         */
+        DUAL_PIVOT_QUICKSORT
+    }
+
+    private static final String INSERTION_MAX_LENGTH = "insertion.maxLength";
+    private static final String PRESORTED_RUN_LENGTH = "presorted.runLength";
+    private static final String DUPLICATE_RATIO = "duplicates.ratio";
+    private static final String MERGE_FOR_DISTINCT = "distinct.preferMerge";
+    private static final String RADIX_MIN_LENGTH = "radix.minLength";
+    private static final String RADIX_PASS_COST = "radix.passCost";
+
+    /**
+     * Number of elements sampled for the duplicate ratio.
+     */
+    static final int DUPLICATE_SAMPLE = 64;
+
+    private static final SortTuner DEFAULTS = new SortTuner(24, 16, 0.5,
+        false, 256, 3);
+
+    private final int insertionMaxLength;
+    private final int presortedRunLength;
+    private final double duplicateRatio;
+    private final boolean mergeForDistinct;
+    private final int radixMinLength;
+    private final int radixPassCost;
+
+    /**
+     * Creates a tuner.
+     *
+     * @param insertionMaxLength longest T[] that is insertion sorted
+     * @param presortedRunLength shortest average run that TimSort takes
+     * @param duplicateRatio     largest distinct fraction of the sample
+     *                           that counts as duplicate-heavy
+     * @param mergeForDistinct   whether merge sort beats introsort on
+     *                           distinct keys
+     * @param radixMinLength     shortest int[] that may be radix sorted
+     * @param radixPassCost      cost of a radix pass in quick sort levels
+     */
+    private SortTuner(int insertionMaxLength, int presortedRunLength,
+                      double duplicateRatio, boolean mergeForDistinct,
+                      int radixMinLength, int radixPassCost) {
+        this.insertionMaxLength = insertionMaxLength;
+        this.presortedRunLength = presortedRunLength;
+        this.duplicateRatio = duplicateRatio;
+        this.mergeForDistinct = mergeForDistinct;
+        this.radixMinLength = radixMinLength;
+        this.radixPassCost = radixPassCost;
+    }
+
+    /**
+     * Returns the built-in thresholds.
+     *
+     * @return the default tuner
+     */
+    public static SortTuner defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Reads thresholds from properties; keys that are missing keep their
+     * default.
+     *
+     * @param properties the properties to read
+     * @return a tuner with the thresholds read
+     * @throws java.lang.IllegalArgumentException if properties is null or a
+     *                                            value is malformed or out
+     *                                            of range
+     */
+    public static SortTuner fromProperties(Properties properties) {
+        if (properties == null) {
+            throw new java.lang.IllegalArgumentException("properties is null");
+        }
+        try {
+            SortTuner tuner = new SortTuner(
+                intValue(properties, INSERTION_MAX_LENGTH,
+                    DEFAULTS.insertionMaxLength),
+                intValue(properties, PRESORTED_RUN_LENGTH,
+                    DEFAULTS.presortedRunLength),
+                Double.parseDouble(properties.getProperty(DUPLICATE_RATIO,
+                    Double.toString(DEFAULTS.duplicateRatio))),
+                Boolean.parseBoolean(properties.getProperty(
+                    MERGE_FOR_DISTINCT,
+                    Boolean.toString(DEFAULTS.mergeForDistinct))),
+                intValue(properties, RADIX_MIN_LENGTH,
+                    DEFAULTS.radixMinLength),
+                intValue(properties, RADIX_PASS_COST,
+                    DEFAULTS.radixPassCost));
+            if (tuner.insertionMaxLength < 0 || tuner.presortedRunLength < 2
+                || !(tuner.duplicateRatio >= 0 && tuner.duplicateRatio <= 1)
+                || tuner.radixMinLength < 2 || tuner.radixPassCost < 1) {
+                throw new java.lang.IllegalArgumentException("tuning value out of range");
+            }
+            return tuner;
+        } catch (NumberFormatException e) {
+            throw new java.lang.IllegalArgumentException("malformed tuning value", e);
+        }
+    }
+
+    /**
+     * Loads thresholds from a properties file.
+     *
+     * @param file the file to read
+     * @return a tuner with the thresholds read
+     * @throws IOException if the file cannot be read
+     * @throws java.lang.IllegalArgumentException if file is null or a value
+     *                                            is malformed or out of
+     *                                            range
+     */
+    public static SortTuner load(Path file) throws IOException {
+        if (file == null) {
+            throw new java.lang.IllegalArgumentException("file is null");
+        }
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file,
+            StandardCharsets.ISO_8859_1)) {
+            properties.load(in);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Returns the thresholds as properties that fromProperties reads back.
+     *
+     * @return the properties
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(INSERTION_MAX_LENGTH,
+            Integer.toString(insertionMaxLength));
+        properties.setProperty(PRESORTED_RUN_LENGTH,
+            Integer.toString(presortedRunLength));
+        properties.setProperty(DUPLICATE_RATIO,
+            Double.toString(duplicateRatio));
+        properties.setProperty(MERGE_FOR_DISTINCT,
+            Boolean.toString(mergeForDistinct));
+        properties.setProperty(RADIX_MIN_LENGTH,
+            Integer.toString(radixMinLength));
+        properties.setProperty(RADIX_PASS_COST,
+            Integer.toString(radixPassCost));
+        return properties;
+    }
+
+    /**
+     * Writes the thresholds to a properties file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     * @throws java.lang.IllegalArgumentException if file is null
+     */
+    public void store(Path file) throws IOException {
+        if (file == null) {
+            throw new java.lang.IllegalArgumentException("file is null");
+        }
+        try (Writer out = Files.newBufferedWriter(file,
+            StandardCharsets.ISO_8859_1)) {
+            toProperties().store(out, "Sorting.sort thresholds");
+        }
+    }
+
+    /**
+     * Measures the engines on this host and derives thresholds from the
+     * timings. Takes a few hundred milliseconds, most of it JIT warm-up.
+     *
+     * 1.) insertionMaxLength - the longest of 24 to 64 elements at which
+     *     insertion sort still beats merge sort on random Integers, and
+     *     at least the length below which merge sort insertion sorts
+     *     anyway
+     * 2.) mergeForDistinct - whether merge sort beats introsort on 2^14
+     *     distinct random Integers
+     * 3.) radixPassCost - the time of one radix pass over 2^16 random ints
+     *     divided by the time of one quick sort level
+     *
+     * The presortedness and duplicate thresholds and radixMinLength are
+     * properties of the algorithms rather than of the host and keep their
+     * defaults.
+     *
+     * @return a tuner with the measured thresholds
+     */
+    public static SortTuner calibrate() {
+        Random rand = new Random(19);
+        Comparator<Integer> natural = Comparator.naturalOrder();
+
+        int insertionMax = MergeSort.INSERTION_THRESHOLD;
+        for (int length : new int[] {24, 32, 48, 64}) {
+            Integer[][] inputs = new Integer[(1 << 15) / length][length];
+            for (Integer[] input : inputs) {
+                for (int i = 0; i < length; i++) {
+                    input[i] = rand.nextInt();
+                }
+            }
+            Integer[] work = new Integer[length];
+            Integer[] buffer = new Integer[length];
+            long insertion = time(() -> {
+                for (Integer[] input : inputs) {
+                    System.arraycopy(input, 0, work, 0, length);
+                    MergeSort.insertionSort(work, 0, length, natural, null);
+                }
+            });
+            long merge = time(() -> {
+                for (Integer[] input : inputs) {
+                    System.arraycopy(input, 0, work, 0, length);
+                    MergeSort.sort(work, buffer, natural, null);
+                }
+            });
+            if (insertion <= merge) {
+                insertionMax = length;
+            }
+        }
+
+        Integer[] distinct = new Integer[1 << 14];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = rand.nextInt();
+        }
+        Integer[] work = new Integer[distinct.length];
+        Integer[] buffer = new Integer[distinct.length];
+        long intro = time(() -> {
+            System.arraycopy(distinct, 0, work, 0, work.length);
+            IntroSort.sort(work, natural, null);
+        });
+        long merge = time(() -> {
+            System.arraycopy(distinct, 0, work, 0, work.length);
+            MergeSort.sort(work, buffer, natural, null);
+        });
+
+        int[] ints = new int[1 << 16];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = rand.nextInt();
+        }
+        int[] intWork = new int[ints.length];
+        int[] scratch = new int[ints.length];
+        long radix = time(() -> {
+            System.arraycopy(ints, 0, intWork, 0, ints.length);
+            RadixSort.sort(intWork, scratch, null);
+        });
+        long quick = time(() -> {
+            System.arraycopy(ints, 0, intWork, 0, ints.length);
+            DualPivotQuicksort.sort(intWork, null);
+        });
+        double perPass = radix / 4.0;
+        double perLevel = quick / 16.0;
+        int passCost = (int) Math.max(1, Math.round(perPass / perLevel));
+
+        return new SortTuner(insertionMax, DEFAULTS.presortedRunLength,
+            DEFAULTS.duplicateRatio, merge < intro, DEFAULTS.radixMinLength,
+            passCost);
+    }
+
+    /**
+     * Picks the tuner Sorting starts with from the system properties. Only
+     * a failed load or calibration falls back to the defaults; a calibrated
+     * tuner that cannot be stored is still used for this run.
+     *
+     * @return the loaded or calibrated tuner, or the defaults
+     */
+    static SortTuner startup() {
+        Path path;
+        SortTuner tuner;
+        try {
+            String file = System.getProperty(FILE_PROPERTY);
+            path = file == null ? null : Paths.get(file);
+            if (path != null && Files.isReadable(path)) {
+                return load(path);
+            }
+            if (!Boolean.getBoolean(CALIBRATE_PROPERTY)) {
+                return DEFAULTS;
+            }
+            tuner = calibrate();
+        } catch (IOException | RuntimeException e) {
+            // a broken tuning file must not stop the sorts from working
+            return DEFAULTS;
+        }
+        if (path != null) {
+            try {
+                tuner.store(path);
+            } catch (IOException | RuntimeException e) {
+                // the next start calibrates again
+            }
+        }
+        return tuner;
+    }
+
+    /**
+     * Chooses the engine for a T[].
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to sort
+     * @param comparator the Comparator used to compare the data
+     * @param stable     whether equal elements must keep their order
+     * @return the engine to use
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     */
+    public <T> Engine choose(T[] arr, Comparator<T> comparator,
+                             boolean stable) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        }
+        int n = arr.length;
+        if (n <= insertionMaxLength) {
+            return Engine.INSERTION_SORT;
+        }
+        int descending = 1;
+        while (descending < n
+            && comparator.compare(arr[descending - 1], arr[descending]) > 0) {
+            descending++;
+        }
+        if (descending == n) {
+            return Engine.REVERSE;
+        }
+        // Every element of the descending prefix starts a run of its own,
+        // and the comparison that ended the prefix found no descent.
+        int maxRuns = n / presortedRunLength;
+        int runs = descending;
+        for (int i = descending + 1; i < n && runs <= maxRuns; i++) {
+            if (comparator.compare(arr[i - 1], arr[i]) > 0) {
+                runs++;
+            }
+        }
+        if (runs == 1) {
+            return Engine.ALREADY_SORTED;
+        } else if (runs <= maxRuns) {
+            return Engine.TIM_SORT;
+        } else if (stable) {
+            return Engine.MERGE_SORT;
+        } else if (distinctRatio(arr, comparator) <= duplicateRatio) {
+            return Engine.INTRO_SORT;
+        } else {
+            return mergeForDistinct ? Engine.MERGE_SORT : Engine.INTRO_SORT;
+        }
+    }
+
+    /**
+     * Chooses the engine for an int[].
+     *
+     * @param arr the array to sort
+     * @return the engine to use
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public Engine choose(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        }
+        int n = arr.length;
+        int ascending = 1;
+        while (ascending < n && arr[ascending - 1] <= arr[ascending]) {
+            ascending++;
+        }
+        if (ascending >= n) {
+            return Engine.ALREADY_SORTED;
+        }
+        if (ascending == 1) {
+            int descending = 1;
+            while (descending < n && arr[descending - 1] > arr[descending]) {
+                descending++;
+            }
+            if (descending == n) {
+                return Engine.REVERSE;
+            }
+        }
+        if (n < radixMinLength) {
+            return Engine.DUAL_PIVOT_QUICKSORT;
+        }
+        int min = arr[0];
+        int max = arr[0];
+        for (int num : arr) {
+            if (num < min) {
+                min = num;
+            } else if (num > max) {
+                max = num;
+            }
+        }
+        long range = (long) max - min;
+        int passes = (Long.SIZE - Long.numberOfLeadingZeros(range) + 7) / 8;
+        int levels = 31 - Integer.numberOfLeadingZeros(n);
+        return passes * radixPassCost <= levels ? Engine.RADIX_SORT
+            : Engine.DUAL_PIVOT_QUICKSORT;
+    }
+
+    /**
+     * Returns the longest T[] that is insertion sorted.
+     *
+     * @return the insertion sort threshold
+     */
+    public int getInsertionMaxLength() {
+        return insertionMaxLength;
+    }
+
+    /**
+     * Returns the shortest average run length that selects TimSort.
+     *
+     * @return the presorted run length
+     */
+    public int getPresortedRunLength() {
+        return presortedRunLength;
+    }
+
+    /**
+     * Returns the largest distinct fraction of the sample that selects the
+     * introsort for its duplicate handling.
+     *
+     * @return the duplicate ratio
+     */
+    public double getDuplicateRatio() {
+        return duplicateRatio;
+    }
+
+    /**
+     * Returns whether unstable sorts of mostly distinct keys use merge sort
+     * rather than introsort.
+     *
+     * @return true if merge sort is preferred for distinct keys
+     */
+    public boolean isMergeForDistinct() {
+        return mergeForDistinct;
+    }
+
+    /**
+     * Returns the shortest int[] that may be radix sorted.
+     *
+     * @return the radix sort threshold
+     */
+    public int getRadixMinLength() {
+        return radixMinLength;
+    }
+
+    /**
+     * Returns the cost of one radix pass in quick sort partitioning levels.
+     *
+     * @return the radix pass cost
+     */
+    public int getRadixPassCost() {
+        return radixPassCost;
+    }
+
+    @Override
+    public String toString() {
+        return toProperties().toString();
+    }
+
+    /**
+     * Reads an int property.
+     *
+     * @param properties the properties to read
+     * @param key        the key
+     * @param fallback   the value when the key is missing
+     * @return the value
+     * @throws NumberFormatException if the value is not an int
+     */
+    private static int intValue(Properties properties, String key,
+                                int fallback) {
+        String value = properties.getProperty(key);
+        return value == null ? fallback : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Sorts an evenly spaced sample and returns the fraction of it that is
+     * distinct.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to sample
+     * @param comparator the Comparator used to compare the data
+     * @return the distinct fraction, 1 if the array is too short to sample
+     */
+    private static <T> double distinctRatio(T[] arr,
+                                            Comparator<T> comparator) {
+        int size = Math.min(DUPLICATE_SAMPLE, arr.length / 16);
+        if (size < 8) {
+            return 1;
+        }
+        T[] sample = Arrays.copyOf(arr, size);
+        int step = arr.length / size;
+        for (int i = 0; i < size; i++) {
+            sample[i] = arr[i * step];
+        }
+        MergeSort.sort(sample, Arrays.copyOf(sample, size), comparator,
+            null);
+        int distinct = 1;
+        for (int i = 1; i < size; i++) {
+            if (comparator.compare(sample[i - 1], sample[i]) != 0) {
+                distinct++;
+            }
+        }
+        return (double) distinct / size;
+    }
+
+    /**
+     * Returns the best of five timed runs after five warm-up runs.
+     *
+     * @param task the work to time
+     * @return the shortest run in nanoseconds
+     */
+    private static long time(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            task.run();
+            long elapsed = System.nanoTime() - start;
+            if (round >= 5) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,267 @@
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Sorting.sort front doors and the SortTuner behind them.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class SortTunerTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final Comparator<int[]> BY_KEY =
+        Comparator.comparingInt(pair -> pair[0]);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Random rand = new Random(1919);
+    private SortTuner tuner = SortTuner.defaults();
+
+    @After
+    public void restore() {
+        Sorting.setTuning(SortTuner.defaults());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testChooseObjects() {
+        Comparator<Integer> natural = Comparator.naturalOrder();
+        assertEquals(SortTuner.Engine.INSERTION_SORT,
+            tuner.choose(boxed(shuffled(10)), natural, true));
+        assertEquals(SortTuner.Engine.ALREADY_SORTED,
+            tuner.choose(boxed(ascending(1000)), natural, true));
+        Integer[] reversed = boxed(ascending(1000));
+        Collections.reverse(Arrays.asList(reversed));
+        assertEquals(SortTuner.Engine.REVERSE,
+            tuner.choose(reversed, natural, false));
+
+        int[] runs = new int[1000];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = i % 100;
+        }
+        assertEquals(SortTuner.Engine.TIM_SORT,
+            tuner.choose(boxed(runs), natural, false));
+
+        Integer[] random = boxed(shuffled(1000));
+        assertEquals(SortTuner.Engine.MERGE_SORT,
+            tuner.choose(random, natural, true));
+        assertEquals(SortTuner.Engine.INTRO_SORT,
+            tuner.choose(random, natural, false));
+
+        Integer[] duplicates = new Integer[1000];
+        for (int i = 0; i < duplicates.length; i++) {
+            duplicates[i] = rand.nextInt(4);
+        }
+        Properties preferMerge = new Properties();
+        preferMerge.setProperty("distinct.preferMerge", "true");
+        SortTuner merging = SortTuner.fromProperties(preferMerge);
+        assertEquals(SortTuner.Engine.MERGE_SORT,
+            merging.choose(random, natural, false));
+        assertEquals(SortTuner.Engine.INTRO_SORT,
+            merging.choose(duplicates, natural, false));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testChooseScansDescendingPrefixOnce() {
+        //a long descending prefix followed by one ascending run
+        Integer[] data = new Integer[1000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = i < 10 ? 100 - i : i;
+        }
+        int[] count = new int[1];
+        Comparator<Integer> counting = (a, b) -> {
+            count[0]++;
+            return Integer.compare(a, b);
+        };
+        assertEquals(SortTuner.Engine.TIM_SORT,
+            tuner.choose(data, counting, true));
+        assertTrue("Number of comparisons: " + count[0],
+            count[0] <= data.length - 1);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testChooseInts() {
+        assertEquals(SortTuner.Engine.ALREADY_SORTED,
+            tuner.choose(ascending(1000)));
+        int[] reversed = new int[1000];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = -i;
+        }
+        assertEquals(SortTuner.Engine.REVERSE, tuner.choose(reversed));
+        assertEquals(SortTuner.Engine.DUAL_PIVOT_QUICKSORT,
+            tuner.choose(shuffled(100)));
+        int[] bytes = new int[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = rand.nextInt(256);
+        }
+        assertEquals(SortTuner.Engine.RADIX_SORT, tuner.choose(bytes));
+        assertEquals(SortTuner.Engine.DUAL_PIVOT_QUICKSORT,
+            tuner.choose(rand.ints(1000).toArray()));
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testSortRandomizedIsStable() {
+        for (int i = 0; i < 300; ++i) {
+            int n = rand.nextInt(3000);
+            int[][] data = new int[n][];
+            int shape = rand.nextInt(4);
+            int bound = 1 + rand.nextInt(n + 1);
+            for (int j = 0; j < n; j++) {
+                int key = shape == 0 ? rand.nextInt(bound)
+                    : shape == 1 ? j / 3 + (rand.nextInt(50) == 0 ? -5 : 0)
+                    : shape == 2 ? n - j : j % 64;
+                data[j] = new int[] {key, j};
+            }
+            int[][] expected = data.clone();
+            Arrays.sort(expected, BY_KEY);
+
+            int[][] temp = data.clone();
+            Sorting.sort(temp, BY_KEY);
+            assertArrayEquals(expected, temp);
+            temp = data.clone();
+            Sorting.sort(temp, BY_KEY, false);
+            for (int j = 0; j < n; j++) {
+                assertEquals(expected[j][0], temp[j][0]);
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testIntSortPatterns() {
+        for (int[] data : new int[][] {ascending(5000), shuffled(5000),
+            rand.ints(5000, 0, 100).toArray(), rand.ints(5000).toArray()}) {
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            int[] temp = data.clone();
+            Sorting.sort(temp);
+            assertArrayEquals(expected, temp);
+            for (int j = 0; j < temp.length / 2; j++) {
+                int swap = temp[j];
+                temp[j] = temp[temp.length - 1 - j];
+                temp[temp.length - 1 - j] = swap;
+            }
+            Sorting.sort(temp);
+            assertArrayEquals(expected, temp);
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testPropertiesRoundTrip() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("insertion.maxLength", "40");
+        properties.setProperty("radix.passCost", "2");
+        SortTuner custom = SortTuner.fromProperties(properties);
+        assertEquals(40, custom.getInsertionMaxLength());
+        assertEquals(2, custom.getRadixPassCost());
+        assertEquals(tuner.getPresortedRunLength(),
+            custom.getPresortedRunLength());
+
+        Path file = folder.getRoot().toPath().resolve("tuning.properties");
+        custom.store(file);
+        assertEquals(custom.toProperties(),
+            SortTuner.load(file).toProperties());
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testCalibrate() {
+        SortTuner calibrated = SortTuner.calibrate();
+        assertTrue(calibrated.getInsertionMaxLength() >= 16);
+        assertTrue(calibrated.getRadixPassCost() >= 1);
+        Sorting.setTuning(calibrated);
+        assertSame(calibrated, Sorting.getTuning());
+
+        int[] data = rand.ints(10000).toArray();
+        int[] expected = data.clone();
+        Arrays.sort(expected);
+        Sorting.sort(data);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testStartupKeepsCalibrationThatCannotBeStored()
+        throws IOException {
+        //the tuning file would go under a regular file, so storing fails
+        Path blocker = folder.newFile("blocker").toPath();
+        System.setProperty(SortTuner.FILE_PROPERTY,
+            blocker.resolve("tuning.properties").toString());
+        System.setProperty(SortTuner.CALIBRATE_PROPERTY, "true");
+        try {
+            SortTuner started = SortTuner.startup();
+            assertNotSame(SortTuner.defaults(), started);
+            assertTrue(started.getInsertionMaxLength() >= 16);
+        } finally {
+            System.clearProperty(SortTuner.FILE_PROPERTY);
+            System.clearProperty(SortTuner.CALIBRATE_PROPERTY);
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testStartupWithoutPropertiesUsesDefaults() {
+        assertSame(SortTuner.defaults(), SortTuner.startup());
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testMalformedProperty() {
+        Properties properties = new Properties();
+        properties.setProperty("presorted.runLength", "many");
+        SortTuner.fromProperties(properties);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testOutOfRangeProperty() {
+        Properties properties = new Properties();
+        properties.setProperty("duplicates.ratio", "1.5");
+        SortTuner.fromProperties(properties);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testSetTuningNull() {
+        Sorting.setTuning(null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testSortNullComparator() {
+        Sorting.sort(new Integer[1], null, true);
+    }
+
+    private static int[] ascending(int n) {
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = i;
+        }
+        return data;
+    }
+
+    private int[] shuffled(int n) {
+        int[] data = ascending(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int swap = data[i];
+            data[i] = data[j];
+            data[j] = swap;
+        }
+        return data;
+    }
+
+    private static Integer[] boxed(int[] data) {
+        return Arrays.stream(data).boxed().toArray(Integer[]::new);
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Growable buffer behind the Sorting.toSortedArray collectors.
+ *
+ * Elements are appended to fixed-size chunks, so growing never copies
+ * what is already stored. A chunk is merge sorted as soon as it fills,
+ * while it is still in cache, and on the thread that filled it: in a
+ * parallel stream every worker sorts its own chunks, and combine only has
+ * to sort the two partly filled tail chunks and join the lists. The
+ * result is a single loser-tree merge of the sorted chunks. Chunks are
+ * kept in encounter order and both the chunk sort and the merge are
+ * stable, so equal elements keep their encounter order.
+ *
+ * @param <T> the type of elements sorted
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class SortedChunks<T> {
+
+    /**
+     * Number of elements per chunk.
+     */
+    static final int CHUNK_LENGTH = 1 << 12;
+
+    /**
+     * Longest array the result may be, as for ArrayList.
+     */
+    static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final Comparator<T> comparator;
+    private final List<T[]> sorted = new ArrayList<>();
+    private T[] current;
+    private T[] scratch;
+    private int length;
+    private long size;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param comparator the Comparator that orders the elements
+     */
+    SortedChunks(Comparator<T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param value the element
+     */
+    void add(T value) {
+        if (current == null) {
+            current = newArray(CHUNK_LENGTH);
+        }
+        current[length++] = value;
+        size++;
+        if (length == CHUNK_LENGTH) {
+            seal();
+        }
+    }
+
+    /**
+     * Appends the elements of another buffer, which come after the ones
+     * already here in encounter order.
+     *
+     * @param other the buffer to append
+     * @return this buffer
+     */
+    SortedChunks<T> combine(SortedChunks<T> other) {
+        seal();
+        other.seal();
+        sorted.addAll(other.sorted);
+        size += other.size;
+        return this;
+    }
+
+    /**
+     * Merges every element into one sorted Object[].
+     *
+     * @return a new sorted array of all elements
+     * @throws java.lang.IllegalArgumentException if there are more elements
+     *                                            than an array can hold
+     */
+    T[] toArray() {
+        return toArray(SortedChunks::newArray);
+    }
+
+    /**
+     * Merges every element straight into the array made by generator, so
+     * the result is not copied again.
+     *
+     * @param generator makes the result array from the number of elements
+     * @return the array made by generator, sorted
+     * @throws java.lang.IllegalArgumentException if there are more elements
+     *                                            than an array can hold
+     * @throws java.lang.IllegalStateException    if generator returns an
+     *                                            array of the wrong length
+     */
+    T[] toArray(IntFunction<T[]> generator) {
+        if (size > MAX_LENGTH) {
+            throw new java.lang.IllegalArgumentException("too many elements for an array");
+        } else {
+            seal();
+            T[] result = generator.apply((int) size);
+            if (result.length != size) {
+                throw new java.lang.IllegalStateException("generator returned an array of length " + result.length + " for " + size + " elements");
+            }
+            // Only the T[] chunks go in, and LoserTree only reads them.
+            @SuppressWarnings("unchecked")
+            T[][] runs = sorted.toArray((T[][]) new Object[sorted.size()][]);
+            return LoserTree.merge(runs, result, comparator);
+        }
+    }
+
+    /**
+     * Sorts the partly filled chunk, if any, and moves it to the sorted
+     * chunks.
+     */
+    private void seal() {
+        if (length == 0) {
+            return;
+        }
+        T[] chunk = length == CHUNK_LENGTH ? current
+            : Arrays.copyOf(current, length);
+        if (scratch == null) {
+            scratch = newArray(CHUNK_LENGTH);
+        }
+        MergeSort.sort(chunk, scratch, comparator, null);
+        sorted.add(chunk);
+        current = length == CHUNK_LENGTH ? null : current;
+        length = 0;
+    }
+
+    /**
+     * Returns a new Object[] to hold T values. Chunks and the scratch
+     * array never leave this class, and an array returned by toArray() is
+     * only ever read, so no caller can store a non-T through the cast.
+     *
+     * @param <T>    the type of elements held
+     * @param length the length of the array
+     * @return a new array of nulls
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(int length) {
+        return (T[]) new Object[length];
+    }
+}
@@ -1,8 +1,15 @@
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
 
 /**
  * Your implementation of various sorting algorithms.
@@ -18,6 +25,106 @@ import java.util.Random;
  */
 public class Sorting {
 
+    /**
+     * Metrics every sort reports to, or null while none are attached.
+     */
+    private static volatile SortMetrics metrics;
+
+    /**
+     * Attaches metrics that every method of this class reports its calls
+     * to, replacing any attached before. Passing null detaches them, after
+     * which the sorts count nothing.
+     *
+     * @param sink the metrics to report to, or null
+     */
+    public static void setMetrics(SortMetrics sink) {
+        metrics = sink;
+    }
+
+    /**
+     * Returns the attached metrics.
+     *
+     * @return the metrics the sorts report to, or null if none are attached
+     */
+    public static SortMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Thresholds the sort front doors choose their engine by.
+     */
+    private static volatile SortTuner tuning = SortTuner.startup();
+
+    /**
+     * Replaces the thresholds that sort(int[]) and sort(T[], ...) choose
+     * their engine by, for instance with SortTuner.calibrate().
+     *
+     * @param tuner the thresholds to use
+     * @throws java.lang.IllegalArgumentException if tuner is null
+     */
+    public static void setTuning(SortTuner tuner) {
+        if (tuner == null) {
+            throw new java.lang.IllegalArgumentException("tuner is null");
+        } else {
+            tuning = tuner;
+        }
+    }
+
+    /**
+     * Returns the thresholds the sort front doors choose their engine by.
+     *
+     * @return the current tuner
+     */
+    public static SortTuner getTuning() {
+        return tuning;
+    }
+
+    /**
+     * Pool the merge and radix sorts borrow their auxiliary arrays from.
+     */
+    private static volatile ScratchPool scratch = new ScratchPool();
+
+    /**
+     * Replaces the pool that the merge and radix sorts borrow their
+     * auxiliary arrays from. ScratchPool.disabled() makes every call
+     * allocate its own.
+     *
+     * @param pool the pool to borrow from
+     * @throws java.lang.IllegalArgumentException if pool is null
+     */
+    public static void setScratchPool(ScratchPool pool) {
+        if (pool == null) {
+            throw new java.lang.IllegalArgumentException("pool is null");
+        } else {
+            scratch = pool;
+        }
+    }
+
+    /**
+     * Returns the pool that the merge and radix sorts borrow their
+     * auxiliary arrays from.
+     *
+     * @return the current pool
+     */
+    public static ScratchPool getScratchPool() {
+        return scratch;
+    }
+
+    /**
+     * Borrows a merge buffer for a T[] from the pool.
+     *
+     * @param <T>    the element type of the array being sorted
+     * @param pool   the pool to borrow from
+     * @param length the length needed
+     * @return a buffer of at least length slots
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T[] borrowBuffer(ScratchPool pool, int length) {
+        //the buffer only ever holds elements of the array being sorted and
+        //never leaves the sort, so its runtime type being Object[] is unseen
+        return (T[]) pool.borrowObjects(length);
+    }
+
     /**
      * Implement insertion sort.
      *
@@ -42,15 +149,23 @@ public class Sorting {
         if (arr == null || comparator == null) {
             throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
         } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "insertionSort(T[], Comparator)",
+                arr.length, 0);
+            Comparator<T> counted = SortProbe.count(probe, comparator);
+            long swaps = 0;
             for (int i = 1; i < arr.length; i++) {
                 int j = i - 1;
-                while (j >= 0 && comparator.compare(arr[j], arr[j + 1]) > 0) {
+                while (j >= 0 && counted.compare(arr[j], arr[j + 1]) > 0) {
                     T temp = arr[j];
                     arr[j] = arr[j + 1];
                     arr[j + 1] = temp;
                     j--;
+                    swaps++;
                 }
             }
+            SortProbe.swaps(probe, swaps);
+            SortProbe.finish(probe);
         }
     }
 
@@ -81,32 +196,45 @@ public class Sorting {
         if (arr == null || comparator == null) {
             throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
         } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "cocktailSort(T[], Comparator)",
+                arr.length, 0);
+            Comparator<T> counted = SortProbe.count(probe, comparator);
+            long swaps = 0;
+            long passes = 0;
             boolean swapMade = true;
             int startIndex = 0;
             int endIndex = arr.length - 1;
             int lastSwap = 0;
             while (swapMade) {
                 swapMade = false;
+                passes++;
                 for (int i = startIndex; i < endIndex; i++) {
-                    if (comparator.compare(arr[i], arr[i + 1]) > 0) {
+                    if (counted.compare(arr[i], arr[i + 1]) > 0) {
                         swap(arr, i, i + 1);
                         swapMade = true;
                         lastSwap = i;
+                        swaps++;
                     }
                 }
                 endIndex = lastSwap;
                 if (swapMade) {
                     swapMade = false;
+                    passes++;
                     for (int i = lastSwap; i > startIndex; i--) {
-                        if (comparator.compare(arr[i], arr[i - 1]) < 0) {
+                        if (counted.compare(arr[i], arr[i - 1]) < 0) {
                             swap(arr, i, i - 1);
                             swapMade = true;
                             lastSwap = i;
+                            swaps++;
                         }
                     }
                 }
                 startIndex = lastSwap;
             }
+            SortProbe.swaps(probe, swaps);
+            SortProbe.passes(probe, passes);
+            SortProbe.finish(probe);
         }
     }
 
@@ -143,150 +271,289 @@ public class Sorting {
         if (arr == null || comparator == null) {
             throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
         } else {
-            if (arr.length <= 1) {
-                return;
-            } else {
-                int length = arr.length;
-                int midIndex = length / 2;
-                T[] leftArray = (T[]) new Object[midIndex];
-                T[] rightArray = (T[]) new Object[length - midIndex];
-                for (int i = 0; i < length; i++) {
-                    if (i < midIndex) {
-                        leftArray[i] = arr[i];
-                    } else {
-                        rightArray[i - midIndex] = arr[i];
-                    }
-                }
-                mergeSort(leftArray, comparator);
-                mergeSort(rightArray, comparator);
-                int j = 0;
-                int k = 0;
-                while (j < leftArray.length && k < rightArray.length) {
-                    if (comparator.compare(leftArray[j], rightArray[k]) <= 0) {
-                        arr[j + k] = leftArray[j];
-                        j++;
-                    } else {
-                        arr[j + k] = rightArray[k];
-                        k++;
-                    }
-                }
-                while (j < leftArray.length) {
-                    arr[j + k] = leftArray[j];
-                    j++;
-                }
-                while (k < rightArray.length) {
-                    arr[j + k] = rightArray[k];
-                    k++;
+            SortProbe probe = SortProbe.start(metrics,
+                "mergeSort(T[], Comparator)",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            T[] buffer = borrowBuffer(pool, arr.length);
+            try {
+                mergeSortHelper(arr, buffer, 0, arr.length,
+                    SortProbe.count(probe, comparator), probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Helper method of merge sort. Sorts arr[lo, hi) by splitting it at
+     * lo + (hi - lo) / 2, sorting both halves and merging them back
+     * through buffer.
+     *
+     * @param arr the array to be sorted
+     * @param buffer the auxiliary array, at least hi long
+     * @param lo the first index of the range, inclusive
+     * @param hi the last index of the range, exclusive
+     * @param comparator the Comparator used to compare the data in arr
+     * @param probe the probe that counts the writes, or null
+     * @param <T> data type to sort
+     */
+    private static <T> void mergeSortHelper(T[] arr, T[] buffer, int lo,
+                                            int hi, Comparator<T> comparator,
+                                            SortProbe probe) {
+        if (hi - lo <= 1) {
+            return;
+        } else {
+            int midIndex = lo + (hi - lo) / 2;
+            mergeSortHelper(arr, buffer, lo, midIndex, comparator, probe);
+            mergeSortHelper(arr, buffer, midIndex, hi, comparator, probe);
+            SortProbe.writes(probe, 2L * (hi - lo));
+            System.arraycopy(arr, lo, buffer, lo, hi - lo);
+            int j = lo;
+            int k = midIndex;
+            int i = lo;
+            while (j < midIndex && k < hi) {
+                if (comparator.compare(buffer[j], buffer[k]) <= 0) {
+                    arr[i++] = buffer[j++];
+                } else {
+                    arr[i++] = buffer[k++];
                 }
             }
+            while (j < midIndex) {
+                arr[i++] = buffer[j++];
+            }
+            while (k < hi) {
+                arr[i++] = buffer[k++];
+            }
         }
     }
 
     /**
-     * Implement quick sort.
+     * Merge sort that allocates a single auxiliary array per call.
      *
-     * Use the provided random object to select your pivots. For example if you
-     * need a pivot between a (inclusive) and b (exclusive) where b > a, use
-     * the following code:
+     * Produces exactly the same order as mergeSort, but instead of copying
+     * both halves into new arrays at every level it alternates between arr
+     * and one buffer of the same length. Merging is skipped whenever the
+     * last element of the left half is not greater than the first element of
+     * the right half, so already sorted input takes linear time.
      *
-     * int pivotIndex = rand.nextInt(b - a) + a;
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
      *
-     * If your recursion uses an inclusive b instead of an exclusive one,
-     * the formula changes by adding 1 to the nextInt() call:
+     * Have a worst case running time of:
+     * O(n log n)
      *
-     * int pivotIndex = rand.nextInt(b - a + 1) + a;
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     */
+    public static <T> void bufferedMergeSort(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "bufferedMergeSort(T[], Comparator)",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            T[] buffer = borrowBuffer(pool, arr.length);
+            try {
+                MergeSort.sort(arr, buffer, SortProbe.count(probe, comparator),
+                    probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort that uses a caller-supplied auxiliary array.
+     *
+     * Behaves like {@link #bufferedMergeSort(Object[], Comparator)} but
+     * allocates nothing, so a caller sorting many arrays can reuse one
+     * buffer. The buffer must be at least as long as arr and its contents
+     * are undefined after the call.
      *
      * It should be:
-     * in-place
-     * unstable
-     * not adaptive
+     * out-of-place
+     * stable
+     * adaptive
      *
      * Have a worst case running time of:
-     * O(n^2)
+     * O(n log n)
      *
      * And a best case running time of:
+     * O(n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data in arr
+     * @param buffer     the auxiliary array used while merging
+     * @throws java.lang.IllegalArgumentException if the array, comparator or
+     *                                            buffer is null, or if the
+     *                                            buffer is shorter than arr
+     */
+    public static <T> void bufferedMergeSort(T[] arr, Comparator<T> comparator,
+                                             T[] buffer) {
+        if (arr == null || comparator == null || buffer == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or comparator is null or buffer is null");
+        } else if (buffer.length < arr.length) {
+            throw new java.lang.IllegalArgumentException("buffer is shorter than the array");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "bufferedMergeSort(T[], Comparator, T[])",
+                arr.length, 0);
+            MergeSort.sort(arr, buffer, SortProbe.count(probe, comparator),
+                probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Block merge sort that needs only O(sqrt(n)) auxiliary memory.
+     *
+     * Sorts in the same bottom-up order as a merge sort, but each merge of
+     * two long runs cuts them into blocks of about sqrt(n) elements, puts
+     * the blocks in order of their first elements and then merges each
+     * block with the pending rest of its neighbour through one buffer of
+     * block length. Memory beyond arr is that buffer plus an int per block,
+     * rather than a buffer as long as arr, at the cost of moving every
+     * element roughly twice per level; it suits large arrays where a full
+     * copy does not fit comfortably in the heap. Merging is skipped when two
+     * runs are already in order.
+     *
+     * It should be:
+     * in-place, apart from the O(sqrt(n)) buffer
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
      * O(n log n)
      *
-     * Make sure you code the algorithm as you have been taught it in class.
-     * There are several versions of this algorithm and you may not receive
-     * credit if you do not use the one we have taught you!
+     * And a best case running time of:
+     * O(n)
      *
      * @param <T>        data type to sort
-     * @param arr        the array that must be sorted after the method runs
+     * @param arr        the array to be sorted
      * @param comparator the Comparator used to compare the data in arr
-     * @param rand       the Random object used to select pivots
-     * @throws java.lang.IllegalArgumentException if the array or comparator or
-     *                                            rand is null
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
      */
-    public static <T> void quickSort(T[] arr, Comparator<T> comparator,
-                                     Random rand) {
-        if (arr == null || comparator == null || rand == null) {
-            throw new java.lang.IllegalArgumentException("the array the null or comparator is null or rand is null");
+    public static <T> void blockMergeSort(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or comparator is null");
         } else {
-            quickSortHelper(arr, comparator, rand, 0, arr.length - 1);
+            SortProbe probe = SortProbe.start(metrics,
+                "blockMergeSort(T[], Comparator)", arr.length,
+                arr.length > BlockMergeSort.INSERTION_THRESHOLD
+                    ? BlockMergeSort.bufferLength(arr.length) : 0);
+            BlockMergeSort.sort(arr, SortProbe.count(probe, comparator),
+                probe);
+            SortProbe.finish(probe);
         }
     }
 
     /**
-     * Helper method of quick sort.
+     * Adaptive run-detecting merge sort in the style of TimSort.
      *
-     * @param arr the array that must be sorted after the method runs
-     * @param comparator the array that must be sorted after the method runs
-     * @param rand the Random object used to select pivots
-     * @param start start index
-     * @param end end index
-     * @param <T> data type to sort
+     * Ascending runs and strictly descending runs (which are reversed) are
+     * detected in a single scan, short runs are extended with binary
+     * insertion sort, and the runs are merged with galloping, so input made
+     * of a few sorted stretches costs close to one comparison per element
+     * while random input still takes O(n log n).
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
      */
-    private static <T> void quickSortHelper(T[] arr, Comparator<T> comparator, Random rand, int start, int end) {
-        if (end - start < 1) {
-            return;
+    public static <T> void timSort(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
         } else {
-            int pivotIndex = rand.nextInt(end - start + 1) + start;
-            swap(arr, pivotIndex, start);
-            int i = start + 1;
-            int j = end;
-            while (i <= j) {
-                while (i <= j && comparator.compare(arr[i], arr[start]) <= 0) {
-                    i++;
-                }
-                while (i <= j && comparator.compare(arr[j], arr[start]) >= 0) {
-                    j--;
-                }
-                if (i <= j) {
-                    swap(arr, i, j);
-                    i++;
-                    j--;
-                }
-            }
-            swap(arr, start, j);
-            quickSortHelper(arr, comparator, rand, start, j - 1);
-            quickSortHelper(arr, comparator, rand, j + 1, end);
+            SortProbe probe = SortProbe.start(metrics,
+                "timSort(T[], Comparator)",
+                arr.length, arr.length / 2);
+            TimSort.sort(arr, SortProbe.count(probe, comparator), probe);
+            SortProbe.finish(probe);
         }
     }
 
     /**
-     * Swap values of index i and index j.
+     * Parallel merge sort on a ForkJoinPool.
      *
-     * @param arr the array that must be sorted after the method runs
-     * @param i the first index i
-     * @param j the second index j
-     * @param <T> data type to sort
+     * The two halves of every range longer than the cutoff are sorted as
+     * separate fork-join tasks, and long merges are themselves split in two
+     * by binary searching the median of the longer run in the shorter one.
+     * Ranges at most cutoff long are merge sorted sequentially. One auxiliary
+     * array is allocated per call and the levels alternate between it and
+     * arr.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data in arr
+     * @param pool       the ForkJoinPool the sort runs in
+     * @param cutoff     ranges at most this long are sorted sequentially
+     * @throws java.lang.IllegalArgumentException if the array, comparator or
+     *                                            pool is null, or if cutoff
+     *                                            is not positive
      */
-    private static <T> void swap(T[] arr, int i, int j) {
-        T temp = arr[i];
-        arr[i] = arr[j];
-        arr[j] = temp;
+    public static <T> void parallelMergeSort(T[] arr, Comparator<T> comparator,
+                                             ForkJoinPool pool, int cutoff) {
+        if (arr == null || comparator == null || pool == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or comparator is null or pool is null");
+        } else if (cutoff < 1) {
+            throw new java.lang.IllegalArgumentException("cutoff must be positive");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "parallelMergeSort(T[], Comparator, ForkJoinPool, int)",
+                arr.length, arr.length);
+            ParallelMergeSort.sort(arr, SortProbe.count(probe, comparator), pool,
+                cutoff, probe);
+            SortProbe.finish(probe);
+        }
     }
 
     /**
-     * Implement LSD (least significant digit) radix sort.
-     *
-     * Make sure you code the algorithm as you have been taught it in class.
-     * There are several versions of this algorithm and you may not get full
-     * credit if you do not implement the one we have taught you!
+     * Parallel LSD radix sort over an int[] on a ForkJoinPool.
      *
-     * Remember you CANNOT convert the ints to strings at any point in your
-     * code! Doing so may result in a 0 for the implementation.
+     * The array is split into one block per worker. Every byte pass counts
+     * each block into its own histogram, a prefix sum over the histograms
+     * gives every block its own target slots, and the blocks then scatter
+     * into a shared scratch array in parallel. Passes whose byte is the same
+     * for every key are skipped. Arrays too short to give each worker a
+     * block of 16384 keys are sorted by {@link #lsdRadixSort(int[])}.
      *
      * It should be:
      * out-of-place
@@ -299,105 +566,2601 @@ public class Sorting {
      * And a best case running time of:
      * O(kn)
      *
-     * You are allowed to make an initial O(n) passthrough of the array to
-     * determine the number of iterations you need. The number of iterations
-     * can be determined using the number with the largest magnitude.
+     * @param arr  the array to be sorted
+     * @param pool the ForkJoinPool the sort runs in
+     * @throws java.lang.IllegalArgumentException if the array or pool is null
+     */
+    public static void parallelRadixSort(int[] arr, ForkJoinPool pool) {
+        if (arr == null || pool == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or pool is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "parallelRadixSort(int[], ForkJoinPool)",
+                arr.length, arr.length);
+            ParallelRadixSort.sort(arr, pool, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Parallel LSD radix sort over a long[] on a ForkJoinPool.
      *
-     * At no point should you find yourself needing a way to exponentiate a
-     * number; any such method would be non-O(1). Think about how how you can
-     * get each power of BASE naturally and efficiently as the algorithm
-     * progresses through each digit.
+     * Same block-parallel passes as {@link #parallelRadixSort(int[],
+     * ForkJoinPool)}, with up to eight passes per key.
      *
-     * Refer to the PDF for more information on LSD Radix Sort.
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
      *
-     * You may use ArrayList or LinkedList if you wish, but it may only be
-     * used inside radix sort and any radix sort helpers. Do NOT use these
-     * classes with other sorts. However, be sure the List implementation you
-     * choose allows for stability while being as efficient as possible.
+     * Have a worst case running time of:
+     * O(kn)
      *
-     * Do NOT use anything from the Math class except Math.abs().
+     * And a best case running time of:
+     * O(kn)
      *
-     * @param arr the array to be sorted
-     * @throws java.lang.IllegalArgumentException if the array is null
+     * @param arr  the array to be sorted
+     * @param pool the ForkJoinPool the sort runs in
+     * @throws java.lang.IllegalArgumentException if the array or pool is null
      */
-    public static void lsdRadixSort(int[] arr) {
-        if (arr == null) {
-            throw new java.lang.IllegalArgumentException("array is null");
+    public static void parallelRadixSort(long[] arr, ForkJoinPool pool) {
+        if (arr == null || pool == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or pool is null");
         } else {
-            LinkedList<Integer>[] buckets = new LinkedList[19];
-            for (int i = 0; i < 19; i++) {
-                buckets[i] = new LinkedList<>();
-            }
-            int mod = 10;
-            int div = 1;
-            boolean cont = true;
-            while (cont) {
-                cont = false;
-                for (int num : arr) {
-                    int bucket = num / div;
-                    if (bucket / 10 != 0) {
-                        cont = true;
-                    }
-                    if (buckets[bucket % mod + 9] == null) {
-                        buckets[bucket % mod + 9] = new LinkedList<>();
-                    }
-                    buckets[bucket % mod + 9].add(num);
-                }
-                int arrIdx = 0;
-                for (LinkedList<Integer> bucket : buckets) {
-                    if (bucket != null) {
-                        for (int num : bucket) {
-                            arr[arrIdx++] = num;
-                        }
-                        bucket.clear();
-                    }
-                }
-                div *= 10;
-            }
+            SortProbe probe = SortProbe.start(metrics,
+                "parallelRadixSort(long[], ForkJoinPool)",
+                arr.length, arr.length);
+            ParallelRadixSort.sort(arr, pool, probe);
+            SortProbe.finish(probe);
         }
     }
 
     /**
-     * Implement heap sort.
+     * Parallel MSD radix sort over an int[] on a ForkJoinPool.
+     *
+     * The whole array is partitioned on its most significant byte with the
+     * same block-parallel histogram and scatter as the LSD sort. The 256
+     * buckets are then sorted on the next byte as independent fork-join
+     * tasks, recursively. Buckets of 32 or fewer keys are insertion sorted,
+     * so keys that differ early finish after fewer than four passes.
      *
      * It should be:
      * out-of-place
-     * unstable
+     * stable
      * not adaptive
      *
      * Have a worst case running time of:
-     * O(n log n)
+     * O(kn)
      *
      * And a best case running time of:
-     * O(n log n)
-     *
-     * Use java.util.PriorityQueue as the heap. Note that in this
-     * PriorityQueue implementation, elements are removed from smallest
-     * element to largest element.
+     * O(n)
+     *
+     * @param arr  the array to be sorted
+     * @param pool the ForkJoinPool the sort runs in
+     * @throws java.lang.IllegalArgumentException if the array or pool is null
+     */
+    public static void parallelMsdRadixSort(int[] arr, ForkJoinPool pool) {
+        if (arr == null || pool == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or pool is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "parallelMsdRadixSort(int[], ForkJoinPool)",
+                arr.length, arr.length);
+            ParallelRadixSort.msdSort(arr, pool, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Parallel MSD radix sort over a long[] on a ForkJoinPool.
+     *
+     * Same bucket recursion as {@link #parallelMsdRadixSort(int[],
+     * ForkJoinPool)}, over up to eight bytes per key.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr  the array to be sorted
+     * @param pool the ForkJoinPool the sort runs in
+     * @throws java.lang.IllegalArgumentException if the array or pool is null
+     */
+    public static void parallelMsdRadixSort(long[] arr, ForkJoinPool pool) {
+        if (arr == null || pool == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or pool is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "parallelMsdRadixSort(long[], ForkJoinPool)",
+                arr.length, arr.length);
+            ParallelRadixSort.msdSort(arr, pool, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Implement quick sort.
+     *
+     * Use the provided random object to select your pivots. For example if you
+     * need a pivot between a (inclusive) and b (exclusive) where b > a, use
+     * the following code:
+     *
+     * int pivotIndex = rand.nextInt(b - a) + a;
+     *
+     * If your recursion uses an inclusive b instead of an exclusive one,
+     * the formula changes by adding 1 to the nextInt() call:
+     *
+     * int pivotIndex = rand.nextInt(b - a + 1) + a;
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * Make sure you code the algorithm as you have been taught it in class.
+     * There are several versions of this algorithm and you may not receive
+     * credit if you do not use the one we have taught you!
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @param rand       the Random object used to select pivots
+     * @throws java.lang.IllegalArgumentException if the array or comparator or
+     *                                            rand is null
+     */
+    public static <T> void quickSort(T[] arr, Comparator<T> comparator,
+                                     Random rand) {
+        if (arr == null || comparator == null || rand == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null or rand is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "quickSort(T[], Comparator, Random)",
+                arr.length, 0);
+            quickSortHelper(arr, SortProbe.count(probe, comparator), rand, 0,
+                arr.length - 1, probe, 0);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Production quick sort (introsort) that needs no Random.
+     *
+     * Pivots are the median of three, or the ninther on larger ranges, and
+     * every range is partitioned three ways so equal keys are gathered in
+     * the middle and never looked at again. The smaller side is recursed
+     * into and the larger one is handled by the loop, keeping the stack at
+     * O(log n). After 2 * log2(n) levels a range is heap sorted instead,
+     * which bounds the worst case, and ranges of 16 or fewer elements are
+     * insertion sorted.
+     *
+     * Use {@link #quickSort(Object[], Comparator, Random)} when pivots must
+     * be reproducible from a seed.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     */
+    public static <T> void quickSort(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "quickSort(T[], Comparator)",
+                arr.length, 0);
+            IntroSort.sort(arr, SortProbe.count(probe, comparator), probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Helper method of quick sort.
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @param comparator the array that must be sorted after the method runs
+     * @param rand the Random object used to select pivots
+     * @param start start index
+     * @param end end index
+     * @param probe the probe that records swaps and depth, or null
+     * @param depth the recursion level of the range
+     * @param <T> data type to sort
+     */
+    private static <T> void quickSortHelper(T[] arr, Comparator<T> comparator, Random rand, int start, int end,
+                                            SortProbe probe, int depth) {
+        if (end - start < 1) {
+            return;
+        } else {
+            SortProbe.depth(probe, depth);
+            long swaps = 2;
+            int pivotIndex = rand.nextInt(end - start + 1) + start;
+            swap(arr, pivotIndex, start);
+            int i = start + 1;
+            int j = end;
+            while (i <= j) {
+                while (i <= j && comparator.compare(arr[i], arr[start]) <= 0) {
+                    i++;
+                }
+                while (i <= j && comparator.compare(arr[j], arr[start]) >= 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(arr, i, j);
+                    i++;
+                    j--;
+                    swaps++;
+                }
+            }
+            swap(arr, start, j);
+            SortProbe.swaps(probe, swaps);
+            quickSortHelper(arr, comparator, rand, start, j - 1, probe, depth + 1);
+            quickSortHelper(arr, comparator, rand, j + 1, end, probe, depth + 1);
+        }
+    }
+
+    /**
+     * Swap values of index i and index j.
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @param i the first index i
+     * @param j the second index j
+     * @param <T> data type to sort
+     */
+    private static <T> void swap(T[] arr, int i, int j) {
+        T temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    /**
+     * Reverses the order of the elements of an array.
+     *
+     * @param arr the array to reverse
+     */
+    private static void reverse(Object[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--) {
+            Object temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses the order of the values of an int[].
+     *
+     * @param arr the array to reverse
+     */
+    private static void reverse(int[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    /**
+     * Radix sorts an int[] through a scratch array borrowed from the pool.
+     *
+     * @param arr   the array to sort
+     * @param probe the probe that counts writes, or null
+     */
+    private static void radixSort(int[] arr, SortProbe probe) {
+        ScratchPool pool = scratch;
+        int[] buffer = pool.borrowInts(arr.length);
+        try {
+            RadixSort.sort(arr, buffer, probe);
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Implement LSD (least significant digit) radix sort.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * The digits are bytes (base 256) rather than decimal digits, so an int
+     * needs at most four passes. Negative numbers are ordered by flipping the
+     * sign bit of each key, and a pass is skipped entirely when every key has
+     * the same digit in that position.
+     *
+     * Buckets are count/prefix-sum arrays and the passes ping-pong between
+     * arr and a single scratch int[] borrowed from the ScratchPool, so no
+     * boxing or per-element allocation takes place.
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(int[])",
+                arr.length, arr.length);
+            radixSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of an int[] key array that carries a payload.
+     *
+     * The keys are sorted as by {@link #lsdRadixSort(int[])}, and values, a
+     * parallel array of the same length, is rearranged by the same
+     * permutation: whatever sat next to a key before the sort still sits
+     * next to it afterwards. Equal keys keep their original order. The
+     * keys are sorted together with an int index array, and the payload is
+     * gathered through that index once at the end, so a payload row is
+     * moved exactly once whatever its type and nothing is boxed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static void lsdRadixSort(int[] keys, int[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(int[], int[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of an int[] key array that carries a long[]
+     * payload.
+     *
+     * See {@link #lsdRadixSort(int[], int[])}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static void lsdRadixSort(int[] keys, long[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(int[], long[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of an int[] key array that carries a T[]
+     * payload.
+     *
+     * See {@link #lsdRadixSort(int[], int[])}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param <T>    the payload type
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static <T> void lsdRadixSort(int[] keys, T[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(int[], T[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Computes the stable sorting permutation of an int[] without moving it.
+     *
+     * The returned array lists the indices of keys in ascending key order,
+     * ties in index order, so keys[order[0]] is the smallest key. Applying
+     * it to several columns of a table sorts all of them by this one.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys the keys to order, which are left unchanged
+     * @return the indices of keys in sorted order
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static int[] radixSortPermutation(int[] keys) {
+        if (keys == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "radixSortPermutation(int[])",
+                keys.length, 3L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys.clone(), order, probe);
+            SortProbe.finish(probe);
+            return order;
+        }
+    }
+
+    /**
+     * Dual-pivot quick sort over an int[] without boxing.
+     *
+     * Two pivots from five evenly spaced samples split every range into
+     * three parts in a single pass; equal pivots switch to a three-way
+     * partition around one value. Ranges of fewer than 32 elements are
+     * insertion sorted, and a range still unsorted after 2 * log2(n) levels
+     * is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(int[])",
+                arr.length, 0);
+            DualPivotQuicksort.sort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Branchless block quick sort over an int[] without boxing.
+     *
+     * Partitions in blocks of 128 elements from each end: the positions of
+     * the elements on the wrong side of the pivot are first collected into
+     * two offset buffers without branching on the data, and then swapped in
+     * pairs, so random input does not pay for mispredicted branches. The
+     * collecting step uses the Vector API when the JVM has the
+     * jdk.incubator.vector module and the optional vector kernel is on the
+     * class path. Ranges of at most 32 elements are finished by a sorting
+     * network, runs of keys equal to an earlier pivot are split off in one
+     * pass, and a range still unsorted after 2 * log2(n) levels is heap
+     * sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void blockQuickSort(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "blockQuickSort(int[])",
+                arr.length, 0);
+            BlockQuicksort.sort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Sorts an int[] with whichever engine suits it.
+     *
+     * An array that is already ascending is left alone and a strictly
+     * descending one is reversed, each found by a scan that stops at the
+     * first element out of line. Arrays shorter than the tuner's
+     * radixMinLength (256 by default) use dual-pivot quick sort. For longer
+     * arrays one pass finds the key range: radix sort costs one pass per
+     * byte of that range, quick sort roughly log2(n) levels, and radix sort
+     * is chosen when its passes, each weighted as radixPassCost (3) quick
+     * sort levels, are not the more expensive option.
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     * @see SortTuner
+     */
+    public static void sort(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "sort(int[])",
+                arr.length, 0);
+            switch (tuning.choose(arr)) {
+                case ALREADY_SORTED:
+                    break;
+                case REVERSE:
+                    reverse(arr);
+                    SortProbe.swaps(probe, arr.length / 2);
+                    break;
+                case RADIX_SORT:
+                    SortProbe.allocated(probe, arr.length);
+                    radixSort(arr, probe);
+                    break;
+                default:
+                    DualPivotQuicksort.sort(arr, probe);
+                    break;
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Sorts a T[] stably with whichever engine suits it.
+     *
+     * Same as sort(arr, comparator, true).
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     * @see #sort(Object[], Comparator, boolean)
+     */
+    public static <T> void sort(T[] arr, Comparator<T> comparator) {
+        sort(arr, comparator, true);
+    }
+
+    /**
+     * Sorts a T[] with whichever engine suits it.
+     *
+     * The current {@link SortTuner} looks at the input first: short arrays
+     * are insertion sorted, arrays that are already in order or strictly
+     * descending take a single pass, arrays made of long runs go to TimSort,
+     * and the rest go to merge sort when the order of equal elements must
+     * be kept. Otherwise a sample decides: duplicate-heavy input goes to
+     * the introsort, whose three-way partition finishes equal keys in one
+     * pass, and mostly distinct input to whichever of introsort and merge
+     * sort calibration found faster. Looking costs at most one comparison
+     * per element, as the scan for runs stops once there are too many,
+     * plus the sort of a sample of at most 64 elements.
+     *
+     * It should be:
+     * stable, if stable is true
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @param stable     whether equal elements must keep their order
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     */
+    public static <T> void sort(T[] arr, Comparator<T> comparator,
+                                boolean stable) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "sort(T[], Comparator, boolean)",
+                arr.length, 0);
+            Comparator<T> counted = SortProbe.count(probe, comparator);
+            switch (tuning.choose(arr, counted, stable)) {
+                case ALREADY_SORTED:
+                    break;
+                case REVERSE:
+                    reverse(arr);
+                    SortProbe.swaps(probe, arr.length / 2);
+                    break;
+                case INSERTION_SORT:
+                    MergeSort.insertionSort(arr, 0, arr.length, counted, probe);
+                    break;
+                case TIM_SORT:
+                    SortProbe.allocated(probe, arr.length / 2);
+                    TimSort.sort(arr, counted, probe);
+                    break;
+                case MERGE_SORT:
+                    SortProbe.allocated(probe, arr.length);
+                    ScratchPool pool = scratch;
+                    T[] buffer = borrowBuffer(pool, arr.length);
+                    try {
+                        MergeSort.sort(arr, buffer, counted, probe);
+                    } finally {
+                        pool.release(buffer);
+                    }
+                    break;
+                default:
+                    IntroSort.sort(arr, counted, probe);
+                    break;
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Implement heap sort.
+     *
+     * It should be:
+     * out-of-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * Use java.util.PriorityQueue as the heap. Note that in this
+     * PriorityQueue implementation, elements are removed from smallest
+     * element to largest element.
      *
      * Initialize the PriorityQueue using its build heap constructor (look at
      * the different constructors of java.util.PriorityQueue).
      *
-     * Return an int array with a capacity equal to the size of the list. The
-     * returned array should have the elements in the list in sorted order.
+     * Return an int array with a capacity equal to the size of the list. The
+     * returned array should have the elements in the list in sorted order.
+     *
+     * @param data the data to sort
+     * @return the array with length equal to the size of the input list that
+     * holds the elements from the list is sorted order
+     * @throws java.lang.IllegalArgumentException if the data is null
+     */
+    public static int[] heapSort(List<Integer> data) {
+        if (data == null) {
+            throw new java.lang.IllegalArgumentException("data cannot be null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "heapSort(List)",
+                data.size(), data.size());
+            PriorityQueue<Integer> heap = new PriorityQueue<>(data);
+            int[] arr = new int[data.size()];
+            int index = 0;
+            while (!heap.isEmpty() && index < arr.length) {
+                arr[index] = heap.remove();
+                index++;
+            }
+            SortProbe.writes(probe, index);
+            SortProbe.finish(probe);
+            return arr;
+        }
+    }
+
+    /**
+     * In-place heap sort over an int[] without boxing.
+     *
+     * The heap lives in arr itself, so nothing is allocated. Sifting uses
+     * Floyd's bottom-up variant, which walks down to a leaf with one
+     * comparison per level before placing the element, and needs about half
+     * the comparisons of {@link #heapSort(List)}.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void heapSort(int[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "heapSort(int[])",
+                arr.length, 0);
+            HeapSort.sort(arr, 0, arr.length, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * In-place heap sort.
+     *
+     * Same bottom-up heap as {@link #heapSort(int[])}, ordered by the
+     * comparator. Uses O(1) extra space whatever the input, which makes it
+     * the sort to use when no auxiliary array can be afforded.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array that must be sorted after the method runs
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null
+     */
+    public static <T> void heapSort(T[] arr, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "heapSort(T[], Comparator)",
+                arr.length, 0);
+            HeapSort.sort(arr, 0, arr.length, SortProbe.count(probe, comparator),
+                probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Selects the element of rank k, the one a sort would put at index k.
+     *
+     * Afterwards arr[k] holds that element, nothing before k is greater
+     * than it and nothing after k is smaller; the two sides are otherwise
+     * left in no particular order. Uses the introsort pivots and three-way
+     * partition, but only follows the side holding k, and heap sorts a
+     * range that keeps partitioning badly.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And an expected running time of:
+     * O(n)
+     *
+     * @param <T>        data type to select from
+     * @param arr        the array to select from, rearranged around k
+     * @param k          the rank wanted, 0 for the smallest
+     * @param comparator the Comparator used to compare the data in arr
+     * @return the element of rank k
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null or k is not an index of
+     *                                            the array
+     */
+    public static <T> T select(T[] arr, int k, Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else if (k < 0 || k >= arr.length) {
+            throw new java.lang.IllegalArgumentException("k is out of range");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "select(T[], int, Comparator)",
+                arr.length, 0);
+            QuickSelect.select(arr, 0, arr.length, k,
+                SortProbe.count(probe, comparator), probe);
+            SortProbe.finish(probe);
+            return arr[k];
+        }
+    }
+
+    /**
+     * Selects the value of rank k, the one a sort would put at index k.
+     *
+     * Afterwards arr[k] holds that value, nothing before k is greater and
+     * nothing after k is smaller.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And an expected running time of:
+     * O(n)
+     *
+     * @param arr the array to select from, rearranged around k
+     * @param k   the rank wanted, 0 for the smallest
+     * @return the value of rank k
+     * @throws java.lang.IllegalArgumentException if the array is null or k is
+     *                                            not an index of the array
+     */
+    public static int select(int[] arr, int k) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else if (k < 0 || k >= arr.length) {
+            throw new java.lang.IllegalArgumentException("k is out of range");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "select(int[], int)",
+                arr.length, 0);
+            QuickSelect.select(arr, 0, arr.length, k, probe);
+            SortProbe.finish(probe);
+            return arr[k];
+        }
+    }
+
+    /**
+     * Puts the k smallest elements, in order, at the front of the array.
+     *
+     * Selects rank k - 1, which leaves the k smallest elements in front of
+     * it, and introsorts just those. The rest of the array is left in no
+     * particular order. Cheaper than a full sort whenever k is much smaller
+     * than n; for a stream that is not in an array use TopK.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And an expected running time of:
+     * O(n + k log k)
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array whose first k elements end up sorted
+     * @param k          the number of elements to sort, at most arr.length
+     * @param comparator the Comparator used to compare the data in arr
+     * @throws java.lang.IllegalArgumentException if the array or comparator is
+     *                                            null or k is negative or
+     *                                            longer than the array
+     */
+    public static <T> void partialSort(T[] arr, int k,
+                                       Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array the null or comparator is null");
+        } else if (k < 0 || k > arr.length) {
+            throw new java.lang.IllegalArgumentException("k is out of range");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "partialSort(T[], int, Comparator)",
+                arr.length, 0);
+            if (k > 0) {
+                Comparator<T> counted = SortProbe.count(probe, comparator);
+                QuickSelect.select(arr, 0, arr.length, k - 1, counted, probe);
+                // The front is sorted with its own depth limit, so the
+                // probe measures its levels from there.
+                int depthLimit = IntroSort.depthLimit(k - 1);
+                SortProbe.depthBudget(probe, depthLimit);
+                IntroSort.sort(arr, 0, k - 1, depthLimit, counted, probe);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Puts the k smallest values, in order, at the front of the array.
+     *
+     * Selects rank k - 1 and dual-pivot quick sorts the values in front of
+     * it. The rest of the array is left in no particular order; for a
+     * stream that is not in an array use IntTopK.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And an expected running time of:
+     * O(n + k log k)
+     *
+     * @param arr the array whose first k values end up sorted
+     * @param k   the number of values to sort, at most arr.length
+     * @throws java.lang.IllegalArgumentException if the array is null or k is
+     *                                            negative or longer than the
+     *                                            array
+     */
+    public static void partialSort(int[] arr, int k) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else if (k < 0 || k > arr.length) {
+            throw new java.lang.IllegalArgumentException("k is out of range");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "partialSort(int[], int)",
+                arr.length, 0);
+            if (k > 0) {
+                QuickSelect.select(arr, 0, arr.length, k - 1, probe);
+                int depthLimit = IntroSort.depthLimit(k - 1);
+                SortProbe.depthBudget(probe, depthLimit);
+                DualPivotQuicksort.sort(arr, 0, k - 2, depthLimit, probe);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges two sorted arrays into the front of dst.
+     *
+     * Elements of a come before equal elements of b. When one array keeps
+     * winning the merge gallops through it, so merging a short array into
+     * a long one takes about m log(n / m) comparisons rather than n + m.
+     * Neither input is checked for order; if one is not sorted the result
+     * is not either.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n + m)
+     *
+     * And a best case running time of:
+     * O(m log(n / m)) comparisons for runs of m &lt;= n elements
+     *
+     * @param <T>        data type to merge
+     * @param a          the first sorted array
+     * @param b          the second sorted array
+     * @param dst        the array that receives the merge in its first
+     *                   a.length + b.length slots
+     * @param comparator the Comparator both arrays are sorted by
+     * @throws java.lang.IllegalArgumentException if an array or the
+     *                                            comparator is null, dst is
+     *                                            a or b, or dst is too short
+     */
+    public static <T> void merge(T[] a, T[] b, T[] dst,
+                                 Comparator<T> comparator) {
+        if (a == null || b == null || dst == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("an array is null or comparator is null");
+        } else if (dst == a || dst == b) {
+            throw new java.lang.IllegalArgumentException("dst must not be one of the inputs");
+        } else if ((long) a.length + b.length > dst.length) {
+            throw new java.lang.IllegalArgumentException("dst is shorter than both inputs together");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(T[], T[], T[], Comparator)", a.length + b.length, 0);
+            Merging.merge(a, 0, a.length, b, 0, b.length, dst, 0,
+                SortProbe.count(probe, comparator));
+            SortProbe.writes(probe, a.length + b.length);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges two sorted int arrays into the front of dst, galloping
+     * as described in {@link #merge(Object[], Object[], Object[], Comparator)}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n + m)
+     *
+     * @param a   the first sorted array
+     * @param b   the second sorted array
+     * @param dst the array that receives the merge in its first
+     *            a.length + b.length slots
+     * @throws java.lang.IllegalArgumentException if an array is null, dst is
+     *                                            a or b, or dst is too short
+     */
+    public static void merge(int[] a, int[] b, int[] dst) {
+        if (a == null || b == null || dst == null) {
+            throw new java.lang.IllegalArgumentException("an array is null");
+        } else if (dst == a || dst == b) {
+            throw new java.lang.IllegalArgumentException("dst must not be one of the inputs");
+        } else if ((long) a.length + b.length > dst.length) {
+            throw new java.lang.IllegalArgumentException("dst is shorter than both inputs together");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(int[], int[], int[])", a.length + b.length, 0);
+            Merging.merge(a, 0, a.length, b, 0, b.length, dst, 0);
+            SortProbe.writes(probe, a.length + b.length);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges two sorted long arrays into the front of dst, galloping
+     * as described in {@link #merge(Object[], Object[], Object[], Comparator)}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n + m)
+     *
+     * @param a   the first sorted array
+     * @param b   the second sorted array
+     * @param dst the array that receives the merge in its first
+     *            a.length + b.length slots
+     * @throws java.lang.IllegalArgumentException if an array is null, dst is
+     *                                            a or b, or dst is too short
+     */
+    public static void merge(long[] a, long[] b, long[] dst) {
+        if (a == null || b == null || dst == null) {
+            throw new java.lang.IllegalArgumentException("an array is null");
+        } else if (dst == a || dst == b) {
+            throw new java.lang.IllegalArgumentException("dst must not be one of the inputs");
+        } else if ((long) a.length + b.length > dst.length) {
+            throw new java.lang.IllegalArgumentException("dst is shorter than both inputs together");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(long[], long[], long[])", a.length + b.length, 0);
+            Merging.merge(a, 0, a.length, b, 0, b.length, dst, 0);
+            SortProbe.writes(probe, a.length + b.length);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges any number of sorted arrays into the front of dst.
+     *
+     * The runs play a tournament in a loser tree, so each element costs
+     * about log2(k) comparisons for k runs, and elements of an earlier run
+     * come before equal elements of a later one. When one run keeps
+     * winning, the merge gallops through it up to the best head of the
+     * other runs and copies that stretch as a block, which makes merging
+     * one large shard with many small ones cheap.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log k)
+     *
+     * And a best case running time of:
+     * O(n) moves and O(k log n) comparisons, for runs that do not overlap
+     *
+     * @param <T>        data type to merge
+     * @param runs       the sorted arrays
+     * @param dst        the array that receives the merge in its first
+     *                   slots
+     * @param comparator the Comparator every run is sorted by
+     * @throws java.lang.IllegalArgumentException if runs, a run, dst or the
+     *                                            comparator is null, dst is
+     *                                            one of the runs, or dst is
+     *                                            shorter than all runs
+     *                                            together
+     */
+    public static <T> void merge(T[][] runs, T[] dst,
+                                 Comparator<T> comparator) {
+        if (runs == null || dst == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("runs is null or dst is null or comparator is null");
+        } else {
+            long total = 0;
+            for (T[] run : runs) {
+                if (run == null) {
+                    throw new java.lang.IllegalArgumentException("a run is null");
+                } else if (run == dst) {
+                    throw new java.lang.IllegalArgumentException("dst must not be one of the runs");
+                }
+                total += run.length;
+            }
+            if (total > dst.length) {
+                throw new java.lang.IllegalArgumentException("dst is shorter than all runs together");
+            }
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(T[][], T[], Comparator)", (int) total, 0);
+            LoserTree.merge(runs, dst, SortProbe.count(probe, comparator));
+            SortProbe.writes(probe, total);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges any number of sorted int arrays into the front of dst,
+     * through a galloping loser tree as described in
+     * {@link #merge(Object[][], Object[], Comparator)}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log k)
+     *
+     * @param runs the sorted arrays
+     * @param dst  the array that receives the merge in its first slots
+     * @throws java.lang.IllegalArgumentException if runs, a run or dst is
+     *                                            null, dst is one of the
+     *                                            runs, or dst is shorter
+     *                                            than all runs together
+     */
+    public static void merge(int[][] runs, int[] dst) {
+        if (runs == null || dst == null) {
+            throw new java.lang.IllegalArgumentException("runs is null or dst is null");
+        } else {
+            long total = 0;
+            for (int[] run : runs) {
+                if (run == null) {
+                    throw new java.lang.IllegalArgumentException("a run is null");
+                } else if (run == dst) {
+                    throw new java.lang.IllegalArgumentException("dst must not be one of the runs");
+                }
+                total += run.length;
+            }
+            if (total > dst.length) {
+                throw new java.lang.IllegalArgumentException("dst is shorter than all runs together");
+            }
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(int[][], int[])", (int) total, 0);
+            Merging.merge(runs, dst, 0);
+            SortProbe.writes(probe, total);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges any number of sorted long arrays into the front of dst,
+     * through a galloping loser tree as described in
+     * {@link #merge(Object[][], Object[], Comparator)}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log k)
+     *
+     * @param runs the sorted arrays
+     * @param dst  the array that receives the merge in its first slots
+     * @throws java.lang.IllegalArgumentException if runs, a run or dst is
+     *                                            null, dst is one of the
+     *                                            runs, or dst is shorter
+     *                                            than all runs together
+     */
+    public static void merge(long[][] runs, long[] dst) {
+        if (runs == null || dst == null) {
+            throw new java.lang.IllegalArgumentException("runs is null or dst is null");
+        } else {
+            long total = 0;
+            for (long[] run : runs) {
+                if (run == null) {
+                    throw new java.lang.IllegalArgumentException("a run is null");
+                } else if (run == dst) {
+                    throw new java.lang.IllegalArgumentException("dst must not be one of the runs");
+                }
+                total += run.length;
+            }
+            if (total > dst.length) {
+                throw new java.lang.IllegalArgumentException("dst is shorter than all runs together");
+            }
+            SortProbe probe = SortProbe.start(metrics,
+                "merge(long[][], long[])", (int) total, 0);
+            Merging.merge(runs, dst, 0);
+            SortProbe.writes(probe, total);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges the adjacent sorted ranges arr[lo, mid) and
+     * arr[mid, hi) without any buffer.
+     *
+     * Uses SymMerge: the longer range is split in half, the matching split
+     * of the other range is found by binary search, the two middle blocks
+     * trade places by a rotation and both halves are merged the same way.
+     * Meant for memory-tight callers; with a buffer to spare merge() moves
+     * far fewer elements.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(1), when the ranges are already in order
+     *
+     * @param <T>        data type to merge
+     * @param arr        the array holding both ranges
+     * @param lo         the start of the first range, inclusive
+     * @param mid        the start of the second range
+     * @param hi         the end of the second range, exclusive
+     * @param comparator the Comparator both ranges are sorted by
+     * @throws java.lang.IllegalArgumentException if the array or comparator
+     *                                            is null, or the bounds do
+     *                                            not satisfy
+     *                                            0 &lt;= lo &lt;= mid &lt;= hi
+     *                                            &lt;= arr.length
+     */
+    public static <T> void mergeInPlace(T[] arr, int lo, int mid, int hi,
+                                        Comparator<T> comparator) {
+        if (arr == null || comparator == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or comparator is null");
+        } else if (lo < 0 || lo > mid || mid > hi || hi > arr.length) {
+            throw new java.lang.IllegalArgumentException("bounds out of order or out of the array");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "mergeInPlace(T[], int, int, int, Comparator)", hi - lo, 0);
+            Merging.mergeInPlace(arr, lo, mid, hi,
+                SortProbe.count(probe, comparator), probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges the adjacent sorted ranges arr[lo, mid) and
+     * arr[mid, hi) without any buffer, as described in
+     * {@link #mergeInPlace(Object[], int, int, int, Comparator)}.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * @param arr the array holding both ranges
+     * @param lo  the start of the first range, inclusive
+     * @param mid the start of the second range
+     * @param hi  the end of the second range, exclusive
+     * @throws java.lang.IllegalArgumentException if the array is null, or the
+     *                                            bounds do not satisfy
+     *                                            0 &lt;= lo &lt;= mid &lt;= hi
+     *                                            &lt;= arr.length
+     */
+    public static void mergeInPlace(int[] arr, int lo, int mid, int hi) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else if (lo < 0 || lo > mid || mid > hi || hi > arr.length) {
+            throw new java.lang.IllegalArgumentException("bounds out of order or out of the array");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "mergeInPlace(int[], int, int, int)", hi - lo, 0);
+            Merging.mergeInPlace(arr, lo, mid, hi, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stably merges the adjacent sorted ranges arr[lo, mid) and
+     * arr[mid, hi) without any buffer, as described in
+     * {@link #mergeInPlace(Object[], int, int, int, Comparator)}.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * @param arr the array holding both ranges
+     * @param lo  the start of the first range, inclusive
+     * @param mid the start of the second range
+     * @param hi  the end of the second range, exclusive
+     * @throws java.lang.IllegalArgumentException if the array is null, or the
+     *                                            bounds do not satisfy
+     *                                            0 &lt;= lo &lt;= mid &lt;= hi
+     *                                            &lt;= arr.length
+     */
+    public static void mergeInPlace(long[] arr, int lo, int mid, int hi) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else if (lo < 0 || lo > mid || mid > hi || hi > arr.length) {
+            throw new java.lang.IllegalArgumentException("bounds out of order or out of the array");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "mergeInPlace(long[], int, int, int)", hi - lo, 0);
+            Merging.mergeInPlace(arr, lo, mid, hi, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Insertion sort over a long[] without boxing.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void insertionSort(long[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "insertionSort(long[])",
+                arr.length, 0);
+            PrimitiveSorts.insertionSort(arr, 0, arr.length - 1, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort over a long[] without boxing.
+     *
+     * A single auxiliary array, borrowed from the scratch pool, serves the
+     * whole call, and merging is skipped when the two halves are already in
+     * order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void mergeSort(long[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "mergeSort(long[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            long[] buffer = pool.borrowLongs(arr.length);
+            try {
+                PrimitiveSorts.mergeSort(arr, buffer, 0, arr.length - 1, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Quick sort over a long[] without boxing.
+     *
+     * Pivots are the median of the first, middle and last element, and
+     * small ranges are finished with insertion sort. A range still unsorted
+     * after 2 * log2(n) levels is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(long[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(long[])",
+                arr.length, 0);
+            PrimitiveSorts.quickSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Branchless block quick sort over a long[] without boxing.
+     *
+     * Partitions in blocks of 128 elements from each end: the positions of
+     * the elements on the wrong side of the pivot are first collected into
+     * two offset buffers without branching on the data, and then swapped in
+     * pairs, so random input does not pay for mispredicted branches. The
+     * collecting step uses the Vector API when the JVM has the
+     * jdk.incubator.vector module and the optional vector kernel is on the
+     * class path. Ranges of at most 32 elements are finished by a sorting
+     * network, runs of keys equal to an earlier pivot are split off in one
+     * pass, and a range still unsorted after 2 * log2(n) levels is heap
+     * sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void blockQuickSort(long[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "blockQuickSort(long[])",
+                arr.length, 0);
+            BlockQuicksort.sort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * LSD radix sort over a long[] without boxing.
+     *
+     * See {@link #lsdRadixSort(int[])} for how the digits are processed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(long[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(long[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            long[] buffer = pool.borrowLongs(arr.length);
+            try {
+                RadixSort.sort(arr, buffer, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of a long[] key array that carries a payload.
+     *
+     * The keys are sorted as by {@link #lsdRadixSort(long[])}, and values, a
+     * parallel array of the same length, is rearranged by the same
+     * permutation: whatever sat next to a key before the sort still sits
+     * next to it afterwards. Equal keys keep their original order. The
+     * keys are sorted together with an int index array, and the payload is
+     * gathered through that index once at the end, so a payload row is
+     * moved exactly once whatever its type and nothing is boxed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static void lsdRadixSort(long[] keys, int[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(long[], int[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of a long[] key array that carries a long[]
+     * payload.
+     *
+     * See {@link #lsdRadixSort(long[], int[])}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static void lsdRadixSort(long[] keys, long[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(long[], long[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of a long[] key array that carries a T[]
+     * payload.
+     *
+     * See {@link #lsdRadixSort(long[], int[])}.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param <T>    the payload type
+     * @param keys   the keys that must be sorted after the method runs
+     * @param values the payload, permuted along with keys
+     * @throws java.lang.IllegalArgumentException if either array is null or
+     *                                            their lengths differ
+     */
+    public static <T> void lsdRadixSort(long[] keys, T[] values) {
+        if (keys == null || values == null) {
+            throw new java.lang.IllegalArgumentException("keys or values is null");
+        } else if (keys.length != values.length) {
+            throw new java.lang.IllegalArgumentException("keys and values differ in length");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "lsdRadixSort(long[], T[])",
+                keys.length, 4L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(values, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Computes the stable sorting permutation of a long[] without moving it.
+     *
+     * The returned array lists the indices of keys in ascending key order,
+     * ties in index order, so keys[order[0]] is the smallest key. Applying
+     * it to several columns of a table sorts all of them by this one.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param keys the keys to order, which are left unchanged
+     * @return the indices of keys in sorted order
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static int[] radixSortPermutation(long[] keys) {
+        if (keys == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "radixSortPermutation(long[])",
+                keys.length, 3L * keys.length);
+            int[] order = RadixSort.identity(keys.length);
+            RadixSort.sortWithIndex(keys.clone(), order, probe);
+            SortProbe.finish(probe);
+            return order;
+        }
+    }
+
+    /**
+     * Stable radix sort of objects by an int key, with no Comparator.
+     *
+     * The key of every element is extracted exactly once into an int[],
+     * the keys are LSD radix sorted together with an index array, and the
+     * objects are moved once at the end through that index. A sort whose
+     * comparator only compares one int field therefore runs in linear time
+     * and calls the key function n times instead of calling compare
+     * O(n log n) times. Elements with equal keys keep their order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param <T> data type to sort
+     * @param arr the array that must be sorted after the method runs
+     * @param key the function that extracts the sort key of an element
+     * @throws java.lang.IllegalArgumentException if the array or key function
+     *                                            is null
+     */
+    public static <T> void radixSortBy(T[] arr, ToIntFunction<? super T> key) {
+        if (arr == null || key == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or key function is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "radixSortBy(T[], ToIntFunction)",
+                arr.length, 5L * arr.length);
+            int[] keys = new int[arr.length];
+            for (int i = 0; i < arr.length; i++) {
+                keys[i] = key.applyAsInt(arr[i]);
+            }
+            int[] order = RadixSort.identity(arr.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(arr, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Stable radix sort of objects by a long key, with no Comparator.
+     *
+     * Same as {@link #radixSortBy(Object[], ToIntFunction)} with up to
+     * eight passes over the extracted long keys. It has its own name, like
+     * Comparator.comparingLong, so that a lambda key function is never
+     * ambiguous between the two.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param <T> data type to sort
+     * @param arr the array that must be sorted after the method runs
+     * @param key the function that extracts the sort key of an element
+     * @throws java.lang.IllegalArgumentException if the array or key function
+     *                                            is null
+     */
+    public static <T> void radixSortByLong(T[] arr,
+                                           ToLongFunction<? super T> key) {
+        if (arr == null || key == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or key function is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "radixSortByLong(T[], ToLongFunction)",
+                arr.length, 5L * arr.length);
+            long[] keys = new long[arr.length];
+            for (int i = 0; i < arr.length; i++) {
+                keys[i] = key.applyAsLong(arr[i]);
+            }
+            int[] order = RadixSort.identity(arr.length);
+            RadixSort.sortWithIndex(keys, order, probe);
+            RadixSort.permute(arr, order, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Three-way string quick sort (Bentley and Sedgewick) over a String[].
+     *
+     * Strings are partitioned one character position at a time into those
+     * below, equal to and above a pivot character, and only the equal part
+     * moves on to the next position. Characters of a prefix that the strings
+     * in a partition share are therefore never compared again, unlike with a
+     * Comparator, which rescans the prefix on every call. Partitions of 12 or
+     * fewer strings are insertion sorted starting at the shared depth. The
+     * resulting order is that of String.compareTo.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2 + total length of the strings)
+     *
+     * And a best case running time of:
+     * O(n log n + length of the distinguishing prefixes)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void stringSort(String[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "stringSort(String[])",
+                arr.length, 0);
+            StringSort.sort(arr, null, 0, arr.length - 1, 0, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Three-way string quick sort over byte arrays.
+     *
+     * Same algorithm as {@link #stringSort(String[])}, with the arrays
+     * ordered lexicographically by unsigned byte, as
+     * java.util.Arrays.compareUnsigned orders them. A byte array that is a
+     * prefix of another sorts first.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2 + total length of the arrays)
+     *
+     * And a best case running time of:
+     * O(n log n + length of the distinguishing prefixes)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void stringSort(byte[][] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "stringSort(byte[][])",
+                arr.length, 0);
+            StringSort.sort(arr, 0, arr.length - 1, 0, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Three-way string quick sort of objects by a String key.
+     *
+     * The key of every element is extracted exactly once. The keys are
+     * sorted as by {@link #stringSort(String[])}, and every swap is applied
+     * to the objects as well.
+     *
+     * It should be:
+     * out-of-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2 + total length of the keys)
+     *
+     * And a best case running time of:
+     * O(n log n + length of the distinguishing prefixes)
+     *
+     * @param <T> data type to sort
+     * @param arr the array that must be sorted after the method runs
+     * @param key the function that extracts the sort key of an element
+     * @throws java.lang.IllegalArgumentException if the array or key function
+     *                                            is null
+     */
+    public static <T> void stringSortBy(T[] arr,
+                                        Function<? super T, String> key) {
+        if (arr == null || key == null) {
+            throw new java.lang.IllegalArgumentException("the array is null or key function is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "stringSortBy(T[], Function)",
+                arr.length, arr.length);
+            String[] keys = new String[arr.length];
+            for (int i = 0; i < arr.length; i++) {
+                keys[i] = key.apply(arr[i]);
+            }
+            StringSort.sort(keys, arr, 0, arr.length - 1, 0, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Returns a Collector that gathers a stream into a sorted array.
+     *
+     * Elements go into fixed-size chunks that are merge sorted as they
+     * fill, on the thread that fills them, so a parallel stream sorts its
+     * chunks in parallel; the combiner only joins chunk lists. The finisher
+     * merges the chunks with one loser-tree pass straight into the array
+     * made by generator, which must have exactly the length asked for. This
+     * saves the extra copy of stream.toArray() followed by a sort, and is
+     * stable like Stream.sorted().
+     *
+     * This departs from the collector first asked for, a one-argument
+     * toSortedArray(comparator) that sorts each chunk in the combiner: a
+     * sequential stream never calls its combiner, so the chunks are sorted
+     * in the accumulator instead, and the generator gives a typed array
+     * where {@link #toSortedArray(Comparator)} can only give an Object[].
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param <T>        data type to sort
+     * @param comparator the Comparator used to compare the elements
+     * @param generator  makes the result array from its length
+     * @return a collector producing a sorted array
+     * @throws java.lang.IllegalArgumentException if the comparator or
+     *                                            generator is null
+     * @throws java.lang.IllegalStateException    when collecting, if
+     *                                            generator returns an array
+     *                                            of the wrong length
+     */
+    public static <T> Collector<T, ?, T[]> toSortedArray(
+        Comparator<T> comparator, IntFunction<T[]> generator) {
+        if (comparator == null || generator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null or generator is null");
+        } else {
+            return Collector.of(() -> new SortedChunks<>(comparator),
+                SortedChunks::add, SortedChunks::combine,
+                chunks -> chunks.toArray(generator));
+        }
+    }
+
+    /**
+     * Returns a Collector that gathers a stream into a sorted Object[].
+     *
+     * Collects exactly like {@link #toSortedArray(Comparator, IntFunction)}
+     * and hands back the merged array itself, so no copy is made. Use the
+     * two-argument form when the array must have the element type.
+     *
+     * @param <T>        data type to sort
+     * @param comparator the Comparator used to compare the elements
+     * @return a collector producing a sorted Object[]
+     * @throws java.lang.IllegalArgumentException if the comparator is null
+     */
+    public static <T> Collector<T, ?, Object[]> toSortedArray(
+        Comparator<T> comparator) {
+        if (comparator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null");
+        } else {
+            return Collector.of(() -> new SortedChunks<>(comparator),
+                SortedChunks::add, SortedChunks::combine,
+                SortedChunks::toArray);
+        }
+    }
+
+    /**
+     * Returns a Collector that sorts a stream and hands the result back as
+     * a Spliterator.
+     *
+     * Collects like {@link #toSortedArray(Comparator, IntFunction)} but
+     * keeps the merged array, skipping the copy into a typed array. The
+     * spliterator is SIZED, SUBSIZED, ORDERED and IMMUTABLE and splits
+     * the array in halves, so StreamSupport.stream(result, true) runs
+     * downstream parallel stages on evenly sized pieces.
+     *
+     * @param <T>        data type to sort
+     * @param comparator the Comparator used to compare the elements
+     * @return a collector producing a spliterator in sorted order
+     * @throws java.lang.IllegalArgumentException if the comparator is null
+     */
+    public static <T> Collector<T, ?, Spliterator<T>> toSortedSpliterator(
+        Comparator<T> comparator) {
+        if (comparator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null");
+        } else {
+            return Collector.of(() -> new SortedChunks<>(comparator),
+                SortedChunks::add, SortedChunks::combine,
+                chunks -> Spliterators.spliterator(chunks.toArray(),
+                    Spliterator.ORDERED | Spliterator.IMMUTABLE));
+        }
+    }
+
+    /**
+     * Returns a Collector that gathers a stream of Integers into a sorted
+     * int[].
+     *
+     * Values are unboxed into chunks as they arrive and copied once into
+     * the result, which {@link #sort(int[])} then sorts, by radix sort when
+     * the range of values makes that cheaper.
+     *
+     * @return a collector producing a sorted int[]
+     */
+    public static Collector<Integer, ?, int[]> toSortedIntArray() {
+        return Collector.of(IntChunks::new, IntChunks::add,
+            IntChunks::combine, chunks -> {
+                int[] arr = chunks.toArray();
+                sort(arr);
+                return arr;
+            });
+    }
+
+    /**
+     * Returns a Collector that keeps the k smallest elements of a stream,
+     * smallest first.
+     *
+     * Each thread of the stream fills its own {@link TopK} heap of size k
+     * and the combiner offers the elements of one heap, as they lie in it,
+     * to the other, so memory stays O(k) per thread however long the
+     * stream is.
+     *
+     * @param <T>        data type to select from
+     * @param k          the number of elements to keep
+     * @param comparator the Comparator used to compare the elements
+     * @return a collector producing a sorted list of at most k elements
+     * @throws java.lang.IllegalArgumentException if k is negative or the
+     *                                            comparator is null
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k,
+                                                   Comparator<T> comparator) {
+        if (k < 0) {
+            throw new java.lang.IllegalArgumentException("k is negative");
+        } else if (comparator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null");
+        } else {
+            return Collector.of(() -> new TopK<>(k, comparator), TopK::offer,
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                }, TopK::toSortedList);
+        }
+    }
+
+    /**
+     * Insertion sort over a double[] without boxing. Values are ordered
+     * as Double.compare orders them.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void insertionSort(double[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics,
+                "insertionSort(double[])",
+                arr.length, 0);
+            PrimitiveSorts.insertionSort(arr, 0, arr.length - 1, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort over a double[] without boxing. Values are ordered
+     * as Double.compare orders them.
+     *
+     * A single auxiliary array, borrowed from the scratch pool, serves the
+     * whole call, and merging is skipped when the two halves are already in
+     * order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void mergeSort(double[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "mergeSort(double[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            double[] buffer = pool.borrowDoubles(arr.length);
+            try {
+                PrimitiveSorts.mergeSort(arr, buffer, 0, arr.length - 1, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Quick sort over a double[] without boxing. Values are ordered
+     * as Double.compare orders them.
+     *
+     * Pivots are the median of the first, middle and last element, and
+     * small ranges are finished with insertion sort. A range still unsorted
+     * after 2 * log2(n) levels is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(double[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(double[])",
+                arr.length, 0);
+            PrimitiveSorts.quickSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * LSD radix sort over a double[] without boxing. Values are ordered
+     * as Double.compare orders them.
+     *
+     * See {@link #lsdRadixSort(int[])} for how the digits are processed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(double[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(double[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            double[] buffer = pool.borrowDoubles(arr.length);
+            try {
+                RadixSort.sort(arr, buffer, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Insertion sort over a float[] without boxing. Values are ordered
+     * as Float.compare orders them.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void insertionSort(float[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "insertionSort(float[])",
+                arr.length, 0);
+            PrimitiveSorts.insertionSort(arr, 0, arr.length - 1, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort over a float[] without boxing. Values are ordered
+     * as Float.compare orders them.
+     *
+     * A single auxiliary array, borrowed from the scratch pool, serves the
+     * whole call, and merging is skipped when the two halves are already in
+     * order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
      *
-     * @param data the data to sort
-     * @return the array with length equal to the size of the input list that
-     * holds the elements from the list is sorted order
-     * @throws java.lang.IllegalArgumentException if the data is null
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
      */
-    public static int[] heapSort(List<Integer> data) {
-        if (data == null) {
-            throw new java.lang.IllegalArgumentException("data cannot be null");
+    public static void mergeSort(float[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
         } else {
-            PriorityQueue<Integer> heap = new PriorityQueue<>(data);
-            int[] arr = new int[data.size()];
-            int index = 0;
-            while (!heap.isEmpty() && index < arr.length) {
-                arr[index] = heap.remove();
-                index++;
+            SortProbe probe = SortProbe.start(metrics, "mergeSort(float[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            float[] buffer = pool.borrowFloats(arr.length);
+            try {
+                PrimitiveSorts.mergeSort(arr, buffer, 0, arr.length - 1, probe);
+            } finally {
+                pool.release(buffer);
             }
-            return arr;
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Quick sort over a float[] without boxing. Values are ordered
+     * as Float.compare orders them.
+     *
+     * Pivots are the median of the first, middle and last element, and
+     * small ranges are finished with insertion sort. A range still unsorted
+     * after 2 * log2(n) levels is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(float[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(float[])",
+                arr.length, 0);
+            PrimitiveSorts.quickSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * LSD radix sort over a float[] without boxing. Values are ordered
+     * as Float.compare orders them.
+     *
+     * See {@link #lsdRadixSort(int[])} for how the digits are processed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(float[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(float[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            float[] buffer = pool.borrowFloats(arr.length);
+            try {
+                RadixSort.sort(arr, buffer, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Insertion sort over a short[] without boxing.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void insertionSort(short[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "insertionSort(short[])",
+                arr.length, 0);
+            PrimitiveSorts.insertionSort(arr, 0, arr.length - 1, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort over a short[] without boxing.
+     *
+     * A single auxiliary array, borrowed from the scratch pool, serves the
+     * whole call, and merging is skipped when the two halves are already in
+     * order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void mergeSort(short[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "mergeSort(short[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            short[] buffer = pool.borrowShorts(arr.length);
+            try {
+                PrimitiveSorts.mergeSort(arr, buffer, 0, arr.length - 1, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Quick sort over a short[] without boxing.
+     *
+     * Pivots are the median of the first, middle and last element, and
+     * small ranges are finished with insertion sort. A range still unsorted
+     * after 2 * log2(n) levels is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(short[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(short[])",
+                arr.length, 0);
+            PrimitiveSorts.quickSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * LSD radix sort over a short[] without boxing.
+     *
+     * See {@link #lsdRadixSort(int[])} for how the digits are processed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(short[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(short[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            short[] buffer = pool.borrowShorts(arr.length);
+            try {
+                RadixSort.sort(arr, buffer, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Insertion sort over a char[] without boxing.
+     *
+     * It should be:
+     * in-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n^2)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void insertionSort(char[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "insertionSort(char[])",
+                arr.length, 0);
+            PrimitiveSorts.insertionSort(arr, 0, arr.length - 1, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Merge sort over a char[] without boxing.
+     *
+     * A single auxiliary array, borrowed from the scratch pool, serves the
+     * whole call, and merging is skipped when the two halves are already in
+     * order.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void mergeSort(char[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "mergeSort(char[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            char[] buffer = pool.borrowChars(arr.length);
+            try {
+                PrimitiveSorts.mergeSort(arr, buffer, 0, arr.length - 1, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * Quick sort over a char[] without boxing.
+     *
+     * Pivots are the median of the first, middle and last element, and
+     * small ranges are finished with insertion sort. A range still unsorted
+     * after 2 * log2(n) levels is heap sorted.
+     *
+     * It should be:
+     * in-place
+     * unstable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(n log n)
+     *
+     * And a best case running time of:
+     * O(n log n)
+     *
+     * @param arr the array that must be sorted after the method runs
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void quickSort(char[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "quickSort(char[])",
+                arr.length, 0);
+            PrimitiveSorts.quickSort(arr, probe);
+            SortProbe.finish(probe);
+        }
+    }
+
+    /**
+     * LSD radix sort over a char[] without boxing.
+     *
+     * See {@link #lsdRadixSort(int[])} for how the digits are processed.
+     *
+     * It should be:
+     * out-of-place
+     * stable
+     * not adaptive
+     *
+     * Have a worst case running time of:
+     * O(kn)
+     *
+     * And a best case running time of:
+     * O(kn)
+     *
+     * @param arr the array to be sorted
+     * @throws java.lang.IllegalArgumentException if the array is null
+     */
+    public static void lsdRadixSort(char[] arr) {
+        if (arr == null) {
+            throw new java.lang.IllegalArgumentException("array is null");
+        } else {
+            SortProbe probe = SortProbe.start(metrics, "lsdRadixSort(char[])",
+                arr.length, arr.length);
+            ScratchPool pool = scratch;
+            char[] buffer = pool.borrowChars(arr.length);
+            try {
+                RadixSort.sort(arr, buffer, probe);
+            } finally {
+                pool.release(buffer);
+            }
+            SortProbe.finish(probe);
         }
     }
 }
@@ -0,0 +1,159 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the stream collectors in Sorting.
+ *
+ * Every collector is run on sequential and parallel streams, the latter
+ * long enough to fill several chunks per worker so that the combiners
+ * run.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class SortingCollectorsTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final Comparator<int[]> BY_KEY =
+        Comparator.comparingInt(pair -> pair[0]);
+    private Random rand = new Random(1818);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testToSortedArrayIsStable() {
+        for (int n : new int[] {0, 1, 100, SortedChunks.CHUNK_LENGTH,
+            5 * SortedChunks.CHUNK_LENGTH + 17, 100000}) {
+            int bound = 1 + rand.nextInt(n + 1);
+            int[][] data = new int[n][];
+            for (int j = 0; j < n; j++) {
+                data[j] = new int[] {rand.nextInt(bound), j};
+            }
+            int[][] expected = data.clone();
+            Arrays.sort(expected, BY_KEY);
+
+            assertArrayEquals(expected, Arrays.stream(data)
+                .collect(Sorting.toSortedArray(BY_KEY, int[][]::new)));
+            assertArrayEquals(expected, Arrays.stream(data).parallel()
+                .collect(Sorting.toSortedArray(BY_KEY, int[][]::new)));
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testToSortedArrayType() {
+        String[] sorted = Stream.of("pear", "fig", "apple")
+            .collect(Sorting.toSortedArray(Comparator.naturalOrder(),
+                String[]::new));
+        assertArrayEquals(new String[] {"apple", "fig", "pear"}, sorted);
+
+        //the merge goes straight into the generator's array
+        String[][] made = new String[1][];
+        String[] result = Stream.of("b", "a")
+            .collect(Sorting.toSortedArray(Comparator.<String>naturalOrder(),
+                n -> made[0] = new String[n]));
+        assertSame(made[0], result);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testToSortedObjectArray() {
+        List<Integer> data = rand.ints(50000, 0, 1000).boxed()
+            .collect(Collectors.toList());
+        Object[] expected = data.toArray();
+        Arrays.sort(expected);
+
+        assertArrayEquals(expected, data.stream()
+            .collect(Sorting.toSortedArray(Comparator.<Integer>naturalOrder())));
+        assertArrayEquals(expected, data.parallelStream()
+            .collect(Sorting.toSortedArray(Comparator.<Integer>naturalOrder())));
+        assertEquals(0, Stream.<String>empty()
+            .collect(Sorting.toSortedArray(Comparator.<String>naturalOrder()))
+            .length);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalStateException.class)
+    public void testToSortedArrayWrongLength() {
+        Stream.of("b", "a").collect(Sorting.toSortedArray(
+            Comparator.<String>naturalOrder(), n -> new String[n + 1]));
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testToSortedSpliterator() {
+        List<Integer> data = rand.ints(50000, 0, 1000).boxed()
+            .collect(Collectors.toList());
+        Spliterator<Integer> sorted = data.parallelStream()
+            .collect(Sorting.toSortedSpliterator(
+                Comparator.<Integer>naturalOrder()));
+
+        assertTrue(sorted.hasCharacteristics(Spliterator.SIZED
+            | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(data.size(), sorted.getExactSizeIfKnown());
+        Spliterator<Integer> half = sorted.trySplit();
+        assertEquals(data.size() / 2, half.getExactSizeIfKnown());
+
+        Integer[] expected = data.toArray(new Integer[0]);
+        Arrays.sort(expected);
+        Integer[] actual = Stream.concat(
+            StreamSupport.stream(half, true),
+            StreamSupport.stream(sorted, true)).toArray(Integer[]::new);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testToSortedIntArray() {
+        for (int n : new int[] {0, 1, 300, 100000}) {
+            int[] data = rand.nextBoolean() ? rand.ints(n).toArray()
+                : rand.ints(n, -50, 50).toArray();
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+
+            assertArrayEquals(expected, IntStream.of(data).boxed()
+                .collect(Sorting.toSortedIntArray()));
+            assertArrayEquals(expected, IntStream.of(data).parallel().boxed()
+                .collect(Sorting.toSortedIntArray()));
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testTopK() {
+        int[] data = rand.ints(100000).toArray();
+        int[] expected = data.clone();
+        Arrays.sort(expected);
+        List<Integer> smallest = IntStream.of(Arrays.copyOf(expected, 25))
+            .boxed().collect(Collectors.toList());
+
+        assertEquals(smallest, IntStream.of(data).boxed()
+            .collect(Sorting.topK(25, Comparator.<Integer>naturalOrder())));
+        assertEquals(smallest, IntStream.of(data).parallel().boxed()
+            .collect(Sorting.topK(25, Comparator.<Integer>naturalOrder())));
+        assertEquals(Arrays.asList(3, 2), Stream.of(1, 3, 2)
+            .collect(Sorting.topK(2, Comparator.<Integer>reverseOrder())));
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testToSortedArrayNullComparator() {
+        Sorting.toSortedArray(null, Integer[]::new);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testToSortedObjectArrayNullComparator() {
+        Sorting.toSortedArray(null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testTopKNegative() {
+        Sorting.topK(-1, Comparator.<Integer>naturalOrder());
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+/**
+ * Sorting networks for int and long ranges of at most MAX_LENGTH elements,
+ * the small-range kernel of BlockQuicksort.
+ *
+ * A network is a fixed list of compare-exchanges, so unlike insertion sort
+ * the work done does not depend on the data. Each compare-exchange is
+ * written as a min and a max, which the JIT compiles to conditional moves
+ * rather than branches, so random input costs no mispredictions.
+ *
+ * The networks are Batcher's odd-even merge sort. A range of n elements
+ * uses the network for the next power of two, keeping only the comparators
+ * between positions below n: the ones left out only ever touch positions
+ * that would hold padding larger than any element, where they would do
+ * nothing.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class SortingNetworks {
+
+    /**
+     * Longest range with a network.
+     */
+    static final int MAX_LENGTH = 32;
+
+    /**
+     * NETWORKS[n] lists the comparators for n elements as pairs of
+     * positions, the lower position first.
+     */
+    private static final int[][] NETWORKS = networks();
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private SortingNetworks() {
+    }
+
+    /**
+     * Sorts arr[lo, hi), which must hold at most MAX_LENGTH elements.
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     */
+    static void sort(int[] arr, int lo, int hi) {
+        int[] network = NETWORKS[hi - lo];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = lo + network[k];
+            int j = lo + network[k + 1];
+            int a = arr[i];
+            int b = arr[j];
+            arr[i] = Math.min(a, b);
+            arr[j] = Math.max(a, b);
+        }
+    }
+
+    /**
+     * Sorts arr[lo, hi), which must hold at most MAX_LENGTH elements.
+     *
+     * @param arr the array holding the range
+     * @param lo  the first index of the range, inclusive
+     * @param hi  the last index of the range, exclusive
+     */
+    static void sort(long[] arr, int lo, int hi) {
+        int[] network = NETWORKS[hi - lo];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = lo + network[k];
+            int j = lo + network[k + 1];
+            long a = arr[i];
+            long b = arr[j];
+            arr[i] = Math.min(a, b);
+            arr[j] = Math.max(a, b);
+        }
+    }
+
+    /**
+     * Returns the number of compare-exchanges the network for n elements
+     * makes.
+     *
+     * @param n the number of elements, at most MAX_LENGTH
+     * @return the number of comparators
+     */
+    static int size(int n) {
+        return NETWORKS[n].length / 2;
+    }
+
+    /**
+     * Builds the network for every length up to MAX_LENGTH, each cut down
+     * from Batcher's network for the next power of two.
+     *
+     * @return the networks, indexed by length
+     */
+    private static int[][] networks() {
+        int[][] networks = new int[MAX_LENGTH + 1][];
+        for (int n = 0; n <= MAX_LENGTH; n++) {
+            int size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+            int[] full = batcher(size);
+            int[] network = new int[full.length];
+            int length = 0;
+            for (int k = 0; k < full.length; k += 2) {
+                if (full[k + 1] < n) {
+                    network[length++] = full[k];
+                    network[length++] = full[k + 1];
+                }
+            }
+            networks[n] = Arrays.copyOf(network, length);
+        }
+        return networks;
+    }
+
+    /**
+     * Builds Batcher's odd-even merge sort network.
+     *
+     * @param size the number of elements, a power of two
+     * @return the comparators as pairs of positions
+     */
+    private static int[] batcher(int size) {
+        int[] network = new int[size * size];
+        int length = 0;
+        for (int p = 1; p < size; p <<= 1) {
+            for (int k = p; k >= 1; k >>= 1) {
+                for (int j = k % p; j + k < size; j += 2 * k) {
+                    for (int i = 0; i < k && i + j + k < size; i++) {
+                        if ((i + j) / (2 * p) == (i + j + k) / (2 * p)) {
+                            network[length++] = i + j;
+                            network[length++] = i + j + k;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(network, length);
+    }
+}
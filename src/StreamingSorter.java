@@ -0,0 +1,397 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorter that takes its input a batch at a time and hands out sorted views
+ * of everything added so far.
+ *
+ * Elements are collected into a batch of batchSize. A full batch is
+ * merge sorted, with the same engine as Sorting.bufferedMergeSort, into an
+ * immutable run. iterator() merges the runs, together with a sorted copy
+ * of the batch still being filled, lazily through a LoserTree. The first
+ * element is therefore available after O(k) work for k runs, and every
+ * further one costs about log2(k) comparisons, so a consumer can start on
+ * the smallest elements without waiting for a full merge. An iterator is a
+ * snapshot: elements added after it was created are not part of it.
+ *
+ * To keep k small, runs are compacted the way a tiered log-structured
+ * merge tree does it. A sealed batch is a run of level 0; as soon as fanIn
+ * neighbouring runs share a level they are merged into one run of the next
+ * level. That bounds the number of runs by (fanIn - 1) per level,
+ * about (fanIn - 1) * log_fanIn(n / batchSize) in all, and moves every
+ * element through log_fanIn(n / batchSize) merges. Compaction runs on the
+ * adding thread unless an Executor is given, in which case it runs there,
+ * one merge at a time, while adding continues; the runs being merged stay
+ * readable until the merged run replaces them. A merge that fails there
+ * leaves its runs in place and is reported by the next call to add,
+ * addAll or iterator.
+ *
+ * Memory is the elements added, one batch, and during a compaction one
+ * extra copy of the runs being merged.
+ *
+ * Equal elements come out in the order they were added, since runs are
+ * stable and the tree breaks ties in favour of older runs. All methods are
+ * thread-safe.
+ *
+ * @param <T> the type of elements sorted
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class StreamingSorter<T> implements Iterable<T> {
+
+    /**
+     * Fan-in used when none is given.
+     */
+    static final int DEFAULT_FAN_IN = 8;
+
+    private final Comparator<T> comparator;
+    private final int fanIn;
+    private final Executor compactor;
+    private final Object lock = new Object();
+    private final List<Run<T>> runs = new ArrayList<>();
+    private final T[] batch;
+    private final T[] scratch;
+    private int batchLength;
+    private long size;
+    private boolean compacting;
+    private Throwable compactionFailure;
+
+    /**
+     * Creates a sorter that compacts on the adding thread.
+     *
+     * @param comparator the Comparator that orders the elements
+     * @param batchSize  the number of elements per sorted run
+     * @throws java.lang.IllegalArgumentException if the comparator is null or
+     *                                            batchSize is less than 1
+     */
+    public StreamingSorter(Comparator<T> comparator, int batchSize) {
+        this(comparator, batchSize, DEFAULT_FAN_IN, null);
+    }
+
+    /**
+     * Creates a sorter.
+     *
+     * @param comparator the Comparator that orders the elements
+     * @param batchSize  the number of elements per sorted run
+     * @param fanIn      the number of runs of one level merged together
+     * @param compactor  the executor that merges runs, or null to merge on
+     *                   the adding thread
+     * @throws java.lang.IllegalArgumentException if the comparator is null,
+     *                                            batchSize is less than 1 or
+     *                                            fanIn is less than 2
+     */
+    public StreamingSorter(Comparator<T> comparator, int batchSize, int fanIn,
+                           Executor compactor) {
+        if (comparator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null");
+        } else if (batchSize < 1) {
+            throw new java.lang.IllegalArgumentException("batch size must be positive");
+        } else if (fanIn < 2) {
+            throw new java.lang.IllegalArgumentException("fan-in must be at least 2");
+        } else {
+            this.comparator = comparator;
+            this.fanIn = fanIn;
+            this.compactor = compactor;
+            // Both arrays stay private and hold nothing but T values.
+            @SuppressWarnings("unchecked")
+            T[] batchArray = (T[]) new Object[batchSize];
+            @SuppressWarnings("unchecked")
+            T[] scratchArray = (T[]) new Object[batchSize];
+            this.batch = batchArray;
+            this.scratch = scratchArray;
+        }
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param value the element
+     * @throws java.lang.IllegalStateException if a background compaction
+     *                                         failed since the last call;
+     *                                         the element is not added
+     */
+    public void add(T value) {
+        synchronized (lock) {
+            checkCompaction();
+            batch[batchLength++] = value;
+            size++;
+            if (batchLength == batch.length) {
+                seal();
+            }
+        }
+    }
+
+    /**
+     * Adds every element of an array, in order.
+     *
+     * @param values the elements
+     * @throws java.lang.IllegalArgumentException if values is null
+     * @throws java.lang.IllegalStateException    if a background compaction
+     *                                            failed since the last call;
+     *                                            nothing is added
+     */
+    public void addAll(T[] values) {
+        if (values == null) {
+            throw new java.lang.IllegalArgumentException("values is null");
+        } else {
+            synchronized (lock) {
+                checkCompaction();
+                int from = 0;
+                while (from < values.length) {
+                    int count = Math.min(values.length - from,
+                        batch.length - batchLength);
+                    System.arraycopy(values, from, batch, batchLength, count);
+                    batchLength += count;
+                    size += count;
+                    from += count;
+                    if (batchLength == batch.length) {
+                        seal();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements added.
+     *
+     * @return the number of elements
+     */
+    public long size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Returns the number of sorted runs, not counting the batch being
+     * filled.
+     *
+     * @return the number of runs
+     */
+    public int runCount() {
+        synchronized (lock) {
+            return runs.size();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements added so far, in order.
+     *
+     * @return a lazily merging iterator
+     * @throws java.lang.IllegalStateException if a background compaction
+     *                                         failed since the last call
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new LoserTree<>(snapshot(), comparator);
+    }
+
+    /**
+     * Returns a sized, sorted spliterator over the elements added so far.
+     *
+     * @return a lazily merging spliterator
+     * @throws java.lang.IllegalStateException if a background compaction
+     *                                         failed since the last call
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        T[][] snapshot = snapshot();
+        long length = 0;
+        for (T[] run : snapshot) {
+            length += run.length;
+        }
+        Iterator<T> merge = new LoserTree<>(snapshot, comparator);
+        return new Spliterators.AbstractSpliterator<T>(length,
+            Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (!merge.hasNext()) {
+                    return false;
+                }
+                action.accept(merge.next());
+                return true;
+            }
+
+            @Override
+            public Comparator<? super T> getComparator() {
+                return comparator;
+            }
+        };
+    }
+
+    /**
+     * Returns a sequential stream over the elements added so far, in order.
+     *
+     * @return a lazily merging stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Takes the runs and a sorted copy of the batch being filled, oldest
+     * first.
+     *
+     * @return the sorted runs holding every element added so far
+     */
+    private T[][] snapshot() {
+        synchronized (lock) {
+            checkCompaction();
+            // Filled with T[] runs only; LoserTree reads them as T values.
+            @SuppressWarnings("unchecked")
+            T[][] snapshot = (T[][]) new Object[runs.size() + 1][];
+            for (int i = 0; i < runs.size(); i++) {
+                snapshot[i] = runs.get(i).data;
+            }
+            T[] pending = Arrays.copyOf(batch, batchLength);
+            MergeSort.sort(pending, scratch, comparator, null);
+            snapshot[runs.size()] = pending;
+            return snapshot;
+        }
+    }
+
+    /**
+     * Sorts the full batch into a new run of level 0. Must hold the lock.
+     */
+    private void seal() {
+        T[] data = Arrays.copyOf(batch, batchLength);
+        MergeSort.sort(data, scratch, comparator, null);
+        Arrays.fill(batch, 0, batchLength, null);
+        batchLength = 0;
+        runs.add(new Run<>(data, 0));
+        compact();
+    }
+
+    /**
+     * Starts merging the first fanIn neighbouring runs of one level, unless
+     * a merge is already running. Must hold the lock.
+     */
+    private void compact() {
+        if (compacting) {
+            return;
+        }
+        int start = 0;
+        while (start + fanIn <= runs.size()) {
+            int level = runs.get(start).level;
+            int end = start + 1;
+            while (end < start + fanIn && runs.get(end).level == level) {
+                end++;
+            }
+            if (end == start + fanIn) {
+                break;
+            }
+            start = end;
+        }
+        if (start + fanIn > runs.size()) {
+            return;
+        }
+        Run<T> first = runs.get(start);
+        // Filled with the T[] data of the runs below and read only by
+        // LoserTree.merge.
+        @SuppressWarnings("unchecked")
+        T[][] group = (T[][]) new Object[fanIn][];
+        int length = 0;
+        for (int i = 0; i < fanIn; i++) {
+            group[i] = runs.get(start + i).data;
+            length += group[i].length;
+        }
+        compacting = true;
+        int total = length;
+        Runnable merge = () -> {
+            T[] merged;
+            try {
+                // Becomes the new run, which is only ever read as T values.
+                @SuppressWarnings("unchecked")
+                T[] target = (T[]) new Object[total];
+                merged = LoserTree.merge(group, target, comparator);
+            } catch (RuntimeException | Error e) {
+                synchronized (lock) {
+                    compacting = false;
+                }
+                throw e;
+            }
+            finish(first, group, merged);
+        };
+        if (compactor == null) {
+            merge.run();
+        } else {
+            try {
+                compactor.execute(() -> {
+                    try {
+                        merge.run();
+                    } catch (RuntimeException | Error e) {
+                        synchronized (lock) {
+                            compactionFailure = e;
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                merge.run();
+            }
+        }
+    }
+
+    /**
+     * Throws, and then forgets, the failure of a compaction that ran on the
+     * compactor. Must hold the lock.
+     *
+     * @throws java.lang.IllegalStateException if a compaction failed
+     */
+    private void checkCompaction() {
+        Throwable failure = compactionFailure;
+        if (failure != null) {
+            compactionFailure = null;
+            throw new java.lang.IllegalStateException("background compaction failed", failure);
+        }
+    }
+
+    /**
+     * Replaces the merged runs with their merge and looks for the next
+     * group to merge.
+     *
+     * @param first  the first run that was merged
+     * @param group  the data of the runs that were merged
+     * @param merged the merged data
+     */
+    private void finish(Run<T> first, T[][] group, T[] merged) {
+        synchronized (lock) {
+            int start = runs.indexOf(first);
+            runs.subList(start, start + group.length).clear();
+            runs.add(start, new Run<>(merged, first.level + 1));
+            compacting = false;
+            compact();
+        }
+    }
+
+    /**
+     * A sorted, immutable run and its compaction level.
+     *
+     * @param <T> the type of elements in the run
+     */
+    private static final class Run<T> {
+        private final T[] data;
+        private final int level;
+
+        /**
+         * Creates a run.
+         *
+         * @param data  the sorted elements
+         * @param level the number of compactions behind the run
+         */
+        Run(T[] data, int level) {
+            this.data = data;
+            this.level = level;
+        }
+    }
+}
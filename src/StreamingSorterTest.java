@@ -0,0 +1,210 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for StreamingSorter and the LoserTree behind it.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class StreamingSorterTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final Comparator<int[]> BY_KEY =
+        Comparator.comparingInt(pair -> pair[0]);
+    private Random rand = new Random(1717);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testRandomizedIsStable() {
+        for (int i = 0; i < 50; ++i) {
+            int batchSize = 1 + rand.nextInt(64);
+            int fanIn = 2 + rand.nextInt(6);
+            StreamingSorter<int[]> sorter = new StreamingSorter<>(BY_KEY,
+                batchSize, fanIn, null);
+            int[][] data = randomPairs(rand.nextInt(2000));
+            addInPieces(sorter, data);
+
+            assertEquals(data.length, sorter.size());
+            assertSortedLike(data, sorter.iterator());
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testRunsStayFew() {
+        StreamingSorter<Integer> sorter = new StreamingSorter<>(
+            Comparator.<Integer>naturalOrder(), 16, 4, null);
+        for (int i = 0; i < 100000; i++) {
+            sorter.add(rand.nextInt());
+            // 100000 / 16 batches are at most 7 levels of 4
+            assertTrue(sorter.runCount() <= 3 * 7);
+        }
+        Integer previous = Integer.MIN_VALUE;
+        long count = 0;
+        for (Integer value : sorter) {
+            assertTrue(previous <= value);
+            previous = value;
+            count++;
+        }
+        assertEquals(100000, count);
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testBackgroundCompaction() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StreamingSorter<int[]> sorter = new StreamingSorter<>(BY_KEY, 32, 3,
+            executor);
+        int[][] data = randomPairs(50000);
+        for (int i = 0; i < data.length; i++) {
+            sorter.add(data[i]);
+            if (i % 10000 == 0) {
+                assertSortedLike(Arrays.copyOf(data, i + 1),
+                    sorter.iterator());
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertSortedLike(data, sorter.iterator());
+        assertTrue(sorter.runCount() <= 2 * 9);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testBackgroundCompactionFailure() {
+        List<Runnable> queued = new ArrayList<>();
+        boolean[] failing = new boolean[1];
+        Comparator<Integer> comp = (a, b) -> {
+            if (failing[0]) {
+                throw new ArithmeticException("comparator failed");
+            }
+            return Integer.compare(a, b);
+        };
+        StreamingSorter<Integer> sorter = new StreamingSorter<>(comp, 2, 2,
+            queued::add);
+        sorter.addAll(new Integer[] {4, 3, 2, 1});
+        assertEquals(1, queued.size());
+
+        failing[0] = true;
+        queued.remove(0).run();
+        failing[0] = false;
+        try {
+            sorter.add(0);
+            fail("the failed compaction was not reported");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+        //reported once; the runs it was merging are still there
+        sorter.add(5);
+        assertEquals(2, sorter.runCount());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), drain(sorter.iterator()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testIteratorIsSnapshot() {
+        StreamingSorter<Integer> sorter = new StreamingSorter<>(
+            Comparator.<Integer>naturalOrder(), 4);
+        sorter.addAll(new Integer[] {5, 3, 9});
+        Iterator<Integer> first = sorter.iterator();
+        sorter.addAll(new Integer[] {1, 7, 2});
+
+        assertEquals(Arrays.asList(3, 5, 9), drain(first));
+        assertEquals(Arrays.asList(1, 2, 3, 5, 7, 9), drain(sorter.iterator()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testStream() {
+        StreamingSorter<String> sorter = new StreamingSorter<>(
+            Comparator.<String>naturalOrder().reversed(), 2);
+        sorter.addAll(new String[] {"b", "d", "a", "c", "e"});
+        Spliterator<String> spliterator = sorter.spliterator();
+
+        assertEquals(5, spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED));
+        assertSame(spliterator.getComparator(), spliterator.getComparator());
+        assertEquals(Arrays.asList("e", "d", "c", "b", "a"),
+            sorter.stream().collect(Collectors.toList()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testEmpty() {
+        StreamingSorter<Integer> sorter = new StreamingSorter<>(
+            Comparator.<Integer>naturalOrder(), 4);
+        assertFalse(sorter.iterator().hasNext());
+        assertEquals(0, sorter.stream().count());
+    }
+
+    @Test(timeout = TIMEOUT, expected = NoSuchElementException.class)
+    public void testNextPastEnd() {
+        StreamingSorter<Integer> sorter = new StreamingSorter<>(
+            Comparator.<Integer>naturalOrder(), 4);
+        sorter.add(1);
+        Iterator<Integer> it = sorter.iterator();
+        it.next();
+        it.next();
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testBadFanIn() {
+        new StreamingSorter<Integer>(Comparator.naturalOrder(), 4, 1, null);
+    }
+
+    @Test(timeout = TIMEOUT, expected = IllegalArgumentException.class)
+    public void testAddAllNull() {
+        new StreamingSorter<Integer>(Comparator.naturalOrder(), 4)
+            .addAll(null);
+    }
+
+    private int[][] randomPairs(int n) {
+        int[][] data = new int[n][];
+        int bound = 1 + rand.nextInt(n + 1);
+        for (int j = 0; j < n; j++) {
+            data[j] = new int[] {rand.nextInt(bound), j};
+        }
+        return data;
+    }
+
+    private void addInPieces(StreamingSorter<int[]> sorter, int[][] data) {
+        int from = 0;
+        while (from < data.length) {
+            if (rand.nextBoolean()) {
+                sorter.add(data[from++]);
+            } else {
+                int to = Math.min(data.length, from + rand.nextInt(100));
+                sorter.addAll(Arrays.copyOfRange(data, from, to));
+                from = to;
+            }
+        }
+    }
+
+    private static void assertSortedLike(int[][] data, Iterator<int[]> it) {
+        int[][] expected = data.clone();
+        Arrays.sort(expected, BY_KEY);
+        for (int[] pair : expected) {
+            assertSame(pair, it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    private static <T> List<T> drain(Iterator<T> it) {
+        List<T> list = new ArrayList<>();
+        it.forEachRemaining(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Three-way string quick sort (Bentley and Sedgewick) behind
+ * Sorting.stringSort and Sorting.stringSortBy.
+ *
+ * Every partition works on a single character position d, the depth below
+ * which all strings in the range are already known to share a prefix.
+ * The range is split into strings whose character at d is less than, equal
+ * to and greater than a pivot character; only the equal part moves on to
+ * d + 1. A shared prefix is therefore read once per string instead of once
+ * per comparison, which is what makes comparator sorts slow on URLs and
+ * file paths. Partitions of at most INSERTION_THRESHOLD strings are
+ * insertion sorted, comparing from d onwards. The equal part is handled by
+ * the loop rather than by recursion, so the stack does not grow with the
+ * length of a shared prefix.
+ *
+ * Strings are ordered by their UTF-16 chars, like String.compareTo, and
+ * byte arrays by their unsigned bytes, like Arrays.compareUnsigned. A
+ * string that ends at d counts as the character -1, so prefixes sort
+ * first. The sort is not stable.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class StringSort {
+
+    /**
+     * Partitions at most this long are insertion sorted.
+     */
+    static final int INSERTION_THRESHOLD = 12;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private StringSort() {
+    }
+
+    /**
+     * Sorts arr[lo..hi], both ends inclusive, whose strings share their
+     * first d characters. When payload is not null it receives every swap
+     * made in arr.
+     *
+     * @param arr     the strings to sort
+     * @param payload the array permuted along with arr, or null
+     * @param lo      the first index of the range
+     * @param hi      the last index of the range
+     * @param d       the length of the prefix shared by the range
+     * @param probe   the probe that counts swaps, or null
+     */
+    static void sort(String[] arr, Object[] payload, int lo, int hi, int d,
+                     SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            int mid = (lo + hi) >>> 1;
+            int a = charAt(arr[lo], d);
+            int b = charAt(arr[mid], d);
+            int c = charAt(arr[hi], d);
+            int median = a < b ? (b < c ? mid : (a < c ? hi : lo))
+                : (a < c ? lo : (b < c ? hi : mid));
+            swap(arr, payload, lo, median);
+            int v = charAt(arr[lo], d);
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = charAt(arr[i], d);
+                if (t < v) {
+                    swap(arr, payload, lt++, i++);
+                } else if (t > v) {
+                    swap(arr, payload, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // The median swap, then one per element moved to either end.
+            SortProbe.swaps(probe, 1 + (lt - lo) + (hi - gt));
+            sort(arr, payload, lo, lt - 1, d, probe);
+            sort(arr, payload, gt + 1, hi, d, probe);
+            if (v < 0) {
+                return;
+            }
+            lo = lt;
+            hi = gt;
+            d++;
+        }
+        insertionSort(arr, payload, lo, hi, d, probe);
+    }
+
+    /**
+     * Sorts arr[lo..hi], both ends inclusive, whose arrays share their
+     * first d bytes.
+     *
+     * @param arr   the byte arrays to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param d     the length of the prefix shared by the range
+     * @param probe the probe that counts swaps, or null
+     */
+    static void sort(byte[][] arr, int lo, int hi, int d, SortProbe probe) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            int mid = (lo + hi) >>> 1;
+            int a = byteAt(arr[lo], d);
+            int b = byteAt(arr[mid], d);
+            int c = byteAt(arr[hi], d);
+            int median = a < b ? (b < c ? mid : (a < c ? hi : lo))
+                : (a < c ? lo : (b < c ? hi : mid));
+            swap(arr, lo, median);
+            int v = byteAt(arr[lo], d);
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = byteAt(arr[i], d);
+                if (t < v) {
+                    swap(arr, lt++, i++);
+                } else if (t > v) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // The median swap, then one per element moved to either end.
+            SortProbe.swaps(probe, 1 + (lt - lo) + (hi - gt));
+            sort(arr, lo, lt - 1, d, probe);
+            sort(arr, gt + 1, hi, d, probe);
+            if (v < 0) {
+                return;
+            }
+            lo = lt;
+            hi = gt;
+            d++;
+        }
+        insertionSort(arr, lo, hi, d, probe);
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], comparing from character d onwards.
+     *
+     * @param arr     the strings to sort
+     * @param payload the array permuted along with arr, or null
+     * @param lo      the first index of the range
+     * @param hi      the last index of the range
+     * @param d       the length of the prefix shared by the range
+     * @param probe   the probe that counts swaps, or null
+     */
+    private static void insertionSort(String[] arr, Object[] payload, int lo,
+                                      int hi, int d, SortProbe probe) {
+        long swaps = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(arr[j], arr[j - 1], d); j--) {
+                swap(arr, payload, j, j - 1);
+                swaps++;
+            }
+        }
+        SortProbe.swaps(probe, swaps);
+    }
+
+    /**
+     * Insertion sorts arr[lo..hi], comparing from byte d onwards.
+     *
+     * @param arr   the byte arrays to sort
+     * @param lo    the first index of the range
+     * @param hi    the last index of the range
+     * @param d     the length of the prefix shared by the range
+     * @param probe the probe that counts swaps, or null
+     */
+    private static void insertionSort(byte[][] arr, int lo, int hi, int d,
+                                      SortProbe probe) {
+        long swaps = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(arr[j], arr[j - 1], d); j--) {
+                swap(arr, j, j - 1);
+                swaps++;
+            }
+        }
+        SortProbe.swaps(probe, swaps);
+    }
+
+    /**
+     * Compares two strings that share their first d characters.
+     *
+     * @param s the first string
+     * @param t the second string
+     * @param d the length of the shared prefix
+     * @return true if s sorts before t
+     */
+    private static boolean less(String s, String t, int d) {
+        int n = Math.min(s.length(), t.length());
+        for (int i = d; i < n; i++) {
+            char a = s.charAt(i);
+            char b = t.charAt(i);
+            if (a != b) {
+                return a < b;
+            }
+        }
+        return s.length() < t.length();
+    }
+
+    /**
+     * Compares two byte arrays that share their first d bytes.
+     *
+     * @param s the first array
+     * @param t the second array
+     * @param d the length of the shared prefix
+     * @return true if s sorts before t
+     */
+    private static boolean less(byte[] s, byte[] t, int d) {
+        int n = Math.min(s.length, t.length);
+        for (int i = d; i < n; i++) {
+            int a = s[i] & 0xFF;
+            int b = t[i] & 0xFF;
+            if (a != b) {
+                return a < b;
+            }
+        }
+        return s.length < t.length;
+    }
+
+    /**
+     * Returns the character at d, or -1 past the end of the string.
+     *
+     * @param s the string
+     * @param d the position
+     * @return the character as an int, or -1
+     */
+    private static int charAt(String s, int d) {
+        return d < s.length() ? s.charAt(d) : -1;
+    }
+
+    /**
+     * Returns the unsigned byte at d, or -1 past the end of the array.
+     *
+     * @param s the array
+     * @param d the position
+     * @return the byte as an unsigned int, or -1
+     */
+    private static int byteAt(byte[] s, int d) {
+        return d < s.length ? s[d] & 0xFF : -1;
+    }
+
+    /**
+     * Swaps two strings and the matching payload entries.
+     *
+     * @param arr     the strings
+     * @param payload the array permuted along with arr, or null
+     * @param i       the first index
+     * @param j       the second index
+     */
+    private static void swap(String[] arr, Object[] payload, int i, int j) {
+        String temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+        if (payload != null) {
+            Object other = payload[i];
+            payload[i] = payload[j];
+            payload[j] = other;
+        }
+    }
+
+    /**
+     * Swaps two byte arrays.
+     *
+     * @param arr the byte arrays
+     * @param i   the first index
+     * @param j   the second index
+     */
+    private static void swap(byte[][] arr, int i, int j) {
+        byte[] temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the string sorts in Sorting.
+ *
+ * Keys are built from a small alphabet and a handful of long shared
+ * prefixes, so partitions go deep and many keys are prefixes of others.
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public class StringSortingTest {
+
+    private static final int TIMEOUT = 200;
+    private static final int LONG_TIMEOUT = 20000;
+    private static final String[] PREFIXES = {"", "https://example.com/",
+        "https://example.com/api/v1/", "/usr/local/lib/"};
+    private Random rand = new Random(1332);
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testStringSortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            String[] temp = new String[rand.nextInt(1000)];
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = randomKey();
+            }
+            String[] other = temp.clone();
+            Arrays.sort(other);
+            Sorting.stringSort(temp);
+            assertArrayEquals(other, temp);
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testByteArraySortRandomized() {
+        for (int i = 0; i < 200; ++i) {
+            byte[][] temp = new byte[rand.nextInt(1000)][];
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = new byte[rand.nextInt(6)];
+                for (int k = 0; k < temp[j].length; ++k) {
+                    temp[j][k] = (byte) (rand.nextInt(4) * 85 - 128);
+                }
+            }
+            byte[][] other = temp.clone();
+            Arrays.sort(other, Arrays::compareUnsigned);
+            Sorting.stringSort(temp);
+            for (int j = 0; j < temp.length; ++j) {
+                assertArrayEquals(other[j], temp[j]);
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testStringSortByRandomized() {
+        for (int i = 0; i < 100; ++i) {
+            StringBuilder[] temp = new StringBuilder[rand.nextInt(1000)];
+            for (int j = 0; j < temp.length; ++j) {
+                temp[j] = new StringBuilder(randomKey());
+            }
+            StringBuilder[] other = temp.clone();
+            Arrays.sort(other, Comparator.comparing(StringBuilder::toString));
+            Sorting.stringSortBy(temp, StringBuilder::toString);
+            for (int j = 0; j < temp.length; ++j) {
+                assertEquals(other[j].toString(), temp[j].toString());
+            }
+        }
+    }
+
+    @Test(timeout = LONG_TIMEOUT)
+    public void testStringSortLongEqualKeys() {
+        //equal keys are followed character by character without recursing
+        char[] chars = new char[100000];
+        Arrays.fill(chars, 'a');
+        String key = new String(chars);
+        String[] temp = new String[20];
+        Arrays.fill(temp, key);
+        temp[7] = key + "b";
+        temp[3] = key.substring(1);
+        String[] other = temp.clone();
+        Arrays.sort(other);
+        Sorting.stringSort(temp);
+        assertArrayEquals(other, temp);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testStringSortOrdersByUtf16() {
+        String[] temp = {"\uD83D\uDE00", "\uFFFF", "b", "", "a", "ab",
+            "\u00E9"};
+        String[] other = temp.clone();
+        Arrays.sort(other);
+        Sorting.stringSort(temp);
+        assertArrayEquals(other, temp);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStringSortNullArray() {
+        Sorting.stringSort((String[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStringSortByNullKey() {
+        Sorting.stringSortBy(new String[] {"b", "a"}, null);
+    }
+
+    private String randomKey() {
+        StringBuilder key = new StringBuilder(
+            PREFIXES[rand.nextInt(PREFIXES.length)]);
+        int length = rand.nextInt(8);
+        for (int k = 0; k < length; ++k) {
+            key.append((char) ('a' + rand.nextInt(3)));
+        }
+        return key.toString();
+    }
+}
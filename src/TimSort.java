@@ -0,0 +1,523 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Adaptive, stable, run-detecting merge sort engine behind Sorting.timSort,
+ * written from the description of Tim Peters' listsort.
+ *
+ * The array is cut into natural runs from left to right. A non-descending
+ * run is kept as it is and a strictly descending one is reversed in place
+ * (strictness keeps the reversal stable). A run shorter than the minimum
+ * run length is extended with binary insertion sort.
+ *
+ * Which runs to merge is decided the way powersort does it. Each boundary
+ * between two neighbouring runs gets a power: the depth at which the
+ * boundary would sit in a perfectly balanced merge tree over the whole
+ * array. Runs wait on a stack whose boundary powers rise towards the top;
+ * a new boundary first merges away every pending boundary of higher power.
+ * This keeps the stack at most one entry per bit of the array length and
+ * the merge cost within a constant of the optimum for the run lengths.
+ *
+ * A merge first drops the elements of either run that are already in
+ * place, then copies the shorter run into a buffer and merges from that
+ * end. When one run keeps supplying the output the merge starts galloping:
+ * it finds how far that run leads with an exponential search and moves the
+ * whole stretch at once, so runs of very different lengths merge in far
+ * fewer than one comparison per element.
+ *
+ * @param <T> data type to sort
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class TimSort<T> {
+
+    /**
+     * Arrays shorter than this are binary insertion sorted after extending
+     * the first run; longer ones use runs of at least half this length.
+     */
+    private static final int MIN_MERGE = 32;
+
+    /**
+     * Number of consecutive wins by one run that switches a merge into
+     * galloping, and the lead a gallop must find to keep galloping.
+     */
+    static final int MIN_GALLOP = 7;
+
+    private final T[] arr;
+    private final Comparator<T> comparator;
+    private final SortProbe probe;
+
+    /**
+     * Current win streak that starts a gallop. It drops while galloping
+     * pays off and rises after each gallop that did not, so data without
+     * long leads soon stops paying for exponential searches.
+     */
+    private int gallopThreshold = MIN_GALLOP;
+
+    /**
+     * Holds the shorter run of a merge. It starts empty, with the runtime
+     * type of the array being sorted, and only grows.
+     */
+    private T[] buffer;
+
+    /**
+     * The pending runs, bottom first: runStart[i] is where run i begins
+     * and boundaryPower[i] the power of the boundary between run i and run
+     * i + 1. The end of the top run is the start of the unscanned input.
+     */
+    private final int[] runStart = new int[Integer.SIZE + 1];
+    private final int[] boundaryPower = new int[Integer.SIZE + 1];
+    private int pending;
+
+    /**
+     * Creates the state needed to sort one array.
+     *
+     * @param arr        the array being sorted
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    private TimSort(T[] arr, Comparator<T> comparator, SortProbe probe) {
+        this.arr = arr;
+        this.comparator = comparator;
+        this.probe = probe;
+        this.buffer = Arrays.copyOf(arr, 0);
+    }
+
+    /**
+     * Sorts the whole array.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array to be sorted
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    static <T> void sort(T[] arr, Comparator<T> comparator, SortProbe probe) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        if (n < MIN_MERGE) {
+            binarySort(arr, 0, n, nextRun(arr, 0, n, comparator, probe),
+                comparator, probe);
+            return;
+        }
+        new TimSort<>(arr, comparator, probe).run();
+    }
+
+    /**
+     * Cuts the array into runs, merging as the powers demand, and merges
+     * whatever is still pending at the end.
+     */
+    private void run() {
+        int n = arr.length;
+        int minRun = minRunLength(n);
+        int start = 0;
+        while (start < n) {
+            int end = nextRun(arr, start, n, comparator, probe);
+            if (end - start < minRun) {
+                int extended = Math.min(n, start + minRun);
+                binarySort(arr, start, extended, end, comparator, probe);
+                end = extended;
+            }
+            if (pending > 0) {
+                int previous = runStart[pending - 1];
+                int power = power(previous, start, end, n);
+                while (pending > 1 && boundaryPower[pending - 2] > power) {
+                    mergeTopTwo(start);
+                }
+                boundaryPower[pending - 1] = power;
+            }
+            runStart[pending++] = start;
+            start = end;
+        }
+        while (pending > 1) {
+            mergeTopTwo(n);
+        }
+    }
+
+    /**
+     * Merges the two runs on top of the stack into one.
+     *
+     * @param end the end of the top run, exclusive
+     */
+    private void mergeTopTwo(int end) {
+        int lo = runStart[pending - 2];
+        int mid = runStart[pending - 1];
+        pending--;
+        merge(lo, mid, end);
+    }
+
+    /**
+     * Returns the power of the boundary between the neighbouring runs
+     * [lo, mid) and [mid, hi) of an array of length n: one more than the
+     * number of leading bits the binary fractions of the two run midpoints,
+     * taken relative to n, have in common.
+     *
+     * @param lo  the start of the left run
+     * @param mid the start of the right run
+     * @param hi  the end of the right run, exclusive
+     * @param n   the array length
+     * @return the power, at least 1
+     */
+    static int power(int lo, int mid, int hi, int n) {
+        // Twice the midpoints, so both stay whole numbers.
+        long left = (long) lo + mid;
+        long right = (long) mid + hi;
+        int power = 1;
+        while (true) {
+            boolean leftBit = left >= n;
+            boolean rightBit = right >= n;
+            if (leftBit != rightBit) {
+                return power;
+            }
+            if (leftBit) {
+                left -= n;
+                right -= n;
+            }
+            left <<= 1;
+            right <<= 1;
+            power++;
+        }
+    }
+
+    /**
+     * Binary insertion sorts arr[lo, hi), given that arr[lo, sorted) is
+     * already in order.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the range
+     * @param lo         the first index of the range, inclusive
+     * @param hi         the last index of the range, exclusive
+     * @param sorted     the end of the sorted prefix
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts writes, or null
+     */
+    static <T> void binarySort(T[] arr, int lo, int hi, int sorted,
+                               Comparator<T> comparator, SortProbe probe) {
+        long writes = 0;
+        for (int i = Math.max(sorted, lo + 1); i < hi; i++) {
+            T element = arr[i];
+            int at = MergeSort.upperBound(arr, lo, i, element, comparator);
+            System.arraycopy(arr, at, arr, at + 1, i - at);
+            arr[at] = element;
+            writes += i - at + 1;
+        }
+        SortProbe.writes(probe, writes);
+    }
+
+    /**
+     * Finds the natural run that starts at lo and returns where it ends.
+     * A strictly descending run is reversed, so the range is ascending
+     * afterwards either way.
+     *
+     * @param <T>        data type to sort
+     * @param arr        the array holding the run
+     * @param lo         the first index of the run
+     * @param hi         the end of the searchable range, exclusive
+     * @param comparator the Comparator used to compare the data
+     * @param probe      the probe that counts swaps, or null
+     * @return the end of the run, exclusive
+     */
+    static <T> int nextRun(T[] arr, int lo, int hi,
+                           Comparator<T> comparator, SortProbe probe) {
+        int end = lo + 1;
+        if (end == hi) {
+            return end;
+        }
+        boolean descending = comparator.compare(arr[end], arr[lo]) < 0;
+        end++;
+        while (end < hi && comparator.compare(arr[end], arr[end - 1]) < 0
+            == descending) {
+            end++;
+        }
+        if (descending) {
+            for (int i = lo, j = end - 1; i < j; i++, j--) {
+                T temp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = temp;
+            }
+            SortProbe.swaps(probe, (end - lo) / 2);
+        }
+        return end;
+    }
+
+    /**
+     * Computes the minimum run length for an array of length n: the top
+     * five bits of n, plus one if any lower bit is set. n / minRun is then
+     * a power of two or a little less, so the final merges stay balanced.
+     *
+     * @param n the array length, at least MIN_MERGE
+     * @return the minimum run length, in [MIN_MERGE / 2, MIN_MERGE]
+     */
+    static int minRunLength(int n) {
+        int shift = Integer.SIZE - Integer.numberOfLeadingZeros(n) - 5;
+        int dropped = n & ((1 << shift) - 1);
+        return (n >>> shift) + (dropped == 0 ? 0 : 1);
+    }
+
+    /**
+     * Stably merges the adjacent sorted runs arr[lo, mid) and arr[mid, hi).
+     *
+     * @param lo  the start of the left run
+     * @param mid the start of the right run
+     * @param hi  the end of the right run, exclusive
+     */
+    private void merge(int lo, int mid, int hi) {
+        // Left elements not greater than the right run's first stay put,
+        // as do right elements not less than the left run's last.
+        lo += gallopRight(arr[mid], arr, lo, mid - lo, 0, comparator);
+        if (lo == mid) {
+            return;
+        }
+        hi = mid + gallopLeft(arr[mid - 1], arr, mid, hi - mid, hi - mid - 1,
+            comparator);
+        if (hi == mid) {
+            return;
+        }
+        // The shorter run goes to the buffer and each element is written
+        // back at most once; the count is that bound.
+        SortProbe.writes(probe, (hi - lo) + Math.min(mid - lo, hi - mid));
+        if (mid - lo <= hi - mid) {
+            mergeForward(lo, mid, hi);
+        } else {
+            mergeBackward(lo, mid, hi);
+        }
+    }
+
+    /**
+     * Merges front to back with the left run in the buffer. The output
+     * never overtakes the unread part of the right run.
+     *
+     * @param lo  the start of the left run
+     * @param mid the start of the right run
+     * @param hi  the end of the right run, exclusive
+     */
+    private void mergeForward(int lo, int mid, int hi) {
+        T[] left = fill(lo, mid);
+        int i = 0;
+        int leftEnd = mid - lo;
+        int j = mid;
+        int out = lo;
+        int leftWins = 0;
+        int rightWins = 0;
+        while (i < leftEnd && j < hi) {
+            if (leftWins < gallopThreshold && rightWins < gallopThreshold) {
+                if (comparator.compare(arr[j], left[i]) < 0) {
+                    arr[out++] = arr[j++];
+                    rightWins++;
+                    leftWins = 0;
+                } else {
+                    arr[out++] = left[i++];
+                    leftWins++;
+                    rightWins = 0;
+                }
+                continue;
+            }
+            // Gallop both runs in turn while either still leads by at
+            // least MIN_GALLOP.
+            int fromLeft = gallopRight(arr[j], left, i, leftEnd - i, 0,
+                comparator);
+            System.arraycopy(left, i, arr, out, fromLeft);
+            i += fromLeft;
+            out += fromLeft;
+            int fromRight = 0;
+            if (i < leftEnd) {
+                fromRight = gallopLeft(left[i], arr, j, hi - j, 0,
+                    comparator);
+                System.arraycopy(arr, j, arr, out, fromRight);
+                j += fromRight;
+                out += fromRight;
+            }
+            if (fromLeft >= MIN_GALLOP || fromRight >= MIN_GALLOP) {
+                gallopThreshold = Math.max(1, gallopThreshold - 1);
+            } else {
+                gallopThreshold++;
+                leftWins = 0;
+                rightWins = 0;
+            }
+        }
+        // What is left of the right run is already where it belongs.
+        System.arraycopy(left, i, arr, out, leftEnd - i);
+    }
+
+    /**
+     * Merges back to front with the right run in the buffer. The output
+     * never overtakes the unread part of the left run.
+     *
+     * @param lo  the start of the left run
+     * @param mid the start of the right run
+     * @param hi  the end of the right run, exclusive
+     */
+    private void mergeBackward(int lo, int mid, int hi) {
+        T[] right = fill(mid, hi);
+        int i = mid;
+        int j = hi - mid;
+        int out = hi;
+        int leftWins = 0;
+        int rightWins = 0;
+        while (i > lo && j > 0) {
+            if (leftWins < gallopThreshold && rightWins < gallopThreshold) {
+                if (comparator.compare(right[j - 1], arr[i - 1]) < 0) {
+                    arr[--out] = arr[--i];
+                    leftWins++;
+                    rightWins = 0;
+                } else {
+                    arr[--out] = right[--j];
+                    rightWins++;
+                    leftWins = 0;
+                }
+                continue;
+            }
+            int fromRight = j - gallopLeft(arr[i - 1], right, 0, j, j - 1,
+                comparator);
+            out -= fromRight;
+            j -= fromRight;
+            System.arraycopy(right, j, arr, out, fromRight);
+            int fromLeft = 0;
+            if (j > 0) {
+                fromLeft = i - lo - gallopRight(right[j - 1], arr, lo, i - lo,
+                    i - lo - 1, comparator);
+                out -= fromLeft;
+                i -= fromLeft;
+                System.arraycopy(arr, i, arr, out, fromLeft);
+            }
+            if (fromLeft >= MIN_GALLOP || fromRight >= MIN_GALLOP) {
+                gallopThreshold = Math.max(1, gallopThreshold - 1);
+            } else {
+                gallopThreshold++;
+                leftWins = 0;
+                rightWins = 0;
+            }
+        }
+        // What is left of the left run is already where it belongs.
+        System.arraycopy(right, 0, arr, lo, j);
+    }
+
+    /**
+     * Copies arr[from, to) to the front of the buffer, first growing the
+     * buffer if it is too short. A new buffer is at least twice as long as
+     * the old one, capped at half the array, which is as long as the
+     * shorter run of a merge can get.
+     *
+     * @param from the first index to copy
+     * @param to   the end of the range to copy, exclusive
+     * @return the buffer
+     */
+    private T[] fill(int from, int to) {
+        int length = to - from;
+        if (buffer.length < length) {
+            int capacity = Math.max(length, Math.min(2 * buffer.length,
+                arr.length >>> 1));
+            buffer = Arrays.copyOf(buffer, capacity);
+        }
+        System.arraycopy(arr, from, buffer, 0, length);
+        return buffer;
+    }
+
+    /**
+     * Returns the number of elements of the sorted range
+     * arr[base, base + length) that are less than key, which is where key
+     * goes before any equal elements. The search probes outwards from
+     * base + hint at distances 1, 3, 7, 15, ... and then binary searches
+     * the last gap, so a key close to the hint costs few comparisons.
+     *
+     * @param <T>        data type to search
+     * @param key        the key to place
+     * @param arr        the array holding the range
+     * @param base       the first index of the range
+     * @param length     the length of the range, positive
+     * @param hint       the offset at which to begin, in [0, length)
+     * @param comparator the Comparator used to compare the data
+     * @return the number of elements in the range less than key
+     */
+    static <T> int gallopLeft(T key, T[] arr, int base, int length, int hint,
+                              Comparator<T> comparator) {
+        // The answer lies in (below, above]: arr[base + below] < key when
+        // below >= 0, and key <= arr[base + above] when above < length.
+        int below;
+        int above;
+        if (comparator.compare(arr[base + hint], key) < 0) {
+            below = hint;
+            above = length;
+            for (int step = 1; hint + step < length; step = 2 * step + 1) {
+                if (comparator.compare(arr[base + hint + step], key) < 0) {
+                    below = hint + step;
+                } else {
+                    above = hint + step;
+                    break;
+                }
+            }
+        } else {
+            below = -1;
+            above = hint;
+            for (int step = 1; hint - step >= 0; step = 2 * step + 1) {
+                if (comparator.compare(arr[base + hint - step], key) < 0) {
+                    below = hint - step;
+                    break;
+                }
+                above = hint - step;
+            }
+        }
+        while (above - below > 1) {
+            int probe = (below + above) >>> 1;
+            if (comparator.compare(arr[base + probe], key) < 0) {
+                below = probe;
+            } else {
+                above = probe;
+            }
+        }
+        return above;
+    }
+
+    /**
+     * Like gallopLeft, but returns the number of elements not greater than
+     * key, which is where key goes after any equal elements.
+     *
+     * @param <T>        data type to search
+     * @param key        the key to place
+     * @param arr        the array holding the range
+     * @param base       the first index of the range
+     * @param length     the length of the range, positive
+     * @param hint       the offset at which to begin, in [0, length)
+     * @param comparator the Comparator used to compare the data
+     * @return the number of elements in the range not greater than key
+     */
+    static <T> int gallopRight(T key, T[] arr, int base, int length, int hint,
+                               Comparator<T> comparator) {
+        // The answer lies in (below, above]: arr[base + below] <= key when
+        // below >= 0, and key < arr[base + above] when above < length.
+        int below;
+        int above;
+        if (comparator.compare(key, arr[base + hint]) >= 0) {
+            below = hint;
+            above = length;
+            for (int step = 1; hint + step < length; step = 2 * step + 1) {
+                if (comparator.compare(key, arr[base + hint + step]) >= 0) {
+                    below = hint + step;
+                } else {
+                    above = hint + step;
+                    break;
+                }
+            }
+        } else {
+            below = -1;
+            above = hint;
+            for (int step = 1; hint - step >= 0; step = 2 * step + 1) {
+                if (comparator.compare(key, arr[base + hint - step]) >= 0) {
+                    below = hint - step;
+                    break;
+                }
+                above = hint - step;
+            }
+        }
+        while (above - below > 1) {
+            int probe = (below + above) >>> 1;
+            if (comparator.compare(key, arr[base + probe]) >= 0) {
+                below = probe;
+            } else {
+                above = probe;
+            }
+        }
+        return above;
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the k smallest elements of a stream, by a Comparator, in a bounded
+ * heap.
+ *
+ * The first k elements offered are kept as they come and turned into a
+ * heap with the largest kept element at its root once there are k of them.
+ * After that every element is compared with the root and dropped unless it
+ * is smaller, in which case it replaces the root and is sifted down. An
+ * element costs one comparison when dropped and O(log k) when kept, the
+ * heap never holds more than k elements, and the input does not have to
+ * fit in memory. The heap array starts small and doubles up to k, so a
+ * large k only costs memory for the elements actually offered. To keep the
+ * k largest pass comparator.reversed().
+ *
+ * Ties at the boundary are resolved arbitrarily. Not thread-safe.
+ *
+ * @param <T> the type of elements kept
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+public final class TopK<T> {
+
+    /**
+     * Length of the heap array once the first element arrives.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private T[] heap;
+    private final Comparator<T> comparator;
+    private int size;
+
+    /**
+     * Creates an empty top-k.
+     *
+     * @param k          the number of elements to keep
+     * @param comparator the Comparator that orders the elements
+     * @throws java.lang.IllegalArgumentException if k is negative or the
+     *                                            comparator is null
+     */
+    public TopK(int k, Comparator<T> comparator) {
+        if (k < 0) {
+            throw new java.lang.IllegalArgumentException("k is negative");
+        } else if (comparator == null) {
+            throw new java.lang.IllegalArgumentException("comparator is null");
+        } else {
+            this.k = k;
+            this.heap = emptyHeap();
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * Offers an element.
+     *
+     * @param value the element
+     * @return true if the element is among the k smallest so far
+     */
+    public boolean offer(T value) {
+        if (size < k) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(k,
+                    Math.max(INITIAL_CAPACITY, 2L * size)));
+            }
+            heap[size++] = value;
+            if (size == k) {
+                HeapSort.heapify(heap, 0, size, comparator);
+            }
+            return true;
+        } else if (size == 0 || comparator.compare(value, heap[0]) >= 0) {
+            return false;
+        } else {
+            HeapSort.siftDown(heap, 0, 0, size, value, comparator);
+            return true;
+        }
+    }
+
+    /**
+     * Offers every element of data.
+     *
+     * @param data the elements
+     */
+    public void offerAll(Iterable<? extends T> data) {
+        for (T value : data) {
+            offer(value);
+        }
+    }
+
+    /**
+     * Offers every element kept by another top-k, in heap order, without
+     * sorting or copying them first. The other top-k is left unchanged.
+     *
+     * @param other the top-k whose elements to offer
+     */
+    void merge(TopK<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.heap[i]);
+        }
+    }
+
+    /**
+     * Returns the number of elements kept, which is k once k elements have
+     * been offered.
+     *
+     * @return the number of elements kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the elements kept, smallest first.
+     *
+     * @return a new list of at most k elements
+     */
+    public List<T> toSortedList() {
+        T[] sorted = Arrays.copyOf(heap, size);
+        IntroSort.sort(sorted, comparator, null);
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * Drops every element kept.
+     */
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns an empty heap array. The array only ever holds T values and
+     * never leaves this class, and Arrays.copyOf keeps its Object[] type as
+     * it grows, so the cast cannot fail.
+     *
+     * @param <T> the type of elements kept
+     * @return an empty array
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] emptyHeap() {
+        return (T[]) new Object[0];
+    }
+}
@@ -0,0 +1,125 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * PartitionKernel that classifies a whole vector of elements per
+ * comparison with the jdk.incubator.vector API.
+ *
+ * Each step loads as many elements as the CPU's widest vector holds,
+ * compares them all against the pivot at once and turns the result into a
+ * bit mask. The offsets are then written from the mask the same way the
+ * scalar kernel writes them from single comparisons, unconditionally and
+ * advancing the count by the mask bit, so the loop still has no branch on
+ * the data. The elements past the last full vector of a block are compared
+ * one at a time.
+ *
+ * This file needs the incubator module to compile and run, so it lives
+ * outside src/. Build it with "mvn package -Pvector" in benchmarks/ and
+ * run the JVM with --add-modules jdk.incubator.vector; BlockQuicksort then
+ * picks it up through PartitionKernel.load().
+ *
+ * @author Yueqiao Chen
+ * @version 1.0
+ */
+final class VectorPartitionKernel extends PartitionKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Creates the kernel. Called by PartitionKernel.load().
+     */
+    VectorPartitionKernel() {
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    int collectLeft(int[] arr, int from, int count, int pivot, int[] offsets) {
+        int lanes = INTS.length();
+        int num = 0;
+        int i = 0;
+        for (; i + lanes <= count; i += lanes) {
+            long bits = IntVector.fromArray(INTS, arr, from + i)
+                .compare(VectorOperators.GE, pivot).toLong();
+            for (int k = 0; k < lanes; k++) {
+                offsets[num] = i + k;
+                num += (int) (bits >>> k) & 1;
+            }
+        }
+        for (; i < count; i++) {
+            offsets[num] = i;
+            num += arr[from + i] >= pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    @Override
+    int collectRight(int[] arr, int to, int count, int pivot, int[] offsets) {
+        int lanes = INTS.length();
+        int num = 0;
+        int i = 0;
+        for (; i + lanes <= count; i += lanes) {
+            long bits = IntVector.fromArray(INTS, arr, to - i - lanes)
+                .compare(VectorOperators.LT, pivot).toLong();
+            // Lane k holds arr[to - (i + lanes - k)], so the offsets ascend
+            // as k descends.
+            for (int k = lanes - 1; k >= 0; k--) {
+                offsets[num] = i + lanes - k;
+                num += (int) (bits >>> k) & 1;
+            }
+        }
+        for (i++; i <= count; i++) {
+            offsets[num] = i;
+            num += arr[to - i] < pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    @Override
+    int collectLeft(long[] arr, int from, int count, long pivot,
+                    int[] offsets) {
+        int lanes = LONGS.length();
+        int num = 0;
+        int i = 0;
+        for (; i + lanes <= count; i += lanes) {
+            long bits = LongVector.fromArray(LONGS, arr, from + i)
+                .compare(VectorOperators.GE, pivot).toLong();
+            for (int k = 0; k < lanes; k++) {
+                offsets[num] = i + k;
+                num += (int) (bits >>> k) & 1;
+            }
+        }
+        for (; i < count; i++) {
+            offsets[num] = i;
+            num += arr[from + i] >= pivot ? 1 : 0;
+        }
+        return num;
+    }
+
+    @Override
+    int collectRight(long[] arr, int to, int count, long pivot,
+                     int[] offsets) {
+        int lanes = LONGS.length();
+        int num = 0;
+        int i = 0;
+        for (; i + lanes <= count; i += lanes) {
+            long bits = LongVector.fromArray(LONGS, arr, to - i - lanes)
+                .compare(VectorOperators.LT, pivot).toLong();
+            for (int k = lanes - 1; k >= 0; k--) {
+                offsets[num] = i + lanes - k;
+                num += (int) (bits >>> k) & 1;
+            }
+        }
+        for (i++; i <= count; i++) {
+            offsets[num] = i;
+            num += arr[to - i] < pivot ? 1 : 0;
+        }
+        return num;
+    }
+}